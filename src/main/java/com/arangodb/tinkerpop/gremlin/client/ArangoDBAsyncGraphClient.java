@@ -0,0 +1,431 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.ArangoCursorAsync;
+import com.arangodb.ArangoDBException;
+import com.arangodb.ArangoDatabaseAsync;
+import com.arangodb.ArangoGraphAsync;
+import com.arangodb.model.AqlQueryOptions;
+import com.arangodb.model.EdgeCreateOptions;
+import com.arangodb.model.DocumentUpdateOptions;
+import com.arangodb.model.EdgeDeleteOptions;
+import com.arangodb.model.VertexCreateOptions;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBGraphClient.ArangoDBExceptions;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter.PropertyLayout;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBEdgeData;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertexData;
+
+/**
+ * The asynchronous facade of an {@link ArangoDBGraphClient}. Its operations are executed with the
+ * driver's asynchronous API and return a {@link CompletableFuture} instead of blocking the calling
+ * thread, so a few threads can keep many requests in flight. It shares the driver, the queries,
+ * the element cache and the transaction of its client:
+ * <ul>
+ *   <li> query results are collected batch by batch, without blocking between batches
+ *   <li> writes invalidate the cached elements, like the blocking writes
+ *   <li> the operations carry the stream transaction of the calling thread, if it is open
+ * </ul>
+ * The futures complete exceptionally with an {@link ArangoDBGraphException} if the server rejects
+ * an operation. The calling thread is never blocked, so stream transactions are not opened by
+ * the asynchronous operations: if transactions are enabled, writes fail unless the calling thread
+ * opened its transaction (e.g. with {@code graph.tx().open()}). Asynchronous writes are not
+ * buffered: if write-behind is enabled, the buffered writes are flushed in the background before
+ * each operation is sent, so that the operation sees them.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public class ArangoDBAsyncGraphClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArangoDBAsyncGraphClient.class);
+
+    private final ArangoDBGraphClient client;
+
+    private final ArangoDBGraph graph;
+
+    private final ArangoDatabaseAsync db;
+
+    /**
+     * Create a new asynchronous client. Use {@link ArangoDBGraphClient#async()} to get the
+     * asynchronous facade of a client.
+     *
+     * @param client                the blocking client
+     * @param graph                 the graph that uses the client
+     * @param db                    the asynchronous database of the client's driver
+     */
+
+    ArangoDBAsyncGraphClient(ArangoDBGraphClient client, ArangoDBGraph graph, ArangoDatabaseAsync db) {
+        this.client = client;
+        this.graph = graph;
+        this.db = db;
+    }
+
+    /**
+     * Execute an AQL query and collect all its results.
+     *
+     * @param <T>                   the generic type of the returned values
+     * @param query                 the query string
+     * @param bindVars              the value of the bind parameters
+     * @param aqlQueryOptions       the aql query options
+     * @param type                  the type of the result
+     * @return the future query results
+     */
+
+    public <T> CompletableFuture<List<T>> executeAqlQuery(
+            String query,
+            Map<String, Object> bindVars,
+            AqlQueryOptions aqlQueryOptions,
+            Class<T> type) {
+        logger.debug("Executing async AQL query ({}) against db, with bind vars: {}", query, bindVars);
+        AqlQueryOptions options = aqlQueryOptions == null ? client.queryOptions(null) : aqlQueryOptions;
+        return translate(prepare(false)
+                .thenCompose(transactionId -> db.query(query, type, bindVars, options.streamTransactionId(transactionId)))
+                .thenCompose(cursor -> remaining(cursor, new ArrayList<>())), Function.identity());
+    }
+
+    /**
+     * Get vertices of a graph, see
+     * {@link ArangoDBGraphClient#getGraphVertices(List, List, ArangoDBPropertyFilter, ArangoDBPropertySort, long, long)}.
+     *
+     * @param ids                   the ids to match
+     * @param collections           the collections (labels) to search within
+     * @param propertyFilter        filter the vertices on the given property:value values
+     * @param propertySort          sort the vertices by the given properties
+     * @param offset                the number of matching vertices to skip
+     * @param count                 the maximum number of vertices to return, negative for no limit
+     * @return the future vertices
+     */
+
+    public CompletableFuture<List<ArangoDBVertexData>> getGraphVertices(
+            List<String> ids,
+            List<String> collections,
+            ArangoDBPropertyFilter propertyFilter,
+            ArangoDBPropertySort propertySort,
+            long offset,
+            long count) {
+        Map<String, Object> bindVars = new HashMap<>();
+        String query = client.graphElementsQuery(ids, collections, graph.vertexCollections(),
+                propertyFilter, propertySort, client.vertexLayout(), offset, count, true, "v", bindVars);
+        return executeAqlQuery(query, bindVars, client.queryOptions(null), ArangoDBVertexData.class);
+    }
+
+    /**
+     * Get vertices of a graph. If no ids are provided, get all vertices.
+     *
+     * @param ids                   the ids to match
+     * @param collections           the collections (labels) to search within
+     * @return the future vertices
+     */
+
+    public CompletableFuture<List<ArangoDBVertexData>> getGraphVertices(List<String> ids, List<String> collections) {
+        return getGraphVertices(ids, collections, ArangoDBPropertyFilter.empty(), ArangoDBPropertySort.empty(), 0, -1);
+    }
+
+    /**
+     * Get edges of a graph, see
+     * {@link ArangoDBGraphClient#getGraphEdges(List, List, ArangoDBPropertyFilter, ArangoDBPropertySort, long, long)}.
+     *
+     * @param ids                   the ids to match
+     * @param collections           the collections (labels) to search within
+     * @param propertyFilter        filter the edges on the given property:value values
+     * @param propertySort          sort the edges by the given properties
+     * @param offset                the number of matching edges to skip
+     * @param count                 the maximum number of edges to return, negative for no limit
+     * @return the future edges
+     */
+
+    public CompletableFuture<List<ArangoDBEdgeData>> getGraphEdges(
+            List<String> ids,
+            List<String> collections,
+            ArangoDBPropertyFilter propertyFilter,
+            ArangoDBPropertySort propertySort,
+            long offset,
+            long count) {
+        Map<String, Object> bindVars = new HashMap<>();
+        String query = client.graphElementsQuery(ids, collections, graph.edgeCollections(),
+                propertyFilter, propertySort, client.edgeLayout(), offset, count, true, "e", bindVars);
+        return executeAqlQuery(query, bindVars, client.queryOptions(null), ArangoDBEdgeData.class);
+    }
+
+    /**
+     * Get edges of a graph. If no ids are provided, get all edges.
+     *
+     * @param ids                   the ids to match
+     * @return the future edges
+     */
+
+    public CompletableFuture<List<ArangoDBEdgeData>> getGraphEdges(List<String> ids) {
+        return getGraphEdges(ids, Collections.emptyList(), ArangoDBPropertyFilter.empty(), ArangoDBPropertySort.empty(), 0, -1);
+    }
+
+    /**
+     * Get at most limit neighbours of a document.
+     *
+     * @param <T>                   the document type
+     * @param vertexId              the document
+     * @param edgeLabelsFilter      a list of edge types to follow
+     * @param direction             a direction
+     * @param propertyFilter        filter the neighbours on the given property:value values
+     * @param limit                 the maximum number of neighbours to return, negative for no limit
+     * @param resultType            the result type
+     * @return the future neighbours
+     */
+
+    public <T> CompletableFuture<List<T>> getDocumentNeighbors(
+            String vertexId,
+            List<String> edgeLabelsFilter,
+            Direction direction,
+            ArangoDBPropertyFilter propertyFilter,
+            long limit,
+            Class<T> resultType) {
+        Map<String, Object> bindVars = new HashMap<>();
+        String query = client.documentNeighborsQuery(vertexId, edgeLabelsFilter, direction, propertyFilter, limit, true, bindVars);
+        return executeAqlQuery(query, bindVars, client.queryOptions(null), resultType);
+    }
+
+    /**
+     * Insert a vertex. The future completes with the vertex, after the key and revision assigned
+     * by the server are set.
+     *
+     * @param vertex                the vertex
+     * @return the future inserted vertex
+     */
+
+    public CompletableFuture<ArangoDBVertexData> insertVertex(ArangoDBVertexData vertex) {
+        logger.debug("Insert vertex {} in {}", vertex, graph.name());
+        return translate(prepare(true)
+                        .thenCompose(transactionId -> graph()
+                                .vertexCollection(graph.getPrefixedCollectioName(vertex.getLabel()))
+                                .insertVertex(client.document(vertex), new VertexCreateOptions().streamTransactionId(transactionId)))
+                        .thenApply(entity -> {
+                            vertex.setKey(entity.getKey());
+                            vertex.setRev(entity.getRev());
+                            return vertex;
+                        }),
+                ex -> ex.getErrorCode() == 1210 ? Graph.Exceptions.vertexWithIdAlreadyExists(vertex.getKey()) : ex);
+    }
+
+    /**
+     * Insert an edge. The future completes with the edge, after the key and revision assigned by
+     * the server are set.
+     *
+     * @param edge                  the edge
+     * @return the future inserted edge
+     */
+
+    public CompletableFuture<ArangoDBEdgeData> insertEdge(ArangoDBEdgeData edge) {
+        logger.debug("Insert edge {} in {} ", edge, graph.name());
+        String collection = graph.getPrefixedCollectioName(edge.getLabel());
+        return translate(prepare(true)
+                        .thenCompose(transactionId -> graph()
+                                .edgeCollection(collection)
+                                .insertEdge(client.document(edge), new EdgeCreateOptions().streamTransactionId(transactionId)))
+                        .thenApply(entity -> {
+                            edge.setKey(entity.getKey());
+                            edge.setRev(entity.getRev());
+                            return edge;
+                        }),
+                ex -> ex.getErrorCode() == 1210 ? Graph.Exceptions.edgeWithIdAlreadyExists(collection + "/" + edge.getKey()) : ex);
+    }
+
+    /**
+     * Persist the changes of the given vertex properties with a partial update, see
+     * {@link ArangoDBGraphClient#updateVertex(ArangoDBVertexData, Collection)}.
+     *
+     * @param vertex                the vertex
+     * @param keys                  the keys of the changed properties
+     * @return the future updated vertex
+     */
+
+    public CompletableFuture<ArangoDBVertexData> updateVertex(ArangoDBVertexData vertex, Collection<String> keys) {
+        logger.debug("Update document {} properties {} in {}", vertex, keys, graph.name());
+        client.invalidateElement(vertex.getLabel(), vertex.getKey());
+        return translate(prepare(true)
+                        .thenCompose(transactionId -> db
+                                .collection(graph.getPrefixedCollectioName(vertex.getLabel()))
+                                .updateDocument(vertex.getKey(), vertex.propertiesPatch(keys, graph.flattensProperties()),
+                                        propertiesUpdateOptions(transactionId)))
+                        .thenApply(entity -> {
+                            vertex.setRev(entity.getRev());
+                            return vertex;
+                        })
+                        // Reads that started before the write must not cache what they read
+                        .whenComplete((result, ex) -> client.invalidateElement(vertex.getLabel(), vertex.getKey())),
+                Function.identity());
+    }
+
+    /**
+     * Persist the changes of the given edge properties with a partial update, see
+     * {@link ArangoDBGraphClient#updateEdge(ArangoDBEdgeData, Collection)}.
+     *
+     * @param edge                  the edge
+     * @param keys                  the keys of the changed properties
+     * @return the future updated edge
+     */
+
+    public CompletableFuture<ArangoDBEdgeData> updateEdge(ArangoDBEdgeData edge, Collection<String> keys) {
+        logger.debug("Update edge {} properties {} in {}", edge, keys, graph.name());
+        client.invalidateElement(edge.getLabel(), edge.getKey());
+        return translate(prepare(true)
+                        .thenCompose(transactionId -> db
+                                .collection(graph.getPrefixedCollectioName(edge.getLabel()))
+                                .updateDocument(edge.getKey(), edge.propertiesPatch(keys, graph.flattensProperties()),
+                                        propertiesUpdateOptions(transactionId)))
+                        .thenApply(entity -> {
+                            edge.setRev(entity.getRev());
+                            return edge;
+                        })
+                        // Reads that started before the write must not cache what they read
+                        .whenComplete((result, ex) -> client.invalidateElement(edge.getLabel(), edge.getKey())),
+                Function.identity());
+    }
+
+    /**
+     * Delete an edge. Deleting an edge that does not exist is a no-op.
+     *
+     * @param edge                  the edge
+     * @return the future completion
+     */
+
+    public CompletableFuture<Void> deleteEdge(ArangoDBEdgeData edge) {
+        logger.debug("Delete edge {} in {}", edge, graph.name());
+        client.invalidateElement(edge.getLabel(), edge.getKey());
+        CompletableFuture<Void> deleted = prepare(true)
+                .thenCompose(transactionId -> graph()
+                        .edgeCollection(graph.getPrefixedCollectioName(edge.getLabel()))
+                        .deleteEdge(edge.getKey(), new EdgeDeleteOptions().streamTransactionId(transactionId)))
+                .<Void>handle((result, ex) -> {
+                    ArangoDBException cause = arangoCause(ex);
+                    if (ex != null && (cause == null || cause.getErrorNum() != 1202)) { // document not found
+                        throw ex instanceof CompletionException ? (CompletionException) ex : new CompletionException(ex);
+                    }
+                    return null;
+                })
+                .whenComplete((result, ex) -> client.invalidateElement(edge.getLabel(), edge.getKey()));
+        return translate(deleted, Function.identity());
+    }
+
+    private ArangoGraphAsync graph() {
+        return db.graph(graph.name());
+    }
+
+    /**
+     * Get the stream transaction of the calling thread, and flush the client's buffered writes in
+     * the background if there are any. The calling thread is not blocked: the transaction is not
+     * opened, so a write fails if transactions are enabled and the calling thread has no open
+     * transaction.
+     *
+     * @param write                 true if the operation writes
+     * @return the future stream transaction id, null if the thread has no open transaction
+     */
+
+    private CompletableFuture<String> prepare(boolean write) {
+        String transactionId = client.currentStreamTransactionId();
+        if (write && transactionId == null && client.transactionsEnabled()) {
+            CompletableFuture<String> failed = new CompletableFuture<>();
+            failed.completeExceptionally(Transaction.Exceptions.transactionMustBeOpenToReadWrite());
+            return failed;
+        }
+        if (!client.hasBufferedWrites()) {
+            return CompletableFuture.completedFuture(transactionId);
+        }
+        return CompletableFuture.runAsync(client::flush).thenApply(flushed -> transactionId);
+    }
+
+    /**
+     * The options of the partial updates, see {@link ArangoDBGraphClient#propertiesUpdateOptions()}.
+     *
+     * @param transactionId         the stream transaction id
+     * @return the update options
+     */
+
+    private static DocumentUpdateOptions propertiesUpdateOptions(String transactionId) {
+        return new DocumentUpdateOptions().keepNull(false).mergeObjects(false).streamTransactionId(transactionId);
+    }
+
+    /**
+     * Collect the results of the cursor and of its remaining batches.
+     *
+     * @param cursor                the cursor
+     * @param results               the results collected so far
+     * @param <T>                   the result type
+     * @return the future results
+     */
+
+    private static <T> CompletableFuture<List<T>> remaining(ArangoCursorAsync<T> cursor, List<T> results) {
+        results.addAll(cursor.getResult());
+        if (!cursor.hasMore()) {
+            return CompletableFuture.completedFuture(results);
+        }
+        return cursor.nextBatch().thenCompose(next -> remaining(next, results));
+    }
+
+    /**
+     * Translate the driver exceptions that complete a future into graph exceptions, as the
+     * blocking client does.
+     *
+     * @param future                the future
+     * @param mapper                maps the graph exception to the exception that completes the result
+     * @param <T>                   the result type
+     * @return the future with translated exceptions
+     */
+
+    private static <T> CompletableFuture<T> translate(
+            CompletableFuture<T> future,
+            Function<ArangoDBGraphException, ? extends RuntimeException> mapper) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((value, ex) -> {
+            if (ex == null) {
+                result.complete(value);
+                return;
+            }
+            ArangoDBException cause = arangoCause(ex);
+            if (cause == null) {
+                result.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            } else {
+                logger.error("Async operation failed: {}", cause.getErrorMessage());
+                result.completeExceptionally(mapper.apply(ArangoDBExceptions.getArangoDBException(cause)));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The driver exception that caused a future to complete exceptionally.
+     *
+     * @param ex                    the exception of the future
+     * @return the driver exception, null if the exception was not raised by the driver
+     */
+
+    private static ArangoDBException arangoCause(Throwable ex) {
+        Throwable cause = ex;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof ArangoDBException ? (ArangoDBException) cause : null;
+    }
+}
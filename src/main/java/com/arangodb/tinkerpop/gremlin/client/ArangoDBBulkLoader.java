@@ -0,0 +1,276 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.model.OverwriteMode;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBEdgeData;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertexData;
+
+/**
+ * The ArangoDB bulk loader buffers vertex and edge documents and inserts them in per-collection
+ * batches, using one multi-document insert request per batch instead of one request per
+ * element. A collection's buffer is flushed when it reaches the configured batch size
+ * ({@link ArangoDBGraph#PROPERTY_KEY_BATCH_SIZE}), and all the buffers are flushed by
+ * {@link #flush()} and {@link #close()}; vertices are always flushed before edges.
+ * <p>
+ * Documents that the server rejects (e.g. duplicate keys when the policy is
+ * {@link OnDuplicate#ERROR}) do not abort the load, they are reported by {@link #failures()}.
+ * The loaded documents are written directly to their collections, so the graph's relation
+ * (from/to) constraints are not validated. The keys and revisions assigned by the server are
+ * set on the inserted documents.
+ * <p>
+ * A bulk loader is not thread safe.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public class ArangoDBBulkLoader implements AutoCloseable {
+
+    /**
+     * What the server does when a loaded document has the key of an existing document.
+     */
+
+    public enum OnDuplicate {
+
+        /** The document is rejected and reported as a failure. */
+        ERROR(OverwriteMode.conflict),
+
+        /** The existing document is kept, the loaded document is ignored. */
+        IGNORE(OverwriteMode.ignore),
+
+        /** The existing document is replaced by the loaded document. */
+        REPLACE(OverwriteMode.replace),
+
+        /** The loaded document is merged into the existing document. */
+        UPDATE(OverwriteMode.update);
+
+        private final OverwriteMode overwriteMode;
+
+        OnDuplicate(OverwriteMode overwriteMode) {
+            this.overwriteMode = overwriteMode;
+        }
+
+        OverwriteMode overwriteMode() {
+            return overwriteMode;
+        }
+    }
+
+    /**
+     * A document that could not be loaded.
+     */
+
+    public static class Failure {
+
+        private final Object document;
+
+        private final int errorNum;
+
+        private final String errorMessage;
+
+        Failure(Object document, int errorNum, String errorMessage) {
+            this.document = document;
+            this.errorNum = errorNum;
+            this.errorMessage = errorMessage;
+        }
+
+        /**
+         * The rejected document, an {@link ArangoDBVertexData} or an {@link ArangoDBEdgeData}.
+         *
+         * @return the document
+         */
+
+        public Object getDocument() {
+            return document;
+        }
+
+        /**
+         * The ArangoDB error number, e.g. 1210 for a unique constraint violation.
+         *
+         * @return the error number
+         */
+
+        public int getErrorNum() {
+            return errorNum;
+        }
+
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+
+        @Override
+        public String toString() {
+            return "Failure{" +
+                    "errorNum=" + errorNum +
+                    ", errorMessage='" + errorMessage + '\'' +
+                    ", document=" + document +
+                    '}';
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ArangoDBBulkLoader.class);
+
+    private final ArangoDBGraphClient client;
+
+    private final ArangoDBGraph graph;
+
+    private final int batchSize;
+
+    private final OnDuplicate onDuplicate;
+
+    /** The buffered vertices, by label. */
+
+    private final Map<String, List<ArangoDBVertexData>> vertices = new LinkedHashMap<>();
+
+    /** The buffered edges, by label. */
+
+    private final Map<String, List<ArangoDBEdgeData>> edges = new LinkedHashMap<>();
+
+    private final List<Failure> failures = new ArrayList<>();
+
+    private long loaded = 0;
+
+    /**
+     * Create a new bulk loader. Use {@link ArangoDBGraph#bulkLoader(OnDuplicate)} to get a loader
+     * configured with the graph's batch size.
+     *
+     * @param client                the client used to insert the documents
+     * @param graph                 the graph the documents belong to
+     * @param batchSize             the number of documents per insert request
+     * @param onDuplicate           the policy for documents with existing keys
+     */
+
+    public ArangoDBBulkLoader(
+            ArangoDBGraphClient client,
+            ArangoDBGraph graph,
+            int batchSize,
+            OnDuplicate onDuplicate) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive: " + batchSize);
+        }
+        this.client = client;
+        this.graph = graph;
+        this.batchSize = batchSize;
+        this.onDuplicate = Objects.requireNonNull(onDuplicate, "onDuplicate");
+    }
+
+    /**
+     * Buffer a vertex, flushing its collection if the batch is full.
+     *
+     * @param vertex                the vertex document
+     */
+
+    public void addVertex(ArangoDBVertexData vertex) {
+        if (!graph.hasVertexCollection(vertex.getLabel())) {
+            throw new IllegalArgumentException(String.format("Vertex label (%s) not in graph (%s) vertex collections.", vertex.getLabel(), graph.name()));
+        }
+        List<ArangoDBVertexData> batch = vertices.computeIfAbsent(vertex.getLabel(), l -> new ArrayList<>(batchSize));
+        batch.add(vertex);
+        if (batch.size() >= batchSize) {
+            flushVertices(vertex.getLabel(), batch);
+        }
+    }
+
+    /**
+     * Buffer an edge, flushing its collection if the batch is full.
+     *
+     * @param edge                  the edge document, with from and to vertex ids
+     */
+
+    public void addEdge(ArangoDBEdgeData edge) {
+        if (!graph.hasEdgeCollection(edge.getLabel())) {
+            throw new IllegalArgumentException(String.format("Edge label (%s) not in graph (%s) edge collections.", edge.getLabel(), graph.name()));
+        }
+        Objects.requireNonNull(edge.getFrom(), "from");
+        Objects.requireNonNull(edge.getTo(), "to");
+        List<ArangoDBEdgeData> batch = edges.computeIfAbsent(edge.getLabel(), l -> new ArrayList<>(batchSize));
+        batch.add(edge);
+        if (batch.size() >= batchSize) {
+            flushEdges(edge.getLabel(), batch);
+        }
+    }
+
+    /**
+     * Insert all the buffered documents, vertices first.
+     *
+     * @throws ArangoDBGraphException if a batch request fails as a whole
+     */
+
+    public void flush() {
+        for (Map.Entry<String, List<ArangoDBVertexData>> entry : vertices.entrySet()) {
+            flushVertices(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, List<ArangoDBEdgeData>> entry : edges.entrySet()) {
+            flushEdges(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * The documents rejected by the server so far.
+     *
+     * @return the failures, in load order
+     */
+
+    public List<Failure> failures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * The number of documents accepted by the server so far.
+     *
+     * @return the number of loaded documents
+     */
+
+    public long loaded() {
+        return loaded;
+    }
+
+    /**
+     * Flush the buffered documents.
+     */
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private void flushVertices(String label, List<ArangoDBVertexData> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        collect(batch.size(), client.insertVertices(label, batch, onDuplicate));
+        batch.clear();
+    }
+
+    private void flushEdges(String label, List<ArangoDBEdgeData> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        collect(batch.size(), client.insertEdges(label, batch, onDuplicate));
+        batch.clear();
+    }
+
+    private void collect(int size, List<Failure> batchFailures) {
+        if (!batchFailures.isEmpty()) {
+            logger.warn("{} of {} documents rejected by the server", batchFailures.size(), size);
+        }
+        loaded += size - batchFailures.size();
+        failures.addAll(batchFailures);
+    }
+}
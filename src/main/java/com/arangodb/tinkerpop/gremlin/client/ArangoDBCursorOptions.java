@@ -0,0 +1,293 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.arangodb.model.AqlQueryOptions;
+
+/**
+ * The cursor options of the AQL queries of a graph client: the number of documents per batch,
+ * whether the results are streamed by the server (instead of being materialized before the first
+ * batch is returned), the cursor time to live, the query memory limit, whether the query fills
+ * the block cache and whether the next batch is prefetched while the current one is consumed.
+ * <p>
+ * Unset options keep the driver or server default. The graph options are read from the
+ * {@code graph.cursor.*} settings, and can be overridden per traversal with the
+ * {@code arangodb.cursor.*} traversal options, e.g.
+ * <pre>
+ * g.with(ArangoDBCursorOptions.TRAVERSAL_OPTION_PREFIX + ArangoDBCursorOptions.BATCH_SIZE, 5000).V()
+ * </pre>
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public class ArangoDBCursorOptions {
+
+    /** The prefix of the graph settings. */
+
+    public static final String GRAPH_SETTING_PREFIX = "graph.cursor.";
+
+    /** The prefix of the traversal options. */
+
+    public static final String TRAVERSAL_OPTION_PREFIX = "arangodb.cursor.";
+
+    /** The name of the batch size option. */
+
+    public static final String BATCH_SIZE = "batchSize";
+
+    /** The name of the stream option. */
+
+    public static final String STREAM = "stream";
+
+    /** The name of the time to live (seconds) option. */
+
+    public static final String TTL = "ttl";
+
+    /** The name of the memory limit (bytes) option. */
+
+    public static final String MEMORY_LIMIT = "memoryLimit";
+
+    /** The name of the fill block cache option. */
+
+    public static final String FILL_BLOCK_CACHE = "fillBlockCache";
+
+    /** The name of the prefetch option. */
+
+    public static final String PREFETCH = "prefetch";
+
+    /** The number of documents prefetched if the batch size is not set. */
+
+    static final int DEFAULT_PREFETCH_SIZE = 1000;
+
+    /** The server cursor time to live (seconds) if the ttl is not set. */
+
+    static final int DEFAULT_TTL = 30;
+
+    private Integer batchSize;
+
+    private Boolean stream;
+
+    private Integer ttl;
+
+    private Long memoryLimit;
+
+    private Boolean fillBlockCache;
+
+    private Boolean prefetch;
+
+    /**
+     * Create cursor options with no option set.
+     *
+     * @return the cursor options
+     */
+
+    public static ArangoDBCursorOptions empty() {
+        return new ArangoDBCursorOptions();
+    }
+
+    /**
+     * Read the cursor options from a map of settings, e.g. the graph configuration or the options
+     * of a traversal. Numbers and booleans can be given as strings.
+     *
+     * @param settings              the settings
+     * @param prefix                the prefix of the cursor options in the settings
+     * @return the cursor options
+     */
+
+    public static ArangoDBCursorOptions fromMap(Map<String, ?> settings, String prefix) {
+        ArangoDBCursorOptions options = new ArangoDBCursorOptions();
+        Object value = settings.get(prefix + BATCH_SIZE);
+        if (value != null) {
+            options.batchSize(Integer.parseInt(value.toString()));
+        }
+        value = settings.get(prefix + STREAM);
+        if (value != null) {
+            options.stream(Boolean.parseBoolean(value.toString()));
+        }
+        value = settings.get(prefix + TTL);
+        if (value != null) {
+            options.ttl(Integer.parseInt(value.toString()));
+        }
+        value = settings.get(prefix + MEMORY_LIMIT);
+        if (value != null) {
+            options.memoryLimit(Long.parseLong(value.toString()));
+        }
+        value = settings.get(prefix + FILL_BLOCK_CACHE);
+        if (value != null) {
+            options.fillBlockCache(Boolean.parseBoolean(value.toString()));
+        }
+        value = settings.get(prefix + PREFETCH);
+        if (value != null) {
+            options.prefetch(Boolean.parseBoolean(value.toString()));
+        }
+        return options;
+    }
+
+    public ArangoDBCursorOptions batchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The cursor batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public ArangoDBCursorOptions stream(boolean stream) {
+        this.stream = stream;
+        return this;
+    }
+
+    public ArangoDBCursorOptions ttl(int ttl) {
+        this.ttl = ttl;
+        return this;
+    }
+
+    public ArangoDBCursorOptions memoryLimit(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+        return this;
+    }
+
+    public ArangoDBCursorOptions fillBlockCache(boolean fillBlockCache) {
+        this.fillBlockCache = fillBlockCache;
+        return this;
+    }
+
+    public ArangoDBCursorOptions prefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+        return this;
+    }
+
+    /**
+     * Returns true if the next batch is prefetched while the current one is consumed.
+     *
+     * @return true, if prefetching is enabled
+     */
+
+    public boolean isPrefetch() {
+        return Boolean.TRUE.equals(prefetch);
+    }
+
+    /**
+     * The number of documents to prefetch, i.e. one batch.
+     *
+     * @return the prefetch size
+     */
+
+    public int prefetchSize() {
+        return batchSize == null ? DEFAULT_PREFETCH_SIZE : batchSize;
+    }
+
+    /**
+     * The maximum time a prefetching thread waits for the documents it read to be consumed, i.e.
+     * the cursor time to live: once the cursor is idle for longer, the server discards it anyway.
+     *
+     * @return the maximum wait in milliseconds
+     */
+
+    public long prefetchTimeout() {
+        return TimeUnit.SECONDS.toMillis(ttl == null ? DEFAULT_TTL : ttl);
+    }
+
+    /**
+     * Returns true if no option is set.
+     *
+     * @return true, if the options are empty
+     */
+
+    public boolean isEmpty() {
+        return batchSize == null && stream == null && ttl == null && memoryLimit == null
+                && fillBlockCache == null && prefetch == null;
+    }
+
+    /**
+     * Combine these options with the given ones. The options set in the overrides take
+     * precedence.
+     *
+     * @param overrides             the overriding options
+     * @return the combined options
+     */
+
+    public ArangoDBCursorOptions overriddenBy(ArangoDBCursorOptions overrides) {
+        if (overrides == null || overrides.isEmpty()) {
+            return this;
+        }
+        ArangoDBCursorOptions result = new ArangoDBCursorOptions();
+        result.batchSize = overrides.batchSize != null ? overrides.batchSize : batchSize;
+        result.stream = overrides.stream != null ? overrides.stream : stream;
+        result.ttl = overrides.ttl != null ? overrides.ttl : ttl;
+        result.memoryLimit = overrides.memoryLimit != null ? overrides.memoryLimit : memoryLimit;
+        result.fillBlockCache = overrides.fillBlockCache != null ? overrides.fillBlockCache : fillBlockCache;
+        result.prefetch = overrides.prefetch != null ? overrides.prefetch : prefetch;
+        return result;
+    }
+
+    /**
+     * Create the driver query options. A new instance is created on each call, since the client
+     * adds the transaction to the query options.
+     *
+     * @return the AQL query options
+     */
+
+    public AqlQueryOptions toAqlQueryOptions() {
+        AqlQueryOptions options = new AqlQueryOptions();
+        if (batchSize != null) {
+            options.batchSize(batchSize);
+        }
+        if (stream != null) {
+            options.stream(stream);
+        }
+        if (ttl != null) {
+            options.ttl(ttl);
+        }
+        if (memoryLimit != null) {
+            options.memoryLimit(memoryLimit);
+        }
+        if (fillBlockCache != null) {
+            options.fillBlockCache(fillBlockCache);
+        }
+        return options;
+    }
+
+    /**
+     * The options that are set, as settings.
+     *
+     * @param prefix                the prefix of the settings
+     * @return the settings, by name
+     */
+
+    public Map<String, Object> toMap(String prefix) {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        if (batchSize != null) {
+            settings.put(prefix + BATCH_SIZE, batchSize);
+        }
+        if (stream != null) {
+            settings.put(prefix + STREAM, stream);
+        }
+        if (ttl != null) {
+            settings.put(prefix + TTL, ttl);
+        }
+        if (memoryLimit != null) {
+            settings.put(prefix + MEMORY_LIMIT, memoryLimit);
+        }
+        if (fillBlockCache != null) {
+            settings.put(prefix + FILL_BLOCK_CACHE, fillBlockCache);
+        }
+        if (prefetch != null) {
+            settings.put(prefix + PREFETCH, prefetch);
+        }
+        return settings;
+    }
+
+    @Override
+    public String toString() {
+        return "ArangoDBCursorOptions" + toMap("");
+    }
+}
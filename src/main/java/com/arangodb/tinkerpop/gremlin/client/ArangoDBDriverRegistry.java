@@ -0,0 +1,160 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.client;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.ArangoDB;
+import com.arangodb.config.ArangoConfigProperties;
+
+/**
+ * The ArangoDB driver registry shares drivers (and their connection pools) between the graph
+ * clients that use the same connection settings, e.g. the graphs hosted by a Gremlin Server. The
+ * drivers are keyed by the normalized {@code arangodb.*} properties: the order of the properties
+ * and of the hosts, and surrounding whitespace, are ignored. A driver is reference counted and
+ * shut down when the last client that acquired it releases it.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBDriverRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArangoDBDriverRegistry.class);
+
+    /** The prefix of the driver properties. */
+
+    private static final String DRIVER_PROPERTY_PREFIX = "arangodb.";
+
+    /** The property that lists the hosts. */
+
+    private static final String HOSTS_PROPERTY = "arangodb.hosts";
+
+    /**
+     * A shared driver and the number of clients using it.
+     */
+
+    private static class Entry {
+
+        private final String key;
+
+        private final ArangoDB driver;
+
+        private int references = 0;
+
+        Entry(String key, ArangoDB driver) {
+            this.key = key;
+            this.driver = driver;
+        }
+    }
+
+    /** The shared drivers, by normalized properties. */
+
+    private static final Map<String, Entry> entries = new HashMap<>();
+
+    /** The shared drivers, by driver. */
+
+    private static final Map<ArangoDB, Entry> drivers = new IdentityHashMap<>();
+
+    private ArangoDBDriverRegistry() {
+    }
+
+    /**
+     * Get the driver for the given connection properties, creating it if no client uses a driver
+     * with the same properties. Each acquired driver must be released once.
+     *
+     * @param properties            the ArangoDB configuration properties
+     * @return the shared driver
+     */
+
+    public static synchronized ArangoDB acquire(Properties properties) {
+        String key = key(properties);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            logger.info("Creating ArangoDB driver for {}", properties.getProperty(HOSTS_PROPERTY));
+            ArangoDB driver = new ArangoDB.Builder()
+                    .loadProperties(ArangoConfigProperties.fromProperties(properties))
+                    .build();
+            entry = new Entry(key, driver);
+            entries.put(key, entry);
+            drivers.put(driver, entry);
+        }
+        entry.references++;
+        logger.debug("ArangoDB driver for {} acquired, {} references", properties.getProperty(HOSTS_PROPERTY), entry.references);
+        return entry.driver;
+    }
+
+    /**
+     * Release a driver acquired from the registry. The driver is shut down when it is released by
+     * the last client that acquired it.
+     *
+     * @param driver                the driver
+     */
+
+    public static synchronized void release(ArangoDB driver) {
+        Entry entry = drivers.get(driver);
+        if (entry == null) {
+            logger.warn("Released ArangoDB driver was not acquired from the registry");
+            return;
+        }
+        entry.references--;
+        if (entry.references == 0) {
+            logger.info("Shutting down ArangoDB driver, no clients left");
+            entries.remove(entry.key);
+            drivers.remove(driver);
+            driver.shutdown();
+        }
+    }
+
+    /**
+     * The number of drivers in use.
+     *
+     * @return the number of drivers
+     */
+
+    public static synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * The registry key of the given properties.
+     *
+     * @param properties            the ArangoDB configuration properties
+     * @return the normalized driver properties
+     */
+
+    static String key(Properties properties) {
+        Map<String, String> normalized = new TreeMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            String key = name.trim();
+            if (!key.startsWith(DRIVER_PROPERTY_PREFIX)) {
+                continue;
+            }
+            String value = properties.getProperty(name).trim();
+            if (HOSTS_PROPERTY.equals(key)) {
+                value = Arrays.stream(value.split(","))
+                        .map(String::trim)
+                        .filter(host -> !host.isEmpty())
+                        .sorted()
+                        .distinct()
+                        .collect(Collectors.joining(","));
+            }
+            normalized.put(key, value);
+        }
+        return normalized.toString();
+    }
+}
@@ -0,0 +1,188 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the vertex and edge documents read by a graph client, keyed by document
+ * id. When the cache is full the least recently used ({@link Eviction#LRU}) or the oldest
+ * ({@link Eviction#FIFO}) entry is evicted.
+ * <p>
+ * The client invalidates the entries of the documents it writes, but writes of other clients are
+ * only detected if the cache revalidates its hits, i.e. if the client checks that the revision of
+ * a cached document is still current before using it. The client does not use the cache while the
+ * calling thread has an open stream transaction, and it caches copies of the documents, so the
+ * cached documents are not changed by the elements that read them. Each invalidation starts a new
+ * generation of the cache, and documents are only cached if no invalidation happened since they
+ * were read, so that a read that races with a write does not cache the document it replaced.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public class ArangoDBElementCache {
+
+    /**
+     * The entry that is evicted when the cache is full.
+     */
+
+    public enum Eviction {
+
+        /** Evict the least recently used entry. */
+        LRU,
+
+        /** Evict the oldest entry. */
+        FIFO
+    }
+
+    private final int maxSize;
+
+    private final boolean revalidate;
+
+    private final Map<String, Object> entries;
+
+    private long hits = 0;
+
+    private long misses = 0;
+
+    private long evictions = 0;
+
+    /** The number of invalidations. */
+
+    private long generation = 0;
+
+    /**
+     * Create a new element cache.
+     *
+     * @param maxSize               the maximum number of cached documents
+     * @param eviction              the eviction policy
+     * @param revalidate            true if the revisions of the cached documents must be checked
+     *                              before they are used
+     */
+
+    public ArangoDBElementCache(int maxSize, Eviction eviction, boolean revalidate) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.revalidate = revalidate;
+        this.entries = new LinkedHashMap<String, Object>(16, 0.75f, eviction == Eviction.LRU) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                if (size() > ArangoDBElementCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the cached document with the given id. Lookups are not counted as hits or misses, the
+     * client records them once it knows if the cached document could be used.
+     *
+     * @param id                    the document id
+     * @return the cached document, null if not cached
+     */
+
+    public synchronized Object get(String id) {
+        return entries.get(id);
+    }
+
+    /**
+     * The generation of the cache, which changes with each invalidation. Get it before reading
+     * documents that are cached with {@link #putIfUnchanged(String, Object, long)}.
+     *
+     * @return the generation
+     */
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Cache a document read from the database, unless the cache was invalidated since the read
+     * started: the document may then be older than the write that invalidated the cache.
+     *
+     * @param id                    the document id
+     * @param document              the document
+     * @param readGeneration        the generation of the cache when the read started
+     * @return true if the document was cached
+     */
+
+    public synchronized boolean putIfUnchanged(String id, Object document, long readGeneration) {
+        if (generation != readGeneration) {
+            return false;
+        }
+        entries.put(id, document);
+        return true;
+    }
+
+    public synchronized void invalidate(String id) {
+        generation++;
+        entries.remove(id);
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * Record the outcome of a lookup.
+     *
+     * @param hitCount              the number of ids served from the cache
+     * @param missCount             the number of ids read from the database
+     */
+
+    public synchronized void record(int hitCount, int missCount) {
+        hits += hitCount;
+        misses += missCount;
+    }
+
+    public boolean revalidate() {
+        return revalidate;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ArangoDBElementCache{" +
+                "size=" + entries.size() +
+                ", maxSize=" + maxSize +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                '}';
+    }
+}
@@ -8,21 +8,35 @@
 
 package com.arangodb.tinkerpop.gremlin.client;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-import com.arangodb.config.ArangoConfigProperties;
 import com.arangodb.entity.*;
 import com.arangodb.model.*;
 import com.arangodb.tinkerpop.gremlin.structure.*;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.slf4j.Logger;
@@ -34,6 +48,8 @@ import com.arangodb.ArangoDB;
 import com.arangodb.ArangoDBException;
 import com.arangodb.ArangoDatabase;
 import com.arangodb.ArangoGraph;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter.PropertyLayout;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBQueryBuilder.UniqueEdges;
 import com.arangodb.tinkerpop.gremlin.client.ArangoDBQueryBuilder.UniqueVertices;
 import com.arangodb.tinkerpop.gremlin.utils.ArangoDBUtil;
 
@@ -133,14 +149,63 @@ public class ArangoDBGraphClient {
 
     private static final Logger logger = LoggerFactory.getLogger(ArangoDBGraphClient.class);
 
+    /** The attributes of the vertex documents that are read without their properties. */
+
+    private static final List<String> VERTEX_ATTRIBUTES = Arrays.asList("_id", "_key", "_rev", "label");
+
+    /** The attributes of the edge documents that are read without their properties. */
+
+    private static final List<String> EDGE_ATTRIBUTES = Arrays.asList("_id", "_key", "_rev", "_from", "_to", "label");
+
+    /** The driver, shared with the clients that use the same connection properties. */
+
     private final ArangoDB driver;
 
+    /** True once the client is shut down and its driver released. */
+
+    private boolean closed = false;
+
     private final ArangoDatabase db;
 
     private final int batchSize;
 
     private final ArangoDBGraph graph;
 
+    /** The write buffer, null if writes are not deferred. */
+
+    private ArangoDBWriteBuffer writeBuffer;
+
+    /** The graph transaction, null if transactions are not enabled. */
+
+    private ArangoDBTransaction transaction;
+
+    /** The element cache, null if elements are not cached. */
+
+    private ArangoDBElementCache elementCache;
+
+    /** The cursor options of the queries that don't give their own options. */
+
+    private ArangoDBCursorOptions cursorOptions = ArangoDBCursorOptions.empty();
+
+    /** The queries of the fixed query shapes, by shape. */
+
+    private final ArangoDBQueryCache queryCache = new ArangoDBQueryCache(ArangoDBQueryCache.DEFAULT_SIZE);
+
+    /** The number of collections scanned in parallel, 1 if scans are serial. */
+
+    private int scanParallelism = 1;
+
+    /**
+     * The threads that prefetch query results and scan collections in parallel, created on first
+     * use with scanParallelism threads.
+     */
+
+    private ExecutorService fetchers;
+
+    /** The asynchronous facade, created on first use. */
+
+    private ArangoDBAsyncGraphClient asyncClient;
+
     /**
      * Create a simple graph client and connect to the provided db. If the DB does not exist, the driver will try to
      * create one.
@@ -163,7 +228,8 @@ public class ArangoDBGraphClient {
 
     /**
      * Create a simple graph client and connect to the provided db. The create flag controls what is the
-     * behaviour if the db is not found
+     * behaviour if the db is not found. The driver is shared with the other clients that use the same
+     * connection properties, see {@link ArangoDBDriverRegistry}.
      *
      * @param graph                    the ArangoDB graph that uses this client
      * @param properties            the ArangoDB configuration properties
@@ -182,10 +248,28 @@ public class ArangoDBGraphClient {
             throws ArangoDBGraphException {
         logger.info("Initiating the ArangoDb Client");
         this.graph = graph;
-        driver = new ArangoDB.Builder()
-                .loadProperties(ArangoConfigProperties.fromProperties(properties))
-                .build();
-        db = driver.db(dbname);
+        driver = ArangoDBDriverRegistry.acquire(properties);
+        try {
+            db = connect(dbname, properties, createDatabase);
+        } catch (RuntimeException ex) {
+            ArangoDBDriverRegistry.release(driver);
+            throw ex;
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Get the database, checking that it exists or creating it.
+     *
+     * @param dbname                the ArangoDB name to connect to or create
+     * @param properties            the ArangoDB configuration properties
+     * @param createDatabase        if true, the driver will attempt to crate the DB if it does not exist
+     * @return the database
+     * @throws ArangoDBGraphException    If the db does not exist and cannot be created
+     */
+
+    private ArangoDatabase connect(String dbname, Properties properties, boolean createDatabase) {
+        ArangoDatabase db = driver.db(dbname);
         if (createDatabase) {
             if (!db.exists()) {
                 logger.info("DB not found, attemtping to create it.");
@@ -210,20 +294,391 @@ public class ArangoDBGraphClient {
                         properties.getProperty("arangodb.user"), dbname));
             }
         }
-        this.batchSize = batchSize;
+        return db;
     }
 
     /**
-     * Shutdown the client and free resources.
+     * Shutdown the client and free resources. The driver is shut down if no other client uses it.
      */
 
-    public void shutdown() {
+    public synchronized void shutdown() {
+        if (closed) {
+            return;
+        }
         logger.debug("Shutdown");
-        if (db != null) {
-            if (db.exists()) {
-                db.clearQueryCache();
+        try {
+            flush();
+            if (db != null) {
+                if (db.exists()) {
+                    db.clearQueryCache();
+                }
+            }
+        } finally {
+            closed = true;
+            if (fetchers != null) {
+                fetchers.shutdownNow();
+            }
+            ArangoDBDriverRegistry.release(driver);
+        }
+    }
+
+    /**
+     * Defer the element writes of the client (write-behind), see {@link ArangoDBWriteBuffer}. The
+     * buffered writes are flushed in batches of the client's batch size.
+     */
+
+    public void enableWriteBehind() {
+        logger.info("Enabling write-behind, batch size {}", batchSize);
+        this.writeBuffer = new ArangoDBWriteBuffer(this, batchSize);
+    }
+
+    /**
+     * Cache the vertices and edges read by id, see {@link ArangoDBElementCache}.
+     *
+     * @param maxSize               the maximum number of cached elements
+     * @param eviction              the eviction policy
+     * @param revalidate            true if the revisions of cached elements are checked before
+     *                              they are used
+     */
+
+    public void enableElementCache(int maxSize, ArangoDBElementCache.Eviction eviction, boolean revalidate) {
+        logger.info("Enabling element cache, size {}, eviction {}, revalidate {}", maxSize, eviction, revalidate);
+        this.elementCache = new ArangoDBElementCache(maxSize, eviction, revalidate);
+    }
+
+    /**
+     * The element cache, e.g. to read its hit and miss counters.
+     *
+     * @return the element cache, null if elements are not cached
+     */
+
+    public ArangoDBElementCache getElementCache() {
+        return elementCache;
+    }
+
+    /**
+     * Set the cursor options of the queries, e.g. the batch size or the use of streaming
+     * cursors. Queries executed with explicit query options are not affected.
+     *
+     * @param cursorOptions         the cursor options
+     */
+
+    public void setCursorOptions(ArangoDBCursorOptions cursorOptions) {
+        logger.info("Cursor options {}", cursorOptions);
+        this.cursorOptions = cursorOptions;
+    }
+
+    public ArangoDBCursorOptions getCursorOptions() {
+        return cursorOptions;
+    }
+
+    public ArangoDBQueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Get the query of the given shape and populate its bind parameters. If the query is not
+     * cached its text is built by the segments, otherwise the segments only populate the bind
+     * parameters, so the segments must only depend on the values that make up the shape.
+     *
+     * @param shape                 the query shape
+     * @param segments              adds the query segments to a query builder
+     * @return the query string
+     */
+
+    String shapedQuery(String shape, Consumer<ArangoDBQueryBuilder> segments) {
+        String query = queryCache.get(shape);
+        if (query == null) {
+            ArangoDBQueryBuilder queryBuilder = new ArangoDBQueryBuilder();
+            segments.accept(queryBuilder);
+            query = queryBuilder.toString();
+            queryCache.put(shape, query);
+        } else {
+            segments.accept(ArangoDBQueryBuilder.bindingsOnly());
+        }
+        return query;
+    }
+
+    /**
+     * The layout of the vertex documents of the graph. Documents are read back in either form
+     * whether the graph flattens properties or not, but properties are only filtered and sorted in
+     * both forms if they can be mixed in the graph, see {@link ArangoDBGraph#hasMixedProperties()}.
+     *
+     * @return the vertex property layout
+     */
+
+    PropertyLayout vertexLayout() {
+        if (graph.hasMixedProperties()) {
+            return PropertyLayout.FLAT_VERTEX;
+        }
+        return graph.flattensProperties() ? PropertyLayout.FLAT_ONLY_VERTEX : PropertyLayout.VERTEX;
+    }
+
+    /**
+     * The layout of the edge documents of the graph, see {@link #vertexLayout()}.
+     *
+     * @return the edge property layout
+     */
+
+    PropertyLayout edgeLayout() {
+        if (graph.hasMixedProperties()) {
+            return PropertyLayout.FLAT_EDGE;
+        }
+        return graph.flattensProperties() ? PropertyLayout.FLAT_ONLY_EDGE : PropertyLayout.EDGE;
+    }
+
+    /**
+     * The document written for a vertex: its flattened document if the graph flattens properties,
+     * the vertex data otherwise.
+     *
+     * @param vertex                the vertex
+     * @return the document to insert
+     */
+
+    Object document(ArangoDBVertexData vertex) {
+        return graph.flattensProperties() ? vertex.flattenedDocument() : vertex;
+    }
+
+    /**
+     * The document written for an edge, see {@link #document(ArangoDBVertexData)}.
+     *
+     * @param edge                  the edge
+     * @return the document to insert
+     */
+
+    Object document(ArangoDBEdgeData edge) {
+        return graph.flattensProperties() ? edge.flattenedDocument() : edge;
+    }
+
+    /**
+     * Add the RETURN segment of a query that returns graph elements. Elements that are read without
+     * their properties only return their system attributes and label, which are the same in all
+     * the layouts.
+     *
+     * @param queryBuilder          the query builder
+     * @param variable              the element variable
+     * @param layout                the document layout of the element type
+     * @param withProperties        true if the element properties are returned
+     */
+
+    private static void returnElements(
+            ArangoDBQueryBuilder queryBuilder,
+            String variable,
+            PropertyLayout layout,
+            boolean withProperties) {
+        if (withProperties) {
+            queryBuilder.ret(variable);
+        } else {
+            queryBuilder.retKeep(variable, layout.nested() == PropertyLayout.EDGE ? EDGE_ATTRIBUTES : VERTEX_ATTRIBUTES);
+        }
+    }
+
+    /**
+     * The query options of a query, from the client's cursor options.
+     *
+     * @param overrides             the cursor options of the query, overriding the client's
+     * @return the AQL query options
+     */
+
+    AqlQueryOptions queryOptions(ArangoDBCursorOptions overrides) {
+        return cursorOptions.overriddenBy(overrides).toAqlQueryOptions();
+    }
+
+    /**
+     * Iterate the results of a query. If prefetching is enabled by the client's cursor options or
+     * by the given overrides, and the results don't fit in the first batch (i.e. the server kept
+     * a cursor), the next batch is read while the current one is consumed, see
+     * {@link ArangoDBPrefetchIterator}. The cursor is read in the calling thread if all the
+     * prefetching threads are busy.
+     *
+     * @param <T>                   the document type
+     * @param cursor                the query cursor
+     * @param overrides             the cursor options of the query, overriding the client's
+     * @return the iterator
+     */
+
+    public <T> Iterator<T> iterate(ArangoCursor<T> cursor, ArangoDBCursorOptions overrides) {
+        ArangoDBCursorOptions options = cursorOptions.overriddenBy(overrides);
+        if (options.isPrefetch() && cursor.getId() != null) {
+            try {
+                return new ArangoDBPrefetchIterator<>(cursor, options.prefetchSize(), options.prefetchTimeout(), fetchers());
+            } catch (RejectedExecutionException e) {
+                logger.debug("No free prefetch thread, reading the cursor in the calling thread");
             }
         }
+        return cursor.iterator();
+    }
+
+    /**
+     * The threads that read cursors in the background, at most scanParallelism of them. Tasks
+     * are rejected when all the threads are busy, so that the callers read their cursors
+     * themselves instead of waiting for a thread.
+     *
+     * @return the executor
+     */
+
+    private synchronized ExecutorService fetchers() {
+        if (fetchers == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(scanParallelism, scanParallelism,
+                    60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                        Thread thread = new Thread(r, "arangodb-cursor-prefetch-" + graph.name());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            fetchers = executor;
+        }
+        return fetchers;
+    }
+
+    /**
+     * Scan the collections of multi-collection queries in parallel, see
+     * {@link #iterateGraphVertices(List, List, ArangoDBPropertyFilter, ArangoDBPropertySort, long, long, ArangoDBCursorOptions)}.
+     *
+     * @param parallelism           the maximum number of collections scanned at the same time
+     */
+
+    public void enableParallelScan(int parallelism) {
+        logger.info("Enabling parallel scans of {} collections", parallelism);
+        this.scanParallelism = parallelism;
+    }
+
+    /**
+     * Run the client operations in ArangoDB stream transactions. Each operation is executed in
+     * the transaction of the calling thread, which is opened automatically if needed.
+     *
+     * @param transaction           the graph transaction
+     */
+
+    public void enableTransactions(ArangoDBTransaction transaction) {
+        logger.info("Enabling stream transactions");
+        this.transaction = transaction;
+    }
+
+    /**
+     * Begin a stream transaction on the graph's vertex, edge and variables collections.
+     *
+     * @return the stream transaction id
+     * @throws ArangoDBGraphException if the transaction can not be started
+     */
+
+    public String beginStreamTransaction() {
+        List<String> collections = new ArrayList<>();
+        collections.addAll(graph.prefixedVertexCollections());
+        collections.addAll(graph.prefixedEdgeCollections());
+        collections.add(ArangoDBGraph.GRAPH_VARIABLES_COLLECTION);
+        try {
+            StreamTransactionEntity entity = db.beginStreamTransaction(new StreamTransactionOptions()
+                    .writeCollections(collections.toArray(new String[0])));
+            logger.debug("Begin stream transaction {}", entity.getId());
+            return entity.getId();
+        } catch (ArangoDBException e) {
+            logger.error("Failed to begin stream transaction: {}", e.getErrorMessage());
+            throw ArangoDBExceptions.getArangoDBException(e);
+        }
+    }
+
+    /**
+     * Commit a stream transaction.
+     *
+     * @param id                    the stream transaction id
+     * @throws ArangoDBGraphException if the transaction can not be committed
+     */
+
+    public void commitStreamTransaction(String id) {
+        logger.debug("Commit stream transaction {}", id);
+        try {
+            db.commitStreamTransaction(id);
+        } catch (ArangoDBException e) {
+            logger.error("Failed to commit stream transaction: {}", e.getErrorMessage());
+            throw ArangoDBExceptions.getArangoDBException(e);
+        }
+    }
+
+    /**
+     * Abort a stream transaction.
+     *
+     * @param id                    the stream transaction id
+     * @throws ArangoDBGraphException if the transaction can not be aborted
+     */
+
+    public void abortStreamTransaction(String id) {
+        logger.debug("Abort stream transaction {}", id);
+        // The cache may hold elements read or written in the transaction
+        clearElementCache();
+        try {
+            db.abortStreamTransaction(id);
+        } catch (ArangoDBException e) {
+            logger.error("Failed to abort stream transaction: {}", e.getErrorMessage());
+            throw ArangoDBExceptions.getArangoDBException(e);
+        }
+    }
+
+    /**
+     * The stream transaction of the calling thread, opened if needed. Used by the writes.
+     *
+     * @return the stream transaction id, null if transactions are not enabled
+     */
+
+    String streamTransactionId() {
+        return transaction == null ? null : transaction.streamTransactionId();
+    }
+
+    /**
+     * The stream transaction that the calling thread has open, without opening one. Used by the
+     * reads, which don't need a transaction of their own.
+     *
+     * @return the stream transaction id, null if the thread has no open transaction
+     */
+
+    String currentStreamTransactionId() {
+        return transaction == null ? null : transaction.currentStreamTransactionId();
+    }
+
+    /**
+     * Returns true if the client operations run in stream transactions.
+     *
+     * @return true if transactions are enabled
+     */
+
+    boolean transactionsEnabled() {
+        return transaction != null;
+    }
+
+    /**
+     * Returns true if writes are deferred and some are waiting to be flushed.
+     *
+     * @return true if there are buffered writes
+     */
+
+    boolean hasBufferedWrites() {
+        return writeBuffer != null && writeBuffer.size() > 0;
+    }
+
+    /**
+     * The asynchronous facade of the client, see {@link ArangoDBAsyncGraphClient}. It shares the
+     * client's driver and connections.
+     *
+     * @return the asynchronous client
+     */
+
+    public synchronized ArangoDBAsyncGraphClient async() {
+        if (asyncClient == null) {
+            asyncClient = new ArangoDBAsyncGraphClient(this, graph, driver.async().db(db.name()));
+        }
+        return asyncClient;
+    }
+
+    /**
+     * Persist the buffered writes, if writes are deferred.
+     *
+     * @throws ArangoDBGraphException if the server rejected any of the writes
+     */
+
+    public void flush() {
+        if (writeBuffer != null) {
+            writeBuffer.flush();
+        }
     }
 
     /**
@@ -293,11 +748,12 @@ public class ArangoDBGraphClient {
 
     public ArangoDBGraphVariables getGraphVariables() {
         logger.debug("Get graph variables");
+        flush();
         ArangoDBGraphVariables result;
         try {
             result = db
                     .collection(ArangoDBGraph.GRAPH_VARIABLES_COLLECTION)
-                    .getDocument(graph.name(), ArangoDBGraphVariables.class);
+                    .getDocument(graph.name(), ArangoDBGraphVariables.class, new DocumentReadOptions().streamTransactionId(currentStreamTransactionId()));
         } catch (ArangoDBException e) {
             logger.error("Failed to retrieve vertex: {}", e.getErrorMessage());
             throw new ArangoDBGraphException("Failed to retrieve vertex.", e);
@@ -325,7 +781,7 @@ public class ArangoDBGraphClient {
         }
         DocumentCreateEntity<?> vertexEntity;
         try {
-            vertexEntity = gVars.insertDocument(document);
+            vertexEntity = gVars.insertDocument(document, new DocumentCreateOptions().streamTransactionId(streamTransactionId()));
         } catch (ArangoDBException e) {
             logger.error("Failed to insert document: {}", e.getMessage());
             ArangoDBGraphException arangoDBException = ArangoDBExceptions.getArangoDBException(e);
@@ -350,9 +806,10 @@ public class ArangoDBGraphClient {
 
     public void deleteGraphVariables(ArangoDBGraphVariables document) {
         logger.debug("Delete variables {} in {}", document, graph.name());
+        flush();
         try {
             db.collection(document.collection())
-                    .deleteDocument(document._key());
+                    .deleteDocument(document._key(), new DocumentDeleteOptions().streamTransactionId(streamTransactionId()));
         } catch (ArangoDBException e) {
             logger.error("Failed to delete document: {}", e.getErrorMessage());
             throw ArangoDBExceptions.getArangoDBException(e);
@@ -361,151 +818,1239 @@ public class ArangoDBGraphClient {
     }
 
     /**
-     * Update the document in the graph.
-     * @param document                the document
+     * Update the document in the graph.
+     * @param document                the document
+     *
+     * @throws ArangoDBGraphException    If there was an error updating the document
+     */
+
+    public void updateGraphVariables(ArangoDBGraphVariables document) {
+        if (writeBuffer != null) {
+            writeBuffer.updateGraphVariables(document);
+            return;
+        }
+        persistGraphVariables(document);
+    }
+
+    /**
+     * Update the document in the graph, bypassing the write buffer.
+     * @param document                the document
+     *
+     * @throws ArangoDBGraphException    If there was an error updating the document
+     */
+
+    void persistGraphVariables(ArangoDBGraphVariables document) {
+        logger.debug("Update variables {} in {}", document, graph.name());
+        DocumentUpdateEntity updateEntity;
+        try {
+            updateEntity = db.collection(document.collection())
+                    .updateDocument(document._key(), document, new DocumentUpdateOptions().streamTransactionId(streamTransactionId()));
+        } catch (ArangoDBException e) {
+            logger.error("Failed to update document: {}", e.getErrorMessage());
+            throw ArangoDBExceptions.getArangoDBException(e);
+        }
+        logger.info("Document updated, new rev {}", updateEntity.getRev());
+        document._rev(updateEntity.getRev());
+    }
+
+    /**
+     * Create a query to get all the edges of a vertex.
+     *
+     * @param vertexId                the vertex
+     * @param edgeLabels            a list of edge labels to follow, empty if all type of edges
+     * @param direction            the direction of the edges
+     * @return ArangoDBBaseQuery the query object
+     * @throws ArangoDBException if there is an error executing the query
+     */
+
+    public ArangoCursor<ArangoDBEdgeData> getVertexEdges(
+            String vertexId,
+            List<String> edgeLabels,
+            Direction direction)
+            throws ArangoDBException {
+        return getVertexEdges(vertexId, edgeLabels, direction, -1);
+    }
+
+    /**
+     * Create a query to get at most limit edges of a vertex.
+     *
+     * @param vertexId                the vertex
+     * @param edgeLabels            a list of edge labels to follow, empty if all type of edges
+     * @param direction            the direction of the edges
+     * @param limit                the maximum number of edges to return, negative for no limit
+     * @return ArangoDBBaseQuery the query object
+     * @throws ArangoDBException if there is an error executing the query
+     */
+
+    public ArangoCursor<ArangoDBEdgeData> getVertexEdges(
+            String vertexId,
+            List<String> edgeLabels,
+            Direction direction,
+            long limit)
+            throws ArangoDBException {
+        return getVertexEdges(vertexId, edgeLabels, direction, limit, true);
+    }
+
+    /**
+     * Create a query to get at most limit edges of a vertex, optionally without their properties.
+     * Edges read without their properties must read them when they are accessed, see
+     * {@link com.arangodb.tinkerpop.gremlin.structure.ArangoDBEdge#ArangoDBEdge(ArangoDBGraph, ArangoDBEdgeData, boolean)}.
+     *
+     * @param vertexId                the vertex
+     * @param edgeLabels            a list of edge labels to follow, empty if all type of edges
+     * @param direction            the direction of the edges
+     * @param limit                the maximum number of edges to return, negative for no limit
+     * @param withProperties        true if the edge properties are read
+     * @return ArangoDBBaseQuery the query object
+     * @throws ArangoDBException if there is an error executing the query
+     */
+
+    public ArangoCursor<ArangoDBEdgeData> getVertexEdges(
+            String vertexId,
+            List<String> edgeLabels,
+            Direction direction,
+            long limit,
+            boolean withProperties)
+            throws ArangoDBException {
+        logger.debug("Get Vertex's {}:{} Edges, in {}, from collections {}", vertexId, direction, graph.name(), edgeLabels);
+        Map<String, Object> bindVars = new HashMap<>();
+        ArangoDBQueryBuilder.Direction arangoDirection = ArangoDBUtil.getArangoDirectionFromGremlinDirection(direction);
+        String shape = "vertexEdges|" + arangoDirection + "|" + edgeLabels.size() + "|" + limit + "|" + withProperties;
+        String query = shapedQuery(shape, queryBuilder -> {
+            queryBuilder.iterateGraph(graph.name(), "v", Optional.of("e"),
+                            Optional.empty(), Optional.empty(), Optional.empty(),
+                            arangoDirection, vertexId, bindVars)
+                    .graphOptions(Optional.of(UniqueVertices.NONE), Optional.empty(), true)
+                    .filterSameCollections("e", edgeLabels, bindVars);
+            if (limit >= 0) {
+                queryBuilder.limit(limit);
+            }
+            returnElements(queryBuilder, "e", edgeLayout(), withProperties);
+        });
+        return executeAqlQuery(query, bindVars, queryOptions(null), ArangoDBEdgeData.class);
+    }
+
+    /**
+     * Get all neighbours of a document.
+     *
+     * @param <T> 					the document type
+     * @param vertexId              the document
+     * @param edgeLabelsFilter      a list of edge types to follow
+     * @param direction             a direction
+     * @param propertyFilter        filter the neighbours on the given property:value values
+     * @param resultType            the result type
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public <T> ArangoCursor<T> getDocumentNeighbors(
+            String vertexId,
+            List<String> edgeLabelsFilter,
+            Direction direction,
+            ArangoDBPropertyFilter propertyFilter,
+            Class<T> resultType) {
+        return getDocumentNeighbors(vertexId, edgeLabelsFilter, direction, propertyFilter, -1, resultType);
+    }
+
+    /**
+     * Get at most limit neighbours of a document.
+     *
+     * @param <T> 					the document type
+     * @param vertexId              the document
+     * @param edgeLabelsFilter      a list of edge types to follow
+     * @param direction             a direction
+     * @param propertyFilter        filter the neighbours on the given property:value values
+     * @param limit                 the maximum number of neighbours to return, negative for no limit
+     * @param resultType            the result type
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public <T> ArangoCursor<T> getDocumentNeighbors(
+            String vertexId,
+            List<String> edgeLabelsFilter,
+            Direction direction,
+            ArangoDBPropertyFilter propertyFilter,
+            long limit,
+            Class<T> resultType) {
+        return getDocumentNeighbors(vertexId, edgeLabelsFilter, direction, propertyFilter, limit, true, resultType);
+    }
+
+    /**
+     * Get at most limit neighbours of a document, optionally without their properties. Vertices
+     * read without their properties must read them when they are accessed, see
+     * {@link com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertex#ArangoDBVertex(ArangoDBGraph, ArangoDBVertexData, boolean)}.
+     *
+     * @param <T> 					the document type
+     * @param vertexId              the document
+     * @param edgeLabelsFilter      a list of edge types to follow
+     * @param direction             a direction
+     * @param propertyFilter        filter the neighbours on the given property:value values
+     * @param limit                 the maximum number of neighbours to return, negative for no limit
+     * @param withProperties        true if the neighbour properties are read
+     * @param resultType            the result type
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public <T> ArangoCursor<T> getDocumentNeighbors(
+            String vertexId,
+            List<String> edgeLabelsFilter,
+            Direction direction,
+            ArangoDBPropertyFilter propertyFilter,
+            long limit,
+            boolean withProperties,
+            Class<T> resultType) {
+        logger.debug("Get Document's {}:{} Neighbors, in {}, from collections {}", vertexId, direction, graph.name(), edgeLabelsFilter);
+        Map<String, Object> bindVars = new HashMap<>();
+        String query = documentNeighborsQuery(vertexId, edgeLabelsFilter, direction, propertyFilter, limit, withProperties, bindVars);
+        return executeAqlQuery(query, bindVars, queryOptions(null), resultType);
+    }
+
+    /**
+     * Create the query of {@link #getDocumentNeighbors(String, List, Direction, ArangoDBPropertyFilter, long, boolean, Class)}.
+     *
+     * @param vertexId              the document
+     * @param edgeLabelsFilter      a list of edge types to follow
+     * @param direction             a direction
+     * @param propertyFilter        filter the neighbours on the given property:value values
+     * @param limit                 the maximum number of neighbours to return, negative for no limit
+     * @param withProperties        true if the neighbour properties are returned
+     * @param bindVars              the map of bind parameters
+     * @return the query string
+     */
+
+    String documentNeighborsQuery(
+            String vertexId,
+            List<String> edgeLabelsFilter,
+            Direction direction,
+            ArangoDBPropertyFilter propertyFilter,
+            long limit,
+            boolean withProperties,
+            Map<String, Object> bindVars) {
+        ArangoDBQueryBuilder.Direction arangoDirection = ArangoDBUtil.getArangoDirectionFromGremlinDirection(direction);
+        String shape = "documentNeighbors|" + arangoDirection + "|" + edgeLabelsFilter.size() + "|"
+                + propertyFilter.shape() + "|" + limit + "|" + withProperties;
+        return shapedQuery(shape, queryBuilder -> {
+            queryBuilder.iterateGraph(graph.name(), "v", Optional.of("e"),
+                            Optional.empty(), Optional.empty(), Optional.empty(),
+                            arangoDirection, vertexId, bindVars)
+                    .graphOptions(Optional.of(UniqueVertices.GLOBAL), Optional.empty(), true)
+                    .filterSameCollections("e", edgeLabelsFilter, bindVars)
+                    .filterProperties(propertyFilter, "v", vertexLayout(), bindVars);
+            if (limit >= 0) {
+                queryBuilder.limit(limit);
+            }
+            returnElements(queryBuilder, "v", vertexLayout(), withProperties);
+        });
+    }
+
+    /**
+     * Get the documents reached from a document by following a path of edges in the given
+     * direction. Each element of the edge collections list restricts the edges followed at that
+     * depth (an empty list follows all the edges of the ArangoDB graph, including the ones used
+     * to store element properties), so the query traverses exactly as many edges as the list has
+     * elements. As in a
+     * Gremlin traversal, a document is returned once for each path that reaches it.
+     *
+     * @param <T> 					the document type
+     * @param vertexId              the document
+     * @param edgeCollections       the edge collections to follow at each depth
+     * @param direction             a direction
+     * @param resultType            the result type
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public <T> ArangoCursor<T> getDocumentPathNeighbors(
+            String vertexId,
+            List<List<String>> edgeCollections,
+            Direction direction,
+            Class<T> resultType) {
+        logger.debug("Get Document's {}:{} Neighbors at depth {}, in {}, from collections {}", vertexId, direction,
+                edgeCollections.size(), graph.name(), edgeCollections);
+        Map<String, Object> bindVars = new HashMap<>();
+        ArangoDBQueryBuilder queryBuilder = new ArangoDBQueryBuilder();
+        ArangoDBQueryBuilder.Direction arangoDirection = ArangoDBUtil.getArangoDirectionFromGremlinDirection(direction);
+        int depth = edgeCollections.size();
+        queryBuilder.iterateGraph(graph.name(), "v", Optional.of("e"),
+                        Optional.of("p"), Optional.of(depth), Optional.of(depth),
+                        arangoDirection, vertexId, bindVars)
+                .graphOptions(Optional.of(UniqueVertices.NONE), Optional.of(UniqueEdges.NONE), false);
+        for (int i = 0; i < depth; i++) {
+            queryBuilder.filterSameCollections(String.format("p.edges[%s]", i), edgeCollections.get(i), bindVars);
+        }
+        queryBuilder.ret("v");
+
+        String query = queryBuilder.toString();
+        logger.debug("AQL {}", query);
+        return executeAqlQuery(query, bindVars, null, resultType);
+    }
+
+    /**
+     * Get the documents reached from a document by following edges of the given collections in
+     * the given direction, between minDepth and maxDepth hops away. As in a Gremlin traversal, a
+     * document is returned once for each path that reaches it.
+     * <p>
+     * If an until filter is given, the traversal does not continue past the documents that match
+     * it (an AQL PRUNE). A document matches if it is in one of the until collections (any, if
+     * empty) and satisfies the until property filter. If pruneStart is false, the start document
+     * is never pruned, i.e. the condition is tested after the first hop. If filterUntil is true,
+     * only the documents that match the until filter are returned.
+     *
+     * @param <T> 					the document type
+     * @param vertexId              the document
+     * @param edgeCollections       the edge collections to follow
+     * @param direction             a direction
+     * @param minDepth              the minimum depth of the returned documents
+     * @param maxDepth              the maximum depth of the traversal
+     * @param untilFilter           the property filter of the until condition, null if none
+     * @param untilCollections      the collections of the until condition, empty if any
+     * @param pruneStart            true if the start document can match the until condition
+     * @param filterUntil           true if only the documents that match the until condition are returned
+     * @param resultType            the result type
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public <T> ArangoCursor<T> getDocumentTraversal(
+            String vertexId,
+            List<String> edgeCollections,
+            Direction direction,
+            int minDepth,
+            int maxDepth,
+            ArangoDBPropertyFilter untilFilter,
+            List<String> untilCollections,
+            boolean pruneStart,
+            boolean filterUntil,
+            Class<T> resultType) {
+        logger.debug("Get Document's {}:{} traversal {}..{}, in {}, from collections {}", vertexId, direction,
+                minDepth, maxDepth, graph.name(), edgeCollections);
+        Map<String, Object> bindVars = new HashMap<>();
+        ArangoDBQueryBuilder queryBuilder = new ArangoDBQueryBuilder();
+        ArangoDBQueryBuilder.Direction arangoDirection = ArangoDBUtil.getArangoDirectionFromGremlinDirection(direction);
+        List<String> vertexCollections = graph.prefixedVertexCollections();
+        queryBuilder.with(vertexCollections, bindVars)
+                .iterateEdges(graph.name(), "v", Optional.of("e"),
+                        Optional.of("p"), Optional.of(minDepth), Optional.of(maxDepth),
+                        arangoDirection, edgeCollections, vertexId, bindVars);
+        List<String> until = new ArrayList<>();
+        if (untilFilter != null) {
+            List<String> conditions = new ArrayList<>();
+            if (!untilCollections.isEmpty()) {
+                conditions.add("PARSE_IDENTIFIER(v).collection IN @untilCollections");
+                bindVars.put("untilCollections", untilCollections);
+            }
+            untilFilter.addAqlSegments("v.", vertexLayout(), conditions, bindVars);
+            String condition = conditions.isEmpty() ? "true" : "(" + StringUtils.join(conditions, ") AND (") + ")";
+            until.add(pruneStart ? condition : "LENGTH(p.edges) > 0 AND " + condition);
+        }
+        queryBuilder.prune(until)
+                .graphOptions(Optional.of(UniqueVertices.NONE), Optional.of(UniqueEdges.NONE), false);
+        if (filterUntil) {
+            queryBuilder.filter(until);
+        }
+        queryBuilder.ret("v");
+
+        String query = queryBuilder.toString();
+        logger.debug("AQL {}", query);
+        return executeAqlQuery(query, bindVars, null, resultType);
+    }
+
+    /**
+     * Get the k shortest paths between two documents, following edges of the given collections in
+     * the given direction. If no weight attribute is given, the shortest paths are the ones with
+     * the fewest edges. The weight attribute must be a numeric top level attribute of the edge
+     * documents, e.g. an integer or double edge property of a graph that flattens properties. If
+     * no default weight is given, the query fails if a path has an edge without the attribute.
+     *
+     * @param startId               the start document
+     * @param targetId              the target document
+     * @param edgeCollections       the edge collections to follow
+     * @param direction             a direction
+     * @param weightAttribute       the edge attribute that holds the weight, null for unweighted paths
+     * @param defaultWeight         the weight of edges that don't have the weight attribute, null
+     *                              if all edges must have it
+     * @param k                     the maximum number of paths
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public ArangoCursor<ArangoDBPathData> getShortestPaths(
+            String startId,
+            String targetId,
+            List<String> edgeCollections,
+            Direction direction,
+            String weightAttribute,
+            Double defaultWeight,
+            long k) {
+        logger.debug("Get {} shortest paths {}:{} to {}, in {}, from collections {}", k, startId, direction,
+                targetId, graph.name(), edgeCollections);
+        Map<String, Object> bindVars = new HashMap<>();
+        ArangoDBQueryBuilder queryBuilder = new ArangoDBQueryBuilder();
+        ArangoDBQueryBuilder.Direction arangoDirection = ArangoDBUtil.getArangoDirectionFromGremlinDirection(direction);
+        List<String> vertexCollections = graph.prefixedVertexCollections();
+        queryBuilder.with(vertexCollections, bindVars)
+                .shortestPaths("p", arangoDirection, startId, targetId, edgeCollections, weightAttribute, defaultWeight, k, bindVars)
+                .limit(k)
+                .ret("{vertices: p.vertices, edges: p.edges}");
+
+        String query = queryBuilder.toString();
+        logger.debug("AQL {}", query);
+        return executeAqlQuery(query, bindVars, null, ArangoDBPathData.class);
+    }
+
+    /**
+     * Get the vertices with the given ids, in the order of the ids. Vertices that don't exist are
+     * skipped. If the element cache is enabled, cached vertices are not read again.
+     *
+     * @param ids                    the ids of the vertices
+     * @return the vertices
+     */
+
+    public List<ArangoDBVertexData> getVerticesById(List<String> ids) {
+        return elementsById(ids,
+                missing -> getGraphVertices(missing, Collections.emptyList()).asListRemaining(),
+                vertex -> elementId(vertex.getLabel(), vertex.getKey()),
+                ArangoDBVertexData::getRev,
+                ArangoDBVertexData::copy);
+    }
+
+    /**
+     * Get the edges with the given ids, in the order of the ids. Edges that don't exist are
+     * skipped. If the element cache is enabled, cached edges are not read again.
+     *
+     * @param ids                    the ids of the edges
+     * @return the edges
+     */
+
+    public List<ArangoDBEdgeData> getEdgesById(List<String> ids) {
+        return elementsById(ids,
+                missing -> getGraphEdges(missing).asListRemaining(),
+                edge -> elementId(edge.getLabel(), edge.getKey()),
+                ArangoDBEdgeData::getRev,
+                ArangoDBEdgeData::copy);
+    }
+
+    /**
+     * Get elements by id, using the element cache if enabled. Only the elements that are not cached
+     * (or whose cached revision is no longer current, if the cache revalidates) are read from the
+     * database, with a single query. The cache holds copies of the elements and hands out copies,
+     * so that elements do not share their properties. The cache is not used while the calling
+     * thread has an open stream transaction, since the cached elements may not be what the
+     * transaction sees (and the elements of the transaction must not be seen by other threads).
+     *
+     * @param ids                    the ids of the elements
+     * @param reader                the function that reads elements from the database
+     * @param idOf                  the function that gives the id of an element
+     * @param revOf                 the function that gives the revision of an element
+     * @param copyOf                the function that copies an element
+     * @param <T>                   the element type
+     * @return the elements, in the order of the ids
+     */
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> elementsById(
+            List<String> ids,
+            Function<List<String>, List<T>> reader,
+            Function<T, String> idOf,
+            Function<T, String> revOf,
+            Function<T, T> copyOf) {
+        if (elementCache == null || currentStreamTransactionId() != null) {
+            return reader.apply(ids);
+        }
+        // Elements read while the cache is invalidated are not cached, they may be stale
+        long generation = elementCache.generation();
+        Map<String, T> found = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String id : ids) {
+            if (id == null || found.containsKey(id)) {
+                continue;
+            }
+            Object cached = elementCache.get(id);
+            if (cached == null) {
+                missing.add(id);
+            } else {
+                found.put(id, copyOf.apply((T) cached));
+            }
+        }
+        if (elementCache.revalidate() && !found.isEmpty()) {
+            Map<String, String> revisions = currentRevisions(new ArrayList<>(found.keySet()));
+            Iterator<Map.Entry<String, T>> it = found.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, T> entry = it.next();
+                if (!Objects.equals(revisions.get(entry.getKey()), revOf.apply(entry.getValue()))) {
+                    it.remove();
+                    elementCache.invalidate(entry.getKey());
+                    missing.add(entry.getKey());
+                }
+            }
+        }
+        elementCache.record(found.size(), missing.size());
+        if (!missing.isEmpty()) {
+            for (T element : reader.apply(new ArrayList<>(missing))) {
+                String id = idOf.apply(element);
+                elementCache.putIfUnchanged(id, copyOf.apply(element), generation);
+                found.put(id, element);
+            }
+        }
+        List<T> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            T element = found.get(id);
+            if (element != null) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the current revisions of the documents with the given ids.
+     *
+     * @param ids                    the document ids
+     * @return the revisions, by id; documents that don't exist are not included
+     */
+
+    private Map<String, String> currentRevisions(List<String> ids) {
+        Map<String, Object> bindVars = new HashMap<>();
+        ArangoDBQueryBuilder queryBuilder = new ArangoDBQueryBuilder();
+        queryBuilder.documentsById(ids, "d", bindVars)
+                .ret("[d._id, d._rev]");
+        String query = queryBuilder.toString();
+        logger.debug("AQL {}", query);
+        Map<String, String> revisions = new HashMap<>();
+        for (String[] revision : executeAqlQuery(query, bindVars, null, String[].class).asListRemaining()) {
+            revisions.put(revision[0], revision[1]);
+        }
+        return revisions;
+    }
+
+    /**
+     * The document id of a graph element.
+     *
+     * @param label                 the element label
+     * @param key                   the element key
+     * @return the document id
+     */
+
+    private String elementId(String label, String key) {
+        return graph.getPrefixedCollectioName(label) + "/" + key;
+    }
+
+    void invalidateElement(String label, String key) {
+        if (elementCache != null && key != null) {
+            elementCache.invalidate(elementId(label, key));
+        }
+    }
+
+    private void clearElementCache() {
+        if (elementCache != null) {
+            elementCache.clear();
+        }
+    }
+
+    /**
+     * Get vertices of a graph. If no ids are provided, get all vertices.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections to search within
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public ArangoCursor<ArangoDBVertexData> getGraphVertices(
+            final List<String> ids,
+            final List<String> collections) {
+        return getGraphVertices(ids, collections, ArangoDBPropertyFilter.empty());
+    }
+
+    /**
+     * Get vertices of a graph that match the property filter. If no ids are provided, get all
+     * matching vertices. If no collections are provided, search within all the graph's vertex
+     * collections.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to search within
+     * @param propertyFilter        filter the vertices on the given property:value values
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public ArangoCursor<ArangoDBVertexData> getGraphVertices(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter) {
+        return getGraphVertices(ids, collections, propertyFilter, ArangoDBPropertySort.empty(), 0, -1);
+    }
+
+    /**
+     * Get a range of the vertices of a graph that match the property filter, in the given
+     * property order. If no ids are provided, get all matching vertices. If no collections are provided, search within all the
+     * graph's vertex collections.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to search within
+     * @param propertyFilter        filter the vertices on the given property:value values
+     * @param propertySort          sort the vertices by the given properties
+     * @param offset                the number of matching vertices to skip
+     * @param count                 the maximum number of vertices to return, negative for no limit
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public ArangoCursor<ArangoDBVertexData> getGraphVertices(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter,
+            final ArangoDBPropertySort propertySort,
+            final long offset,
+            final long count) {
+        return getGraphVertices(ids, collections, propertyFilter, propertySort, offset, count, ArangoDBCursorOptions.empty());
+    }
+
+    /**
+     * Get the vertices of a graph, with cursor options that override the client's, see
+     * {@link #getGraphVertices(List, List, ArangoDBPropertyFilter, ArangoDBPropertySort, long, long)}.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to search within
+     * @param propertyFilter        filter the vertices on the given property:value values
+     * @param propertySort          sort the vertices by the given properties
+     * @param offset                the number of matching vertices to skip
+     * @param count                 the maximum number of vertices to return, negative for no limit
+     * @param cursorOptions         the cursor options of the query
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public ArangoCursor<ArangoDBVertexData> getGraphVertices(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter,
+            final ArangoDBPropertySort propertySort,
+            final long offset,
+            final long count,
+            final ArangoDBCursorOptions cursorOptions) {
+        return getGraphVertices(ids, collections, propertyFilter, propertySort, offset, count, true, cursorOptions);
+    }
+
+    /**
+     * Get the vertices of a graph, optionally without their properties, see
+     * {@link #getGraphVertices(List, List, ArangoDBPropertyFilter, ArangoDBPropertySort, long, long, ArangoDBCursorOptions)}.
+     * Vertexs read without their properties must read them when they are accessed, see
+     * {@link com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertex#ArangoDBVertex(ArangoDBGraph, ArangoDBVertexData, boolean)}.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to search within
+     * @param propertyFilter        filter the vertices on the given property:value values
+     * @param propertySort          sort the vertices by the given properties
+     * @param offset                the number of matching vertices to skip
+     * @param count                 the maximum number of vertices to return, negative for no limit
+     * @param withProperties        true if the vertex properties are read
+     * @param cursorOptions         the cursor options of the query
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public ArangoCursor<ArangoDBVertexData> getGraphVertices(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter,
+            final ArangoDBPropertySort propertySort,
+            final long offset,
+            final long count,
+            final boolean withProperties,
+            final ArangoDBCursorOptions cursorOptions) {
+        logger.debug("Get all {} graph vertices, filtered by ids: {}", graph.name(), ids);
+        Map<String, Object> bindVars = new HashMap<>();
+        String query = graphElementsQuery(ids, collections, graph.vertexCollections(),
+                propertyFilter, propertySort, vertexLayout(), offset, count, withProperties, "v", bindVars);
+        logger.debug("AQL {}", query);
+        return executeAqlQuery(query, bindVars, queryOptions(cursorOptions),
+                ArangoDBVertexData.class);
+    }
+
+    /**
+     * Get edges of a graph. If no ids are provided, get all edges.
+     *
+     * @param ids                    the ids to match
+     * @return ArangoDBBaseQuery    the query object
+     */
+    public ArangoCursor<ArangoDBEdgeData> getGraphEdges(List<String> ids) {
+        return getGraphEdges(ids, Collections.emptyList(), ArangoDBPropertyFilter.empty());
+    }
+
+    /**
+     * Get edges of a graph that match the property filter. If no ids are provided, get all
+     * matching edges. If no collections are provided, search within all the graph's edge
+     * collections.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to search within
+     * @param propertyFilter        filter the edges on the given property:value values
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public ArangoCursor<ArangoDBEdgeData> getGraphEdges(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter) {
+        return getGraphEdges(ids, collections, propertyFilter, ArangoDBPropertySort.empty(), 0, -1);
+    }
+
+    /**
+     * Get a range of the edges of a graph that match the property filter, in the given property
+     * order. If no ids are provided, get all matching edges. If no collections are provided, search within all the graph's edge
+     * collections.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to search within
+     * @param propertyFilter        filter the edges on the given property:value values
+     * @param propertySort          sort the edges by the given properties
+     * @param offset                the number of matching edges to skip
+     * @param count                 the maximum number of edges to return, negative for no limit
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public ArangoCursor<ArangoDBEdgeData> getGraphEdges(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter,
+            final ArangoDBPropertySort propertySort,
+            final long offset,
+            final long count) {
+        return getGraphEdges(ids, collections, propertyFilter, propertySort, offset, count, ArangoDBCursorOptions.empty());
+    }
+
+    /**
+     * Get the edges of a graph, with cursor options that override the client's, see
+     * {@link #getGraphEdges(List, List, ArangoDBPropertyFilter, ArangoDBPropertySort, long, long)}.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to search within
+     * @param propertyFilter        filter the edges on the given property:value values
+     * @param propertySort          sort the edges by the given properties
+     * @param offset                the number of matching edges to skip
+     * @param count                 the maximum number of edges to return, negative for no limit
+     * @param cursorOptions         the cursor options of the query
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public ArangoCursor<ArangoDBEdgeData> getGraphEdges(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter,
+            final ArangoDBPropertySort propertySort,
+            final long offset,
+            final long count,
+            final ArangoDBCursorOptions cursorOptions) {
+        return getGraphEdges(ids, collections, propertyFilter, propertySort, offset, count, true, cursorOptions);
+    }
+
+    /**
+     * Get the edges of a graph, optionally without their properties, see
+     * {@link #getGraphEdges(List, List, ArangoDBPropertyFilter, ArangoDBPropertySort, long, long, ArangoDBCursorOptions)}.
+     * Edges read without their properties must read them when they are accessed, see
+     * {@link com.arangodb.tinkerpop.gremlin.structure.ArangoDBEdge#ArangoDBEdge(ArangoDBGraph, ArangoDBEdgeData, boolean)}.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to search within
+     * @param propertyFilter        filter the edges on the given property:value values
+     * @param propertySort          sort the edges by the given properties
+     * @param offset                the number of matching edges to skip
+     * @param count                 the maximum number of edges to return, negative for no limit
+     * @param withProperties        true if the edge properties are read
+     * @param cursorOptions         the cursor options of the query
+     * @return ArangoDBBaseQuery    the query object
+     */
+
+    public ArangoCursor<ArangoDBEdgeData> getGraphEdges(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter,
+            final ArangoDBPropertySort propertySort,
+            final long offset,
+            final long count,
+            final boolean withProperties,
+            final ArangoDBCursorOptions cursorOptions) {
+        logger.debug("Get all {} graph edges, filtered by ids: {}", graph.name(), ids);
+        Map<String, Object> bindVars = new HashMap<>();
+        String query = graphElementsQuery(ids, collections, graph.edgeCollections(),
+                propertyFilter, propertySort, edgeLayout(), offset, count, withProperties, "e", bindVars);
+        logger.debug("AQL {}", query);
+        return executeAqlQuery(query, bindVars, queryOptions(cursorOptions),
+                ArangoDBEdgeData.class);
+    }
+
+    /**
+     * Iterate the vertices of a graph, see
+     * {@link #getGraphVertices(List, List, ArangoDBPropertyFilter, ArangoDBPropertySort, long, long)}.
+     * If parallel scans are enabled, and all the vertices of several collections are requested
+     * (no ids, sort or range), each collection is read with its own cursor and the vertices are
+     * returned as they arrive, see {@link ArangoDBPrefetchIterator}. Otherwise the vertices are
+     * read with a single query, see {@link #iterate(ArangoCursor, ArangoDBCursorOptions)}.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to search within
+     * @param propertyFilter        filter the vertices on the given property:value values
+     * @param propertySort          sort the vertices by the given properties
+     * @param offset                the number of matching vertices to skip
+     * @param count                 the maximum number of vertices to return, negative for no limit
+     * @param cursorOptions         the cursor options of the query
+     * @return an iterator over the vertices
+     */
+
+    public Iterator<ArangoDBVertexData> iterateGraphVertices(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter,
+            final ArangoDBPropertySort propertySort,
+            final long offset,
+            final long count,
+            final ArangoDBCursorOptions cursorOptions) {
+        return iterateGraphVertices(ids, collections, propertyFilter, propertySort, offset, count, true, cursorOptions);
+    }
+
+    /**
+     * Iterate the vertices of a graph, optionally without their properties, see
+     * {@link #getGraphVertices(List, List, ArangoDBPropertyFilter, ArangoDBPropertySort, long, long, boolean, ArangoDBCursorOptions)}.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to search within
+     * @param propertyFilter        filter the vertices on the given property:value values
+     * @param propertySort          sort the vertices by the given properties
+     * @param offset                the number of matching vertices to skip
+     * @param count                 the maximum number of vertices to return, negative for no limit
+     * @param withProperties        true if the vertex properties are read
+     * @param cursorOptions         the cursor options of the query
+     * @return an iterator over the vertices
+     */
+
+    public Iterator<ArangoDBVertexData> iterateGraphVertices(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter,
+            final ArangoDBPropertySort propertySort,
+            final long offset,
+            final long count,
+            final boolean withProperties,
+            final ArangoDBCursorOptions cursorOptions) {
+        List<String> scanned = collections.isEmpty() ? graph.vertexCollections() : collections;
+        Supplier<Iterator<ArangoDBVertexData>> serial = () -> iterate(getGraphVertices(ids, collections,
+                propertyFilter, propertySort, offset, count, withProperties, cursorOptions), cursorOptions);
+        if (isParallelScan(ids, scanned, propertySort, offset, count)) {
+            return parallelScan(scanned, collection -> getGraphVertices(ids, Collections.singletonList(collection),
+                    propertyFilter, propertySort, 0, -1, withProperties, cursorOptions), serial, cursorOptions);
+        }
+        return serial.get();
+    }
+
+    /**
+     * Iterate the edges of a graph, reading the collections in parallel if parallel scans are
+     * enabled, see
+     * {@link #iterateGraphVertices(List, List, ArangoDBPropertyFilter, ArangoDBPropertySort, long, long, ArangoDBCursorOptions)}.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to search within
+     * @param propertyFilter        filter the edges on the given property:value values
+     * @param propertySort          sort the edges by the given properties
+     * @param offset                the number of matching edges to skip
+     * @param count                 the maximum number of edges to return, negative for no limit
+     * @param cursorOptions         the cursor options of the query
+     * @return an iterator over the edges
+     */
+
+    public Iterator<ArangoDBEdgeData> iterateGraphEdges(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter,
+            final ArangoDBPropertySort propertySort,
+            final long offset,
+            final long count,
+            final ArangoDBCursorOptions cursorOptions) {
+        return iterateGraphEdges(ids, collections, propertyFilter, propertySort, offset, count, true, cursorOptions);
+    }
+
+    /**
+     * Iterate the edges of a graph, optionally without their properties, see
+     * {@link #getGraphEdges(List, List, ArangoDBPropertyFilter, ArangoDBPropertySort, long, long, boolean, ArangoDBCursorOptions)}.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to search within
+     * @param propertyFilter        filter the edges on the given property:value values
+     * @param propertySort          sort the edges by the given properties
+     * @param offset                the number of matching edges to skip
+     * @param count                 the maximum number of edges to return, negative for no limit
+     * @param withProperties        true if the edge properties are read
+     * @param cursorOptions         the cursor options of the query
+     * @return an iterator over the edges
+     */
+
+    public Iterator<ArangoDBEdgeData> iterateGraphEdges(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter,
+            final ArangoDBPropertySort propertySort,
+            final long offset,
+            final long count,
+            final boolean withProperties,
+            final ArangoDBCursorOptions cursorOptions) {
+        List<String> scanned = collections.isEmpty() ? graph.edgeCollections() : collections;
+        Supplier<Iterator<ArangoDBEdgeData>> serial = () -> iterate(getGraphEdges(ids, collections,
+                propertyFilter, propertySort, offset, count, withProperties, cursorOptions), cursorOptions);
+        if (isParallelScan(ids, scanned, propertySort, offset, count)) {
+            return parallelScan(scanned, collection -> getGraphEdges(ids, Collections.singletonList(collection),
+                    propertyFilter, propertySort, 0, -1, withProperties, cursorOptions), serial, cursorOptions);
+        }
+        return serial.get();
+    }
+
+    /**
+     * Returns true if a query can be answered by scanning its collections in parallel. Stream
+     * transactions are bound to the calling thread, so scans in a transaction are serial.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to search within
+     * @param propertySort          the property sort
+     * @param offset                the number of matching elements to skip
+     * @param count                 the maximum number of elements to return, negative for no limit
+     * @return true, if the collections can be scanned in parallel
+     */
+
+    private boolean isParallelScan(
+            List<String> ids,
+            List<String> collections,
+            ArangoDBPropertySort propertySort,
+            long offset,
+            long count) {
+        return scanParallelism > 1 && transaction == null && collections.size() > 1
+                && ids.isEmpty() && propertySort.isEmpty() && offset == 0 && count < 0;
+    }
+
+    /**
+     * Read the given collections in parallel, merging the results as they arrive. If all the
+     * scan threads are busy, the collections are read with a single query instead.
+     *
+     * @param collections           the collections (labels)
+     * @param query                 the function that opens the cursor of a collection
+     * @param serial                the iterator of the query of all the collections
+     * @param cursorOptions         the cursor options of the query
+     * @param <T>                   the document type
+     * @return an iterator over the merged results
+     */
+
+    private <T> Iterator<T> parallelScan(
+            List<String> collections,
+            Function<String, ArangoCursor<T>> query,
+            Supplier<Iterator<T>> serial,
+            ArangoDBCursorOptions cursorOptions) {
+        logger.debug("Scanning {} collections of {}, {} in parallel", collections.size(), graph.name(), scanParallelism);
+        // The scan threads must see the buffered writes
+        flush();
+        List<Supplier<ArangoCursor<T>>> cursors = collections.stream()
+                .map(collection -> (Supplier<ArangoCursor<T>>) () -> query.apply(collection))
+                .collect(Collectors.toList());
+        ArangoDBCursorOptions options = this.cursorOptions.overriddenBy(cursorOptions);
+        try {
+            return new ArangoDBPrefetchIterator<>(cursors, options.prefetchSize(), scanParallelism, options.prefetchTimeout(), fetchers());
+        } catch (RejectedExecutionException e) {
+            logger.debug("No free scan thread, scanning the collections with a single query");
+            return serial.get();
+        }
+    }
+
+    /**
+     * Count the vertices of a graph that match the property filter, without transferring them. If
+     * no ids are provided, count all matching vertices. If no collections are provided, count within
+     * all the graph's vertex collections.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to count within
+     * @param propertyFilter        filter the vertices on the given property:value values
+     * @return the number of matching vertices
+     */
+
+    public long countGraphVertices(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter) {
+        logger.debug("Count {} graph vertices, filtered by ids: {}", graph.name(), ids);
+        return countGraphElements(ids, collections.isEmpty() ? graph.vertexCollections() : collections,
+                propertyFilter, vertexLayout());
+    }
+
+    /**
+     * Count the edges of a graph that match the property filter, without transferring them. If
+     * no ids are provided, count all matching edges. If no collections are provided, count within
+     * all the graph's edge collections.
+     *
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to count within
+     * @param propertyFilter        filter the edges on the given property:value values
+     * @return the number of matching edges
+     */
+
+    public long countGraphEdges(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter) {
+        logger.debug("Count {} graph edges, filtered by ids: {}", graph.name(), ids);
+        return countGraphElements(ids, collections.isEmpty() ? graph.edgeCollections() : collections,
+                propertyFilter, edgeLayout());
+    }
+
+    /**
+     * Count graph elements. Unfiltered collections are counted using the collection count, filtered
+     * collections are counted with a COLLECT WITH COUNT query per collection, so no union needs to be
+     * materialized by the server.
      *
-     * @throws ArangoDBGraphException    If there was an error updating the document
+     * @param ids                   the ids to match
+     * @param collections           the collections (labels) to count within
+     * @param propertyFilter        the property filter
+     * @param layout                the document layout of the element type
+     * @return the number of matching elements
      */
 
-    public void updateGraphVariables(ArangoDBGraphVariables document) {
-        logger.debug("Update variables {} in {}", document, graph.name());
-        DocumentUpdateEntity updateEntity;
-        try {
-            updateEntity = db.collection(document.collection())
-                    .updateDocument(document._key(), document);
-        } catch (ArangoDBException e) {
-            logger.error("Failed to update document: {}", e.getErrorMessage());
-            throw ArangoDBExceptions.getArangoDBException(e);
+    private long countGraphElements(
+            List<String> ids,
+            List<String> collections,
+            ArangoDBPropertyFilter propertyFilter,
+            PropertyLayout layout) {
+        List<String> prefixedColNames = collections.stream()
+                .map(graph::getPrefixedCollectioName)
+                .collect(Collectors.toList());
+        if (!ids.isEmpty()) {
+            Map<String, Object> bindVars = new HashMap<>();
+            ArangoDBQueryBuilder queryBuilder = new ArangoDBQueryBuilder();
+            queryBuilder.with(prefixedColNames, bindVars)
+                    .documentsById(ids, "d", bindVars)
+                    .filterSameCollections("d", prefixedColNames, bindVars)
+                    .filterProperties(propertyFilter, "d", layout, bindVars)
+                    .collectWithCount("length")
+                    .ret("length");
+            return executeCountQuery(queryBuilder.toString(), bindVars, false);
         }
-        logger.info("Document updated, new rev {}", updateEntity.getRev());
-        document._rev(updateEntity.getRev());
+        long count = 0;
+        flush();
+        for (String collection : prefixedColNames) {
+            if (propertyFilter.isEmpty()) {
+                try {
+                    count += db.collection(collection).count(new CollectionCountOptions().streamTransactionId(currentStreamTransactionId())).getCount();
+                } catch (ArangoDBException e) {
+                    logger.error("Failed to count collection: {}", e.getErrorMessage());
+                    throw ArangoDBExceptions.getArangoDBException(e);
+                }
+            } else {
+                Map<String, Object> bindVars = new HashMap<>();
+                ArangoDBQueryBuilder queryBuilder = new ArangoDBQueryBuilder();
+                queryBuilder.iterateCollection("d", collection, bindVars)
+                        .filterProperties(propertyFilter, "d", layout, bindVars)
+                        .collectWithCount("length")
+                        .ret("length");
+                count += executeCountQuery(queryBuilder.toString(), bindVars, false);
+            }
+        }
+        return count;
     }
 
     /**
-     * Create a query to get all the edges of a vertex.
+     * Execute a query that returns a single number.
      *
-     * @param vertexId                the vertex
-     * @param edgeLabels            a list of edge labels to follow, empty if all type of edges
-     * @param direction            the direction of the edges
-     * @return ArangoDBBaseQuery the query object
-     * @throws ArangoDBException if there is an error executing the query
+     * @param query                 the query string
+     * @param bindVars              the value of the bind parameters
+     * @param write                 true if the query writes documents
+     * @return the number returned by the query, 0 if the query returned no result
      */
 
-    public ArangoCursor<ArangoDBEdgeData> getVertexEdges(
-            String vertexId,
-            List<String> edgeLabels,
-            Direction direction)
-            throws ArangoDBException {
-        logger.debug("Get Vertex's {}:{} Edges, in {}, from collections {}", vertexId, direction, graph.name(), edgeLabels);
-        Map<String, Object> bindVars = new HashMap<>();
-        ArangoDBQueryBuilder queryBuilder = new ArangoDBQueryBuilder();
-        ArangoDBQueryBuilder.Direction arangoDirection = ArangoDBUtil.getArangoDirectionFromGremlinDirection(direction);
-        logger.debug("Creating query");
-        queryBuilder.iterateGraph(graph.name(), "v", Optional.of("e"),
-                        Optional.empty(), Optional.empty(), Optional.empty(),
-                        arangoDirection, vertexId, bindVars)
-                .graphOptions(Optional.of(UniqueVertices.NONE), Optional.empty(), true)
-                .filterSameCollections("e", edgeLabels, bindVars)
-                .ret("e");
-
-        String query = queryBuilder.toString();
-        return executeAqlQuery(query, bindVars, null, ArangoDBEdgeData.class);
+    private long executeCountQuery(String query, Map<String, Object> bindVars, boolean write) {
+        ArangoCursor<Long> cursor = executeAqlQuery(query, bindVars, null, Long.class, write);
+        return cursor.hasNext() ? cursor.next() : 0L;
     }
 
     /**
-     * Get all neighbours of a document.
+     * Remove the vertices of a graph that match the property filter, and their incident edges,
+     * with a single AQL query. The arguments select the vertices as in
+     * {@link #getGraphVertices(List, List, ArangoDBPropertyFilter, ArangoDBPropertySort, long, long)}.
      *
-     * @param <T> 					the document type
-     * @param vertexId              the document
-     * @param edgeLabelsFilter      a list of edge types to follow
-     * @param direction             a direction
-     * @param propertyFilter        filter the neighbours on the given property:value values
-     * @param resultType            the result type
-     * @return ArangoDBBaseQuery    the query object
+     * @param ids                    the ids to match
+     * @param collections            the collections (labels) to search within
+     * @param propertyFilter        filter the vertices on the given property:value values
+     * @param propertySort          sort the vertices by the given properties
+     * @param offset                the number of matching vertices to skip
+     * @param count                 the maximum number of vertices to remove, negative for no limit
+     * @return the number of matching vertices
      */
 
-    public <T> ArangoCursor<T> getDocumentNeighbors(
-            String vertexId,
-            List<String> edgeLabelsFilter,
-            Direction direction,
-            ArangoDBPropertyFilter propertyFilter,
-            Class<T> resultType) {
-        logger.debug("Get Document's {}:{} Neighbors, in {}, from collections {}", vertexId, direction, graph.name(), edgeLabelsFilter);
+    public long removeGraphVertices(
+            final List<String> ids,
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter,
+            final ArangoDBPropertySort propertySort,
+            final long offset,
+            final long count) {
+        logger.debug("Remove {} graph vertices, filtered by ids: {}", graph.name(), ids);
+        // The removed vertices take their edges with them
+        clearElementCache();
         Map<String, Object> bindVars = new HashMap<>();
         ArangoDBQueryBuilder queryBuilder = new ArangoDBQueryBuilder();
-        ArangoDBQueryBuilder.Direction arangoDirection = ArangoDBUtil.getArangoDirectionFromGremlinDirection(direction);
-        logger.debug("Creating query");
-        queryBuilder.iterateGraph(graph.name(), "v", Optional.of("e"),
-                        Optional.empty(), Optional.empty(), Optional.empty(),
-                        arangoDirection, vertexId, bindVars)
-                .graphOptions(Optional.of(UniqueVertices.GLOBAL), Optional.empty(), true)
-                .filterSameCollections("e", edgeLabelsFilter, bindVars)
-                .filterProperties(propertyFilter, "v", bindVars)
-                .ret("v");
-
+        List<String> prefixedColNames = (collections.isEmpty() ? graph.vertexCollections() : collections).stream()
+                .map(graph::getPrefixedCollectioName)
+                .collect(Collectors.toList());
+        List<String> edgeCollections = graph.prefixedEdgeCollections();
+        if (!ids.isEmpty()) {
+            queryBuilder.with(prefixedColNames, bindVars);
+        }
+        queryBuilder.subquery("ids");
+        graphElementsSelection(queryBuilder, ids, collections, graph.vertexCollections(),
+                propertyFilter, propertySort, vertexLayout(), offset, count, "v", bindVars);
+        queryBuilder.ret("v._id")
+                .endSubquery()
+                .removeIncidentEdges("ids", edgeCollections, bindVars)
+                .removeDocuments("ids", prefixedColNames, bindVars)
+                .ret("LENGTH(ids)");
         String query = queryBuilder.toString();
-        return executeAqlQuery(query, bindVars, null, resultType);
+        logger.debug("AQL {}", query);
+        try {
+            return executeCountQuery(query, bindVars, true);
+        } finally {
+            clearElementCache();
+        }
     }
 
     /**
-     * Get vertices of a graph. If no ids are provided, get all vertices.
+     * Remove the edges of a graph that match the property filter with a single AQL query. The
+     * arguments select the edges as in
+     * {@link #getGraphEdges(List, List, ArangoDBPropertyFilter, ArangoDBPropertySort, long, long)}.
      *
      * @param ids                    the ids to match
-     * @param collections            the collections to search within
-     * @return ArangoDBBaseQuery    the query object
+     * @param collections            the collections (labels) to search within
+     * @param propertyFilter        filter the edges on the given property:value values
+     * @param propertySort          sort the edges by the given properties
+     * @param offset                the number of matching edges to skip
+     * @param count                 the maximum number of edges to remove, negative for no limit
+     * @return the number of matching edges
      */
 
-    public ArangoCursor<ArangoDBVertexData> getGraphVertices(
+    public long removeGraphEdges(
             final List<String> ids,
-            final List<String> collections) {
-        logger.debug("Get all {} graph vertices, filtered by ids: {}", graph.name(), ids);
+            final List<String> collections,
+            final ArangoDBPropertyFilter propertyFilter,
+            final ArangoDBPropertySort propertySort,
+            final long offset,
+            final long count) {
+        logger.debug("Remove {} graph edges, filtered by ids: {}", graph.name(), ids);
+        clearElementCache();
         Map<String, Object> bindVars = new HashMap<>();
         ArangoDBQueryBuilder queryBuilder = new ArangoDBQueryBuilder();
-        List<String> prefixedColNames = graph.vertexCollections().stream().map(graph::getPrefixedCollectioName).collect(Collectors.toList());
-        if (ids.isEmpty()) {
-            if (prefixedColNames.size() > 1) {
-                queryBuilder.union(prefixedColNames, "v", bindVars);
-            } else {
-                queryBuilder.iterateCollection("v", prefixedColNames.get(0), bindVars);
-            }
-        } else {
-            if (!collections.isEmpty()) {
-                prefixedColNames = collections.stream().map(graph::getPrefixedCollectioName).collect(Collectors.toList());
-            }
-            queryBuilder.with(prefixedColNames, bindVars)
-                    .documentsById(ids, "v", bindVars);
-
+        List<String> prefixedColNames = (collections.isEmpty() ? graph.edgeCollections() : collections).stream()
+                .map(graph::getPrefixedCollectioName)
+                .collect(Collectors.toList());
+        if (!ids.isEmpty()) {
+            queryBuilder.with(prefixedColNames, bindVars);
         }
-        queryBuilder.ret("v");
+        queryBuilder.subquery("ids");
+        graphElementsSelection(queryBuilder, ids, collections, graph.edgeCollections(),
+                propertyFilter, propertySort, edgeLayout(), offset, count, "e", bindVars);
+        queryBuilder.ret("e._id")
+                .endSubquery()
+                .removeDocuments("ids", prefixedColNames, bindVars)
+                .ret("LENGTH(ids)");
         String query = queryBuilder.toString();
         logger.debug("AQL {}", query);
-        return executeAqlQuery(query, bindVars, null, ArangoDBVertexData.class);
+        try {
+            return executeCountQuery(query, bindVars, true);
+        } finally {
+            clearElementCache();
+        }
     }
 
     /**
-     * Get edges of a graph. If no ids are provided, get all edges.
+     * Build the query that retrieves graph elements, either by id or by iterating the element
+     * collections, filters them by collection and properties and sorts them.
      *
-     * @param ids                    the ids to match
-     * @return ArangoDBBaseQuery    the query object
+     * @param ids                   the ids to match
+     * @param collections           the collections (labels) to search within, empty for all
+     * @param graphCollections      all the graph collections (labels) of the element type
+     * @param propertyFilter        the property filter
+     * @param propertySort          the property sort
+     * @param layout                the document layout of the element type
+     * @param offset                the number of matching elements to skip
+     * @param count                 the maximum number of elements to return, negative for no limit
+     * @param withProperties        true if the element properties are returned
+     * @param loopVariable          the loop variable
+     * @param bindVars              the map of bind parameters
+     * @return the query string
      */
-    public ArangoCursor<ArangoDBEdgeData> getGraphEdges(List<String> ids) {
-        logger.debug("Get all {} graph edges, filtered by ids: {}", graph.name(), ids);
-        Map<String, Object> bindVars = new HashMap<>();
-        ArangoDBQueryBuilder queryBuilder = new ArangoDBQueryBuilder();
-        List<String> prefixedColNames = graph.edgeCollections().stream().map(graph::getPrefixedCollectioName).collect(Collectors.toList());
+
+    String graphElementsQuery(
+            List<String> ids,
+            List<String> collections,
+            List<String> graphCollections,
+            ArangoDBPropertyFilter propertyFilter,
+            ArangoDBPropertySort propertySort,
+            PropertyLayout layout,
+            long offset,
+            long count,
+            boolean withProperties,
+            String loopVariable,
+            Map<String, Object> bindVars) {
+        String shape = "graphElements|" + loopVariable + "|" + layout + "|" + ids.isEmpty() + "|"
+                + collections.isEmpty() + "|" + (collections.isEmpty() ? graphCollections : collections).size() + "|"
+                + propertyFilter.shape() + "|" + propertySort.shape() + "|" + offset + "|" + count + "|" + withProperties;
+        return shapedQuery(shape, queryBuilder -> {
+            if (!ids.isEmpty()) {
+                queryBuilder.with((collections.isEmpty() ? graphCollections : collections).stream()
+                        .map(graph::getPrefixedCollectioName)
+                        .collect(Collectors.toList()), bindVars);
+            }
+            graphElementsSelection(queryBuilder, ids, collections, graphCollections, propertyFilter, propertySort,
+                    layout, offset, count, loopVariable, bindVars);
+            returnElements(queryBuilder, loopVariable, layout, withProperties);
+        });
+    }
+
+    /**
+     * Add the segments that bind the selected graph elements to the loop variable, without the
+     * WITH and RETURN segments, so that the selection can also be used in a subquery.
+     *
+     * @param queryBuilder          the query builder
+     * @param ids                   the ids to match
+     * @param collections           the collections (labels) to search within, empty for all
+     * @param graphCollections      all the graph collections (labels) of the element type
+     * @param propertyFilter        the property filter
+     * @param propertySort          the property sort
+     * @param layout                the document layout of the element type
+     * @param offset                the number of matching elements to skip
+     * @param count                 the maximum number of elements to return, negative for no limit
+     * @param loopVariable          the loop variable
+     * @param bindVars              the map of bind parameters
+     */
+
+    private void graphElementsSelection(
+            ArangoDBQueryBuilder queryBuilder,
+            List<String> ids,
+            List<String> collections,
+            List<String> graphCollections,
+            ArangoDBPropertyFilter propertyFilter,
+            ArangoDBPropertySort propertySort,
+            PropertyLayout layout,
+            long offset,
+            long count,
+            String loopVariable,
+            Map<String, Object> bindVars) {
+        List<String> prefixedColNames = (collections.isEmpty() ? graphCollections : collections).stream()
+                .map(graph::getPrefixedCollectioName)
+                .collect(Collectors.toList());
         if (ids.isEmpty()) {
             if (prefixedColNames.size() > 1) {
-                queryBuilder.union(prefixedColNames, "e", bindVars);
+                // Each collection contributes at most offset + count elements to the range, unless
+                // the range is taken from the sorted union
+                long branchLimit = count < 0 || !propertySort.isEmpty() ? -1 : offset + count;
+                queryBuilder.union(prefixedColNames, loopVariable, propertyFilter, layout, branchLimit, bindVars);
             } else {
-                queryBuilder.iterateCollection("e", prefixedColNames.get(0), bindVars);
+                queryBuilder.iterateCollection(loopVariable, prefixedColNames.get(0), bindVars)
+                        .filterProperties(propertyFilter, loopVariable, layout, bindVars);
             }
         } else {
-            queryBuilder.with(prefixedColNames, bindVars).documentsById(ids, "e", bindVars);
+            queryBuilder.documentsById(ids, loopVariable, bindVars);
+            if (!collections.isEmpty()) {
+                queryBuilder.filterSameCollections(loopVariable, prefixedColNames, bindVars);
+            }
+            queryBuilder.filterProperties(propertyFilter, loopVariable, layout, bindVars);
+        }
+        queryBuilder.sort(propertySort, loopVariable, layout);
+        if (offset > 0 || count >= 0) {
+            queryBuilder.limit(offset, count);
         }
-        queryBuilder.ret("e");
-        String query = queryBuilder.toString();
-        logger.debug("AQL {}", query);
-        return executeAqlQuery(query, bindVars, null, ArangoDBEdgeData.class);
     }
 
     /**
@@ -529,6 +2074,8 @@ public class ArangoDBGraphClient {
      */
 
     public boolean deleteGraph(String name, boolean dropCollections) {
+        flush();
+        clearElementCache();
         if (db != null) {
             ArangoGraph graph = db.graph(name);
             if (graph.exists()) {
@@ -633,7 +2180,8 @@ public class ArangoDBGraphClient {
     }
 
     /**
-     * Execute AQL query.
+     * Execute AQL query. The query runs in the stream transaction of the calling thread if the
+     * thread has one open, but does not open one.
      *
      * @param <T> 						the generic type of the returned values
      * @param query                    the query string
@@ -650,69 +2198,241 @@ public class ArangoDBGraphClient {
             AqlQueryOptions aqlQueryOptions,
             final Class<T> type)
             throws ArangoDBGraphException {
+        return executeAqlQuery(query, bindVars, aqlQueryOptions, type, false);
+    }
+
+    /**
+     * Execute AQL query. Queries that write run in the stream transaction of the calling thread,
+     * which is opened if needed, the others only join it if it is open.
+     *
+     * @param <T> 						the generic type of the returned values
+     * @param query                    the query string
+     * @param bindVars                    the value of the bind parameters
+     * @param aqlQueryOptions            the aql query options
+     * @param type                        the type of the result
+     * @param write                   true if the query writes documents
+     * @return the cursor result
+     * @throws ArangoDBGraphException    if executing the query raised an exception
+     */
+
+    private <T> ArangoCursor<T> executeAqlQuery(
+            String query,
+            Map<String, Object> bindVars,
+            AqlQueryOptions aqlQueryOptions,
+            final Class<T> type,
+            boolean write)
+            throws ArangoDBGraphException {
         logger.debug("Executing AQL query ({}) against db, with bind vars: {}", query, bindVars);
+        // Queries must see the buffered writes
+        flush();
+        AqlQueryOptions options = aqlQueryOptions == null ? cursorOptions.toAqlQueryOptions() : aqlQueryOptions;
+        options.streamTransactionId(write ? streamTransactionId() : currentStreamTransactionId());
         try {
-            return db.query(query, type, bindVars, aqlQueryOptions);
+            return db.query(query, type, bindVars, options);
         } catch (ArangoDBException e) {
             logger.error("Error executing query", e);
             throw ArangoDBExceptions.getArangoDBException(e);
         }
     }
 
-    // TODO Decide what of these methods should be restored.
-//	
-//	/**
-//	 * Creates vertices (bulk import).
-//	 *
-//	 * @param graph            The graph
-//	 * @param vertices            The list of new vertices
-//	 * @param details            True, for details
-//	 * @return a ImportResultEntity object
-//	 * @throws ArangoDBException             if an error occurs
-//	 */
-//	public ImportResultEntity createVertices(
-//		ArangoDBSimpleGraph graph,
-//		List<ArangoDBSimpleVertex> vertices,
-//		boolean details) throws ArangoDBException {
-//
-//		List<Map<String, Object>> values = new ArrayList<Map<String, Object>>();
-//
-//		for (ArangoDBSimpleVertex v : vertices) {
-//			values.add(v.getProperties());
-//		}
-//
-//		try {
-//			return driver.importDocuments(graph.getVertexCollection(), true, values);
-//		} catch (ArangoException e) {
-//			throw new ArangoDBException(e);
-//		}
-//	}
-//
-//	/**
-//	 * Creates edges (bulk import).
-//	 *
-//	 * @param graph            The graph
-//	 * @param edges            The list of new edges
-//	 * @param details            True, for details
-//	 * @return a ImportResultEntity object
-//	 * @throws ArangoDBException             if an error occurs
-//	 */
-//	public ImportResultEntity createEdges(ArangoDBSimpleGraph graph, List<ArangoDBSimpleEdge> edges, boolean details)
-//			throws ArangoDBException {
-//
-//		List<Map<String, Object>> values = new ArrayList<Map<String, Object>>();
-//
-//		for (ArangoDBSimpleEdge e : edges) {
-//			values.add(e.getProperties());
-//		}
-//
-//		try {
-//			return driver.importDocuments(graph.getEdgeCollection(), true, values);
-//		} catch (ArangoException e) {
-//			throw new ArangoDBException(e);
-//		}
-//	}
+    /**
+     * Create a bulk loader that inserts documents in batches of the client's batch size.
+     *
+     * @param onDuplicate           the policy for documents with existing keys
+     * @return the bulk loader
+     */
+
+    public ArangoDBBulkLoader bulkLoader(ArangoDBBulkLoader.OnDuplicate onDuplicate) {
+        return new ArangoDBBulkLoader(this, graph, batchSize, onDuplicate);
+    }
+
+    /**
+     * Insert vertices (bulk import) in a single multi-document request. The keys and revisions of
+     * the inserted vertices are updated.
+     *
+     * @param label                 the label (collection) of the vertices
+     * @param vertices              the vertices
+     * @param onDuplicate           the policy for vertices with existing keys
+     * @return the vertices rejected by the server
+     * @throws ArangoDBGraphException if the request fails
+     */
+
+    public List<ArangoDBBulkLoader.Failure> insertVertices(
+            String label,
+            List<ArangoDBVertexData> vertices,
+            ArangoDBBulkLoader.OnDuplicate onDuplicate) {
+        logger.debug("Insert {} vertices in {}", vertices.size(), label);
+        List<ArangoDBBulkLoader.Failure> failures = new ArrayList<>();
+        List<?> results = insertDocuments(graph.getPrefixedCollectioName(label),
+                vertices.stream().map(this::document).collect(Collectors.toList()),
+                onDuplicate);
+        for (int i = 0; i < results.size(); i++) {
+            Object result = results.get(i);
+            ArangoDBVertexData vertex = vertices.get(i);
+            invalidateElement(vertex.getLabel(), vertex.getKey());
+            if (result instanceof ErrorEntity) {
+                failures.add(new ArangoDBBulkLoader.Failure(vertex, ((ErrorEntity) result).getErrorNum(), ((ErrorEntity) result).getErrorMessage()));
+            } else {
+                vertex.setKey(((DocumentCreateEntity<?>) result).getKey());
+                vertex.setRev(((DocumentCreateEntity<?>) result).getRev());
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Insert edges (bulk import) in a single multi-document request. The keys and revisions of
+     * the inserted edges are updated.
+     *
+     * @param label                 the label (collection) of the edges
+     * @param edges                 the edges
+     * @param onDuplicate           the policy for edges with existing keys
+     * @return the edges rejected by the server
+     * @throws ArangoDBGraphException if the request fails
+     */
+
+    public List<ArangoDBBulkLoader.Failure> insertEdges(
+            String label,
+            List<ArangoDBEdgeData> edges,
+            ArangoDBBulkLoader.OnDuplicate onDuplicate) {
+        logger.debug("Insert {} edges in {}", edges.size(), label);
+        List<ArangoDBBulkLoader.Failure> failures = new ArrayList<>();
+        List<?> results = insertDocuments(graph.getPrefixedCollectioName(label),
+                edges.stream().map(this::document).collect(Collectors.toList()),
+                onDuplicate);
+        for (int i = 0; i < results.size(); i++) {
+            Object result = results.get(i);
+            ArangoDBEdgeData edge = edges.get(i);
+            invalidateElement(edge.getLabel(), edge.getKey());
+            if (result instanceof ErrorEntity) {
+                failures.add(new ArangoDBBulkLoader.Failure(edge, ((ErrorEntity) result).getErrorNum(), ((ErrorEntity) result).getErrorMessage()));
+            } else {
+                edge.setKey(((DocumentCreateEntity<?>) result).getKey());
+                edge.setRev(((DocumentCreateEntity<?>) result).getRev());
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Persist the changes of the given properties of several vertices of a collection in a single
+     * multi-document partial update. The revisions of the updated vertices are updated.
+     *
+     * @param label                 the label (collection) of the vertices
+     * @param changes               the keys of the changed properties, by vertex
+     * @return the vertices rejected by the server
+     * @throws ArangoDBGraphException if the request fails
+     */
+
+    public List<ArangoDBBulkLoader.Failure> updateVertices(
+            String label,
+            Map<ArangoDBVertexData, ? extends Collection<String>> changes) {
+        logger.debug("Update {} vertices in {}", changes.size(), label);
+        List<ArangoDBVertexData> vertices = new ArrayList<>(changes.size());
+        List<Map<String, Object>> patches = new ArrayList<>(changes.size());
+        for (Map.Entry<ArangoDBVertexData, ? extends Collection<String>> entry : changes.entrySet()) {
+            vertices.add(entry.getKey());
+            patches.add(documentPatch(entry.getKey().getKey(), entry.getKey().propertiesPatch(entry.getValue(), graph.flattensProperties())));
+        }
+        List<ArangoDBBulkLoader.Failure> failures = new ArrayList<>();
+        List<?> results = updateDocuments(graph.getPrefixedCollectioName(label), patches);
+        for (int i = 0; i < results.size(); i++) {
+            Object result = results.get(i);
+            ArangoDBVertexData vertex = vertices.get(i);
+            invalidateElement(vertex.getLabel(), vertex.getKey());
+            if (result instanceof ErrorEntity) {
+                failures.add(new ArangoDBBulkLoader.Failure(vertex, ((ErrorEntity) result).getErrorNum(), ((ErrorEntity) result).getErrorMessage()));
+            } else {
+                vertex.setRev(((DocumentUpdateEntity<?>) result).getRev());
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Persist the changes of the given properties of several edges of a collection in a single
+     * multi-document partial update. The revisions of the updated edges are updated.
+     *
+     * @param label                 the label (collection) of the edges
+     * @param changes               the keys of the changed properties, by edge
+     * @return the edges rejected by the server
+     * @throws ArangoDBGraphException if the request fails
+     */
+
+    public List<ArangoDBBulkLoader.Failure> updateEdges(
+            String label,
+            Map<ArangoDBEdgeData, ? extends Collection<String>> changes) {
+        logger.debug("Update {} edges in {}", changes.size(), label);
+        List<ArangoDBEdgeData> edges = new ArrayList<>(changes.size());
+        List<Map<String, Object>> patches = new ArrayList<>(changes.size());
+        for (Map.Entry<ArangoDBEdgeData, ? extends Collection<String>> entry : changes.entrySet()) {
+            edges.add(entry.getKey());
+            patches.add(documentPatch(entry.getKey().getKey(), entry.getKey().propertiesPatch(entry.getValue(), graph.flattensProperties())));
+        }
+        List<ArangoDBBulkLoader.Failure> failures = new ArrayList<>();
+        List<?> results = updateDocuments(graph.getPrefixedCollectioName(label), patches);
+        for (int i = 0; i < results.size(); i++) {
+            Object result = results.get(i);
+            ArangoDBEdgeData edge = edges.get(i);
+            invalidateElement(edge.getLabel(), edge.getKey());
+            if (result instanceof ErrorEntity) {
+                failures.add(new ArangoDBBulkLoader.Failure(edge, ((ErrorEntity) result).getErrorNum(), ((ErrorEntity) result).getErrorMessage()));
+            } else {
+                edge.setRev(((DocumentUpdateEntity<?>) result).getRev());
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Apply the partial updates to the collection and return the per-document results, in the
+     * order of the updates: a {@link DocumentUpdateEntity} for each updated document and an
+     * {@link ErrorEntity} for each rejected one.
+     *
+     * @param collection            the (prefixed) collection name
+     * @param patches               the update documents, with their keys
+     * @return the per-document results
+     */
+
+    private List<?> updateDocuments(
+            String collection,
+            List<Map<String, Object>> patches) {
+        try {
+            return db.collection(collection)
+                    .updateDocuments(patches, propertiesUpdateOptions())
+                    .getDocumentsAndErrors();
+        } catch (ArangoDBException e) {
+            logger.error("Failed to update documents: {}", e.getErrorMessage());
+            throw ArangoDBExceptions.getArangoDBException(e);
+        }
+    }
+
+    /**
+     * Insert the documents in the collection and return the per-document results, in the order
+     * of the documents: a {@link DocumentCreateEntity} for each inserted document and an
+     * {@link ErrorEntity} for each rejected one.
+     *
+     * @param collection            the (prefixed) collection name
+     * @param documents             the documents
+     * @param onDuplicate           the policy for documents with existing keys
+     * @return the per-document results
+     */
+
+    private List<?> insertDocuments(
+            String collection,
+            List<?> documents,
+            ArangoDBBulkLoader.OnDuplicate onDuplicate) {
+        try {
+            return db.collection(collection)
+                    .insertDocuments(documents, new DocumentCreateOptions().overwriteMode(onDuplicate.overwriteMode()).streamTransactionId(streamTransactionId()))
+                    .getDocumentsAndErrors();
+        } catch (ArangoDBException e) {
+            logger.error("Failed to insert documents: {}", e.getErrorMessage());
+            throw ArangoDBExceptions.getArangoDBException(e);
+        }
+    }
 
+    // TODO Decide what of these methods should be restored.
 //	/**
 //	 * Create an index on collection keys.
 //	 *
@@ -884,13 +2604,17 @@ public class ArangoDBGraphClient {
 //		}
 //	}
     public void insertEdge(ArangoDBEdgeData edge) {
+        if (writeBuffer != null) {
+            writeBuffer.insertEdge(edge);
+            return;
+        }
         logger.debug("Insert edge {} in {} ", edge, graph.name());
         EdgeEntity insertEntity;
         String collection = graph.getPrefixedCollectioName(edge.getLabel());
         try {
             insertEntity = db.graph(graph.name())
                     .edgeCollection(collection)
-                    .insertEdge(edge);
+                    .insertEdge(document(edge), new EdgeCreateOptions().streamTransactionId(streamTransactionId()));
         } catch (ArangoDBException e) {
             logger.error("Failed to insert edge: {}", e.getErrorMessage());
             ArangoDBGraphException arangoDBException = ArangoDBExceptions.getArangoDBException(e);
@@ -917,29 +2641,51 @@ public class ArangoDBGraphClient {
 
     public void deleteEdge(ArangoDBEdgeData edge) {
         logger.debug("Delete edge {} in {}", edge, graph.name());
+        flush();
+        invalidateElement(edge.getLabel(), edge.getKey());
         try {
             db.graph(graph.name())
                     .edgeCollection(graph.getPrefixedCollectioName(edge.getLabel()))
-                    .deleteEdge(edge.getKey());
+                    .deleteEdge(edge.getKey(), new EdgeDeleteOptions().streamTransactionId(streamTransactionId()));
         } catch (ArangoDBException e) {
             if (e.getErrorNum() == 1202) { // document not found
                 return;
             }
             logger.error("Failed to delete vertex: {}", e.getErrorMessage());
             throw ArangoDBExceptions.getArangoDBException(e);
+        } finally {
+            // Reads that started before the write must not cache what they read
+            invalidateElement(edge.getLabel(), edge.getKey());
         }
     }
 
-    public void updateEdge(ArangoDBEdgeData edge) {
-        logger.debug("Update edge {} in {}", edge, graph.name());
-        EdgeUpdateEntity updateEntity;
+    /**
+     * Persist the changes of the given edge properties with a partial update of the document
+     * properties, which leaves the other attributes of the document as they are; properties that
+     * no longer exist in the edge are removed from the document.
+     *
+     * @param edge                  the edge
+     * @param keys                  the keys of the changed properties
+     * @throws ArangoDBGraphException if the update fails
+     */
+
+    public void updateEdge(ArangoDBEdgeData edge, Collection<String> keys) {
+        invalidateElement(edge.getLabel(), edge.getKey());
+        if (writeBuffer != null) {
+            writeBuffer.updateEdge(edge, keys);
+            return;
+        }
+        logger.debug("Update edge {} properties {} in {}", edge, keys, graph.name());
+        DocumentUpdateEntity<?> updateEntity;
         try {
-            updateEntity = db.graph(graph.name())
-                    .edgeCollection(graph.getPrefixedCollectioName(edge.getLabel()))
-                    .replaceEdge(edge.getKey(), edge);
+            updateEntity = db.collection(graph.getPrefixedCollectioName(edge.getLabel()))
+                    .updateDocument(edge.getKey(), edge.propertiesPatch(keys, graph.flattensProperties()), propertiesUpdateOptions());
         } catch (ArangoDBException e) {
             logger.error("Failed to update edge: {}", e.getErrorMessage());
             throw ArangoDBExceptions.getArangoDBException(e);
+        } finally {
+            // Reads that started before the write must not cache what they read
+            invalidateElement(edge.getLabel(), edge.getKey());
         }
         logger.info("Edge updated, new rev {}", updateEntity.getRev());
         edge.setKey(updateEntity.getKey());
@@ -947,13 +2693,17 @@ public class ArangoDBGraphClient {
     }
 
     public void insertVertex(ArangoDBVertexData vertex) {
+        if (writeBuffer != null) {
+            writeBuffer.insertVertex(vertex);
+            return;
+        }
         logger.debug("Insert vertex {} in {}", vertex, graph.name());
         VertexEntity vertexEntity;
         String colName = graph.getPrefixedCollectioName(vertex.getLabel());
         try {
             vertexEntity = db.graph(graph.name())
                     .vertexCollection(colName)
-                    .insertVertex(vertex);
+                    .insertVertex(document(vertex), new VertexCreateOptions().streamTransactionId(streamTransactionId()));
         } catch (ArangoDBException e) {
             logger.error("Failed to insert document: {}", e.getMessage());
             ArangoDBGraphException arangoDBException = ArangoDBExceptions.getArangoDBException(e);
@@ -966,34 +2716,76 @@ public class ArangoDBGraphClient {
         vertex.setRev(vertexEntity.getRev());
     }
 
+    /**
+     * Delete the vertex and its incident edges, in all the graph's edge collections, with a single
+     * AQL query. Deleting a vertex that does not exist is a no-op.
+     *
+     * @param vertex                the vertex
+     * @throws ArangoDBGraphException if the query fails
+     */
+
     public void deleteVertex(ArangoDBVertexData vertex) {
         logger.debug("Delete vertex {} in {}", vertex, graph.name());
-        try {
-            db.graph(graph.name())
-                    .vertexCollection(graph.getPrefixedCollectioName(vertex.getLabel()))
-                    .deleteVertex(vertex.getKey());
-        } catch (ArangoDBException e) {
-            if(e.getErrorNum() == 1202) { // document not found
-                return;
-            }
-            logger.error("Failed to delete vertex: {}", e.getErrorMessage());
-            throw ArangoDBExceptions.getArangoDBException(e);
-        }
+        String id = graph.getPrefixedCollectioName(vertex.getLabel()) + "/" + vertex.getKey();
+        removeGraphVertices(Collections.singletonList(id), Collections.singletonList(vertex.getLabel()),
+                ArangoDBPropertyFilter.empty(), ArangoDBPropertySort.empty(), 0, -1);
     }
 
-    public void updateVertex(ArangoDBVertexData vertex) {
-        logger.debug("Update document {} in {}", vertex, graph.name());
-        VertexUpdateEntity vertexEntity;
+    /**
+     * Persist the changes of the given vertex properties with a partial update of the document
+     * properties, which leaves the other attributes of the document as they are; properties that
+     * no longer exist in the vertex are removed from the document.
+     *
+     * @param vertex                the vertex
+     * @param keys                  the keys of the changed properties
+     * @throws ArangoDBGraphException if the update fails
+     */
+
+    public void updateVertex(ArangoDBVertexData vertex, Collection<String> keys) {
+        invalidateElement(vertex.getLabel(), vertex.getKey());
+        if (writeBuffer != null) {
+            writeBuffer.updateVertex(vertex, keys);
+            return;
+        }
+        logger.debug("Update document {} properties {} in {}", vertex, keys, graph.name());
+        DocumentUpdateEntity<?> vertexEntity;
         try {
-            vertexEntity = db.graph(graph.name())
-                    .vertexCollection(graph.getPrefixedCollectioName(vertex.getLabel()))
-                    .replaceVertex(vertex.getKey(), vertex);
+            vertexEntity = db.collection(graph.getPrefixedCollectioName(vertex.getLabel()))
+                    .updateDocument(vertex.getKey(), vertex.propertiesPatch(keys, graph.flattensProperties()), propertiesUpdateOptions());
         } catch (ArangoDBException e) {
             logger.error("Failed to update document: {}", e.getErrorMessage());
             throw ArangoDBExceptions.getArangoDBException(e);
+        } finally {
+            // Reads that started before the write must not cache what they read
+            invalidateElement(vertex.getLabel(), vertex.getKey());
         }
         logger.info("Document updated, new rev {}", vertexEntity.getRev());
         vertex.setRev(vertexEntity.getRev());
     }
 
+    /**
+     * The options of the updates made with {@link ArangoDBVertexData#propertiesPatch(Collection, boolean)}
+     * documents: the nested properties are replaced, not merged, and null attributes are removed.
+     *
+     * @return the update options
+     */
+
+    DocumentUpdateOptions propertiesUpdateOptions() {
+        return new DocumentUpdateOptions().keepNull(false).mergeObjects(false).streamTransactionId(streamTransactionId());
+    }
+
+    /**
+     * Add the key of the document to the update document of its properties, to be used in
+     * multi-document updates.
+     *
+     * @param key                   the document key
+     * @param patch                 the update document of the changed properties
+     * @return the update document
+     */
+
+    private static Map<String, Object> documentPatch(String key, Map<String, Object> patch) {
+        patch.put("_key", key);
+        return patch;
+    }
+
 }
\ No newline at end of file
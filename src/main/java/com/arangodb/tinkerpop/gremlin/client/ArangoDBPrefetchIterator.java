@@ -0,0 +1,290 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.ArangoCursor;
+import com.arangodb.ArangoDBException;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBGraphClient.ArangoDBExceptions;
+
+/**
+ * An iterator that reads a cursor in a background thread, so that the next batch is fetched from
+ * the server while the current one is consumed. At most one batch of documents is held in the
+ * prefetch queue, so a long scan still runs in bounded memory. The background threads are taken
+ * from the given executor, the iterator can not be created if none of its threads is free. The
+ * iterator must be closed if it is not consumed completely, to stop the background thread and
+ * release the server cursor. If it is neither consumed nor closed, the background thread gives up
+ * once the queue stays full for the maximum wait (the cursor time to live): the cursor is closed
+ * and all the following reads fail, the iterator never ends early.
+ * <p>
+ * The iterator can also merge several cursors (e.g. one per collection) that are read in parallel
+ * by a bounded number of threads. The documents are returned as they arrive, so the order of the
+ * merged cursors is not preserved.
+ *
+ * @param <T> the document type
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public class ArangoDBPrefetchIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArangoDBPrefetchIterator.class);
+
+    /** The queue entry of a null document. */
+
+    private static final Object NULL = new Object();
+
+    /** The queue entry that marks the end of the cursor. */
+
+    private static final Object END = new Object();
+
+    /** The cursors that have not been opened yet. */
+
+    private final Queue<Supplier<ArangoCursor<T>>> sources;
+
+    /** The opened cursors that have not been read completely. */
+
+    private final Queue<ArangoCursor<T>> cursors = new ConcurrentLinkedQueue<>();
+
+    /** The number of cursors that have not been read completely. */
+
+    private final AtomicInteger remaining;
+
+    private final BlockingQueue<Object> queue;
+
+    private final List<Future<?>> fetchers = new ArrayList<>();
+
+    /** The maximum time (ms) a fetcher waits for space in the queue. */
+
+    private final long maxWait;
+
+    private volatile boolean closed = false;
+
+    /** The failure of a read, or of an abandoned iterator, thrown by all the following reads. */
+
+    private volatile RuntimeException failure;
+
+    /** The next queue entry, null if it has not been taken from the queue. */
+
+    private Object next;
+
+    /**
+     * Create a new prefetch iterator and start reading the cursor.
+     *
+     * @param cursor                the cursor
+     * @param capacity              the number of documents that can be prefetched
+     * @param maxWait               the maximum time (ms) the documents read wait to be consumed
+     * @param executor              the executor of the reading thread
+     * @throws RejectedExecutionException if the executor has no free thread
+     */
+
+    public ArangoDBPrefetchIterator(ArangoCursor<T> cursor, int capacity, long maxWait, ExecutorService executor) {
+        this(Collections.singletonList(() -> cursor), capacity, 1, maxWait, executor);
+    }
+
+    /**
+     * Create a new prefetch iterator that merges several cursors, and start reading them.
+     *
+     * @param sources               the suppliers that open the cursors, called by the reading threads
+     * @param capacity              the number of documents that can be prefetched
+     * @param parallelism           the maximum number of cursors that are read at the same time
+     * @param maxWait               the maximum time (ms) the documents read wait to be consumed
+     * @param executor              the executor of the reading threads
+     * @throws RejectedExecutionException if the executor has no free thread
+     */
+
+    public ArangoDBPrefetchIterator(
+            List<Supplier<ArangoCursor<T>>> sources,
+            int capacity,
+            int parallelism,
+            long maxWait,
+            ExecutorService executor) {
+        this.maxWait = maxWait;
+        this.sources = new ConcurrentLinkedQueue<>(sources);
+        this.remaining = new AtomicInteger(sources.size());
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        if (sources.isEmpty()) {
+            queue.add(END);
+        }
+        try {
+            for (int i = 0; i < Math.min(parallelism, sources.size()); i++) {
+                fetchers.add(executor.submit(this::fetch));
+            }
+        } catch (RejectedExecutionException e) {
+            // Read with the threads that could be started
+            if (fetchers.isEmpty()) {
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (closed) {
+                return false;
+            }
+            try {
+                next = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ArangoDBGraphException("Interrupted while waiting for the next cursor batch", e);
+            }
+        }
+        return next != END;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object result = next;
+        next = null;
+        return result == NULL ? null : (T) result;
+    }
+
+    /**
+     * Stop reading the cursors and close them.
+     */
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Future<?> fetcher : fetchers) {
+            fetcher.cancel(true);
+        }
+        closeCursors();
+    }
+
+    private void closeCursors() {
+        ArangoCursor<T> cursor;
+        while ((cursor = cursors.poll()) != null) {
+            closeCursor(cursor);
+        }
+    }
+
+    /**
+     * Open the pending cursors and read them into the queue, until all the cursors are exhausted,
+     * a read fails or the iterator is closed. The last fetcher to finish marks the end.
+     */
+
+    private void fetch() {
+        Supplier<ArangoCursor<T>> source;
+        while (!closed && failure == null && (source = sources.poll()) != null) {
+            try {
+                ArangoCursor<T> cursor = source.get();
+                cursors.add(cursor);
+                if (closed && cursors.remove(cursor)) {
+                    // Opened while the iterator was being closed
+                    closeCursor(cursor);
+                    return;
+                }
+                while (!closed && failure == null && cursor.hasNext()) {
+                    T document = cursor.next();
+                    if (!put(document == null ? NULL : document)) {
+                        return;
+                    }
+                }
+                if (cursors.remove(cursor)) {
+                    // Drained, or the iterator is closing: release it now rather than on close
+                    closeCursor(cursor);
+                }
+            } catch (ArangoDBException e) {
+                fail(ArangoDBExceptions.getArangoDBException(e));
+                return;
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+            if (remaining.decrementAndGet() == 0) {
+                put(END);
+            }
+        }
+    }
+
+    private static void closeCursor(ArangoCursor<?> cursor) {
+        try {
+            cursor.close();
+        } catch (Exception e) {
+            logger.warn("Failed to close cursor", e);
+        }
+    }
+
+    private void fail(RuntimeException exception) {
+        if (failure == null) {
+            failure = exception;
+        }
+    }
+
+    /**
+     * Add an entry to the queue, waiting for space while the iterator is open, at most the
+     * maximum wait.
+     *
+     * @param entry                 the entry
+     * @return true if the entry was added, false if the iterator was closed or abandoned
+     */
+
+    private boolean put(Object entry) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWait);
+        try {
+            while (!closed && failure == null) {
+                if (queue.offer(entry, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+                if (System.nanoTime() - deadline > 0) {
+                    abandon();
+                    return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Stop reading and close the cursors of an iterator that is no longer consumed. The other
+     * fetchers stop once they see the failure. The prefetched documents are dropped and a late
+     * read gets the failure instead of an incomplete result.
+     */
+
+    private void abandon() {
+        logger.warn("The prefetched documents were not consumed for {} ms, closing the cursors", maxWait);
+        fail(new ArangoDBGraphException(String.format(
+                "The prefetched documents were not consumed for %s ms and the cursors were closed", maxWait)));
+        closeCursors();
+        queue.clear();
+    }
+}
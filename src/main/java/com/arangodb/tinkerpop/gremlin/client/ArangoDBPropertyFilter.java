@@ -17,6 +17,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.arangodb.tinkerpop.gremlin.utils.ArangoDBUtil;
+
 /**
  * The ArangoDB property filter class constructs AQL segments for comparing a document property
  * with a given value.
@@ -67,9 +69,90 @@ public class ArangoDBPropertyFilter {
 		NOT_IN
 	};
 
+	/**
+	 * The document layouts a property filter can be applied to.
+	 */
+
+	public enum PropertyLayout {
+
+		/** Properties stored as plain document attributes, i.e. {@code doc.key}. */
+		ATTRIBUTE,
+
+		/** Vertex properties, stored as a list of values, i.e. {@code doc.properties.key[*].value}. */
+		VERTEX,
+
+		/** Edge properties, stored as a single value, i.e. {@code doc.properties.key.value}. */
+		EDGE,
+
+		/**
+		 * Vertex properties of graph documents, stored either as a list of values or, if they were
+		 * written by a graph that flattens properties, as a top level attribute, i.e. {@code doc.key}.
+		 */
+		FLAT_VERTEX,
+
+		/**
+		 * Edge properties of graph documents, stored either as a single value or, if they were
+		 * written by a graph that flattens properties, as a top level attribute, i.e. {@code doc.key}.
+		 */
+		FLAT_EDGE,
+
+		/**
+		 * Vertex properties of graph documents whose properties are all flattened, i.e. stored as a
+		 * top level attribute if the key can be flattened and as a list of values if not.
+		 */
+		FLAT_ONLY_VERTEX,
+
+		/**
+		 * Edge properties of graph documents whose properties are all flattened, i.e. stored as a
+		 * top level attribute if the key can be flattened and as a single value if not.
+		 */
+		FLAT_ONLY_EDGE;
+
+		/**
+		 * The layout of the nested properties of this layout.
+		 *
+		 * @return the nested layout
+		 */
+
+		public PropertyLayout nested() {
+			switch (this) {
+			case FLAT_VERTEX:
+			case FLAT_ONLY_VERTEX:
+				return VERTEX;
+			case FLAT_EDGE:
+			case FLAT_ONLY_EDGE:
+				return EDGE;
+			default:
+				return this;
+			}
+		}
+
+		/**
+		 * Returns true if properties can be stored as top level attributes.
+		 *
+		 * @return true, if the layout is a flattened one
+		 */
+
+		public boolean isFlat() {
+			return this != nested();
+		}
+
+		/**
+		 * Returns true if properties with a key that can be flattened may be stored either as top
+		 * level attributes or nested, so both forms must be filtered and sorted.
+		 *
+		 * @return true, if flattened and nested properties are mixed
+		 */
+
+		public boolean isMixed() {
+			return this == FLAT_VERTEX || this == FLAT_EDGE;
+		}
+	}
+
 	/** The Constant PROPERTY. */
 	
 	private static final String PROPERTY = "property";
+
 	
 	/** The Constant logger. */
 	
@@ -115,7 +198,36 @@ public class ArangoDBPropertyFilter {
 		String prefix,
 		List<String> filterSegments,
 		Map<String, Object> bindVars) {
+		addAqlSegments(prefix, PropertyLayout.ATTRIBUTE, filterSegments, bindVars);
+	}
+
+	/**
+	 * Constructs the the AQL segment for each property filter, addressing the properties according
+	 * to the given document layout, and adds the required name-value entries to the bind parameters
+	 * map.
+	 * <p>
+	 * For the {@link PropertyLayout#VERTEX} layout a segment matches if any of the values of the
+	 * (multi-valued) property matches. For range comparisons the stored value must be of the same
+	 * type as the compared value, which mirrors Gremlin's comparability rules. The
+	 * {@link PropertyLayout#ATTRIBUTE} layout does not match vertex or edge documents, whose
+	 * properties are nested objects.
+	 *
+	 * @param prefix 			the iterator/variable to which the property filter will be applied
+	 * @param layout 			the layout of the documents bound to the iterator/variable
+	 * @param filterSegments 	the list to populate with the AQL segments
+	 * @param bindVars 			the map to populate with the name-value bindings
+	 */
+
+	public void addAqlSegments(
+		String prefix,
+		PropertyLayout layout,
+		List<String> filterSegments,
+		Map<String, Object> bindVars) {
 		logger.debug("addAqlSegments");
+		if (layout != PropertyLayout.ATTRIBUTE) {
+			addPropertySegments(prefix, layout, filterSegments, bindVars);
+			return;
+		}
 		int count = 0;
 		for (final PropertyContainer container : propertyContainers) {
 			String key = escapeKey(container.key);
@@ -165,6 +277,264 @@ public class ArangoDBPropertyFilter {
 		}
 	}
 
+	/**
+	 * Adds the name-value entries of the filter to the bind parameters map, with the same names as
+	 * {@link #addAqlSegments(String, PropertyLayout, List, Map)}, but without constructing the AQL
+	 * segments. Use this to bind a cached query built for a filter of the same {@link #shape()}.
+	 *
+	 * @param layout 			the layout of the documents the filter is applied to
+	 * @param bindVars 			the map to populate with the name-value bindings
+	 */
+
+	public void addBindVars(
+		PropertyLayout layout,
+		Map<String, Object> bindVars) {
+		int count = 0;
+		for (final PropertyContainer container : propertyContainers) {
+			String bindName = PROPERTY + count++;
+			switch (container.compare) {
+			case HAS:
+			case HAS_NOT:
+				break;
+			case IN:
+			case NOT_IN:
+				if (layout == PropertyLayout.ATTRIBUTE) {
+					addArray(bindVars, bindName, container.value);
+				}
+				else {
+					bindVars.put(bindName, bindValue(container.value));
+				}
+				break;
+			default:
+				bindVars.put(bindName, layout == PropertyLayout.ATTRIBUTE ? container.value : bindValue(container.value));
+			}
+		}
+	}
+
+	/**
+	 * The shape of the filter, i.e. everything that determines the text of its AQL segments: the
+	 * keys, the compare operators, the type of the compared values and the size of the IN lists.
+	 * Filters with the same shape produce the same AQL segments and differ only in the bound values.
+	 *
+	 * @return the filter shape
+	 */
+
+	public String shape() {
+		StringBuilder shape = new StringBuilder();
+		for (final PropertyContainer container : propertyContainers) {
+			// Keys are length prefixed, so that any key can be used
+			shape.append(container.key.length()).append('#').append(container.key)
+				.append(':').append(container.compare.name()).append(':');
+			Object value = container.value;
+			if (value instanceof Number) {
+				shape.append('N');
+			}
+			else if (value instanceof String) {
+				shape.append('S');
+			}
+			else if (value instanceof Boolean) {
+				shape.append('B');
+			}
+			else if (value instanceof Iterable) {
+				int size = 0;
+				for (Iterator<?> it = ((Iterable<?>) value).iterator(); it.hasNext(); it.next()) {
+					size++;
+				}
+				shape.append('L').append(size);
+			}
+			else {
+				shape.append('O');
+			}
+			shape.append(';');
+		}
+		return shape.toString();
+	}
+
+	/**
+	 * Returns true if no filters have been added.
+	 *
+	 * @return true, if the filter is empty
+	 */
+
+	public boolean isEmpty() {
+		return propertyContainers.isEmpty();
+	}
+
+	/**
+	 * Constructs the AQL segments for the nested element property layouts. The segments are
+	 * written so that the server can use indexes on the property values:
+	 * <ul>
+	 *   <li> vertex properties are lists of {@code {id, value, ...}} objects, so equality is an
+	 *   {@code @value IN v.properties.key[*].value} test (array index on
+	 *   {@code properties.key[*].value}), and the other comparisons use the {@code ANY} array
+	 *   comparison operators on the property values;
+	 *   <li> edge properties are single {@code {value, ...}} objects, so the comparisons apply to
+	 *   {@code e.properties.key.value} (persistent index on {@code properties.key.value}).
+	 * </ul>
+	 * For the mixed flattened layouts a property matches in either form, i.e. the nested segment is
+	 * combined with a comparison of the top level attribute ({@code doc.key}), which the server can't
+	 * answer with a single index. For the other flattened layouts the properties whose key can be
+	 * flattened are only compared as top level attributes (persistent index on {@code key}).
+	 *
+	 * @param prefix 			the iterator/variable to which the property filter will be applied
+	 * @param layout 			the layout of the documents bound to the iterator/variable
+	 * @param filterSegments 	the list to populate with the AQL segments
+	 * @param bindVars 			the map to populate with the name-value bindings
+	 */
+
+	private void addPropertySegments(
+		String prefix,
+		PropertyLayout layout,
+		List<String> filterSegments,
+		Map<String, Object> bindVars) {
+		int count = 0;
+		for (final PropertyContainer container : propertyContainers) {
+			String bindName = PROPERTY + count++;
+			String property = prefix + "properties." + escapeKey(container.key);
+			String attribute = layout.isFlat() && ArangoDBUtil.isFlatKey(container.key) ? prefix + escapeKey(container.key) : null;
+			// Unless the layouts are mixed, a property that can be flattened is a top level attribute
+			boolean topLevel = attribute != null && !layout.isMixed();
+			if (topLevel) {
+				property = attribute;
+				attribute = null;
+			}
+			String operator;
+			switch (container.compare) {
+			case HAS:
+				filterSegments.add(attribute == null
+					? property + " != null"
+					: String.format("(%s != null OR %s != null)", property, attribute));
+				continue;
+			case HAS_NOT:
+				filterSegments.add(attribute == null
+					? property + " == null"
+					: String.format("%s == null AND %s == null", property, attribute));
+				continue;
+			case EQUAL:
+				operator = "==";
+				break;
+			case NOT_EQUAL:
+				operator = "!=";
+				break;
+			case GREATER_THAN:
+				operator = ">";
+				break;
+			case GREATER_THAN_EQUAL:
+				operator = ">=";
+				break;
+			case LESS_THAN:
+				operator = "<";
+				break;
+			case LESS_THAN_EQUAL:
+				operator = "<=";
+				break;
+			case IN:
+				operator = "IN";
+				break;
+			case NOT_IN:
+				operator = "NOT IN";
+				break;
+			default:
+				continue;
+			}
+			bindVars.put(bindName, bindValue(container.value));
+			boolean range = operator.startsWith("<") || operator.startsWith(">");
+			String segment;
+			if (topLevel) {
+				segment = valueSegment(property, property, container, operator, bindName);
+			}
+			else if (layout.nested() == PropertyLayout.VERTEX) {
+				if (container.compare == Compare.EQUAL) {
+					segment = String.format("@%s IN %s[*].value", bindName, property);
+				}
+				else if (range) {
+					String typeCheck = typeCheck("CURRENT.value", container.value);
+					String values = typeCheck.isEmpty()
+						? property + "[*].value"
+						: String.format("%s[* FILTER %s].value", property, StringUtils.removeEnd(typeCheck, " AND "));
+					segment = String.format("%s ANY %s @%s", values, operator, bindName);
+				}
+				else {
+					segment = String.format("%s[*].value ANY %s @%s", property, operator, bindName);
+				}
+			}
+			else {
+				segment = valueSegment(property, property + ".value", container, operator, bindName);
+			}
+			if (attribute != null) {
+				segment = String.format("((%s) OR (%s))", segment,
+					valueSegment(attribute, attribute, container, operator, bindName));
+			}
+			filterSegments.add(segment);
+		}
+	}
+
+	/**
+	 * Constructs the AQL segment that compares a single valued property.
+	 *
+	 * @param property 			the path of the property, null if it is missing
+	 * @param value 			the path of the property value
+	 * @param container 		the property filter
+	 * @param operator 			the AQL compare operator
+	 * @param bindName 			the name of the bound value
+	 * @return the AQL segment
+	 */
+
+	private String valueSegment(
+		String property,
+		String value,
+		PropertyContainer container,
+		String operator,
+		String bindName) {
+		if (operator.startsWith("<") || operator.startsWith(">")) {
+			return String.format("%s%s %s @%s", typeCheck(value, container.value), value, operator, bindName);
+		}
+		if (container.value != null && (container.compare == Compare.EQUAL || container.compare == Compare.IN)) {
+			return String.format("%s %s @%s", value, operator, bindName);
+		}
+		// A missing property is not different from the value(s)
+		return String.format("%s != null AND %s %s @%s", property, value, operator, bindName);
+	}
+
+	/**
+	 * Returns the AQL type check that guards a range comparison against the given value. AQL
+	 * compares values of different types by type order, while Gremlin considers them not
+	 * comparable.
+	 *
+	 * @param path the path of the compared attribute
+	 * @param value the value to compare against
+	 * @return the type check segment, or an empty string if no check is needed
+	 */
+
+	private String typeCheck(String path, Object value) {
+		if (value instanceof Number) {
+			return "IS_NUMBER(" + path + ") AND ";
+		}
+		if (value instanceof String) {
+			return "IS_STRING(" + path + ") AND ";
+		}
+		if (value instanceof Boolean) {
+			return "IS_BOOL(" + path + ") AND ";
+		}
+		return "";
+	}
+
+	/**
+	 * Convert a filter value into a bind parameter value, i.e. iterables are bound as lists.
+	 *
+	 * @param value the value
+	 * @return the bind parameter value
+	 */
+
+	private Object bindValue(Object value) {
+		if (value instanceof Iterable && !(value instanceof List)) {
+			List<Object> elements = new ArrayList<Object>();
+			((Iterable<?>) value).forEach(elements::add);
+			return elements;
+		}
+		return value;
+	}
+
 	/**
 	 * Adds the array.
 	 *
@@ -0,0 +1,158 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter.PropertyLayout;
+import com.arangodb.tinkerpop.gremlin.utils.ArangoDBUtil;
+
+/**
+ * The ArangoDB property sort class constructs the AQL SORT expressions that order documents by
+ * the values of their properties.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public class ArangoDBPropertySort {
+
+	public static ArangoDBPropertySort empty() {
+		return new ArangoDBPropertySort();
+	}
+
+	/** The sort keys, in order of precedence. */
+
+	private final List<SortKey> sortKeys = new ArrayList<SortKey>();
+
+	/**
+	 * Adds a new sort key and returns the object. This is a fluent method that allows adding
+	 * multiple sort keys to an ArangoDBPropertySort, the first key has the highest precedence.
+	 *
+	 * @param key 			Name of the property to sort by
+	 * @param ascending 	true to sort in ascending order, false for descending
+	 * @return return 		the property sort
+	 */
+
+	public ArangoDBPropertySort by(
+		final String key,
+		final boolean ascending) {
+		this.sortKeys.add(new SortKey(key, ascending));
+		return this;
+	}
+
+	/**
+	 * The property keys to sort by, in order of precedence.
+	 *
+	 * @return the list of keys
+	 */
+
+	public List<String> keys() {
+		List<String> keys = new ArrayList<String>();
+		for (SortKey sortKey : sortKeys) {
+			keys.add(sortKey.key);
+		}
+		return keys;
+	}
+
+	/**
+	 * Returns true if no sort keys have been added.
+	 *
+	 * @return true, if the sort is empty
+	 */
+
+	public boolean isEmpty() {
+		return sortKeys.isEmpty();
+	}
+
+	/**
+	 * The shape of the sort, i.e. the keys and directions that determine the text of its AQL
+	 * expressions.
+	 *
+	 * @return the sort shape
+	 */
+
+	public String shape() {
+		StringBuilder shape = new StringBuilder();
+		for (SortKey sortKey : sortKeys) {
+			shape.append(sortKey.key.length()).append('#').append(sortKey.key)
+				.append(sortKey.ascending ? ":ASC;" : ":DESC;");
+		}
+		return shape.toString();
+	}
+
+	/**
+	 * Constructs the AQL sort expression for each sort key, addressing the properties according
+	 * to the given document layout. Multi-valued vertex properties are sorted by their first
+	 * value, flattened properties by their top level attribute.
+	 * <p>
+	 * The server can only use a persistent index to sort on a plain attribute path: the top level
+	 * attribute of the properties of a graph whose properties are all flattened, or the nested value
+	 * of an edge property ({@code e.properties.key.value}). Nested vertex properties and mixed
+	 * layouts are sorted by a computed expression.
+	 *
+	 * @param prefix 			the iterator/variable to which the sort will be applied
+	 * @param layout 			the layout of the documents bound to the iterator/variable
+	 * @return the list of sort expressions
+	 */
+
+	public List<String> aqlSegments(
+		String prefix,
+		PropertyLayout layout) {
+		List<String> segments = new ArrayList<String>();
+		for (SortKey sortKey : sortKeys) {
+			String key = "`" + sortKey.key.replaceAll("`", "") + "`";
+			String expression;
+			switch (layout.nested()) {
+			case VERTEX:
+				expression = String.format("FIRST(%sproperties.%s[*].value)", prefix, key);
+				break;
+			case EDGE:
+				expression = String.format("%sproperties.%s.value", prefix, key);
+				break;
+			default:
+				expression = prefix + key;
+			}
+			if (layout.isFlat() && ArangoDBUtil.isFlatKey(sortKey.key)) {
+				// The property is either flattened or nested, unless all properties are flattened
+				expression = layout.isMixed()
+					? String.format("NOT_NULL(%s%s, %s)", prefix, key, expression)
+					: prefix + key;
+			}
+			segments.add(expression + (sortKey.ascending ? " ASC" : " DESC"));
+		}
+		return segments;
+	}
+
+	/**
+	 * The Class SortKey.
+	 */
+
+	private static class SortKey {
+
+		/** The property key. */
+
+		public final String key;
+
+		/** The direction. */
+
+		public final boolean ascending;
+
+		/**
+		 * Instantiates a new sort key.
+		 *
+		 * @param key the property key
+		 * @param ascending the direction
+		 */
+		public SortKey(final String key, final boolean ascending) {
+			this.key = key;
+			this.ascending = ascending;
+		}
+	}
+}
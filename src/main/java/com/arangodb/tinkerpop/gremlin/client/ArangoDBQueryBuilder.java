@@ -15,22 +15,31 @@ import java.util.Optional;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter.PropertyLayout;
 
 
 /**
  * The ArangoDB Query Builder class provides static methods for building AQL fragments that can be concatenated to build
  * complete AQL queries. Note that all parameters used to create query fragments are used as is, hence, all
  * pre-processing (e.g. prefix collection names) must be done in the callee.
+ * <p>
+ * The bind parameter names only depend on the order of the segments, so two queries built with
+ * the same segments and the same number of collections and filters have the same text. A builder
+ * created with {@link #bindingsOnly()} skips the text and only populates the bind parameters,
+ * which is used to bind a cached query of the same shape.
  *
  * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
  */
 public class ArangoDBQueryBuilder {
+
+	/** The count used for LIMIT segments that only skip elements, AQL requires an explicit count. */
+
+	private static final long UNBOUNDED_LIMIT = 9007199254740991L;
 	
-	private static final Logger logger = LoggerFactory.getLogger(ArangoDBQueryBuilder.class);
-	
-	private StringBuilder queryBuilder;
+	/** The query text, null if the builder only populates the bind parameters. */
+
+	private final StringBuilder queryBuilder;
 	
 	private int iterateCnt = 1;
 
@@ -155,7 +164,23 @@ public class ArangoDBQueryBuilder {
 	 * Create a new QueryBuilder with config of whether Collection Names should be prefixed with Graph name or not.
 	 */
 	public ArangoDBQueryBuilder() {
-		this.queryBuilder = new StringBuilder();
+		this(new StringBuilder());
+	}
+
+	private ArangoDBQueryBuilder(StringBuilder queryBuilder) {
+		this.queryBuilder = queryBuilder;
+	}
+
+	/**
+	 * Create a QueryBuilder that only populates the bind parameters of the segments, i.e. the query
+	 * text is not built. The segments must be added in the same order, and with the same number of
+	 * collections and filters, as the ones of the query that is bound.
+	 *
+	 * @return the query builder
+	 */
+
+	public static ArangoDBQueryBuilder bindingsOnly() {
+		return new ArangoDBQueryBuilder(null);
 	}
 
 	/**
@@ -168,18 +193,17 @@ public class ArangoDBQueryBuilder {
 	 */
 	
 	public ArangoDBQueryBuilder with(List<String> collections, Map<String, Object> bindVars) {
-		queryBuilder.append("WITH ");
-		String separator = "";
 		int colId = 1;
 		for (String c : collections) {
-			queryBuilder.append(separator);
-			separator = ",";
-			String varName = String.format("@with%s", colId);
-			queryBuilder.append("@").append(varName);
-			bindVars.put(varName, c);
+			bindVars.put("@with" + colId++, c);
+		}
+		if (queryBuilder != null) {
+			queryBuilder.append("WITH ");
+			for (int i = 1; i < colId; i++) {
+				queryBuilder.append(i > 1 ? "," : "").append("@@with").append(i);
+			}
+			queryBuilder.append("\n");
 		}
-		queryBuilder.append("\n");
-		logger.debug("with", queryBuilder.toString());
 		return this;
 	}
 	
@@ -198,11 +222,12 @@ public class ArangoDBQueryBuilder {
 		List<String> ids,
 		String loopVariable,
 		Map<String, Object> bindVars) {
-		queryBuilder.append("LET docs = FLATTEN(RETURN Document(@ids))\n");
-		queryBuilder.append(String.format("FOR %s IN docs\n", loopVariable));
-		queryBuilder.append(String.format("  FILTER NOT IS_NULL(%s)\n", loopVariable)); // Not needed?
+		if (queryBuilder != null) {
+			queryBuilder.append("LET docs = FLATTEN(RETURN Document(@ids))\n");
+			queryBuilder.append(String.format("FOR %s IN docs\n", loopVariable));
+			queryBuilder.append(String.format("  FILTER NOT IS_NULL(%s)\n", loopVariable)); // Not needed?
+		}
 		bindVars.put("ids", ids);
-		logger.debug("documentsById", queryBuilder.toString());
 		return this;
 	}
 	
@@ -220,9 +245,10 @@ public class ArangoDBQueryBuilder {
 		String id,
 		String loopVariable,
 		Map<String, Object> bindVars) {
-		queryBuilder.append(String.format("LET %s = Document(@id)\n", loopVariable));
+		if (queryBuilder != null) {
+			queryBuilder.append(String.format("LET %s = Document(@id)\n", loopVariable));
+		}
 		bindVars.put("id", id);
-		logger.debug("documentById", queryBuilder.toString());
 		return this;
 	}
 	
@@ -239,19 +265,59 @@ public class ArangoDBQueryBuilder {
 		List<String> collections,
 		String loopVariable,
 		Map<String, Object> bindVars) {
-		int count = 1;
+		return union(collections, loopVariable, ArangoDBPropertyFilter.empty(), PropertyLayout.ATTRIBUTE, -1, bindVars);
+	}
+
+	/**
+	 * Append an union segment in which the elements of each collection are filtered by the given
+	 * property filter. Filtering inside each of the union's subqueries allows the server to use the
+	 * collection indexes.
+	 * @param collections 			the collections that participate in the union
+	 * @param loopVariable 			the loop variable
+	 * @param propertyFilter		the property filter
+	 * @param layout				the layout of the documents in the collections
+	 * @param branchLimit			the maximum number of elements each collection contributes to the
+	 * 								union, negative for no limit
+	 * @param bindVars 				the map of bind parameters
+	 *
+	 * @return a reference to this object.
+	 */
+
+	public ArangoDBQueryBuilder union(
+		List<String> collections,
+		String loopVariable,
+		ArangoDBPropertyFilter propertyFilter,
+		PropertyLayout layout,
+		long branchLimit,
+		Map<String, Object> bindVars) {
+		if (queryBuilder == null) {
+			for (String c : collections) {
+				bindVars.put(String.format("@col%s", iterateCnt++), c);
+				propertyFilter.addBindVars(layout, bindVars);
+			}
+			return this;
+		}
 		String separator = "";
 		queryBuilder.append(String.format("FOR %s in UNION( \n", loopVariable));
 		queryBuilder.append("  (");
 		for (String c : collections) {
 			queryBuilder.append(separator);
 			separator = "),\n  (";
-			queryBuilder.append(String.format("FOR x%1$s IN @@col%1$s RETURN x%1$s", count));
-			bindVars.put(String.format("@col%s", count++), c);
+			String branchVariable = String.format("x%s", iterateCnt);
+			queryBuilder.append(String.format("FOR %s IN @@col%s", branchVariable, iterateCnt));
+			bindVars.put(String.format("@col%s", iterateCnt++), c);
+			List<String> filterSegments = new ArrayList<String>();
+			propertyFilter.addAqlSegments(String.format("%s.", branchVariable), layout, filterSegments, bindVars);
+			if (CollectionUtils.isNotEmpty(filterSegments)) {
+				queryBuilder.append(" FILTER ").append(StringUtils.join(filterSegments, " AND "));
+			}
+			if (branchLimit >= 0) {
+				queryBuilder.append(String.format(" LIMIT %s", branchLimit));
+			}
+			queryBuilder.append(String.format(" RETURN %s", branchVariable));
 		}
 		queryBuilder.append("  )\n");
 		queryBuilder.append(")\n");
-		logger.debug("union", queryBuilder.toString());
 		return this;
 	}
 	
@@ -268,9 +334,10 @@ public class ArangoDBQueryBuilder {
 	public ArangoDBQueryBuilder iterateCollection(
 		String loopVariable,
 		String collectionName, Map<String, Object> bindVars) {
-		queryBuilder.append(String.format("FOR %1$s IN @@col%2$s", loopVariable, iterateCnt)).append("\n");
+		if (queryBuilder != null) {
+			queryBuilder.append(String.format("FOR %1$s IN @@col%2$s", loopVariable, iterateCnt)).append("\n");
+		}
 		bindVars.put(String.format("@col%s", iterateCnt++), collectionName);
-		logger.debug("iterateCollection", queryBuilder.toString());
 		return this;
 	}
 	
@@ -299,6 +366,10 @@ public class ArangoDBQueryBuilder {
 		Direction direction,
 		String startVertex,
 		Map<String, Object> bindVars) {
+		bindVars.put("startVertex", startVertex);
+		if (queryBuilder == null) {
+			return this;
+		}
 		queryBuilder.append(String.format("FOR %s", vertexVariable));
 		if (edgeVariable.isPresent()) {
 			queryBuilder.append(String.format(", %s", edgeVariable.get()));
@@ -316,8 +387,6 @@ public class ArangoDBQueryBuilder {
 		}
 		queryBuilder.append(direction.getAqlName()).append(" @startVertex\n")
 			.append("    GRAPH '").append(graphName).append("'\n");		// FIXME Graph could be a parameter
-		bindVars.put("startVertex", startVertex);
-		logger.debug("iterateGraph", queryBuilder.toString());
 		return this;
 	}
 	
@@ -347,13 +416,23 @@ public class ArangoDBQueryBuilder {
 		Direction direction,
 		List<String> edgeCollections,
 		String startVertex, Map<String, Object> bindVars) {
+		bindVars.put("startVertex", startVertex);
+		if (queryBuilder == null) {
+			for (String c : edgeCollections) {
+				bindVars.put(String.format("@col%s", iterateCnt++), c);
+			}
+			return this;
+		}
 		queryBuilder.append(String.format("FOR %s", vertexVariable));
 		edgeVariable.ifPresent(ev -> queryBuilder.append(String.format(", %s", ev)));
 		pathVariable.ifPresent(pv -> queryBuilder.append(String.format(", %s", pv)));
 		queryBuilder.append("\n  IN ");
-		min.ifPresent(queryBuilder::append);
-		max.ifPresent(m -> queryBuilder.append(String.format("..%s", m)));
-		queryBuilder.append(direction.getAqlName()).append(" @startVertex\n");
+		if (min.isPresent()) {
+			queryBuilder.append(min.get());
+			max.ifPresent(m -> queryBuilder.append(String.format("..%s", m)));
+			queryBuilder.append(" ");
+		}
+		queryBuilder.append(direction.getAqlName()).append(" @startVertex\n    ");
 		String separator = "";
 		for (String c : edgeCollections) {
 			queryBuilder.append(separator);
@@ -361,11 +440,97 @@ public class ArangoDBQueryBuilder {
 			queryBuilder.append(String.format("@@col%s", iterateCnt));
 			bindVars.put(String.format("@col%s", iterateCnt++), c);
 		}
-		bindVars.put("@startVertex", startVertex);
-		logger.debug("iterateGraph", queryBuilder.toString());
+		queryBuilder.append("\n");
 		return this;
 	}
 	
+	/**
+	 * Add a PRUNE segment to a graph iteration, i.e. the traversal does not continue past the
+	 * vertices (paths) that satisfy all the conditions. Nothing is added if there are no
+	 * conditions. This segment must directly follow the graph iteration segment.
+	 *
+	 * @param conditions 			the AQL conditions
+	 * @return a reference to this object.
+	 */
+
+	public ArangoDBQueryBuilder prune(List<String> conditions) {
+		if (queryBuilder != null && CollectionUtils.isNotEmpty(conditions)) {
+			queryBuilder.append("  PRUNE ").append(StringUtils.join(conditions, " AND ")).append("\n");
+		}
+		return this;
+	}
+
+	/**
+	 * Add a shortest path segment that binds the path from the start vertex to the target vertex
+	 * to the path variable, as an object with vertices and edges attributes. If k is greater than
+	 * one, the k shortest (loopless) paths are iterated, in increasing order of weight. If no
+	 * weight attribute is given all edges have a weight of one, i.e. the paths with the fewest
+	 * edges are the shortest. If a weight attribute is given without a default weight, the query
+	 * fails when a path has an edge without a numeric weight attribute.
+	 *
+	 * @param pathVariable 			the path variable
+	 * @param direction 			follow edges pointing in the direction
+	 * @param startVertex 			the start vertex id
+	 * @param targetVertex 			the target vertex id
+	 * @param edgeCollections 		the edge collections
+	 * @param weightAttribute 		the edge attribute that holds the weight, null for unweighted paths
+	 * @param defaultWeight 		the weight of edges that don't have the weight attribute, null if
+	 * 								all edges must have it
+	 * @param k 					the number of paths
+	 * @param bindVars 				the map of bind parameters
+	 * @return a reference to this object.
+	 */
+
+	public ArangoDBQueryBuilder shortestPaths(
+		String pathVariable,
+		Direction direction,
+		String startVertex,
+		String targetVertex,
+		List<String> edgeCollections,
+		String weightAttribute,
+		Double defaultWeight,
+		long k,
+		Map<String, Object> bindVars) {
+		List<String> collections = new ArrayList<String>();
+		for (String c : edgeCollections) {
+			collections.add(String.format("@@col%s", iterateCnt));
+			bindVars.put(String.format("@col%s", iterateCnt++), c);
+		}
+		String options = "";
+		if (weightAttribute != null) {
+			bindVars.put("weightAttribute", weightAttribute);
+			if (defaultWeight != null) {
+				options = " OPTIONS {weightAttribute: @weightAttribute, defaultWeight: @defaultWeight}";
+				bindVars.put("defaultWeight", defaultWeight);
+			} else {
+				options = " OPTIONS {weightAttribute: @weightAttribute}";
+			}
+		}
+		bindVars.put("startVertex", startVertex);
+		bindVars.put("targetVertex", targetVertex);
+		if (queryBuilder == null) {
+			return this;
+		}
+		if (k == 1) {
+			queryBuilder.append(String.format("LET %s_steps = (FOR %s_v, %s_e IN %s SHORTEST_PATH @startVertex TO @targetVertex\n    %s%s\n",
+					pathVariable, pathVariable, pathVariable, direction.getAqlName(), StringUtils.join(collections, ", "), options));
+			queryBuilder.append(String.format("  RETURN {vertex: %s_v, edge: %s_e})\n", pathVariable, pathVariable));
+			queryBuilder.append(String.format("FOR %s IN (LENGTH(%s_steps) == 0 ? [] : [{vertices: %s_steps[*].vertex, edges: %s_steps[* FILTER CURRENT.edge != null].edge}])\n",
+					pathVariable, pathVariable, pathVariable, pathVariable));
+		} else {
+			queryBuilder.append(String.format("FOR %s IN %s K_SHORTEST_PATHS @startVertex TO @targetVertex\n    %s%s\n",
+					pathVariable, direction.getAqlName(), StringUtils.join(collections, ", "), options));
+		}
+		if (weightAttribute != null && defaultWeight == null) {
+			// The server weights edges without the attribute with the default weight, don't do it silently
+			String unweighted = String.format("%s.edges[* FILTER !IS_NUMBER(CURRENT[@weightAttribute])]", pathVariable);
+			queryBuilder.append(String.format("  FILTER LENGTH(%s) == 0 ? true : FAIL(CONCAT(\"Edge \", %s[0]._id, "
+					+ "\" has no numeric top level attribute \", @weightAttribute, \", set a default weight to use edges without it\"))\n",
+					unweighted, unweighted));
+		}
+		return this;
+	}
+
 	/**
 	 * Add a Graph options segment.
 	 *
@@ -382,7 +547,7 @@ public class ArangoDBQueryBuilder {
 		Optional<UniqueVertices> onVertices,
 		Optional<UniqueEdges> onEdges,
 		boolean bfs) {
-		if (onVertices.isPresent() || onEdges.isPresent() || bfs) {
+		if (queryBuilder != null && (onVertices.isPresent() || onEdges.isPresent() || bfs)) {
 			queryBuilder.append("  OPTIONS {");
 			if (onVertices.isPresent()) {
 				queryBuilder.append(String.format("uniqueVertices: '%s', ", onVertices.get().getAqlName()));
@@ -395,7 +560,6 @@ public class ArangoDBQueryBuilder {
 			}
 			queryBuilder.append("}\n");
 		}
-		logger.debug("graphOptions", queryBuilder.toString());
 		return this;
 	}
 
@@ -413,7 +577,11 @@ public class ArangoDBQueryBuilder {
 		String filterVariable,
 		List<String> collections,
 		Map<String, Object> bindVars) {
-		if (!collections.isEmpty()) {
+		if (queryBuilder == null) {
+			for (String c : collections) {
+				bindVars.put(String.format("@col%s", iterateCnt++), c);
+			}
+		} else if (!collections.isEmpty()) {
 			queryBuilder.append(" FILTER (IS_SAME_COLLECTION(");
 			String separator = "";
 			for (String c : collections) {
@@ -423,9 +591,8 @@ public class ArangoDBQueryBuilder {
 				bindVars.put(String.format("@col%s", iterateCnt++), c);
 			}
 			queryBuilder.append(String.format(", %s))\n", filterVariable));
+			filtered = true;
 		}
-		filtered = true;
-		logger.debug("filterSameCollections", queryBuilder.toString());
 		return this;
 	}
 	
@@ -443,20 +610,100 @@ public class ArangoDBQueryBuilder {
 		ArangoDBPropertyFilter propertyFilter,
 		String filterVariable,
 		Map<String, Object> bindVars) {
+		return filterProperties(propertyFilter, filterVariable, PropertyLayout.ATTRIBUTE, bindVars);
+	}
+
+	/**
+	 * Add a filter on element properties segment, for elements stored in the given layout. The filter
+	 * operations are defined using a #link {@link ArangoDBPropertyFilter}.
+	 *
+	 * @param propertyFilter		the property filter
+	 * @param filterVariable 		the filter variable
+	 * @param layout				the layout of the documents bound to the filter variable
+	 * @param bindVars 				the map of bind parameters
+	 * @return a reference to this object.
+	 */
+
+	public ArangoDBQueryBuilder filterProperties(
+		ArangoDBPropertyFilter propertyFilter,
+		String filterVariable,
+		PropertyLayout layout,
+		Map<String, Object> bindVars) {
+		if (queryBuilder == null) {
+			propertyFilter.addBindVars(layout, bindVars);
+			return this;
+		}
 		List<String> filterSegments = new ArrayList<String>();
-		propertyFilter.addAqlSegments(String.format("%s.", filterVariable), filterSegments, bindVars);
+		propertyFilter.addAqlSegments(String.format("%s.", filterVariable), layout, filterSegments, bindVars);
 		if (CollectionUtils.isNotEmpty(filterSegments)) {
 			if (filtered) {
 				queryBuilder.append(" AND ");
 			} else {
 				queryBuilder.append(" FILTER ");
+				filtered = true;
             }
 			queryBuilder.append(StringUtils.join(filterSegments, " AND ")).append("\n");
 		}
-		logger.debug("filterProperties", queryBuilder.toString());
 		return this;
 	}
 	
+	/**
+	 * Add a filter segment for the given AQL conditions. Nothing is added if there are no
+	 * conditions.
+	 *
+	 * @param conditions 			the AQL conditions
+	 * @return a reference to this object.
+	 */
+
+	public ArangoDBQueryBuilder filter(List<String> conditions) {
+		if (queryBuilder != null && CollectionUtils.isNotEmpty(conditions)) {
+			if (filtered) {
+				queryBuilder.append(" AND ");
+			} else {
+				queryBuilder.append(" FILTER ");
+				filtered = true;
+			}
+			queryBuilder.append(StringUtils.join(conditions, " AND ")).append("\n");
+		}
+		return this;
+	}
+
+	/**
+	 * Add a COLLECT WITH COUNT segment that counts the elements of the current iteration(s).
+	 *
+	 * @param countVariable 		the variable that holds the count
+	 * @return a reference to this object.
+	 */
+
+	public ArangoDBQueryBuilder collectWithCount(String countVariable) {
+		if (queryBuilder != null) {
+			queryBuilder.append(String.format("COLLECT WITH COUNT INTO %s\n", countVariable));
+		}
+		return this;
+	}
+
+	/**
+	 * Add a sort segment that orders the elements bound to the loop variable by the values of
+	 * their properties. Nothing is added if the property sort is empty.
+	 *
+	 * @param propertySort 			the property sort
+	 * @param loopVariable 			the loop variable
+	 * @param layout 				the layout of the documents bound to the loop variable
+	 * @return a reference to this object.
+	 */
+
+	public ArangoDBQueryBuilder sort(
+		ArangoDBPropertySort propertySort,
+		String loopVariable,
+		PropertyLayout layout) {
+		if (queryBuilder != null && !propertySort.isEmpty()) {
+			queryBuilder.append(" SORT ")
+				.append(StringUtils.join(propertySort.aqlSegments(loopVariable + ".", layout), ", "))
+				.append("\n");
+		}
+		return this;
+	}
+
 	/**
 	 * Add a limit segment to limit the number of elements returned.
 	 *
@@ -465,11 +712,106 @@ public class ArangoDBQueryBuilder {
 	 */
 	
 	public ArangoDBQueryBuilder limit(Long limit) {
-		queryBuilder.append(" LIMIT " + limit.toString());
-		logger.debug("limit", queryBuilder.toString());
+		if (queryBuilder != null) {
+			queryBuilder.append(" LIMIT ").append(limit).append("\n");
+		}
+		return this;
+	}
+
+	/**
+	 * Add a limit segment to skip the first offset elements and limit the number of elements
+	 * returned. A negative count does not limit the number of elements after the offset.
+	 *
+	 * @param offset 				the number of elements to skip
+	 * @param count 				the maximum number of elements to return, negative for no limit
+	 * @return a reference to this object.
+	 */
+
+	public ArangoDBQueryBuilder limit(long offset, long count) {
+		if (queryBuilder != null) {
+			queryBuilder.append(String.format(" LIMIT %s, %s\n", offset, count < 0 ? UNBOUNDED_LIMIT : count));
+		}
 		return this;
 	}
 	
+	/**
+	 * Start a subquery whose result is bound to the given variable. The subquery must be closed
+	 * with {@link #endSubquery()}.
+	 *
+	 * @param variable 				the variable that holds the subquery result
+	 * @return a reference to this object.
+	 */
+
+	public ArangoDBQueryBuilder subquery(String variable) {
+		if (queryBuilder != null) {
+			queryBuilder.append(String.format("LET %s = (\n", variable));
+		}
+		filtered = false;
+		return this;
+	}
+
+	/**
+	 * Close the current subquery.
+	 *
+	 * @return a reference to this object.
+	 */
+
+	public ArangoDBQueryBuilder endSubquery() {
+		if (queryBuilder != null) {
+			queryBuilder.append(")\n");
+		}
+		filtered = false;
+		return this;
+	}
+
+	/**
+	 * Add a REMOVE segment per edge collection that removes the edges incident to the documents
+	 * whose ids are bound to the ids variable. The edge indexes are used to find the edges.
+	 *
+	 * @param idsVariable 			the variable that holds the list of document ids
+	 * @param edgeCollections 		the edge collections
+	 * @param bindVars 				the map of bind parameters
+	 * @return a reference to this object.
+	 */
+
+	public ArangoDBQueryBuilder removeIncidentEdges(
+		String idsVariable,
+		List<String> edgeCollections,
+		Map<String, Object> bindVars) {
+		for (String c : edgeCollections) {
+			if (queryBuilder != null) {
+				queryBuilder.append(String.format("LET removed%1$s = (FOR e%1$s IN @@col%1$s FILTER e%1$s._from IN %2$s OR e%1$s._to IN %2$s"
+						+ " REMOVE e%1$s IN @@col%1$s OPTIONS { ignoreErrors: true })\n", iterateCnt, idsVariable));
+			}
+			bindVars.put(String.format("@col%s", iterateCnt++), c);
+		}
+		return this;
+	}
+
+	/**
+	 * Add a REMOVE segment per collection that removes the documents whose ids are bound to the
+	 * ids variable. Ids of documents that don't exist are ignored.
+	 *
+	 * @param idsVariable 			the variable that holds the list of document ids
+	 * @param collections 			the collections the documents can belong to
+	 * @param bindVars 				the map of bind parameters
+	 * @return a reference to this object.
+	 */
+
+	public ArangoDBQueryBuilder removeDocuments(
+		String idsVariable,
+		List<String> collections,
+		Map<String, Object> bindVars) {
+		for (String c : collections) {
+			if (queryBuilder != null) {
+				queryBuilder.append(String.format("LET removed%1$s = (FOR id%1$s IN %2$s FILTER IS_SAME_COLLECTION(@@col%1$s, id%1$s)"
+						+ " REMOVE PARSE_IDENTIFIER(id%1$s).key IN @@col%1$s OPTIONS { ignoreErrors: true })\n", iterateCnt, idsVariable));
+			}
+			bindVars.put(String.format("@col%s", iterateCnt++), c);
+		}
+		return this;
+	}
+
 	/**
 	 * Add a RETURN Segment. 
 	 * TODO provide finer grained return statements 
@@ -479,8 +821,29 @@ public class ArangoDBQueryBuilder {
 	 */
 	
 	public ArangoDBQueryBuilder ret(String returnStatement) {
-		queryBuilder.append("RETURN ").append(returnStatement).append("\n");
-		logger.debug("ret", queryBuilder.toString());
+		if (queryBuilder != null) {
+			queryBuilder.append("RETURN ").append(returnStatement).append("\n");
+		}
+		return this;
+	}
+
+	/**
+	 * Add a RETURN segment that only returns the given attributes of the document, e.g. the
+	 * system attributes and label of an element whose properties are not needed.
+	 *
+	 * @param variable 				the document variable
+	 * @param attributes 			the attributes to return
+	 * @return a reference to this object.
+	 */
+	
+	public ArangoDBQueryBuilder retKeep(String variable, List<String> attributes) {
+		if (queryBuilder != null) {
+			queryBuilder.append("RETURN KEEP(").append(variable);
+			for (String attribute : attributes) {
+				queryBuilder.append(", \"").append(attribute).append("\"");
+			}
+			queryBuilder.append(")\n");
+		}
 		return this;
 	}
 	
@@ -500,13 +863,15 @@ public class ArangoDBQueryBuilder {
 	 */
 	
 	public ArangoDBQueryBuilder append(String segment) {
-		queryBuilder.append(segment);
+		if (queryBuilder != null) {
+			queryBuilder.append(segment);
+		}
 		return this;
 	}
 	
 	@Override
 	public String toString() {
-		return queryBuilder.toString();
+		return queryBuilder == null ? "" : queryBuilder.toString();
 	}
 
 }
@@ -0,0 +1,111 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the AQL text of the queries a graph client executes repeatedly, keyed by
+ * the shape of the query: the query kind, the direction, the number of collections, the filter
+ * and sort keys, etc. The bind parameter names of the {@link ArangoDBQueryBuilder} only depend
+ * on the shape, so a cached query is bound with a {@link ArangoDBQueryBuilder#bindingsOnly()}
+ * builder and the text is built once per shape. When the cache is full the least recently used
+ * query is evicted.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public class ArangoDBQueryCache {
+
+    /** The number of queries cached by default. */
+
+    public static final int DEFAULT_SIZE = 512;
+
+    private final int maxSize;
+
+    private final Map<String, String> queries;
+
+    private long hits = 0;
+
+    private long misses = 0;
+
+    /**
+     * Create a new query cache.
+     *
+     * @param maxSize               the maximum number of cached queries
+     */
+
+    public ArangoDBQueryCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The query cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.queries = new LinkedHashMap<String, String>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > ArangoDBQueryCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get the cached query of the given shape.
+     *
+     * @param shape                 the query shape
+     * @return the query text, null if not cached
+     */
+
+    public synchronized String get(String shape) {
+        String query = queries.get(shape);
+        if (query == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return query;
+    }
+
+    public synchronized void put(String shape, String query) {
+        queries.put(shape, query);
+    }
+
+    public synchronized void clear() {
+        queries.clear();
+    }
+
+    public synchronized int size() {
+        return queries.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ArangoDBQueryCache{" +
+                "size=" + queries.size() +
+                ", maxSize=" + maxSize +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                '}';
+    }
+}
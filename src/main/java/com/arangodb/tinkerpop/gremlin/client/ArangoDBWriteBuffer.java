@@ -0,0 +1,265 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBEdgeData;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraphVariables;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertexData;
+
+/**
+ * The ArangoDB write buffer defers the element writes of a graph client (write-behind). Inserts
+ * are grouped per collection and persisted with multi-document requests, and the property
+ * changes of a document are coalesced into a single partial update. The buffer is only flushed
+ * by the graph's own operations: when it holds batch size writes, when the graph is closed or
+ * explicitly flushed, and before the client reads from the database, so that queries always see
+ * the buffered writes (read-your-writes). Writes are not flushed in the background, so buffered
+ * writes wait for the next of these operations.
+ * <p>
+ * Since inserts are deferred, the keys of new elements are generated by the client. Errors
+ * (e.g. duplicate keys) are reported when the buffer is flushed, not by the write that caused
+ * them. Buffered edges are inserted into their collections directly, so the graph's relation
+ * (from/to) constraints are not validated.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public class ArangoDBWriteBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArangoDBWriteBuffer.class);
+
+    private final ArangoDBGraphClient client;
+
+    private final int batchSize;
+
+    /** The buffered vertex inserts, by label. */
+
+    private final Map<String, List<ArangoDBVertexData>> vertexInserts = new LinkedHashMap<>();
+
+    /** The buffered edge inserts, by label. */
+
+    private final Map<String, List<ArangoDBEdgeData>> edgeInserts = new LinkedHashMap<>();
+
+    /** The documents that have buffered inserts, their changes are persisted by the insert. */
+
+    private final Set<Object> pendingInserts = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** The changed property keys of the buffered vertex updates. */
+
+    private final Map<ArangoDBVertexData, Set<String>> vertexUpdates = new IdentityHashMap<>();
+
+    /** The changed property keys of the buffered edge updates. */
+
+    private final Map<ArangoDBEdgeData, Set<String>> edgeUpdates = new IdentityHashMap<>();
+
+    /** The buffered graph variables update, null if none. */
+
+    private ArangoDBGraphVariables variablesUpdate;
+
+    /**
+     * Create a new write buffer.
+     *
+     * @param client                the client used to persist the writes
+     * @param batchSize             the number of buffered writes that triggers a flush
+     */
+
+    public ArangoDBWriteBuffer(ArangoDBGraphClient client, int batchSize) {
+        this.client = client;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Buffer a vertex insert. A key is assigned to the vertex if it has none.
+     *
+     * @param vertex                the vertex
+     */
+
+    public synchronized void insertVertex(ArangoDBVertexData vertex) {
+        if (vertex.getKey() == null) {
+            vertex.setKey(UUID.randomUUID().toString());
+        }
+        vertexInserts.computeIfAbsent(vertex.getLabel(), l -> new ArrayList<>()).add(vertex);
+        pendingInserts.add(vertex);
+        flushIfFull();
+    }
+
+    /**
+     * Buffer an edge insert. A key is assigned to the edge if it has none.
+     *
+     * @param edge                  the edge
+     */
+
+    public synchronized void insertEdge(ArangoDBEdgeData edge) {
+        if (edge.getKey() == null) {
+            edge.setKey(UUID.randomUUID().toString());
+        }
+        edgeInserts.computeIfAbsent(edge.getLabel(), l -> new ArrayList<>()).add(edge);
+        pendingInserts.add(edge);
+        flushIfFull();
+    }
+
+    /**
+     * Buffer the changes of the given vertex properties, coalescing them with the buffered
+     * changes of the vertex.
+     *
+     * @param vertex                the vertex
+     * @param keys                  the keys of the changed properties
+     */
+
+    public synchronized void updateVertex(ArangoDBVertexData vertex, Collection<String> keys) {
+        if (pendingInserts.contains(vertex)) {
+            return;
+        }
+        vertexUpdates.computeIfAbsent(vertex, v -> new HashSet<>()).addAll(keys);
+        flushIfFull();
+    }
+
+    /**
+     * Buffer the changes of the given edge properties, coalescing them with the buffered
+     * changes of the edge.
+     *
+     * @param edge                  the edge
+     * @param keys                  the keys of the changed properties
+     */
+
+    public synchronized void updateEdge(ArangoDBEdgeData edge, Collection<String> keys) {
+        if (pendingInserts.contains(edge)) {
+            return;
+        }
+        edgeUpdates.computeIfAbsent(edge, e -> new HashSet<>()).addAll(keys);
+        flushIfFull();
+    }
+
+    /**
+     * Buffer an update of the graph variables, replacing any buffered update.
+     *
+     * @param variables             the graph variables
+     */
+
+    public synchronized void updateGraphVariables(ArangoDBGraphVariables variables) {
+        variablesUpdate = variables;
+        flushIfFull();
+    }
+
+    /**
+     * The number of buffered writes.
+     *
+     * @return the number of writes
+     */
+
+    public synchronized int size() {
+        return pendingInserts.size() + vertexUpdates.size() + edgeUpdates.size() + (variablesUpdate == null ? 0 : 1);
+    }
+
+    /**
+     * Persist all the buffered writes: vertex inserts, edge inserts, updates and then the graph
+     * variables. Each group of writes leaves the buffer once its request is answered, so if a
+     * request fails the writes that were not sent stay buffered for the next flush. The documents
+     * rejected by the server are reported once, by the exception of the flush.
+     *
+     * @throws ArangoDBGraphException if the server rejected any of the writes, or a request failed
+     */
+
+    public synchronized void flush() {
+        if (size() == 0) {
+            return;
+        }
+        logger.debug("Flushing {} buffered writes", size());
+        List<ArangoDBBulkLoader.Failure> failures = new ArrayList<>();
+        try {
+            for (Iterator<Map.Entry<String, List<ArangoDBVertexData>>> it = vertexInserts.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, List<ArangoDBVertexData>> entry = it.next();
+                failures.addAll(client.insertVertices(entry.getKey(), entry.getValue(), ArangoDBBulkLoader.OnDuplicate.ERROR));
+                it.remove();
+                entry.getValue().forEach(pendingInserts::remove);
+            }
+            for (Iterator<Map.Entry<String, List<ArangoDBEdgeData>>> it = edgeInserts.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, List<ArangoDBEdgeData>> entry = it.next();
+                failures.addAll(client.insertEdges(entry.getKey(), entry.getValue(), ArangoDBBulkLoader.OnDuplicate.ERROR));
+                it.remove();
+                entry.getValue().forEach(pendingInserts::remove);
+            }
+            for (Map.Entry<String, Map<ArangoDBVertexData, Set<String>>> entry : byLabel(vertexUpdates).entrySet()) {
+                failures.addAll(client.updateVertices(entry.getKey(), entry.getValue()));
+                vertexUpdates.keySet().removeAll(entry.getValue().keySet());
+            }
+            for (Map.Entry<String, Map<ArangoDBEdgeData, Set<String>>> entry : byLabel(edgeUpdates).entrySet()) {
+                failures.addAll(client.updateEdges(entry.getKey(), entry.getValue()));
+                edgeUpdates.keySet().removeAll(entry.getValue().keySet());
+            }
+            if (variablesUpdate != null) {
+                client.persistGraphVariables(variablesUpdate);
+                variablesUpdate = null;
+            }
+        } catch (RuntimeException e) {
+            if (!failures.isEmpty()) {
+                e.addSuppressed(rejected(failures));
+            }
+            throw e;
+        }
+        if (!failures.isEmpty()) {
+            throw rejected(failures);
+        }
+    }
+
+    /**
+     * The exception that reports the writes rejected by the server, which are logged.
+     *
+     * @param failures              the rejected writes
+     * @return the exception
+     */
+
+    private static ArangoDBGraphException rejected(List<ArangoDBBulkLoader.Failure> failures) {
+        for (ArangoDBBulkLoader.Failure failure : failures) {
+            logger.error("Buffered write rejected: {}", failure);
+        }
+        return new ArangoDBGraphException(String.format("%s buffered writes were rejected by the server, first: %s",
+                failures.size(), failures.get(0)));
+    }
+
+    private void flushIfFull() {
+        if (size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Group the buffered updates by the label of the updated document.
+     *
+     * @param updates               the updates
+     * @param <D>                   the document type
+     * @return the updates, by label
+     */
+
+    private static <D> Map<String, Map<D, Set<String>>> byLabel(Map<D, Set<String>> updates) {
+        Map<String, Map<D, Set<String>>> result = new LinkedHashMap<>();
+        for (Map.Entry<D, Set<String>> entry : updates.entrySet()) {
+            D document = entry.getKey();
+            String label = document instanceof ArangoDBVertexData
+                    ? ((ArangoDBVertexData) document).getLabel()
+                    : ((ArangoDBEdgeData) document).getLabel();
+            result.computeIfAbsent(label, l -> new IdentityHashMap<>()).put(document, entry.getValue());
+        }
+        return result;
+    }
+}
@@ -13,6 +13,8 @@ import org.apache.tinkerpop.gremlin.jsr223.DefaultImportCustomizer;
 import org.apache.tinkerpop.gremlin.jsr223.ImportCustomizer;
 
 import com.arangodb.tinkerpop.gremlin.client.*;
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.map.ArangoDBShortestPathStep;
+import com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization.ArangoDBShortestPathStrategy;
 import com.arangodb.tinkerpop.gremlin.structure.*;
 import com.arangodb.tinkerpop.gremlin.utils.ArangoDBUtil;
 
@@ -32,18 +34,23 @@ public class ArangoDBGremlinPlugin extends AbstractGremlinPlugin {
         try {
             IMPORTS = DefaultImportCustomizer.build().addClassImports(
                     ArangoDBBaseDocument.class,
+                    ArangoDBBulkLoader.class,
                     ArangoDBGraphClient.class,
                     ArangoDBGraphException.class,
                     ArangoDBPropertyFilter.class,
                     ArangoDBQueryBuilder.class,
                     ArangoDBEdge.class,
                     ArangoDBEdgeData.class,
+                    ArangoDBPathData.class,
                     ArangoDBProperty.class,
                     ArangoDBGraph.class,
                     ArangoDBGraphVariables.class,
+                    ArangoDBVertexData.class,
                     ArangoDBVertexPropertyData.class,
                     ArangoDBVertex.class,
                     ArangoDBVertexProperty.class,
+                    ArangoDBShortestPathStep.class,
+                    ArangoDBShortestPathStrategy.class,
                     ArangoDBUtil.class
             		)
             	.create();
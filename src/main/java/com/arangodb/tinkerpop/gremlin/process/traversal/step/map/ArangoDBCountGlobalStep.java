@@ -0,0 +1,131 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.step.map;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter;
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.sideEffect.ArangoDBGraphStep;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+
+/**
+ * A start step that counts the elements matched by an {@link ArangoDBGraphStep} in the server, so
+ * that no documents are transferred.
+ *
+ * @param <S> the type of the counted elements
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBCountGlobalStep<S extends Element> extends AbstractStep<S, Long> {
+
+    /** The type of the counted elements. */
+
+    private final Class<S> elementClass;
+
+    /** The ids to count, empty for all. */
+
+    private final List<String> ids;
+
+    /** The collections (labels) to count, empty for none. */
+
+    private final List<String> collections;
+
+    /** The property filter. */
+
+    private final ArangoDBPropertyFilter propertyFilter;
+
+    /** The low end of the range folded into the graph step. */
+
+    private final long low;
+
+    /** The high end of the range folded into the graph step, -1 if unbounded. */
+
+    private final long high;
+
+    private boolean done = false;
+
+    /**
+     * Create a new count step that counts the elements matched by the graph step.
+     *
+     * @param traversal         the traversal
+     * @param graphStep         the graph step whose elements are counted
+     */
+
+    @SuppressWarnings("unchecked")
+    public ArangoDBCountGlobalStep(final Traversal.Admin traversal, final ArangoDBGraphStep<?, ?> graphStep) {
+        super(traversal);
+        this.elementClass = (Class<S>) graphStep.getReturnClass();
+        this.ids = graphStep.getQueryIds();
+        this.collections = graphStep.getQueryCollections();
+        this.propertyFilter = graphStep.getPropertyFilter();
+        this.low = graphStep.getLowRange();
+        this.high = graphStep.getHighRange();
+    }
+
+    @Override
+    protected Traverser.Admin<Long> processNextStart() throws NoSuchElementException {
+        if (this.done) {
+            throw FastNoSuchElementException.instance();
+        }
+        this.done = true;
+        final ArangoDBGraph graph = (ArangoDBGraph) this.getTraversal().getGraph().get();
+        long count = 0;
+        if (!this.collections.isEmpty()) {
+            count = Vertex.class.isAssignableFrom(this.elementClass) ?
+                    graph.getClient().countGraphVertices(this.ids, restriction(graph.vertexCollections()), this.propertyFilter) :
+                    graph.getClient().countGraphEdges(this.ids, restriction(graph.edgeCollections()), this.propertyFilter);
+        }
+        count = Math.max(0, count - this.low);
+        if (this.high != -1) {
+            count = Math.min(count, this.high - this.low);
+        }
+        return this.getTraversal().getTraverserGenerator().generate(count, (Step) this, 1L);
+    }
+
+    /**
+     * The collection restriction to pass to the client, the client counts all the graph
+     * collections if the list is empty.
+     *
+     * @param graphCollections  the graph collections of the element type
+     * @return the collection restriction
+     */
+
+    private List<String> restriction(List<String> graphCollections) {
+        return this.collections.size() == graphCollections.size() ? Collections.emptyList() : this.collections;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase(), this.collections);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.elementClass.hashCode() ^ this.collections.hashCode()
+                ^ Long.hashCode(this.low) ^ Long.hashCode(this.high);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.done = false;
+    }
+}
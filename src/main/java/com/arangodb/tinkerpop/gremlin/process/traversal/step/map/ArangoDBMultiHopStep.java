@@ -0,0 +1,104 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.step.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.FlatMapStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertex;
+
+/**
+ * A step that replaces a chain of adjacent vertex steps in the same direction, e.g.
+ * {@code out('a').out().out('b')}, and computes the vertices at the end of the chain with a single
+ * AQL graph traversal per incoming vertex, instead of one query per hop and traverser.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBMultiHopStep extends FlatMapStep<Vertex, Vertex> {
+
+    /** The direction of all the hops. */
+
+    private final Direction direction;
+
+    /** The edge labels to follow at each hop, an empty array follows all edges. */
+
+    private final List<String[]> edgeLabelsPerHop;
+
+    /**
+     * Create a new multi hop step.
+     *
+     * @param traversal         the traversal
+     * @param direction         the direction of all the hops
+     * @param edgeLabelsPerHop  the edge labels to follow at each hop
+     */
+
+    public ArangoDBMultiHopStep(final Traversal.Admin traversal, final Direction direction, final List<String[]> edgeLabelsPerHop) {
+        super(traversal);
+        this.direction = direction;
+        this.edgeLabelsPerHop = Collections.unmodifiableList(new ArrayList<>(edgeLabelsPerHop));
+    }
+
+    @Override
+    protected Iterator<Vertex> flatMap(final Traverser.Admin<Vertex> traverser) {
+        final Vertex vertex = traverser.get();
+        if (vertex instanceof ArangoDBVertex) {
+            return ((ArangoDBVertex) vertex).vertices(this.direction, this.edgeLabelsPerHop);
+        }
+        Iterator<Vertex> vertices = IteratorUtils.of(vertex);
+        for (final String[] edgeLabels : this.edgeLabelsPerHop) {
+            vertices = IteratorUtils.flatMap(vertices, v -> v.vertices(this.direction, edgeLabels));
+        }
+        return vertices;
+    }
+
+    public Direction getDirection() {
+        return this.direction;
+    }
+
+    public List<String[]> getEdgeLabelsPerHop() {
+        return this.edgeLabelsPerHop;
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        return Collections.singleton(TraverserRequirement.OBJECT);
+    }
+
+    @Override
+    public String toString() {
+        final List<String> hops = new ArrayList<>(this.edgeLabelsPerHop.size());
+        for (final String[] edgeLabels : this.edgeLabelsPerHop) {
+            hops.add(Arrays.toString(edgeLabels));
+        }
+        return StringFactory.stepString(this, this.direction, hops);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode() ^ this.direction.hashCode();
+        for (final String[] edgeLabels : this.edgeLabelsPerHop) {
+            result = 31 * result + Arrays.hashCode(edgeLabels);
+        }
+        return result;
+    }
+}
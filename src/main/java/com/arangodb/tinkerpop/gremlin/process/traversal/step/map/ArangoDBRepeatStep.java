@@ -0,0 +1,169 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.step.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.FlatMapStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter;
+import com.arangodb.tinkerpop.gremlin.process.traversal.util.ArangoDBTraversalUtil;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertex;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertexData;
+
+/**
+ * A step that replaces a {@code repeat(out())} step, with its times(), emit() and until()
+ * modulators, and computes the vertices it emits with a single AQL variable depth traversal per
+ * incoming vertex:
+ * <pre>
+ * repeat(out('x')).times(3)                  // FOR v IN 3..3 OUTBOUND ...
+ * repeat(out('x')).emit().times(3)           // FOR v IN 1..3 OUTBOUND ...
+ * repeat(out('x')).until(has('name', y))     // FOR v, e, p IN 1..max OUTBOUND ... PRUNE cond FILTER cond
+ * </pre>
+ * The until condition is given as has containers that can be evaluated by the server.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBRepeatStep extends FlatMapStep<Vertex, Vertex> {
+
+    /** The direction of the repeated vertex step. */
+
+    private final Direction direction;
+
+    /** The edge labels of the repeated vertex step. */
+
+    private final String[] edgeLabels;
+
+    /** The minimum depth of the emitted vertices. */
+
+    private final int minDepth;
+
+    /** The maximum depth of the traversal. */
+
+    private final int maxDepth;
+
+    /** The has containers of the until condition, null if none. */
+
+    private final List<HasContainer> untilContainers;
+
+    /** True if the until condition is tested on the incoming vertex, i.e. until() before repeat(). */
+
+    private final boolean untilFirst;
+
+    /** True if only the vertices that satisfy the until condition are emitted. */
+
+    private final boolean filterUntil;
+
+    /**
+     * Create a new repeat step.
+     *
+     * @param traversal         the traversal
+     * @param direction         the direction of the repeated vertex step
+     * @param edgeLabels        the edge labels of the repeated vertex step
+     * @param minDepth          the minimum depth of the emitted vertices
+     * @param maxDepth          the maximum depth of the traversal
+     * @param untilContainers   the has containers of the until condition, null if none
+     * @param untilFirst        true if the until condition is tested on the incoming vertex
+     * @param filterUntil       true if only the vertices that satisfy the until condition are emitted
+     */
+
+    public ArangoDBRepeatStep(
+            final Traversal.Admin traversal,
+            final Direction direction,
+            final String[] edgeLabels,
+            final int minDepth,
+            final int maxDepth,
+            final List<HasContainer> untilContainers,
+            final boolean untilFirst,
+            final boolean filterUntil) {
+        super(traversal);
+        this.direction = direction;
+        this.edgeLabels = edgeLabels;
+        this.minDepth = minDepth;
+        this.maxDepth = maxDepth;
+        this.untilContainers = untilContainers == null ? null : Collections.unmodifiableList(new ArrayList<>(untilContainers));
+        this.untilFirst = untilFirst;
+        this.filterUntil = filterUntil;
+    }
+
+    @Override
+    protected Iterator<Vertex> flatMap(final Traverser.Admin<Vertex> traverser) {
+        final Vertex vertex = traverser.get();
+        final ArangoDBGraph graph = (ArangoDBGraph) this.getTraversal().getGraph().get();
+        final List<String> edgeCollections = graph.edgeCollections().stream()
+                .filter(label -> this.edgeLabels.length == 0 || Arrays.asList(this.edgeLabels).contains(label))
+                .map(graph::getPrefixedCollectioName)
+                .collect(Collectors.toList());
+        ArangoDBPropertyFilter untilFilter = null;
+        List<String> untilCollections = Collections.emptyList();
+        if (this.untilContainers != null) {
+            final List<String> labels = ArangoDBTraversalUtil.labelRestriction(this.untilContainers, graph.vertexCollections());
+            if (labels.isEmpty()) {
+                // No vertex satisfies the until condition
+                if (this.filterUntil) {
+                    return Collections.emptyIterator();
+                }
+            } else {
+                untilFilter = ArangoDBPropertyFilter.empty();
+                ArangoDBTraversalUtil.addPropertyFilters(this.untilContainers, untilFilter);
+                if (labels.size() < graph.vertexCollections().size()) {
+                    untilCollections = labels.stream().map(graph::getPrefixedCollectioName).collect(Collectors.toList());
+                }
+            }
+        }
+        if (edgeCollections.isEmpty()) {
+            // Only the incoming vertex can be emitted
+            final boolean emitted = this.minDepth == 0
+                    && (!this.filterUntil || HasContainer.testAll(vertex, this.untilContainers));
+            return emitted ? IteratorUtils.of(vertex) : Collections.emptyIterator();
+        }
+        return IteratorUtils.map(
+                graph.getClient().getDocumentTraversal(vertex.id().toString(), edgeCollections, this.direction,
+                        this.minDepth, this.maxDepth, untilFilter, untilCollections, this.untilFirst, this.filterUntil,
+                        ArangoDBVertexData.class).iterator(),
+                data -> new ArangoDBVertex(graph, data));
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        return Collections.singleton(TraverserRequirement.OBJECT);
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.direction, Arrays.asList(this.edgeLabels),
+                this.minDepth + ".." + this.maxDepth, this.untilContainers);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode() ^ this.direction.hashCode() ^ Arrays.hashCode(this.edgeLabels)
+                ^ Integer.hashCode(this.minDepth) ^ Integer.hashCode(this.maxDepth);
+        if (this.untilContainers != null) {
+            result ^= this.untilContainers.hashCode();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,166 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.step.map;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.FlatMapStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ImmutablePath;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBEdge;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBPathData;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertex;
+
+/**
+ * A step that emits the shortest paths from the incoming vertex to a target vertex, computed by
+ * the server with an AQL SHORTEST_PATH (one path) or K_SHORTEST_PATHS (k paths) query. The paths
+ * are emitted in increasing order of length, or of weight if a weight attribute is given, and
+ * start at the incoming vertex. If edges are included, the path alternates vertices and edges, as
+ * the path of a {@code repeat(outE().inV())} traversal does.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBShortestPathStep extends FlatMapStep<Vertex, Path> {
+
+    /** The id of the target vertex. */
+
+    private final String targetId;
+
+    /** The direction of the followed edges. */
+
+    private final Direction direction;
+
+    /** The labels of the followed edges, all if empty. */
+
+    private final String[] edgeLabels;
+
+    /** True if the emitted paths include the edges. */
+
+    private final boolean includeEdges;
+
+    /** The maximum number of paths per incoming vertex. */
+
+    private final long k;
+
+    /** The edge attribute that holds the weight, null for unweighted paths. */
+
+    private final String weightAttribute;
+
+    /** The weight of edges that don't have the weight attribute, null if all edges must have it. */
+
+    private final Double defaultWeight;
+
+    /**
+     * Create a new shortest path step.
+     *
+     * @param traversal         the traversal
+     * @param targetId          the id of the target vertex
+     * @param direction         the direction of the followed edges
+     * @param edgeLabels        the labels of the followed edges, all if empty
+     * @param includeEdges      true if the emitted paths include the edges
+     * @param k                 the maximum number of paths per incoming vertex
+     * @param weightAttribute   the edge attribute that holds the weight, null for unweighted paths
+     * @param defaultWeight     the weight of edges that don't have the weight attribute, null if
+     *                          all edges must have it
+     */
+
+    public ArangoDBShortestPathStep(
+            final Traversal.Admin traversal,
+            final String targetId,
+            final Direction direction,
+            final String[] edgeLabels,
+            final boolean includeEdges,
+            final long k,
+            final String weightAttribute,
+            final Double defaultWeight) {
+        super(traversal);
+        this.targetId = targetId;
+        this.direction = direction;
+        this.edgeLabels = edgeLabels;
+        this.includeEdges = includeEdges;
+        this.k = k;
+        this.weightAttribute = weightAttribute;
+        this.defaultWeight = defaultWeight;
+    }
+
+    @Override
+    protected Iterator<Path> flatMap(final Traverser.Admin<Vertex> traverser) {
+        final String startId = traverser.get().id().toString();
+        final ArangoDBGraph graph = (ArangoDBGraph) this.getTraversal().getGraph().get();
+        final List<String> edgeCollections = graph.edgeCollections().stream()
+                .filter(label -> this.edgeLabels.length == 0 || Arrays.asList(this.edgeLabels).contains(label))
+                .map(graph::getPrefixedCollectioName)
+                .collect(Collectors.toList());
+        // A path has at least one edge, and can not visit a vertex twice
+        if (edgeCollections.isEmpty() || startId.equals(this.targetId)) {
+            return Collections.emptyIterator();
+        }
+        return IteratorUtils.map(
+                graph.getClient().getShortestPaths(startId, this.targetId, edgeCollections, this.direction,
+                        this.weightAttribute, this.defaultWeight, this.k).iterator(),
+                data -> toPath(graph, data));
+    }
+
+    /**
+     * Convert the path returned by the server into a Gremlin path.
+     *
+     * @param graph             the graph
+     * @param data              the path data
+     * @return the path
+     */
+
+    private Path toPath(final ArangoDBGraph graph, final ArangoDBPathData data) {
+        Path path = ImmutablePath.make();
+        for (int i = 0; i < data.getVertices().size(); i++) {
+            if (this.includeEdges && i > 0) {
+                path = path.extend(new ArangoDBEdge(graph, data.getEdges().get(i - 1)), Collections.emptySet());
+            }
+            path = path.extend(new ArangoDBVertex(graph, data.getVertices().get(i)), Collections.emptySet());
+        }
+        return path;
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        return Collections.singleton(TraverserRequirement.OBJECT);
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.targetId, this.direction, Arrays.asList(this.edgeLabels),
+                this.includeEdges ? "edges" : "vertices", this.k, this.weightAttribute);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode() ^ this.targetId.hashCode() ^ this.direction.hashCode()
+                ^ Arrays.hashCode(this.edgeLabels) ^ Boolean.hashCode(this.includeEdges) ^ Long.hashCode(this.k)
+                ^ Objects.hashCode(this.defaultWeight);
+        if (this.weightAttribute != null) {
+            result ^= this.weightAttribute.hashCode();
+        }
+        return result;
+    }
+}
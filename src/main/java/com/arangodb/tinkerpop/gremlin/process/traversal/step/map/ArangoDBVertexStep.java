@@ -0,0 +1,127 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.step.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertex;
+
+/**
+ * A vertex step that asks the server for at most limit adjacent elements per incoming vertex.
+ * The step is used when a range() follows an out()/in()/both() (or outE()/inE()/bothE()) step:
+ * the range is still evaluated in the JVM, but a traverser never needs more than high elements
+ * of each vertex, so the remaining ones are not transferred. The step can also read the adjacent
+ * elements without their properties, when the traversal only uses their ids and labels, see
+ * {@link com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization.ArangoDBProjectionStrategy}.
+ *
+ * @param <E> the type of the element (Vertex or Edge) returned by the step
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBVertexStep<E extends Element> extends VertexStep<E> {
+
+    /** The maximum number of elements to fetch per vertex, -1 if unbounded. */
+
+    private final long limit;
+
+    /** True if the properties of the elements are read with the elements. */
+
+    private final boolean withProperties;
+
+    /**
+     * Create a new ArangoDBVertexStep that replaces the given vertex step.
+     *
+     * @param originalVertexStep    the original vertex step
+     * @param limit                 the maximum number of elements to fetch per vertex
+     */
+
+    public ArangoDBVertexStep(final VertexStep<E> originalVertexStep, final long limit) {
+        this(originalVertexStep, limit, true);
+    }
+
+    /**
+     * Create a new ArangoDBVertexStep that replaces the given vertex step.
+     *
+     * @param originalVertexStep    the original vertex step
+     * @param limit                 the maximum number of elements to fetch per vertex, -1 if unbounded
+     * @param withProperties        true if the properties of the elements are read with the elements
+     */
+
+    public ArangoDBVertexStep(final VertexStep<E> originalVertexStep, final long limit, final boolean withProperties) {
+        super(originalVertexStep.getTraversal(), originalVertexStep.getReturnClass(),
+                originalVertexStep.getDirection(), originalVertexStep.getEdgeLabels());
+        originalVertexStep.getLabels().forEach(this::addLabel);
+        this.limit = limit;
+        this.withProperties = withProperties;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Iterator<E> flatMap(final Traverser.Admin<Vertex> traverser) {
+        final Vertex vertex = traverser.get();
+        if ((this.limit < 0 && this.withProperties) || !(vertex instanceof ArangoDBVertex)) {
+            return super.flatMap(traverser);
+        }
+        final ArangoDBVertex arangoVertex = (ArangoDBVertex) vertex;
+        return Vertex.class.isAssignableFrom(getReturnClass()) ?
+                (Iterator<E>) arangoVertex.vertices(getDirection(), this.limit, this.withProperties, getEdgeLabels()) :
+                (Iterator<E>) arangoVertex.edges(getDirection(), this.limit, this.withProperties, getEdgeLabels());
+    }
+
+    /**
+     * The maximum number of elements fetched per vertex.
+     *
+     * @return the limit, -1 if unbounded
+     */
+
+    public long getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * Returns true if the properties of the elements are read with the elements.
+     *
+     * @return false, if the properties are only read when they are accessed
+     */
+
+    public boolean isWithProperties() {
+        return this.withProperties;
+    }
+
+    @Override
+    public String toString() {
+        final List<Object> arguments = new ArrayList<>();
+        arguments.add(getDirection());
+        arguments.add(Arrays.asList(getEdgeLabels()));
+        arguments.add(getReturnClass().getSimpleName().toLowerCase(Locale.ROOT));
+        if (this.limit >= 0) {
+            arguments.add("limit=" + this.limit);
+        }
+        if (!this.withProperties) {
+            arguments.add("noProperties");
+        }
+        return StringFactory.stepString(this, arguments.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ Long.hashCode(this.limit) ^ Boolean.hashCode(this.withProperties);
+    }
+}
@@ -0,0 +1,440 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.step.sideEffect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.AndP;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.javatuples.Pair;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBCursorOptions;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPrefetchIterator;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertySort;
+import com.arangodb.tinkerpop.gremlin.process.traversal.util.ArangoDBTraversalUtil;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBEdge;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertex;
+
+/**
+ * A graph step that evaluates its has containers in the server. Label predicates restrict the
+ * collections that are queried and property predicates are compiled into an AQL FILTER. All the
+ * has containers are still tested in the JVM, so predicates that can not be compiled are honoured.
+ *
+ * @param <S> the type of the incoming traversers
+ * @param <E> the type of the element (Vertex or Edge) returned by the step
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBGraphStep<S, E extends Element> extends GraphStep<S, E> implements HasContainerHolder, AutoCloseable {
+
+    /** The has containers folded into the step. */
+
+    private final List<HasContainer> hasContainers = new ArrayList<>();
+
+    /** The property keys (and orders) folded into the step, in order of precedence. */
+
+    private final List<Pair<String, Order>> sortKeys = new ArrayList<>();
+
+    /** The low end of the range folded into the step. */
+
+    private long low = 0;
+
+    /** The high end of the range folded into the step, -1 if the range is unbounded. */
+
+    private long high = -1;
+
+    /** True if the step removes the matching elements instead of returning them. */
+
+    private boolean drop = false;
+
+    /** True if the properties of the elements are read with the elements. */
+
+    private boolean withProperties = true;
+
+    /** The prefetching iterator of the current query, null if results are not prefetched. */
+
+    private ArangoDBPrefetchIterator<?> prefetch;
+
+    /**
+     * Create a new ArangoDBGraphStep that replaces the given graph step.
+     *
+     * @param originalGraphStep     the original graph step
+     */
+
+    @SuppressWarnings("unchecked")
+    public ArangoDBGraphStep(final GraphStep<S, E> originalGraphStep) {
+        super(originalGraphStep.getTraversal(), originalGraphStep.getReturnClass(), originalGraphStep.isStartStep(), originalGraphStep.getIds());
+        originalGraphStep.getLabels().forEach(this::addLabel);
+        this.setIteratorSupplier(() -> (Iterator<E>) (this.drop ? this.dropElements() : Vertex.class.isAssignableFrom(this.returnClass) ? this.vertices() : this.edges()));
+    }
+
+    /**
+     * Remove the elements that match the step ids, has containers, sort and range in the server.
+     * Removed vertices take their incident edges with them.
+     *
+     * @return an empty iterator, a drop step returns no elements
+     */
+
+    private Iterator<E> dropElements() {
+        final ArangoDBGraph graph = getGraph();
+        final List<String> collections = getQueryCollections();
+        if (!collections.isEmpty()) {
+            if (Vertex.class.isAssignableFrom(this.returnClass)) {
+                graph.getClient().removeGraphVertices(getQueryIds(), clientCollections(collections), getPropertyFilter(), getPropertySort(), this.low, rangeCount());
+            } else {
+                graph.getClient().removeGraphEdges(getQueryIds(), clientCollections(collections), getPropertyFilter(), getPropertySort(), this.low, rangeCount());
+            }
+        }
+        return Collections.emptyIterator();
+    }
+
+    /**
+     * Query the vertices that match the step ids and has containers.
+     *
+     * @return an iterator over the matching vertices
+     */
+
+    private Iterator<? extends Vertex> vertices() {
+        final ArangoDBGraph graph = getGraph();
+        final List<String> collections = getQueryCollections();
+        if (collections.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        final ArangoDBCursorOptions cursorOptions = ArangoDBTraversalUtil.cursorOptions(this.getTraversal());
+        final Iterator<Vertex> vertices = IteratorUtils.map(
+                results(graph.getClient().iterateGraphVertices(getQueryIds(), clientCollections(collections), getPropertyFilter(), getPropertySort(), this.low, rangeCount(), this.withProperties, cursorOptions)),
+                data -> new ArangoDBVertex(graph, data, this.withProperties));
+        return IteratorUtils.filter(vertices, vertex -> HasContainer.testAll(vertex, this.hasContainers));
+    }
+
+    /**
+     * Query the edges that match the step ids and has containers.
+     *
+     * @return an iterator over the matching edges
+     */
+
+    private Iterator<? extends Edge> edges() {
+        final ArangoDBGraph graph = getGraph();
+        final List<String> collections = getQueryCollections();
+        if (collections.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        final ArangoDBCursorOptions cursorOptions = ArangoDBTraversalUtil.cursorOptions(this.getTraversal());
+        final Iterator<Edge> edges = IteratorUtils.map(
+                results(graph.getClient().iterateGraphEdges(getQueryIds(), clientCollections(collections), getPropertyFilter(), getPropertySort(), this.low, rangeCount(), this.withProperties, cursorOptions)),
+                data -> new ArangoDBEdge(graph, data, this.withProperties));
+        return IteratorUtils.filter(edges, edge -> HasContainer.testAll(edge, this.hasContainers));
+    }
+
+    /**
+     * Keep track of the results of the step query. A prefetching (or parallel) iterator is closed
+     * when the step is closed or reset.
+     *
+     * @param results           the query results
+     * @param <T>               the document type
+     * @return the results
+     */
+
+    private <T> Iterator<T> results(final Iterator<T> results) {
+        closePrefetch();
+        if (results instanceof ArangoDBPrefetchIterator) {
+            this.prefetch = (ArangoDBPrefetchIterator<?>) results;
+        }
+        return results;
+    }
+
+    private void closePrefetch() {
+        if (this.prefetch != null) {
+            this.prefetch.close();
+            this.prefetch = null;
+        }
+    }
+
+    @Override
+    public void reset() {
+        closePrefetch();
+        super.reset();
+    }
+
+    @Override
+    public void close() {
+        closePrefetch();
+        super.close();
+    }
+
+    /**
+     * The ids to query, as Strings.
+     *
+     * @return the list of ids, empty if all elements should be queried
+     */
+
+    public List<String> getQueryIds() {
+        return ArangoDBTraversalUtil.elementIds(this.ids);
+    }
+
+    /**
+     * The collections (labels) to query, i.e. the graph collections that satisfy the label has
+     * containers. An empty list means that no element can match the step.
+     *
+     * @return the list of collections
+     */
+
+    public List<String> getQueryCollections() {
+        return ArangoDBTraversalUtil.labelRestriction(this.hasContainers, graphCollections());
+    }
+
+    /**
+     * The property filter that evaluates the property has containers in the server.
+     *
+     * @return the property filter
+     */
+
+    public ArangoDBPropertyFilter getPropertyFilter() {
+        final ArangoDBPropertyFilter propertyFilter = ArangoDBPropertyFilter.empty();
+        ArangoDBTraversalUtil.addPropertyFilters(this.hasContainers, propertyFilter);
+        // order().by(key) filters out the elements that don't have the key
+        for (Pair<String, Order> sortKey : this.sortKeys) {
+            propertyFilter.has(sortKey.getValue0(), null, ArangoDBPropertyFilter.Compare.HAS);
+        }
+        return propertyFilter;
+    }
+
+    /**
+     * The property sort that orders the elements in the server.
+     *
+     * @return the property sort
+     */
+
+    public ArangoDBPropertySort getPropertySort() {
+        final ArangoDBPropertySort propertySort = ArangoDBPropertySort.empty();
+        for (Pair<String, Order> sortKey : this.sortKeys) {
+            propertySort.by(sortKey.getValue0(), sortKey.getValue1() == Order.asc);
+        }
+        return propertySort;
+    }
+
+    /**
+     * Fold a sort key into the step, so that the server returns the elements ordered by the
+     * property. Keys added first take precedence. Only valid if the step
+     * {@link #isServerEvaluated()} and no range has been folded into the step.
+     *
+     * @param key               the property key
+     * @param order             the order, {@link Order#asc} or {@link Order#desc}
+     */
+
+    public void addSortKey(String key, Order order) {
+        this.sortKeys.add(Pair.with(key, order));
+    }
+
+    /**
+     * Returns true if a sort has been folded into the step.
+     *
+     * @return true, if the step is sorted
+     */
+
+    public boolean isSorted() {
+        return !this.sortKeys.isEmpty();
+    }
+
+    /**
+     * Fold a drop() into the step, so that the server removes the matching elements and the step
+     * returns no elements. Only valid if the step {@link #isServerEvaluated()}.
+     */
+
+    public void setDrop() {
+        this.drop = true;
+    }
+
+    /**
+     * Returns true if a drop has been folded into the step.
+     *
+     * @return true, if the step removes the matching elements
+     */
+
+    public boolean isDrop() {
+        return this.drop;
+    }
+
+    /**
+     * Read the elements without their properties, because the traversal only uses their ids and
+     * labels. The properties of an element are still read if they are accessed.
+     */
+
+    public void setWithoutProperties() {
+        this.withProperties = false;
+    }
+
+    /**
+     * Returns true if the properties of the elements are read with the elements.
+     *
+     * @return false, if the properties are only read when they are accessed
+     */
+
+    public boolean isWithProperties() {
+        return this.withProperties;
+    }
+
+    /**
+     * Returns true if all the has containers of the step are evaluated by the server, i.e. the
+     * elements returned by the query need no further filtering in the JVM. Strategies can only
+     * push additional operations (e.g. counting) to the server if this is the case.
+     *
+     * @return true, if the step is fully evaluated by the server
+     */
+
+    public boolean isServerEvaluated() {
+        return ArangoDBTraversalUtil.addPropertyFilters(this.hasContainers, ArangoDBPropertyFilter.empty());
+    }
+
+    /**
+     * Fold a range into the step, so that the server only returns the elements in the range. The
+     * range is relative to the elements returned by the step, i.e. successive ranges compose as
+     * successive range() steps do. Only valid if the step {@link #isServerEvaluated()}.
+     *
+     * @param low               the low end of the range
+     * @param high              the high end of the range, -1 if unbounded
+     */
+
+    public void addRange(long low, long high) {
+        final long newLow = this.low + low;
+        long newHigh;
+        if (high == -1) {
+            newHigh = this.high;
+        } else if (this.high == -1) {
+            newHigh = this.low + high;
+        } else {
+            newHigh = Math.min(this.high, this.low + high);
+        }
+        this.low = newLow;
+        this.high = newHigh == -1 ? -1 : Math.max(newLow, newHigh);
+    }
+
+    /**
+     * The low end of the range folded into the step.
+     *
+     * @return the low range
+     */
+
+    public long getLowRange() {
+        return this.low;
+    }
+
+    /**
+     * The high end of the range folded into the step.
+     *
+     * @return the high range, -1 if unbounded
+     */
+
+    public long getHighRange() {
+        return this.high;
+    }
+
+    /**
+     * The number of elements in the folded range.
+     *
+     * @return the count, -1 if unbounded
+     */
+
+    private long rangeCount() {
+        return this.high == -1 ? -1 : this.high - this.low;
+    }
+
+    /**
+     * The collection restriction to pass to the client, the client queries all the graph
+     * collections if the list is empty.
+     *
+     * @param collections       the collections to query
+     * @return the collection restriction
+     */
+
+    private List<String> clientCollections(List<String> collections) {
+        return collections.size() == graphCollections().size() ? Collections.emptyList() : collections;
+    }
+
+    /**
+     * The graph collections of the step's element type.
+     *
+     * @return the vertex or edge collections
+     */
+
+    private List<String> graphCollections() {
+        return Vertex.class.isAssignableFrom(this.returnClass) ? getGraph().vertexCollections() : getGraph().edgeCollections();
+    }
+
+    private ArangoDBGraph getGraph() {
+        return (ArangoDBGraph) this.getTraversal().getGraph().get();
+    }
+
+    @Override
+    public String toString() {
+        if (this.hasContainers.isEmpty() && this.sortKeys.isEmpty() && this.low == 0 && this.high == -1 && !this.drop && this.withProperties) {
+            return super.toString();
+        }
+        final List<Object> arguments = new ArrayList<>();
+        arguments.add(this.returnClass.getSimpleName().toLowerCase());
+        if (0 != this.ids.length) {
+            arguments.add(Arrays.toString(this.ids));
+        }
+        if (!this.hasContainers.isEmpty()) {
+            arguments.add(this.hasContainers);
+        }
+        if (!this.sortKeys.isEmpty()) {
+            arguments.add(this.sortKeys);
+        }
+        if (this.low != 0 || this.high != -1) {
+            arguments.add("[" + this.low + "," + this.high + "]");
+        }
+        if (this.drop) {
+            arguments.add("drop");
+        }
+        if (!this.withProperties) {
+            arguments.add("noProperties");
+        }
+        return StringFactory.stepString(this, arguments.toArray());
+    }
+
+    @Override
+    public List<HasContainer> getHasContainers() {
+        return Collections.unmodifiableList(this.hasContainers);
+    }
+
+    @Override
+    public void addHasContainer(final HasContainer hasContainer) {
+        if (hasContainer.getPredicate() instanceof AndP) {
+            for (final P<?> predicate : ((AndP<?>) hasContainer.getPredicate()).getPredicates()) {
+                this.addHasContainer(new HasContainer(hasContainer.getKey(), predicate));
+            }
+        } else {
+            this.hasContainers.add(hasContainer);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.hasContainers.hashCode() ^ this.sortKeys.hashCode()
+                ^ Long.hashCode(this.low) ^ Long.hashCode(this.high) ^ Boolean.hashCode(this.drop)
+                ^ Boolean.hashCode(this.withProperties);
+    }
+}
@@ -0,0 +1,100 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.IdentityStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.map.ArangoDBCountGlobalStep;
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.sideEffect.ArangoDBGraphStep;
+
+/**
+ * This strategy replaces a traversal that only counts the elements of a graph step with an
+ * {@link ArangoDBCountGlobalStep}, i.e. the count is computed by the server and no documents are
+ * transferred:
+ * <pre>
+ * g.V().count()                        // collection count(s)
+ * g.E().hasLabel('knows').count()      // collection count
+ * g.V().has('age', gt(30)).count()     // FOR v IN ... FILTER ... COLLECT WITH COUNT INTO length
+ * g.V().limit(10).count()              // min(10, collection count)
+ * </pre>
+ * The strategy only applies if all the has containers folded into the graph step are evaluated by
+ * the server, and if the ids of the graph step are distinct: {@code g.V(a, a)} returns the vertex
+ * twice, but the server counts each document once.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBCountStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final ArangoDBCountStrategy INSTANCE = new ArangoDBCountStrategy();
+
+    private static final Set<Class<? extends ProviderOptimizationStrategy>> PRIORS = new HashSet<>(Arrays.asList(
+            ArangoDBGraphStepStrategy.class,
+            ArangoDBOrderStrategy.class,
+            ArangoDBRangeStrategy.class,
+            ArangoDBDropStrategy.class));
+
+    private ArangoDBCountStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (!(traversal.getParent() instanceof EmptyStep) || TraversalHelper.onGraphComputer(traversal)) {
+            return;
+        }
+        final List<Step> steps = traversal.getSteps();
+        if (steps.size() < 2
+                || !(steps.get(0) instanceof ArangoDBGraphStep)
+                || !(steps.get(steps.size() - 1) instanceof CountGlobalStep)) {
+            return;
+        }
+        final ArangoDBGraphStep<?, ?> graphStep = (ArangoDBGraphStep<?, ?>) steps.get(0);
+        if (!graphStep.isStartStep() || !graphStep.isServerEvaluated() || graphStep.isDrop()) {
+            return;
+        }
+        final List<String> ids = graphStep.getQueryIds();
+        if (new HashSet<>(ids).size() != ids.size()) {
+            return;
+        }
+        for (int i = 1; i < steps.size() - 1; i++) {
+            final Step<?, ?> current = steps.get(i);
+            if (!(current instanceof IdentityStep || current instanceof NoOpBarrierStep)) {
+                return;
+            }
+        }
+        final Step<?, ?> countStep = steps.get(steps.size() - 1);
+        final ArangoDBCountGlobalStep<?> arangoCountStep = new ArangoDBCountGlobalStep<>(traversal, graphStep);
+        countStep.getLabels().forEach(arangoCountStep::addLabel);
+        TraversalHelper.removeAllSteps(traversal);
+        traversal.addStep(arangoCountStep);
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return PRIORS;
+    }
+
+    public static ArangoDBCountStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,77 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.DropStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.sideEffect.ArangoDBGraphStep;
+
+/**
+ * This strategy folds a drop() that directly follows an {@link ArangoDBGraphStep} into the step,
+ * so that the matching elements are removed by the server instead of one request per element:
+ * <pre>
+ * g.V().hasLabel('person').drop()          // one AQL query that removes the vertices and their edges
+ * g.E().has('weight', lt(0.5)).drop()      // one AQL query that removes the edges
+ * </pre>
+ * The drop is only folded if the graph step starts the traversal and all its has containers are
+ * evaluated by the server, since the server must select exactly the elements that drop() would
+ * remove.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBDropStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final ArangoDBDropStrategy INSTANCE = new ArangoDBDropStrategy();
+
+    private static final Set<Class<? extends ProviderOptimizationStrategy>> PRIORS = new HashSet<>(Arrays.asList(
+            ArangoDBGraphStepStrategy.class,
+            ArangoDBOrderStrategy.class,
+            ArangoDBRangeStrategy.class));
+
+    private ArangoDBDropStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal)) {
+            return;
+        }
+        for (final DropStep dropStep : TraversalHelper.getStepsOfClass(DropStep.class, traversal)) {
+            final Step<?, ?> previousStep = dropStep.getPreviousStep();
+            if (previousStep instanceof ArangoDBGraphStep) {
+                final ArangoDBGraphStep<?, ?> graphStep = (ArangoDBGraphStep<?, ?>) previousStep;
+                if (graphStep.isStartStep() && graphStep.isServerEvaluated()) {
+                    graphStep.setDrop();
+                    TraversalHelper.copyLabels(dropStep, graphStep, false);
+                    traversal.removeStep(dropStep);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return PRIORS;
+    }
+
+    public static ArangoDBDropStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,152 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.map.ArangoDBMultiHopStep;
+import com.arangodb.tinkerpop.gremlin.process.traversal.util.ArangoDBTraversalUtil;
+
+/**
+ * This strategy replaces a chain of two or more adjacent out()/in()/both() steps that follow the
+ * same direction with an {@link ArangoDBMultiHopStep}, i.e. a single AQL graph traversal with a
+ * fixed depth and a collection filter for the edges at each depth:
+ * <pre>
+ * g.V(x).out('knows').out('created')
+ *     // FOR v, e, p IN 2..2 OUTBOUND x GRAPH g
+ *     //   FILTER IS_SAME_COLLECTION(knows, p.edges[0]) FILTER IS_SAME_COLLECTION(created, p.edges[1])
+ *     //   RETURN v
+ * </pre>
+ * This includes the chains produced by unrolling {@code repeat(out()).times(n)}, the barriers
+ * between the hops are dropped. The intermediate vertices are not materialized, so the strategy
+ * does not apply if any of the intermediate steps is labeled or if the traversal requires the
+ * traverser paths.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBMultiHopStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final ArangoDBMultiHopStrategy INSTANCE = new ArangoDBMultiHopStrategy();
+
+    private static final Set<Class<? extends ProviderOptimizationStrategy>> POSTS = new HashSet<>(Arrays.asList(
+            ArangoDBRangeStrategy.class));
+
+    private ArangoDBMultiHopStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal) || ArangoDBTraversalUtil.requiresPaths(traversal)) {
+            return;
+        }
+        final List<Step> steps = new ArrayList<>(traversal.getSteps());
+        int i = 0;
+        while (i < steps.size()) {
+            if (!isHop(steps.get(i))) {
+                i++;
+                continue;
+            }
+            final List<VertexStep<?>> chain = new ArrayList<>();
+            final List<Step> barriers = new ArrayList<>();
+            chain.add((VertexStep<?>) steps.get(i));
+            int next = i + 1;
+            while (chain.get(chain.size() - 1).getLabels().isEmpty()) {
+                // Skip the barriers between hops, e.g. the ones added when repeat() is unrolled
+                final List<Step> skipped = new ArrayList<>();
+                int j = next;
+                while (j < steps.size() && steps.get(j) instanceof NoOpBarrierStep && steps.get(j).getLabels().isEmpty()) {
+                    skipped.add(steps.get(j++));
+                }
+                if (j == steps.size() || !extendsChain(chain, steps.get(j))) {
+                    break;
+                }
+                barriers.addAll(skipped);
+                chain.add((VertexStep<?>) steps.get(j));
+                next = j + 1;
+            }
+            if (chain.size() > 1) {
+                collapse(chain, barriers, traversal);
+            }
+            i = next;
+        }
+    }
+
+    /**
+     * Returns true if the step is a plain adjacent vertex step, i.e. out()/in()/both().
+     *
+     * @param step              the step
+     * @return true, if the step can be part of a chain
+     */
+
+    private static boolean isHop(final Step<?, ?> step) {
+        return step.getClass() == VertexStep.class && ((VertexStep<?>) step).returnsVertex();
+    }
+
+    /**
+     * Returns true if the step can be appended to the chain, i.e. it is an adjacent vertex step
+     * that follows the same direction as the chain.
+     *
+     * @param chain             the chain
+     * @param step              the step
+     * @return true, if the step extends the chain
+     */
+
+    private static boolean extendsChain(final List<VertexStep<?>> chain, final Step<?, ?> step) {
+        return isHop(step) && ((VertexStep<?>) step).getDirection() == chain.get(0).getDirection();
+    }
+
+    /**
+     * Replace a chain of two or more vertex steps, and the barriers between them, with a multi
+     * hop step.
+     *
+     * @param chain             the chain
+     * @param barriers          the barriers between the steps of the chain
+     * @param traversal         the traversal
+     */
+
+    private static void collapse(final List<VertexStep<?>> chain, final List<Step> barriers, final Traversal.Admin<?, ?> traversal) {
+        final List<String[]> edgeLabelsPerHop = new ArrayList<>(chain.size());
+        for (final VertexStep<?> vertexStep : chain) {
+            edgeLabelsPerHop.add(vertexStep.getEdgeLabels());
+        }
+        final VertexStep<?> first = chain.get(0);
+        final ArangoDBMultiHopStep multiHopStep = new ArangoDBMultiHopStep(traversal, first.getDirection(), edgeLabelsPerHop);
+        chain.get(chain.size() - 1).getLabels().forEach(multiHopStep::addLabel);
+        TraversalHelper.insertBeforeStep(multiHopStep, first, traversal);
+        for (final VertexStep<?> vertexStep : chain) {
+            traversal.removeStep(vertexStep);
+        }
+        for (final Step<?, ?> barrier : barriers) {
+            traversal.removeStep(barrier);
+        }
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPost() {
+        return POSTS;
+    }
+
+    public static ArangoDBMultiHopStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,119 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.ValueTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.javatuples.Pair;
+
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.sideEffect.ArangoDBGraphStep;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+
+/**
+ * This strategy pushes order().by(key) into an AQL SORT, so that the server (and its persistent
+ * indexes) can order the elements and answer top-N queries together with
+ * {@link ArangoDBRangeStrategy}:
+ * <pre>
+ * g.V().hasLabel('person').order().by('age', desc).limit(10)
+ *     // FOR v IN person FILTER ... SORT FIRST(v.properties.age[*].value) DESC LIMIT 0, 10 RETURN v
+ * </pre>
+ * The order step is folded into a preceding {@link ArangoDBGraphStep} if all the step's has
+ * containers are evaluated by the server and all the comparators sort by a property value in
+ * ascending or descending order. Multi-valued vertex properties are sorted by their first value.
+ * <p>
+ * A persistent index can only answer the sort of a plain attribute path, i.e. of an edge property
+ * ({@code SORT e.properties.weight.value}) or of a flattened property of a graph whose properties
+ * are not mixed ({@code SORT v.age}), see {@link ArangoDBGraph#hasMixedProperties()}.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBOrderStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final ArangoDBOrderStrategy INSTANCE = new ArangoDBOrderStrategy();
+
+    private ArangoDBOrderStrategy() {
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal)) {
+            return;
+        }
+        for (final OrderGlobalStep orderStep : TraversalHelper.getStepsOfClass(OrderGlobalStep.class, traversal)) {
+            final List<Pair<Traversal.Admin, Comparator>> comparators = orderStep.getComparators();
+            final Step<?, ?> previousStep = orderStep.getPreviousStep();
+            if (!(previousStep instanceof ArangoDBGraphStep)) {
+                continue;
+            }
+            final ArangoDBGraphStep<?, ?> graphStep = (ArangoDBGraphStep<?, ?>) previousStep;
+            if (!graphStep.isStartStep()
+                    || !graphStep.isServerEvaluated()
+                    || graphStep.isSorted()
+                    || graphStep.getLowRange() != 0
+                    || graphStep.getHighRange() != -1
+                    || !isPropertySort(comparators)) {
+                continue;
+            }
+            for (final Pair<Traversal.Admin, Comparator> comparator : comparators) {
+                graphStep.addSortKey(((ValueTraversal) comparator.getValue0()).getPropertyKey(), (Order) comparator.getValue1());
+            }
+            TraversalHelper.copyLabels(orderStep, graphStep, false);
+            traversal.removeStep(orderStep);
+        }
+    }
+
+    /**
+     * Returns true if all the comparators sort by the value of a property, in ascending or
+     * descending order.
+     *
+     * @param comparators       the comparators of the order step
+     * @return true, if the order can be evaluated by the server
+     */
+
+    private static boolean isPropertySort(final List<Pair<Traversal.Admin, Comparator>> comparators) {
+        if (comparators.isEmpty()) {
+            return false;
+        }
+        for (final Pair<Traversal.Admin, Comparator> comparator : comparators) {
+            if (!(comparator.getValue0() instanceof ValueTraversal)
+                    || (comparator.getValue1() != Order.asc && comparator.getValue1() != Order.desc)) {
+                return false;
+            }
+            final ValueTraversal<?, ?> valueTraversal = (ValueTraversal<?, ?>) comparator.getValue0();
+            if (valueTraversal.getBypassTraversal() != null || Graph.Hidden.isHidden(valueTraversal.getPropertyKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return Collections.singleton(ArangoDBGraphStepStrategy.class);
+    }
+
+    public static ArangoDBOrderStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,132 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.IdStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.LabelStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.T;
+
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.map.ArangoDBMultiHopStep;
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.map.ArangoDBVertexStep;
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.sideEffect.ArangoDBGraphStep;
+import com.arangodb.tinkerpop.gremlin.process.traversal.util.ArangoDBTraversalUtil;
+
+/**
+ * This strategy reads the elements of a graph or vertex step without their properties when the
+ * next step only uses their ids or labels, so the {@code properties} of the documents are not
+ * transferred nor deserialized:
+ * <pre>
+ * g.V().out().id()         // FOR v IN vertices RETURN KEEP(v, "_id", "_key", "_rev", "label")
+ *                          // FOR v IN 1..1 OUTBOUND x GRAPH g RETURN KEEP(v, ...)
+ * g.V().hasLabel('person').outE().inV().count()
+ * </pre>
+ * The next steps that only use ids and labels are id(), label(), count(), the adjacent steps
+ * (out(), outE(), ...) and the vertex steps of an edge (inV(), outV() and bothV()). A step is
+ * not projected if it is labeled, if it is the last step of its traversal, if it has has
+ * containers on properties (which are tested in the JVM) or if the traversal requires the
+ * traverser paths. The properties of a projected element are still read if they are accessed.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBProjectionStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final ArangoDBProjectionStrategy INSTANCE = new ArangoDBProjectionStrategy();
+
+    private static final Set<Class<? extends ProviderOptimizationStrategy>> PRIORS = new HashSet<>(Arrays.asList(
+            ArangoDBGraphStepStrategy.class,
+            ArangoDBRepeatStrategy.class,
+            ArangoDBMultiHopStrategy.class,
+            ArangoDBRangeStrategy.class,
+            ArangoDBDropStrategy.class,
+            ArangoDBCountStrategy.class));
+
+    private ArangoDBProjectionStrategy() {
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal) || ArangoDBTraversalUtil.requiresPaths(traversal)) {
+            return;
+        }
+        for (final Step<?, ?> step : new ArrayList<Step>(traversal.getSteps())) {
+            if (!step.getLabels().isEmpty() || !usesIdsOnly(step.getNextStep())) {
+                continue;
+            }
+            if (step instanceof ArangoDBGraphStep) {
+                final ArangoDBGraphStep<?, ?> graphStep = (ArangoDBGraphStep<?, ?>) step;
+                if (!graphStep.isDrop() && graphStep.getHasContainers().stream().allMatch(ArangoDBProjectionStrategy::isIdOrLabel)) {
+                    graphStep.setWithoutProperties();
+                }
+            } else if (step instanceof ArangoDBVertexStep) {
+                final ArangoDBVertexStep<?> vertexStep = (ArangoDBVertexStep<?>) step;
+                if (vertexStep.isWithProperties()) {
+                    TraversalHelper.replaceStep(vertexStep, new ArangoDBVertexStep(vertexStep, vertexStep.getLimit(), false), traversal);
+                }
+            } else if (step.getClass() == VertexStep.class) {
+                final VertexStep<?> vertexStep = (VertexStep<?>) step;
+                TraversalHelper.replaceStep(vertexStep, new ArangoDBVertexStep(vertexStep, -1, false), traversal);
+            }
+        }
+    }
+
+    /**
+     * Returns true if the step only uses the ids and labels of its incoming elements. Unlabeled
+     * barriers pass the elements through, so the step after them is checked.
+     *
+     * @param step              the step
+     * @return true, if the incoming elements can be read without their properties
+     */
+
+    private static boolean usesIdsOnly(Step<?, ?> step) {
+        while (step instanceof NoOpBarrierStep && step.getLabels().isEmpty()) {
+            step = step.getNextStep();
+        }
+        if (step instanceof EmptyStep) {
+            return false;
+        }
+        return step instanceof IdStep
+                || step instanceof LabelStep
+                || step instanceof CountGlobalStep
+                || step instanceof VertexStep
+                || step instanceof EdgeVertexStep
+                || step instanceof ArangoDBMultiHopStep;
+    }
+
+    private static boolean isIdOrLabel(final HasContainer hasContainer) {
+        return T.id.getAccessor().equals(hasContainer.getKey()) || T.label.getAccessor().equals(hasContainer.getKey());
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return PRIORS;
+    }
+
+    public static ArangoDBProjectionStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,86 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.map.ArangoDBVertexStep;
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.sideEffect.ArangoDBGraphStep;
+
+/**
+ * This strategy pushes range() (and limit()/skip(), which are ranges) into the AQL LIMIT
+ * clause:
+ * <pre>
+ * g.V().hasLabel('person').limit(10)       // FOR v IN person LIMIT 0, 10 RETURN v
+ * g.V().skip(5).limit(10)                  // ... LIMIT 5, 10 ...
+ * g.V(x).out('knows').limit(3)             // FOR v IN 1..1 OUTBOUND ... LIMIT 3 RETURN v
+ * </pre>
+ * A range that directly follows an {@link ArangoDBGraphStep} is folded into the step, if all the
+ * step's has containers are evaluated by the server. A range that follows a {@link VertexStep} is
+ * kept, since it is global to all the incoming traversers, but the vertex step only fetches up to
+ * the high end of the range for each traverser.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBRangeStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final ArangoDBRangeStrategy INSTANCE = new ArangoDBRangeStrategy();
+
+    private static final Set<Class<? extends ProviderOptimizationStrategy>> PRIORS = new HashSet<>(Arrays.asList(
+            ArangoDBGraphStepStrategy.class,
+            ArangoDBOrderStrategy.class));
+
+    private ArangoDBRangeStrategy() {
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal)) {
+            return;
+        }
+        for (final RangeGlobalStep rangeStep : TraversalHelper.getStepsOfClass(RangeGlobalStep.class, traversal)) {
+            final Step<?, ?> previousStep = rangeStep.getPreviousStep();
+            if (previousStep instanceof ArangoDBGraphStep) {
+                final ArangoDBGraphStep<?, ?> graphStep = (ArangoDBGraphStep<?, ?>) previousStep;
+                if (graphStep.isStartStep() && graphStep.isServerEvaluated()) {
+                    graphStep.addRange(rangeStep.getLowRange(), rangeStep.getHighRange());
+                    TraversalHelper.copyLabels(rangeStep, graphStep, false);
+                    traversal.removeStep(rangeStep);
+                }
+            } else if (previousStep instanceof VertexStep
+                    && !(previousStep instanceof ArangoDBVertexStep)
+                    && rangeStep.getHighRange() != -1) {
+                final VertexStep vertexStep = (VertexStep) previousStep;
+                TraversalHelper.replaceStep(vertexStep, new ArangoDBVertexStep(vertexStep, rangeStep.getHighRange()), traversal);
+            }
+        }
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return PRIORS;
+    }
+
+    public static ArangoDBRangeStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,168 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.LoopTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.TrueTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.branch.RepeatStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter;
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.map.ArangoDBRepeatStep;
+import com.arangodb.tinkerpop.gremlin.process.traversal.util.ArangoDBTraversalUtil;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+
+/**
+ * This strategy replaces a {@link RepeatStep} whose body is a single out()/in()/both() step with
+ * an {@link ArangoDBRepeatStep}, i.e. a single AQL variable depth traversal per incoming vertex
+ * instead of one query per hop and traverser. The supported forms are:
+ * <pre>
+ * repeat(out('x')).times(n)                  // n..n
+ * repeat(out('x')).emit().times(n)           // 1..n
+ * emit().repeat(out('x')).times(n)           // 0..n
+ * repeat(out('x')).until(has(...))           // 1..max PRUNE has FILTER has
+ * repeat(out('x')).emit().until(has(...))    // 1..max PRUNE has
+ * emit().repeat(out('x')).until(has(...))    // 0..max PRUNE has
+ * until(has(...)).repeat(out('x'))           // 0..max PRUNE has FILTER has
+ * </pre>
+ * Gremlin does not bound the depth of until() traversals, so these are only replaced if the graph
+ * is configured with a {@link ArangoDBGraph#PROPERTY_KEY_TRAVERSAL_MAX_DEPTH maximum depth}; paths
+ * longer than that are not followed. The until() condition must be a has() step that can be
+ * evaluated by the server.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBRepeatStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final ArangoDBRepeatStrategy INSTANCE = new ArangoDBRepeatStrategy();
+
+    private ArangoDBRepeatStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal) || ArangoDBTraversalUtil.requiresPaths(traversal)) {
+            return;
+        }
+        final Optional<Graph> graph = TraversalHelper.getRootTraversal(traversal).getGraph();
+        if (!graph.isPresent() || !(graph.get() instanceof ArangoDBGraph)) {
+            return;
+        }
+        final int traversalMaxDepth = ((ArangoDBGraph) graph.get()).traversalMaxDepth();
+        for (final RepeatStep<?> repeatStep : TraversalHelper.getStepsOfClass(RepeatStep.class, traversal)) {
+            final ArangoDBRepeatStep arangoRepeatStep = compile(repeatStep, traversal, traversalMaxDepth);
+            if (arangoRepeatStep != null) {
+                TraversalHelper.replaceStep((Step) repeatStep, arangoRepeatStep, traversal);
+            }
+        }
+    }
+
+    /**
+     * Create the repeat step that replaces the given repeat step.
+     *
+     * @param repeatStep        the repeat step
+     * @param traversal         the traversal
+     * @param traversalMaxDepth the configured maximum depth for until traversals
+     * @return the replacement step, or null if the repeat step can not be evaluated by the server
+     */
+
+    private static ArangoDBRepeatStep compile(
+            final RepeatStep<?> repeatStep,
+            final Traversal.Admin<?, ?> traversal,
+            final int traversalMaxDepth) {
+        final List<Step> body = repeatStep.getRepeatTraversal().getSteps();
+        if (body.size() != 2
+                || body.get(0).getClass() != VertexStep.class
+                || !((VertexStep<?>) body.get(0)).returnsVertex()
+                || !body.get(0).getLabels().isEmpty()
+                || !(body.get(1) instanceof RepeatStep.RepeatEndStep)) {
+            return null;
+        }
+        final VertexStep<?> vertexStep = (VertexStep<?>) body.get(0);
+        final Traversal.Admin<?, ?> emitTraversal = repeatStep.getEmitTraversal();
+        final Traversal.Admin<?, ?> untilTraversal = repeatStep.getUntilTraversal();
+        if (emitTraversal != null && !(emitTraversal instanceof TrueTraversal)) {
+            return null;
+        }
+        final boolean emit = emitTraversal != null;
+        final boolean emitStart = emit && repeatStep.emitFirst;
+        final ArangoDBRepeatStep result;
+        if (untilTraversal instanceof LoopTraversal) {
+            final long times = ((LoopTraversal<?>) untilTraversal).getMaxLoops();
+            if (repeatStep.untilFirst || times < 1 || times > Integer.MAX_VALUE) {
+                return null;
+            }
+            final int minDepth = emitStart ? 0 : (emit ? 1 : (int) times);
+            result = new ArangoDBRepeatStep(traversal, vertexStep.getDirection(), vertexStep.getEdgeLabels(),
+                    minDepth, (int) times, null, false, false);
+        } else if (untilTraversal != null) {
+            final List<HasContainer> untilContainers = untilContainers(untilTraversal);
+            if (untilContainers == null
+                    || traversalMaxDepth < 1
+                    || (repeatStep.untilFirst && emit)) {
+                return null;
+            }
+            final int minDepth = emitStart || repeatStep.untilFirst ? 0 : 1;
+            result = new ArangoDBRepeatStep(traversal, vertexStep.getDirection(), vertexStep.getEdgeLabels(),
+                    minDepth, traversalMaxDepth, untilContainers, repeatStep.untilFirst, !emit);
+        } else {
+            return null;
+        }
+        repeatStep.getLabels().forEach(result::addLabel);
+        return result;
+    }
+
+    /**
+     * The has containers of an until traversal made only of has() steps.
+     *
+     * @param untilTraversal    the until traversal
+     * @return the has containers, or null if the traversal can not be evaluated by the server
+     */
+
+    private static List<HasContainer> untilContainers(final Traversal.Admin<?, ?> untilTraversal) {
+        final List<HasContainer> hasContainers = new ArrayList<>();
+        for (final Step<?, ?> step : untilTraversal.getSteps()) {
+            if (!(step instanceof HasStep) || !step.getLabels().isEmpty()) {
+                return null;
+            }
+            hasContainers.addAll(((HasContainerHolder) step).getHasContainers());
+        }
+        if (hasContainers.isEmpty()
+                || !ArangoDBTraversalUtil.addPropertyFilters(hasContainers, ArangoDBPropertyFilter.empty())) {
+            return null;
+        }
+        return hasContainers;
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return Collections.singleton(ArangoDBMultiHopStrategy.class);
+    }
+
+    public static ArangoDBRepeatStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,239 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.branch.RepeatStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.PathFilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeOtherVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PathStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.OptionsStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
+
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.map.ArangoDBShortestPathStep;
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.sideEffect.ArangoDBGraphStep;
+
+/**
+ * This strategy replaces the OLTP shortest path recipe with an {@link ArangoDBShortestPathStep},
+ * i.e. an AQL SHORTEST_PATH or K_SHORTEST_PATHS query:
+ * <pre>
+ * g.V(a).repeat(out('x').simplePath()).until(hasId(b)).path().limit(1)          // SHORTEST_PATH
+ * g.V(a).repeat(outE('x').inV().simplePath()).until(hasId(b)).path().limit(k)   // K_SHORTEST_PATHS
+ * </pre>
+ * TinkerPop's shortestPath() step is a VertexProgram and needs a GraphComputer, which the
+ * ArangoDB graph does not provide. Without a weight, the server returns the same paths as the
+ * recipe (the ones with fewest edges first). A weight can be configured with the
+ * {@link #WEIGHT_ATTRIBUTE} and {@link #DEFAULT_WEIGHT} options, in which case the paths are
+ * returned in increasing order of total weight:
+ * <pre>
+ * g.with(ArangoDBShortestPathStrategy.WEIGHT_ATTRIBUTE, "distance").V(a).repeat(...)...
+ * </pre>
+ * The weight attribute must be a numeric top level attribute of the edge documents, e.g. an
+ * integer or double edge property of a graph that flattens properties (see
+ * {@code graph.flattenProperties}). Properties stored in the nested form, e.g. all the properties
+ * of a graph that doesn't flatten them, or long, float and integral double (e.g. 1.0) values, are
+ * not top level attributes.
+ * Unless a {@link #DEFAULT_WEIGHT} is given, the query fails if a path has an edge without the
+ * weight attribute, instead of weighting it silently.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBShortestPathStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    /** The option that names the edge attribute that holds the edge weights. */
+
+    public static final String WEIGHT_ATTRIBUTE = "arangodb.shortestPath.weightAttribute";
+
+    /**
+     * The option that sets the weight of the edges that don't have the weight attribute. If it is
+     * not set, all the edges of a path must have the weight attribute.
+     */
+
+    public static final String DEFAULT_WEIGHT = "arangodb.shortestPath.defaultWeight";
+
+    private static final ArangoDBShortestPathStrategy INSTANCE = new ArangoDBShortestPathStrategy();
+
+    private ArangoDBShortestPathStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (!(traversal.getParent() instanceof EmptyStep) || TraversalHelper.onGraphComputer(traversal)) {
+            return;
+        }
+        final List<Step> steps = traversal.getSteps();
+        if (steps.size() < 4
+                || !(steps.get(0) instanceof ArangoDBGraphStep)
+                || !(steps.get(1) instanceof RepeatStep)) {
+            return;
+        }
+        final ArangoDBGraphStep<?, ?> graphStep = (ArangoDBGraphStep<?, ?>) steps.get(0);
+        if (!graphStep.isStartStep()
+                || graphStep.getIds().length != 1
+                || !graphStep.getHasContainers().isEmpty()
+                || graphStep.getHighRange() != -1
+                || !graphStep.getLabels().isEmpty()) {
+            return;
+        }
+        // EarlyLimitStrategy can move the range before the path step
+        final Step<?, ?> pathStep;
+        final RangeGlobalStep<?> rangeStep;
+        if (steps.get(2) instanceof PathStep && steps.get(3) instanceof RangeGlobalStep) {
+            pathStep = steps.get(2);
+            rangeStep = (RangeGlobalStep<?>) steps.get(3);
+        } else if (steps.get(2) instanceof RangeGlobalStep && steps.get(3) instanceof PathStep) {
+            rangeStep = (RangeGlobalStep<?>) steps.get(2);
+            pathStep = steps.get(3);
+        } else {
+            return;
+        }
+        if (rangeStep.getHighRange() == -1 || !pathStep.getLabels().isEmpty()
+                || !((PathStep<?>) pathStep).getLocalChildren().isEmpty()) {
+            return;
+        }
+        final RepeatStep<?> repeatStep = (RepeatStep<?>) steps.get(1);
+        final ArangoDBShortestPathStep shortestPathStep = compile(repeatStep, rangeStep.getHighRange(), traversal);
+        if (shortestPathStep == null) {
+            return;
+        }
+        repeatStep.getLabels().forEach(shortestPathStep::addLabel);
+        pathStep.getLabels().forEach(shortestPathStep::addLabel);
+        traversal.removeStep(pathStep);
+        TraversalHelper.replaceStep((Step) repeatStep, shortestPathStep, traversal);
+    }
+
+    /**
+     * Create the shortest path step for a {@code repeat(...simplePath()).until(hasId(x))} step.
+     *
+     * @param repeatStep        the repeat step
+     * @param k                 the number of paths
+     * @param traversal         the traversal
+     * @return the shortest path step, or null if the repeat step is not a shortest path pattern
+     */
+
+    private static ArangoDBShortestPathStep compile(
+            final RepeatStep<?> repeatStep,
+            final long k,
+            final Traversal.Admin<?, ?> traversal) {
+        if (repeatStep.getEmitTraversal() != null || repeatStep.untilFirst || repeatStep.getUntilTraversal() == null) {
+            return null;
+        }
+        final String targetId = targetId(repeatStep.getUntilTraversal());
+        final List<Step> body = repeatStep.getRepeatTraversal().getSteps();
+        if (targetId == null || body.size() < 3 || body.get(0).getClass() != VertexStep.class) {
+            return null;
+        }
+        final VertexStep<?> vertexStep = (VertexStep<?>) body.get(0);
+        final boolean includeEdges = !vertexStep.returnsVertex();
+        final int pathFilterIndex = includeEdges ? 2 : 1;
+        if (includeEdges) {
+            if (body.size() != 4 || !isOtherVertex(vertexStep.getDirection(), body.get(1))) {
+                return null;
+            }
+        } else if (body.size() != 3) {
+            return null;
+        }
+        for (final Step<?, ?> step : body) {
+            if (!step.getLabels().isEmpty()) {
+                return null;
+            }
+        }
+        final Step<?, ?> pathFilter = body.get(pathFilterIndex);
+        if (!(pathFilter instanceof PathFilterStep)
+                || !((PathFilterStep<?>) pathFilter).isSimple()
+                || ((PathFilterStep<?>) pathFilter).getFromLabel() != null
+                || ((PathFilterStep<?>) pathFilter).getToLabel() != null
+                || !((PathFilterStep<?>) pathFilter).getLocalChildren().isEmpty()
+                || !(body.get(pathFilterIndex + 1) instanceof RepeatStep.RepeatEndStep)) {
+            return null;
+        }
+        final Map<String, Object> options = TraversalHelper.getRootTraversal(traversal).getStrategies()
+                .getStrategy(OptionsStrategy.class)
+                .map(OptionsStrategy::getOptions)
+                .orElse(Collections.emptyMap());
+        final Object weightAttribute = options.get(WEIGHT_ATTRIBUTE);
+        final Object defaultWeight = options.get(DEFAULT_WEIGHT);
+        return new ArangoDBShortestPathStep(traversal, targetId, vertexStep.getDirection(), vertexStep.getEdgeLabels(),
+                includeEdges, k, weightAttribute == null ? null : weightAttribute.toString(),
+                defaultWeight == null ? null : ((Number) defaultWeight).doubleValue());
+    }
+
+    /**
+     * Returns true if the step moves from an edge to its other vertex, with respect to the
+     * direction of the edge step, e.g. inV() after outE().
+     *
+     * @param direction         the direction of the edge step
+     * @param step              the step that follows the edge step
+     * @return true, if the step moves to the other vertex
+     */
+
+    private static boolean isOtherVertex(final Direction direction, final Step<?, ?> step) {
+        if (step instanceof EdgeOtherVertexStep) {
+            return true;
+        }
+        return step instanceof EdgeVertexStep
+                && direction != Direction.BOTH
+                && ((EdgeVertexStep) step).getDirection() == direction.opposite();
+    }
+
+    /**
+     * The id of the target vertex of an until traversal made of a single hasId() step.
+     *
+     * @param untilTraversal    the until traversal
+     * @return the target id, or null if the traversal is not a single hasId()
+     */
+
+    private static String targetId(final Traversal.Admin<?, ?> untilTraversal) {
+        final List<Step> steps = untilTraversal.getSteps();
+        if (steps.size() != 1 || !(steps.get(0) instanceof HasStep)) {
+            return null;
+        }
+        final List<HasContainer> hasContainers = ((HasContainerHolder) steps.get(0)).getHasContainers();
+        if (hasContainers.size() != 1
+                || !T.id.getAccessor().equals(hasContainers.get(0).getKey())
+                || hasContainers.get(0).getBiPredicate() != Compare.eq) {
+            return null;
+        }
+        Object id = hasContainers.get(0).getValue();
+        if (id instanceof Element) {
+            id = ((Element) id).id();
+        }
+        return id == null ? null : id.toString();
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return Collections.singleton(ArangoDBGraphStepStrategy.class);
+    }
+
+    public static ArangoDBShortestPathStrategy instance() {
+        return INSTANCE;
+    }
+}
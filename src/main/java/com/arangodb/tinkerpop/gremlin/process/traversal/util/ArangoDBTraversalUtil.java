@@ -0,0 +1,237 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.process.traversal.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.LambdaHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.PathFilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PathStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.TreeStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.TreeSideEffectStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.OptionsStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.T;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBCursorOptions;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter;
+
+/**
+ * This class provides utility methods to translate Gremlin traversal constructs (e.g. the
+ * {@link HasContainer}s of has() steps) into the query constructs used by the
+ * {@link com.arangodb.tinkerpop.gremlin.client.ArangoDBGraphClient}.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBTraversalUtil {
+
+    /** Steps that need the intermediate objects of the traverser paths. */
+
+    private static final List<Class> PATH_STEP_CLASSES = Arrays.asList(
+            PathStep.class, PathFilterStep.class, TreeStep.class, TreeSideEffectStep.class, LambdaHolder.class);
+
+    /**
+     * Utility class, no instances.
+     */
+
+    private ArangoDBTraversalUtil() {
+    }
+
+    /**
+     * Filter the graph collections (labels) by the label has containers, i.e. the returned list
+     * contains the labels that satisfy all the label predicates. If there are no label has
+     * containers, all the graph collections are returned.
+     *
+     * @param hasContainers         the has containers
+     * @param graphCollections      the graph collections (labels) of the element type
+     * @return the labels that satisfy the label predicates
+     */
+
+    @SuppressWarnings("unchecked")
+    public static List<String> labelRestriction(
+        List<HasContainer> hasContainers,
+        Collection<String> graphCollections) {
+        return graphCollections.stream()
+                .filter(label -> hasContainers.stream()
+                        .filter(ArangoDBTraversalUtil::isLabelContainer)
+                        .allMatch(hc -> ((P<Object>) hc.getPredicate()).test(label)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Add the property has containers that can be evaluated by the server to the property filter.
+     * Label has containers are ignored, see {@link #labelRestriction(List, Collection)}.
+     *
+     * @param hasContainers         the has containers
+     * @param propertyFilter        the property filter to populate
+     * @return true if all the has containers can be evaluated by the server, false if some of
+     *          them must still be evaluated in the JVM
+     */
+
+    public static boolean addPropertyFilters(
+        List<HasContainer> hasContainers,
+        ArangoDBPropertyFilter propertyFilter) {
+        boolean complete = true;
+        for (HasContainer hasContainer : hasContainers) {
+            if (isLabelContainer(hasContainer)) {
+                continue;
+            }
+            Optional<ArangoDBPropertyFilter.Compare> compare = compare(hasContainer);
+            if (compare.isPresent()) {
+                propertyFilter.has(hasContainer.getKey(), hasContainer.getValue(), compare.get());
+            }
+            else {
+                complete = false;
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Convert the ids passed to a graph step into String ids.
+     *
+     * @param ids                   the ids
+     * @return the list of String ids
+     */
+
+    public static List<String> elementIds(Object[] ids) {
+        List<String> result = new ArrayList<>(ids.length);
+        for (Object id : ids) {
+            if (id instanceof Element) {
+                id = ((Element) id).id();
+            }
+            result.add(id == null ? null : id.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if the root of the traversal has steps that need the intermediate objects of
+     * the traverser paths, e.g. path() or simplePath(). Strategies that replace several steps
+     * with a single server side query can not be applied to such traversals.
+     *
+     * @param traversal             the traversal
+     * @return true, if the traverser paths must be kept
+     */
+
+    public static boolean requiresPaths(Traversal.Admin<?, ?> traversal) {
+        return TraversalHelper.hasStepOfAssignableClassRecursively(PATH_STEP_CLASSES, TraversalHelper.getRootTraversal(traversal));
+    }
+
+    /**
+     * The cursor options given with the {@code arangodb.cursor.*} options of the root traversal,
+     * e.g. {@code g.with("arangodb.cursor.batchSize", 5000)}.
+     *
+     * @param traversal             the traversal
+     * @return the cursor options, empty if the traversal has none
+     */
+
+    public static ArangoDBCursorOptions cursorOptions(Traversal.Admin<?, ?> traversal) {
+        final Map<String, Object> options = TraversalHelper.getRootTraversal(traversal).getStrategies()
+                .getStrategy(OptionsStrategy.class)
+                .map(OptionsStrategy::getOptions)
+                .orElse(Collections.emptyMap());
+        return ArangoDBCursorOptions.fromMap(options, ArangoDBCursorOptions.TRAVERSAL_OPTION_PREFIX);
+    }
+
+    /**
+     * Returns true if the has container is a predicate on the element label.
+     *
+     * @param hasContainer          the has container
+     * @return true, if the container tests the label
+     */
+
+    public static boolean isLabelContainer(HasContainer hasContainer) {
+        return T.label.getAccessor().equals(hasContainer.getKey());
+    }
+
+    /**
+     * Map the has container predicate to a property filter compare operator.
+     *
+     * @param hasContainer          the has container
+     * @return the compare operator, or empty if the predicate can not be evaluated by the server
+     */
+
+    private static Optional<ArangoDBPropertyFilter.Compare> compare(HasContainer hasContainer) {
+        if (hasContainer.getKey() == null
+                || Graph.Hidden.isHidden(hasContainer.getKey())
+                || !isSupportedValue(hasContainer.getValue())) {
+            return Optional.empty();
+        }
+        BiPredicate<?, ?> predicate = hasContainer.getBiPredicate();
+        ArangoDBPropertyFilter.Compare compare = null;
+        if (predicate == Compare.eq) {
+            compare = ArangoDBPropertyFilter.Compare.EQUAL;
+        } else if (predicate == Compare.neq) {
+            compare = ArangoDBPropertyFilter.Compare.NOT_EQUAL;
+        } else if (predicate == Compare.gt) {
+            compare = ArangoDBPropertyFilter.Compare.GREATER_THAN;
+        } else if (predicate == Compare.gte) {
+            compare = ArangoDBPropertyFilter.Compare.GREATER_THAN_EQUAL;
+        } else if (predicate == Compare.lt) {
+            compare = ArangoDBPropertyFilter.Compare.LESS_THAN;
+        } else if (predicate == Compare.lte) {
+            compare = ArangoDBPropertyFilter.Compare.LESS_THAN_EQUAL;
+        } else if (predicate == Contains.within) {
+            compare = ArangoDBPropertyFilter.Compare.IN;
+        } else if (predicate == Contains.without) {
+            compare = ArangoDBPropertyFilter.Compare.NOT_IN;
+        }
+        if (compare == ArangoDBPropertyFilter.Compare.IN || compare == ArangoDBPropertyFilter.Compare.NOT_IN) {
+            if (!(hasContainer.getValue() instanceof Collection)) {
+                return Optional.empty();
+            }
+        } else if (hasContainer.getValue() instanceof Collection) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(compare);
+    }
+
+    /**
+     * Only values that have the same semantics in AQL and Gremlin can be compared by the server.
+     *
+     * @param value                 the value
+     * @return true, if the value can be used in a server side comparison
+     */
+
+    private static boolean isSupportedValue(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream()
+                    .allMatch(v -> !(v instanceof Collection) && isSupportedValue(v));
+        }
+        if (value instanceof Double) {
+            return !((Double) value).isNaN() && !((Double) value).isInfinite();
+        }
+        if (value instanceof Float) {
+            return !((Float) value).isNaN() && !((Float) value).isInfinite();
+        }
+        return value instanceof String
+                || value instanceof Boolean
+                || value instanceof Integer
+                || value instanceof Long
+                || value instanceof Short
+                || value instanceof Byte;
+    }
+}
@@ -2,12 +2,39 @@ package com.arangodb.tinkerpop.gremlin.structure;
 
 import com.arangodb.serde.InternalKey;
 import com.arangodb.serde.InternalRev;
+import com.arangodb.shaded.fasterxml.jackson.annotation.JsonAnySetter;
+import com.arangodb.shaded.fasterxml.jackson.annotation.JsonIgnore;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.arangodb.tinkerpop.gremlin.utils.ArangoDBUtil.isFlatKey;
+
+/**
+ * The element data persisted in a document. Element properties are stored in the nested
+ * {@code properties} attribute, with their value type. If properties are flattened (see
+ * {@link ArangoDBGraph#PROPERTY_KEY_FLATTEN_PROPERTIES}), the properties that don't need the
+ * nested form, i.e. single string, boolean, integer or non integral double values without
+ * meta-properties, are stored as top level attributes of the document instead. Both forms are
+ * read back as element properties.
+ * <p>
+ * Documents can be read without their properties (see {@link #setPropertiesLoader(Supplier)}),
+ * in which case the properties are read the first time they are accessed.
+ *
+ * @param <T> the type of the element property values
+ */
 
 abstract class ArangoDBData<T> {
+
+    /** The value of properties that must be stored in the nested form. */
+    static final Object NOT_FLAT = new Object();
+
     private String label;
 
     @InternalKey
@@ -18,6 +45,9 @@ abstract class ArangoDBData<T> {
 
     private Map<String, T> properties = new HashMap<>();
 
+    /** Reads the properties of a document that was read without them, null once they are read. */
+    private transient Supplier<Map<String, T>> propertiesLoader;
+
     public ArangoDBData() {
     }
 
@@ -55,6 +85,11 @@ abstract class ArangoDBData<T> {
     }
 
     public Map<String, T> getProperties() {
+        if (propertiesLoader != null) {
+            Supplier<Map<String, T>> loader = propertiesLoader;
+            propertiesLoader = null;
+            properties = loader.get();
+        }
         if (properties == null) {
             properties = new HashMap<>();
         }
@@ -62,7 +97,206 @@ abstract class ArangoDBData<T> {
     }
 
     public void setProperties(Map<String, T> properties) {
-        this.properties = properties;
+        if (this.properties != null && !this.properties.isEmpty()) {
+            // Flattened properties read before the nested ones, the nested form takes precedence
+            Map<String, T> merged = new HashMap<>(this.properties);
+            merged.putAll(properties);
+            this.properties = merged;
+        } else {
+            this.properties = properties;
+        }
+    }
+
+    /**
+     * Mark the document as read without its properties. The loader is called to read them the
+     * first time the properties are accessed.
+     *
+     * @param loader                the loader of the document properties
+     */
+
+    @JsonIgnore
+    public void setPropertiesLoader(Supplier<Map<String, T>> loader) {
+        this.propertiesLoader = loader;
+    }
+
+    /**
+     * Copy the document, e.g. to cache it. The property containers are copied, so that property
+     * changes of the copy are not seen by the holders of this document.
+     *
+     * @return the copy
+     */
+
+    public abstract ArangoDBData<T> copy();
+
+    /**
+     * Copy the attributes and the properties of this document to the given copy.
+     *
+     * @param copy                  the copy
+     * @param copyValue             the function that copies a property value
+     * @return the copy
+     */
+
+    <D extends ArangoDBData<T>> D copyTo(D copy, Function<T, T> copyValue) {
+        copy.setLabel(label);
+        copy.setKey(key);
+        copy.setRev(rev);
+        Map<String, T> copies = new HashMap<>();
+        for (Map.Entry<String, T> entry : getProperties().entrySet()) {
+            copies.put(entry.getKey(), copyValue.apply(entry.getValue()));
+        }
+        ((ArangoDBData<T>) copy).properties = copies;
+        return copy;
+    }
+
+    /**
+     * Read a top level document attribute as a flattened property. System attributes are ignored.
+     * Flattened properties are read even if the graph no longer flattens properties, the client
+     * then removes them when they are updated.
+     *
+     * @param key                   the attribute name
+     * @param value                 the attribute value
+     */
+
+    @JsonAnySetter
+    public void setFlattenedProperty(String key, Object value) {
+        if (key.startsWith("_") || value == null) {
+            return;
+        }
+        getProperties().putIfAbsent(key, fromFlatValue(normalizeFlatValue(value)));
+    }
+
+    /**
+     * The document of the element with flattened properties, used to insert the element.
+     *
+     * @return the document
+     */
+
+    public Map<String, Object> flattenedDocument() {
+        Map<String, Object> document = new HashMap<>();
+        if (key != null) {
+            document.put("_key", key);
+        }
+        document.put("label", label);
+        Map<String, T> nested = new HashMap<>();
+        for (Map.Entry<String, T> entry : getProperties().entrySet()) {
+            Object flat = flatValue(entry.getKey(), entry.getValue());
+            if (flat == NOT_FLAT) {
+                nested.put(entry.getKey(), entry.getValue());
+            } else {
+                document.put(entry.getKey(), flat);
+            }
+        }
+        document.put("properties", nested);
+        return document;
+    }
+
+    /**
+     * Create the update document for the given properties. The update must be made with
+     * mergeObjects=false and keepNull=false: the nested {@code properties} attribute is replaced
+     * with all the nested properties of the element, so that a changed map value or value type is
+     * not merged with the stored one, and the flattened properties are set as top level
+     * attributes. Removed properties are set to null, which removes them from the stored
+     * document. The form that is not used by a changed property is removed, so that a property
+     * can move between the nested and the flattened form, and a flattened value does not outlive
+     * an update made with flattening off.
+     *
+     * @param keys                  the keys of the changed properties
+     * @param flatten               true if properties are flattened
+     * @return the update document
+     */
+
+    public Map<String, Object> propertiesPatch(Collection<String> keys, boolean flatten) {
+        Map<String, Object> patch = new HashMap<>();
+        Map<String, Object> nested = new HashMap<>();
+        for (Map.Entry<String, T> entry : getProperties().entrySet()) {
+            Object flat = flatten ? flatValue(entry.getKey(), entry.getValue()) : NOT_FLAT;
+            if (flat != NOT_FLAT) {
+                patch.put(entry.getKey(), flat);
+            } else {
+                nested.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (String key : keys) {
+            if (!patch.containsKey(key) && isFlatKey(key)) {
+                patch.put(key, null);
+            }
+        }
+        patch.put("properties", nested);
+        return patch;
+    }
+
+    /**
+     * The flattened value of a property.
+     *
+     * @param key                   the property key
+     * @param value                 the property value
+     * @return the value of the top level attribute, {@link #NOT_FLAT} if the property must be
+     * stored in the nested form
+     */
+
+    private Object flatValue(String key, T value) {
+        return isFlatKey(key) ? flatValue(value) : NOT_FLAT;
+    }
+
+    /**
+     * The flattened value of a property value.
+     *
+     * @param value                 the property value
+     * @return the value of the top level attribute, {@link #NOT_FLAT} if the value must be stored
+     * in the nested form
+     */
+
+    abstract Object flatValue(T value);
+
+    /**
+     * The property value of a flattened property.
+     *
+     * @param value                 the value of the top level attribute
+     * @return the property value
+     */
+
+    abstract T fromFlatValue(Object value);
+
+    /**
+     * Returns the value if it keeps its type when it is stored without its value type, i.e. if
+     * it is a string, a boolean, an integer or a double with a fractional part. Integral doubles
+     * (e.g. 2.0) would be read back as integers, and NaN and infinities are not JSON numbers.
+     *
+     * @param value                 the value
+     * @return the value, {@link #NOT_FLAT} if the value type must be stored
+     */
+
+    static Object flatScalar(Object value) {
+        if (value instanceof String || value instanceof Boolean || value instanceof Integer) {
+            return value;
+        }
+        if (value instanceof Double) {
+            double number = (Double) value;
+            if (!Double.isInfinite(number) && !Double.isNaN(number) && number != Math.rint(number)) {
+                return value;
+            }
+        }
+        return NOT_FLAT;
+    }
+
+    /**
+     * Convert the numbers read from a top level attribute to the types that are flattened:
+     * integral numbers are integers (longs if they don't fit) and decimals are doubles.
+     *
+     * @param value                 the attribute value
+     * @return the normalized value
+     */
+
+    private static Object normalizeFlatValue(Object value) {
+        if (value instanceof Long || value instanceof Short || value instanceof Byte
+                || (value instanceof BigInteger && ((BigInteger) value).bitLength() < Long.SIZE)) {
+            long number = ((Number) value).longValue();
+            return number == (int) number ? Integer.valueOf((int) number) : Long.valueOf(number);
+        }
+        if (value instanceof Float || value instanceof BigDecimal) {
+            return ((Number) value).doubleValue();
+        }
+        return value;
     }
 
     @Override
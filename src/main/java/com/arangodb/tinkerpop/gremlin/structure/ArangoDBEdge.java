@@ -38,10 +38,40 @@ public class ArangoDBEdge implements Edge {
     private final ArangoDBEdgeData data;
     private boolean removed;
 
+    /**
+     * True if the edge has a document in the database. Properties set on an unpaired edge are
+     * staged in its data and persisted by {@link #insert()}.
+     */
+    private boolean paired;
+
+    /** The keys of the properties changed since the edge was last persisted. */
+    private final Set<String> dirtyKeys = new HashSet<>();
+
+    /** The edge id, computed once the edge has a key. */
+    private String id;
+
     public ArangoDBEdge(ArangoDBGraph graph, ArangoDBEdgeData data) {
         this.graph = graph;
         this.data = data;
         this.removed = false;
+        this.paired = true;
+    }
+
+    /**
+     * Create an edge from a document that was read with or without its properties. The
+     * properties of a document read without them are read from the database the first time they
+     * are accessed.
+     *
+     * @param graph         the graph
+     * @param data          the edge document
+     * @param withProperties true if the document was read with its properties
+     */
+
+    public ArangoDBEdge(ArangoDBGraph graph, ArangoDBEdgeData data, boolean withProperties) {
+        this(graph, data);
+        if (!withProperties) {
+            data.setPropertiesLoader(this::readProperties);
+        }
     }
 
     public ArangoDBEdge(final String id, final String label, final String outVertexId, final String inVertexId, ArangoDBGraph graph) {
@@ -63,15 +93,19 @@ public class ArangoDBEdge implements Edge {
 
         data = new ArangoDBEdgeData(inferredLabel, key, outVertexId, inVertexId);
         removed = false;
+        paired = false;
     }
 
     @Override
     public String id() {
-        String key = data.getKey();
-        if (key == null) {
-            return null;
+        if (id == null) {
+            String key = data.getKey();
+            if (key == null) {
+                return null;
+            }
+            id = graph.getPrefixedCollectioName(label()) + "/" + key;
         }
-        return graph.getPrefixedCollectioName(label()) + "/" + key;
+        return id;
     }
 
     @Override
@@ -87,18 +121,38 @@ public class ArangoDBEdge implements Edge {
     public void insert() {
         if (removed) throw elementAlreadyRemoved(Edge.class, id());
         graph.getClient().insertEdge(data);
+        paired = true;
+        dirtyKeys.clear();
     }
 
+    /**
+     * Persist the properties changed since the edge was last persisted. Only the changed
+     * properties are sent to the server.
+     */
+
     public void update() {
         if (removed) throw elementAlreadyRemoved(Edge.class, id());
-        graph.getClient().updateEdge(data);
+        if (!paired || dirtyKeys.isEmpty()) return;
+        graph.getClient().updateEdge(data, dirtyKeys);
+        dirtyKeys.clear();
+    }
+
+    /**
+     * Mark the property as changed and persist the changes.
+     *
+     * @param key the key of the changed property
+     */
+
+    public void update(String key) {
+        dirtyKeys.add(key);
+        update();
     }
 
     public void removeProperty(String key) {
         if (removed) throw elementAlreadyRemoved(Edge.class, id());
         if (data.hasProperty(key)) {
             data.removeProperty(key);
-            update();
+            update(key);
         }
     }
 
@@ -117,7 +171,7 @@ public class ArangoDBEdge implements Edge {
         LOGGER.info("set property {} = {}", key, value);
         ElementHelper.validateProperty(key, value);
         data.setProperty(key, value);
-        update();
+        update(key);
         return new ArangoDBProperty<>(this, key, value);
     }
 
@@ -169,11 +223,26 @@ public class ArangoDBEdge implements Edge {
                 ids.add(data.getFrom());
                 break;
         }
-        return graph.getClient().getGraphVertices(ids, Collections.emptyList()).stream()
+        return graph.getClient().getVerticesById(ids).stream()
                 .map(it -> (Vertex) new ArangoDBVertex(graph, it))
                 .iterator();
     }
 
+    /**
+     * Read the properties of an edge that was read without them. The document is queried
+     * directly, so that the properties are not shared with a cached copy of the document.
+     *
+     * @return the edge properties, empty if the edge no longer exists
+     */
+
+    private Map<String, ArangoDBPropertyData> readProperties() {
+        LOGGER.debug("Reading the properties of edge {}", id());
+        return graph.getClient().getGraphEdges(Collections.singletonList(id())).stream()
+                .findFirst()
+                .map(ArangoDBEdgeData::getProperties)
+                .orElseGet(HashMap::new);
+    }
+
     @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
     @Override
     public boolean equals(final Object object) {
@@ -3,6 +3,7 @@ package com.arangodb.tinkerpop.gremlin.structure;
 import com.arangodb.serde.*;
 
 import java.util.*;
+import java.util.function.Function;
 
 public class ArangoDBEdgeData extends ArangoDBData<ArangoDBPropertyData> implements PropertiesContainer {
 
@@ -45,6 +46,33 @@ public class ArangoDBEdgeData extends ArangoDBData<ArangoDBPropertyData> impleme
         this.to = to;
     }
 
+    @Override
+    public ArangoDBEdgeData copy() {
+        // Edge property values are replaced, not changed, so they are shared
+        ArangoDBEdgeData copy = copyTo(new ArangoDBEdgeData(), Function.identity());
+        copy.setFrom(from);
+        copy.setTo(to);
+        return copy;
+    }
+
+    @Override
+    public Map<String, Object> flattenedDocument() {
+        Map<String, Object> document = super.flattenedDocument();
+        document.put("_from", from);
+        document.put("_to", to);
+        return document;
+    }
+
+    @Override
+    Object flatValue(ArangoDBPropertyData value) {
+        return flatScalar(value.getValue());
+    }
+
+    @Override
+    ArangoDBPropertyData fromFlatValue(Object value) {
+        return new ArangoDBPropertyData(value);
+    }
+
     @Override
     public String toString() {
         return "ArangoDBEdgeData{" +
@@ -11,6 +11,7 @@ package com.arangodb.tinkerpop.gremlin.structure;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.arangodb.entity.EdgeDefinition;
 import org.apache.commons.collections4.CollectionUtils;
@@ -18,6 +19,7 @@ import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.ConfigurationConverter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Transaction;
@@ -29,8 +31,20 @@ import org.slf4j.LoggerFactory;
 
 import com.arangodb.ArangoGraph;
 import com.arangodb.model.GraphCreateOptions;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBBulkLoader;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBCursorOptions;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBElementCache;
 import com.arangodb.tinkerpop.gremlin.client.ArangoDBGraphClient;
 import com.arangodb.tinkerpop.gremlin.client.ArangoDBGraphException;
+import com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization.ArangoDBCountStrategy;
+import com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization.ArangoDBDropStrategy;
+import com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization.ArangoDBGraphStepStrategy;
+import com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization.ArangoDBMultiHopStrategy;
+import com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization.ArangoDBOrderStrategy;
+import com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization.ArangoDBProjectionStrategy;
+import com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization.ArangoDBRangeStrategy;
+import com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization.ArangoDBRepeatStrategy;
+import com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization.ArangoDBShortestPathStrategy;
 import com.arangodb.tinkerpop.gremlin.utils.ArangoDBUtil;
 
 import static com.arangodb.tinkerpop.gremlin.utils.ArangoDBUtil.unsupportedIdType;
@@ -119,6 +133,22 @@ import static com.arangodb.tinkerpop.gremlin.utils.ArangoDBUtil.unsupportedIdTyp
  *   <li>  graph.edge 								// The name of an edges collection
  *   <li>  graph.relation 							// The allowed from/to relations for edges
  *   <li>  graph.shouldPrefixCollectionNames 		// Boolean flag, true if Vertex and Edge collections will be prefixed with graph name
+ *   <li>  graph.traversalMaxDepth 				// The maximum depth of repeat().until() traversals evaluated by the server, disabled if not set
+ *   <li>  graph.batchSize 						// The number of documents per request of the bulk loader and write buffer, 1000 if not set
+ *   <li>  graph.writeBehind 					// Boolean flag, true if element writes are buffered and persisted in batches, false if not set
+ *   <li>  graph.transactions 					// Boolean flag, true if graph operations run in ArangoDB stream transactions, false if not set
+ *   <li>  graph.cacheSize 						// The maximum number of vertices and edges cached by id, caching disabled if not set
+ *   <li>  graph.cacheEviction 					// The cache eviction policy, LRU or FIFO, LRU if not set
+ *   <li>  graph.cacheRevalidate 				// Boolean flag, true if the revisions of cached elements are checked before use, false if not set
+ *   <li>  graph.cursor.batchSize 				// The number of documents per query result batch, the driver default if not set
+ *   <li>  graph.cursor.stream 					// Boolean flag, true if query results are streamed by the server instead of materialized, false if not set
+ *   <li>  graph.cursor.ttl 					// The time (s) an idle query cursor is kept by the server, the server default if not set
+ *   <li>  graph.cursor.memoryLimit 				// The maximum memory (bytes) of a query, the server default if not set
+ *   <li>  graph.cursor.fillBlockCache 			// Boolean flag, false to keep scans out of the RocksDB block cache, the server default if not set
+ *   <li>  graph.cursor.prefetch 				// Boolean flag, true if the next result batch of a graph step is read while the current one is consumed, false if not set
+ *   <li>  graph.flattenProperties 				// Boolean flag, true if single valued properties without meta-properties are stored as top level document attributes, false if not set
+ *   <li>  graph.mixedProperties 				// Boolean flag, true if properties are filtered and sorted both as top level attributes and nested, the value of graph.flattenProperties if not set
+ *   <li>  graph.scanParallelism 				// The number of collections read in parallel by g.V()/g.E() scans of several collections, and of prefetching threads, 1 (serial) if not set
  *   <li>  arangodb.hosts
  *   <li>  arangodb.timeout
  *   <li>  arangodb.user
@@ -251,7 +281,7 @@ public class ArangoDBGraph implements Graph {
 
 			@Override
 			public boolean supportsTransactions() {
-				return false;
+				return transaction != null;
 			}
 
 			@Override
@@ -431,6 +461,20 @@ public class ArangoDBGraph implements Graph {
 
 	private static final Logger logger = LoggerFactory.getLogger(ArangoDBGraph.class);
 
+	static {
+		TraversalStrategies.GlobalCache.registerStrategies(ArangoDBGraph.class,
+				TraversalStrategies.GlobalCache.getStrategies(Graph.class).clone().addStrategies(
+						ArangoDBGraphStepStrategy.instance(),
+						ArangoDBOrderStrategy.instance(),
+						ArangoDBMultiHopStrategy.instance(),
+						ArangoDBRepeatStrategy.instance(),
+						ArangoDBShortestPathStrategy.instance(),
+						ArangoDBRangeStrategy.instance(),
+						ArangoDBDropStrategy.instance(),
+						ArangoDBCountStrategy.instance(),
+						ArangoDBProjectionStrategy.instance()));
+	}
+
     /** The properties name CONFIG_CONF. */
 
     public static final String PROPERTY_KEY_PREFIX = "gremlin.arangodb.conf";
@@ -459,6 +503,54 @@ public class ArangoDBGraph implements Graph {
 
 	public static final String PROPERTY_KEY_SHOULD_PREFIX_COLLECTION_NAMES = "graph.shouldPrefixCollectionNames";
 
+	/** The properties name CONFIG_TRAVERSAL_MAX_DEPTH **/
+
+	public static final String PROPERTY_KEY_TRAVERSAL_MAX_DEPTH = "graph.traversalMaxDepth";
+
+	/** The properties name CONFIG_BATCH_SIZE **/
+
+	public static final String PROPERTY_KEY_BATCH_SIZE = "graph.batchSize";
+
+	/** The Constant DEFAULT_BATCH_SIZE. */
+
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/** The properties name CONFIG_WRITE_BEHIND **/
+
+	public static final String PROPERTY_KEY_WRITE_BEHIND = "graph.writeBehind";
+
+	/** The properties name CONFIG_TRANSACTIONS **/
+
+	public static final String PROPERTY_KEY_TRANSACTIONS = "graph.transactions";
+
+	/** The properties name CONFIG_CACHE_SIZE **/
+
+	public static final String PROPERTY_KEY_CACHE_SIZE = "graph.cacheSize";
+
+	/** The properties name CONFIG_CACHE_EVICTION **/
+
+	public static final String PROPERTY_KEY_CACHE_EVICTION = "graph.cacheEviction";
+
+	/** The properties name CONFIG_CACHE_REVALIDATE **/
+
+	public static final String PROPERTY_KEY_CACHE_REVALIDATE = "graph.cacheRevalidate";
+
+	/** The properties name CONFIG_SCAN_PARALLELISM **/
+
+	public static final String PROPERTY_KEY_SCAN_PARALLELISM = "graph.scanParallelism";
+
+	/** The properties name CONFIG_FLATTEN_PROPERTIES **/
+
+	public static final String PROPERTY_KEY_FLATTEN_PROPERTIES = "graph.flattenProperties";
+
+	/** The properties name CONFIG_MIXED_PROPERTIES **/
+
+	public static final String PROPERTY_KEY_MIXED_PROPERTIES = "graph.mixedProperties";
+
+	/** The properties name prefix of the cursor settings, see {@link ArangoDBCursorOptions}. **/
+
+	public static final String PROPERTY_KEY_CURSOR = "graph.cursor";
+
 	/** The Constant DEFAULT_VERTEX_COLLECTION. */
 
 	public static final String DEFAULT_VERTEX_COLLECTION = "vertex";
@@ -501,6 +593,26 @@ public class ArangoDBGraph implements Graph {
 
 	private final List<String> edgeCollections;
 
+	/** The vertex collections, for membership tests. */
+
+	private final Set<String> vertexLabels;
+
+	/** The edge collections, for membership tests. */
+
+	private final Set<String> edgeLabels;
+
+	/** The prefixed names of the graph collections, by collection (label). */
+
+	private final Map<String, String> prefixedCollectionNames;
+
+	/** The prefixed names of the vertex collections. */
+
+	private final List<String> prefixedVertexCollections;
+
+	/** The prefixed names of the edge collections. */
+
+	private final List<String> prefixedEdgeCollections;
+
 	/** The relations. */
 
 	private final List<String> relations;
@@ -517,6 +629,18 @@ public class ArangoDBGraph implements Graph {
 	/** If collection names should be prefixed with graph name */
 	private final boolean shouldPrefixCollectionNames;
 
+	/** The maximum depth of server side repeat().until() traversals, -1 if disabled */
+	private final int traversalMaxDepth;
+
+	/** The graph transaction, null if transactions are not enabled */
+	private final ArangoDBTransaction transaction;
+
+	/** If single valued properties are stored as top level document attributes */
+	private final boolean flattenProperties;
+
+	/** If the documents may store a property both as a top level attribute and nested */
+	private final boolean mixedProperties;
+
 
     /**
      * Create a new ArangoDBGraph from the provided configuration.
@@ -539,10 +663,10 @@ public class ArangoDBGraph implements Graph {
 
 		logger.info("Creating new ArangoDB Graph from configuration");
 		Configuration arangoConfig = configuration.subset(PROPERTY_KEY_PREFIX);
-		vertexCollections = arangoConfig.getList(PROPERTY_KEY_VERTICES).stream()
+		List<String> vertexCollections = arangoConfig.getList(PROPERTY_KEY_VERTICES).stream()
 				.map(String.class::cast)
 				.collect(Collectors.toList());
-		edgeCollections = arangoConfig.getList(PROPERTY_KEY_EDGES).stream()
+		List<String> edgeCollections = arangoConfig.getList(PROPERTY_KEY_EDGES).stream()
 				.map(String.class::cast)
 				.collect(Collectors.toList());
 		relations = arangoConfig.getList(PROPERTY_KEY_RELATIONS).stream()
@@ -557,19 +681,70 @@ public class ArangoDBGraph implements Graph {
 		if (CollectionUtils.isEmpty(edgeCollections)) {
 			edgeCollections.add(DEFAULT_EDGE_COLLECTION);
 		}
+		this.vertexCollections = Collections.unmodifiableList(vertexCollections);
+		this.edgeCollections = Collections.unmodifiableList(edgeCollections);
 		shouldPrefixCollectionNames = arangoConfig.getBoolean(PROPERTY_KEY_SHOULD_PREFIX_COLLECTION_NAMES, true);
+		vertexLabels = Collections.unmodifiableSet(new LinkedHashSet<>(vertexCollections));
+		edgeLabels = Collections.unmodifiableSet(new LinkedHashSet<>(edgeCollections));
+		Map<String, String> prefixedNames = new HashMap<>();
+		Stream.of(vertexCollections, edgeCollections, GRAPH_COLLECTIONS, Collections.singleton(GRAPH_VARIABLES_COLLECTION))
+				.flatMap(Collection::stream)
+				.forEach(collection -> prefixedNames.put(collection, prefixCollectionName(collection)));
+		prefixedCollectionNames = Collections.unmodifiableMap(prefixedNames);
+		prefixedVertexCollections = Collections.unmodifiableList(vertexCollections.stream()
+				.map(prefixedNames::get)
+				.collect(Collectors.toList()));
+		prefixedEdgeCollections = Collections.unmodifiableList(edgeCollections.stream()
+				.map(prefixedNames::get)
+				.collect(Collectors.toList()));
+		traversalMaxDepth = arangoConfig.getInt(PROPERTY_KEY_TRAVERSAL_MAX_DEPTH, -1);
+		flattenProperties = arangoConfig.getBoolean(PROPERTY_KEY_FLATTEN_PROPERTIES, false);
+		mixedProperties = arangoConfig.getBoolean(PROPERTY_KEY_MIXED_PROPERTIES, flattenProperties);
 
 		Properties arangoProperties = ConfigurationConverter.getProperties(arangoConfig);
-		int batchSize = 0;
+		int batchSize = arangoConfig.getInt(PROPERTY_KEY_BATCH_SIZE, DEFAULT_BATCH_SIZE);
+		if (batchSize < 1) {
+			throw new ArangoDBGraphException(String.format("The batch size must be positive: %s", batchSize));
+		}
 		client = new ArangoDBGraphClient(this, arangoProperties, arangoConfig.getString(PROPERTY_KEY_DB_NAME),
 				batchSize, shouldPrefixCollectionNames);
+		boolean transactions = arangoConfig.getBoolean(PROPERTY_KEY_TRANSACTIONS, false);
+		if (arangoConfig.getBoolean(PROPERTY_KEY_WRITE_BEHIND, false)) {
+			if (transactions) {
+				throw new ArangoDBGraphException(String.format("%s and %s can not be enabled together",
+						PROPERTY_KEY_WRITE_BEHIND, PROPERTY_KEY_TRANSACTIONS));
+			}
+			client.enableWriteBehind();
+		}
+		int cacheSize = arangoConfig.getInt(PROPERTY_KEY_CACHE_SIZE, 0);
+		if (cacheSize > 0) {
+			ArangoDBElementCache.Eviction eviction;
+			String evictionName = arangoConfig.getString(PROPERTY_KEY_CACHE_EVICTION, ArangoDBElementCache.Eviction.LRU.name());
+			try {
+				eviction = ArangoDBElementCache.Eviction.valueOf(evictionName.toUpperCase());
+			} catch (IllegalArgumentException ex) {
+				throw new ArangoDBGraphException(String.format("Unknown cache eviction policy: %s", evictionName), ex);
+			}
+			client.enableElementCache(cacheSize, eviction, arangoConfig.getBoolean(PROPERTY_KEY_CACHE_REVALIDATE, false));
+		}
+		Map<String, Object> cursorSettings = new HashMap<>();
+		arangoConfig.getKeys(PROPERTY_KEY_CURSOR).forEachRemaining(key -> cursorSettings.put(key, arangoConfig.getString(key)));
+		try {
+			client.setCursorOptions(ArangoDBCursorOptions.fromMap(cursorSettings, ArangoDBCursorOptions.GRAPH_SETTING_PREFIX));
+		} catch (IllegalArgumentException ex) {
+			throw new ArangoDBGraphException(String.format("Invalid cursor settings: %s", cursorSettings), ex);
+		}
+		int scanParallelism = arangoConfig.getInt(PROPERTY_KEY_SCAN_PARALLELISM, 1);
+		if (scanParallelism > 1) {
+			client.enableParallelScan(scanParallelism);
+		}
 
 		ArangoGraph graph = client.getArangoGraph();
         GraphCreateOptions options = new  GraphCreateOptions();
         // FIXME Cant be in orphan collections because it will be deleted with graph?
         // options.orphanCollections(GRAPH_VARIABLES_COLLECTION);
-		final List<String> prefVCols = vertexCollections.stream().map(this::getPrefixedCollectioName).collect(Collectors.toList());
-		final List<String> prefECols = edgeCollections.stream().map(this::getPrefixedCollectioName).collect(Collectors.toList());
+		final List<String> prefVCols = prefixedVertexCollections;
+		final List<String> prefECols = prefixedEdgeCollections;
 		final List<EdgeDefinition> edgeDefinitions = new ArrayList<>();
 		if (relations.isEmpty()) {
 			logger.info("No relations, creating default ones.");
@@ -611,6 +786,13 @@ public class ArangoDBGraph implements Graph {
 			client.insertGraphVariables(variables);
 		}
 		this.configuration = configuration;
+		// Enabled last, the graph setup is not part of a transaction
+		if (transactions) {
+			transaction = new ArangoDBTransaction(this, client);
+			client.enableTransactions(transaction);
+		} else {
+			transaction = null;
+		}
 	}
 
     @Override
@@ -625,7 +807,7 @@ public class ArangoDBGraph implements Graph {
         else {
         	label = DEFAULT_VERTEX_COLLECTION;
         }
-        if (!vertexCollections().contains(label)) {
+        if (!hasVertexCollection(label)) {
 			throw new IllegalArgumentException(String.format("Vertex label (%s) not in graph (%s) vertex collections.", label, name));
 		}
         ArangoDBVertex vertex = null;
@@ -659,9 +841,9 @@ public class ArangoDBGraph implements Graph {
         else {
 			vertex = new ArangoDBVertex(null, label, this);
         }
-        // The vertex needs to exist before we can attach properties
-		vertex.insert();
+        // Stage the properties so that a single request persists the vertex
         ElementHelper.attachProperties(vertex, keyValues);
+		vertex.insert();
         return vertex;
 	}
 
@@ -700,6 +882,10 @@ public class ArangoDBGraph implements Graph {
 
 	@Override
 	public void close() {
+		if (transaction != null) {
+			transaction.close();
+			transaction.abortOpenTransactions();
+		}
 		client.shutdown();
 	}
 
@@ -726,7 +912,49 @@ public class ArangoDBGraph implements Graph {
 	 */
 
 	public List<String> edgeCollections() {
-		return Collections.unmodifiableList(edgeCollections);
+		return edgeCollections;
+	}
+
+	/**
+	 * The prefixed names of the edge collections, see {@link #getPrefixedCollectioName(String)}.
+	 *
+	 * @return the list
+	 */
+
+	public List<String> prefixedEdgeCollections() {
+		return prefixedEdgeCollections;
+	}
+
+	/**
+	 * The prefixed names of the vertex collections, see {@link #getPrefixedCollectioName(String)}.
+	 *
+	 * @return the list
+	 */
+
+	public List<String> prefixedVertexCollections() {
+		return prefixedVertexCollections;
+	}
+
+	/**
+	 * Returns true if the label is the label of an edge collection of the graph.
+	 *
+	 * @param label 			the label
+	 * @return true, if the graph has the edge collection
+	 */
+
+	public boolean hasEdgeCollection(String label) {
+		return edgeLabels.contains(label);
+	}
+
+	/**
+	 * Returns true if the label is the label of a vertex collection of the graph.
+	 *
+	 * @param label 			the label
+	 * @return true, if the graph has the vertex collection
+	 */
+
+	public boolean hasVertexCollection(String label) {
+		return vertexLabels.contains(label);
 	}
 
 	@Override
@@ -743,7 +971,10 @@ public class ArangoDBGraph implements Graph {
 					}
 				})
 				.collect(Collectors.toList());
-		return getClient().getGraphEdges(ids).stream()
+		Stream<ArangoDBEdgeData> edges = ids.isEmpty()
+				? getClient().getGraphEdges(ids).stream()
+				: getClient().getEdgesById(ids).stream();
+		return edges
 				.map(it -> (Edge) new ArangoDBEdge(this, it))
 				.iterator();
 	}
@@ -784,9 +1015,77 @@ public class ArangoDBGraph implements Graph {
 		return this.name;
 	}
 
+	/**
+	 * The maximum depth of the repeat().until() traversals that are evaluated by the server. Gremlin
+	 * does not bound these traversals, so they are only evaluated by the server if a maximum depth
+	 * has been configured.
+	 *
+	 * @return the maximum depth, -1 if not configured
+	 */
+
+	public int traversalMaxDepth() {
+		return this.traversalMaxDepth;
+	}
+
+	/**
+	 * Returns true if single valued properties without meta-properties are stored as top level
+	 * attributes of the vertex and edge documents, instead of in the nested properties map.
+	 *
+	 * @return true, if properties are flattened
+	 */
+
+	public boolean flattensProperties() {
+		return this.flattenProperties;
+	}
+
+	/**
+	 * Returns true if the vertex and edge documents may store a property whose key can be
+	 * flattened either as a top level attribute or in the nested properties map, so that both forms
+	 * must be filtered and sorted. That is the case of the graphs that flatten properties, whose
+	 * multi-valued properties and properties with meta-properties are nested, and of the graphs
+	 * whose documents were written both with and without flattening. A graph that flattens
+	 * properties whose properties never have several values or meta-properties, and that never
+	 * stored them nested, can disable it so that property filters and sorts use the top level
+	 * attributes only, which the server can answer with persistent indexes.
+	 *
+	 * @return true, if flattened and nested properties are mixed
+	 */
+
+	public boolean hasMixedProperties() {
+		return this.mixedProperties;
+	}
+
+	/**
+	 * Persist the buffered element writes. This is only needed if the graph defers its writes
+	 * ({@link #PROPERTY_KEY_WRITE_BEHIND}): the buffer is also flushed when it is full, before
+	 * queries and when the graph is closed.
+	 *
+	 * @throws ArangoDBGraphException if the server rejected any of the writes
+	 */
+
+	public void flush() {
+		client.flush();
+	}
+
+	/**
+	 * Create a bulk loader that inserts vertex and edge documents in batches of
+	 * {@link #PROPERTY_KEY_BATCH_SIZE} documents, one request per batch. The loader must be closed
+	 * (or flushed) for the last batches to be inserted.
+	 *
+	 * @param onDuplicate		the policy for documents with the key of an existing document
+	 * @return the bulk loader
+	 */
+
+	public ArangoDBBulkLoader bulkLoader(ArangoDBBulkLoader.OnDuplicate onDuplicate) {
+		return client.bulkLoader(onDuplicate);
+	}
+
 	@Override
 	public Transaction tx() {
-		throw Graph.Exceptions.transactionsNotSupported();
+		if (transaction == null) {
+			throw Graph.Exceptions.transactionsNotSupported();
+		}
+		return transaction;
 	}
 
 	@Override
@@ -807,7 +1106,7 @@ public class ArangoDBGraph implements Graph {
 	 * @return the list
 	 */
 	public List<String> vertexCollections() {
-		return Collections.unmodifiableList(vertexCollections);
+		return vertexCollections;
 	}
 
 	@Override
@@ -825,28 +1124,42 @@ public class ArangoDBGraph implements Graph {
 				})
 				.map(id -> id == null ? (String) id : id.toString())
 				.collect(Collectors.toList());
-		return getClient().getGraphVertices(ids, vertexCollections).stream()
+		Stream<ArangoDBVertexData> vertices = ids.isEmpty() || !vertexCollections.isEmpty()
+				? getClient().getGraphVertices(ids, vertexCollections).stream()
+				: getClient().getVerticesById(ids).stream();
+		return vertices
 				.map(it -> (Vertex) new ArangoDBVertex(this, it))
 				.iterator();
 	}
 
 	/**
-	 * Return the collection name correctly prefixed according to the shouldPrefixCollectionNames flag
+	 * Return the collection name correctly prefixed according to the shouldPrefixCollectionNames flag.
+	 * The names of the graph collections are computed once, when the graph is created.
 	 * @param collectionName the collection name
 	 * @return the Collection name prefixed
 	 */
 	public String getPrefixedCollectioName(String collectionName) {
+		String prefixed = prefixedCollectionNames.get(collectionName);
+		return prefixed == null ? prefixCollectionName(collectionName) : prefixed;
+	}
+
+	/**
+	 * Compute the prefixed name of a collection.
+	 * @param collectionName the collection name
+	 * @return the Collection name prefixed
+	 */
+	private String prefixCollectionName(String collectionName) {
 		if (GRAPH_VARIABLES_COLLECTION.equals(collectionName)) {
 			return collectionName;
 		}
 		if (GRAPH_COLLECTIONS.contains(collectionName)) {
-			return String.format("%s_%s", name, collectionName);
+			return name + "_" + collectionName;
 		}
 		if(shouldPrefixCollectionNames) {
 			if(collectionName.startsWith(name + "_")) {
 				return collectionName;
 			}
-			return String.format("%s_%s", name, collectionName);
+			return name + "_" + collectionName;
 		}else{
 			return collectionName;
 		}
@@ -0,0 +1,51 @@
+package com.arangodb.tinkerpop.gremlin.structure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class ArangoDBPathData {
+
+    private List<ArangoDBVertexData> vertices = new ArrayList<>();
+
+    private List<ArangoDBEdgeData> edges = new ArrayList<>();
+
+    public ArangoDBPathData() {
+    }
+
+    public List<ArangoDBVertexData> getVertices() {
+        return vertices;
+    }
+
+    public void setVertices(List<ArangoDBVertexData> vertices) {
+        this.vertices = vertices;
+    }
+
+    public List<ArangoDBEdgeData> getEdges() {
+        return edges;
+    }
+
+    public void setEdges(List<ArangoDBEdgeData> edges) {
+        this.edges = edges;
+    }
+
+    @Override
+    public String toString() {
+        return "ArangoDBPathData{" +
+                "vertices=" + vertices +
+                ", edges=" + edges +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        ArangoDBPathData that = (ArangoDBPathData) o;
+        return Objects.equals(vertices, that.vertices) && Objects.equals(edges, that.edges);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(vertices, edges);
+    }
+}
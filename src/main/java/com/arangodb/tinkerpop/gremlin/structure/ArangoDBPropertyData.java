@@ -1,42 +1,84 @@
 package com.arangodb.tinkerpop.gremlin.structure;
 
 import com.arangodb.shaded.fasterxml.jackson.annotation.JsonCreator;
+import com.arangodb.shaded.fasterxml.jackson.annotation.JsonInclude;
 import com.arangodb.shaded.fasterxml.jackson.annotation.JsonProperty;
-import com.arangodb.tinkerpop.gremlin.utils.ArangoDBUtil;
+import com.arangodb.shaded.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.arangodb.tinkerpop.gremlin.utils.ArangoDBValueCodec;
+import com.arangodb.tinkerpop.gremlin.utils.ArangoDBValueDeserializer;
 
 import java.util.Objects;
 
+/**
+ * A property value and the tag of its type, see {@link ArangoDBValueCodec}. The codec of the
+ * value is resolved when the property is read, native JSON values (strings, booleans and
+ * nulls) are stored without a tag. The value is decoded the first time it is accessed, so the
+ * properties of an element that are never used are not converted. The decoded value is kept and
+ * shared by all the readers of the property.
+ */
+
 public class ArangoDBPropertyData {
     private final Object value;
-    private final String valueType;
+    private final ArangoDBValueCodec codec;
+
+    private static final Object NOT_DECODED = new Object();
+
+    /** The decoded value, NOT_DECODED until it is first accessed. */
+    private transient volatile Object decodedValue = NOT_DECODED;
 
     @JsonCreator
     ArangoDBPropertyData(
-            @JsonProperty("value") Object value,
+            @JsonProperty("value") @JsonDeserialize(using = ArangoDBValueDeserializer.class) Object value,
             @JsonProperty("valueType") String valueType
     ) {
         this.value = value;
-        this.valueType = valueType;
+        this.codec = ArangoDBValueCodec.forTag(valueType);
     }
 
     public ArangoDBPropertyData(Object value) {
         this.value = value;
-        valueType = (value != null ? value.getClass() : Void.class).getCanonicalName();
+        this.codec = ArangoDBValueCodec.forValue(value);
     }
 
+    /**
+     * Copy a property value, sharing its encoded value.
+     *
+     * @param other                 the property value to copy
+     */
+
+    ArangoDBPropertyData(ArangoDBPropertyData other) {
+        this.value = other.value;
+        this.codec = other.codec;
+    }
+
+    /**
+     * The decoded value. The value is decoded once and the same instance is returned to all the
+     * callers, so arrays, lists and maps must not be changed by the caller: property changes
+     * replace the property value instead. Threads that access the value at the same time may both
+     * decode it, which gives equal values.
+     *
+     * @return the decoded value
+     */
+
     public Object getValue() {
-        return ArangoDBUtil.getCorretctPrimitive(value, valueType);
+        Object result = decodedValue;
+        if (result == NOT_DECODED) {
+            result = codec.decode(value);
+            decodedValue = result;
+        }
+        return result;
     }
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public String getValueType() {
-        return valueType;
+        return codec.tag();
     }
 
     @Override
     public String toString() {
         return "ArangoDBPropertyValue{" +
                 "value=" + value +
-                ", valueType='" + valueType + '\'' +
+                ", valueType='" + getValueType() + '\'' +
                 '}';
     }
 
@@ -44,12 +86,12 @@ public class ArangoDBPropertyData {
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         ArangoDBPropertyData that = (ArangoDBPropertyData) o;
-        return Objects.equals(value, that.value) && Objects.equals(valueType, that.valueType);
+        return Objects.equals(value, that.value) && codec == that.codec;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value, valueType);
+        return Objects.hash(value, codec.tag());
     }
 }
     
@@ -0,0 +1,136 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.structure;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.tinkerpop.gremlin.structure.util.AbstractThreadLocalTransaction;
+import org.apache.tinkerpop.gremlin.structure.util.TransactionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBGraphClient;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBGraphException;
+
+/**
+ * A graph transaction backed by an ArangoDB stream transaction. Each thread has its own
+ * transaction, which is opened automatically by the first graph write of the thread (unless
+ * the read-write behaviour is changed) and spans the graph's vertex, edge and variables
+ * collections. All the client operations of the thread carry the stream transaction id until the
+ * transaction is committed or rolled back; reads made while the thread has no open transaction
+ * don't open one. The transactions that are still open when the graph is
+ * closed are aborted, whichever thread opened them.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public class ArangoDBTransaction extends AbstractThreadLocalTransaction {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArangoDBTransaction.class);
+
+    private final ArangoDBGraphClient client;
+
+    /** The stream transaction id of each thread. */
+
+    private final ThreadLocal<String> transactionId = new ThreadLocal<>();
+
+    /** The stream transaction ids of all the threads, while they are open. */
+
+    private final Set<String> openTransactionIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Create a new transaction for the graph.
+     *
+     * @param graph                 the graph
+     * @param client                the client that executes the stream transactions
+     */
+
+    public ArangoDBTransaction(ArangoDBGraph graph, ArangoDBGraphClient client) {
+        super(graph);
+        this.client = client;
+    }
+
+    /**
+     * The stream transaction of the calling thread, opening it if the read-write behaviour
+     * requires it.
+     *
+     * @return the stream transaction id, null if the thread has no open transaction
+     */
+
+    public String streamTransactionId() {
+        readWrite();
+        return transactionId.get();
+    }
+
+    /**
+     * The stream transaction of the calling thread, without opening one. Reads join the
+     * transaction of the thread if it is open, but don't open it.
+     *
+     * @return the stream transaction id, null if the thread has no open transaction
+     */
+
+    public String currentStreamTransactionId() {
+        return transactionId.get();
+    }
+
+    @Override
+    protected void doOpen() {
+        String id = client.beginStreamTransaction();
+        openTransactionIds.add(id);
+        transactionId.set(id);
+    }
+
+    @Override
+    protected void doCommit() throws TransactionException {
+        try {
+            client.commitStreamTransaction(transactionId.get());
+        } catch (ArangoDBGraphException ex) {
+            logger.error("Failed to commit transaction", ex);
+            throw new TransactionException(ex);
+        } finally {
+            openTransactionIds.remove(transactionId.get());
+            transactionId.remove();
+        }
+    }
+
+    @Override
+    protected void doRollback() throws TransactionException {
+        try {
+            client.abortStreamTransaction(transactionId.get());
+        } catch (ArangoDBGraphException ex) {
+            logger.error("Failed to rollback transaction", ex);
+            throw new TransactionException(ex);
+        } finally {
+            openTransactionIds.remove(transactionId.get());
+            transactionId.remove();
+        }
+    }
+
+    /**
+     * Abort the stream transactions that other threads left open, e.g. when the graph is closed.
+     * The transaction of the calling thread is closed by {@link #close()}.
+     */
+
+    void abortOpenTransactions() {
+        for (String id : openTransactionIds) {
+            try {
+                client.abortStreamTransaction(id);
+            } catch (ArangoDBGraphException ex) {
+                logger.warn("Failed to abort transaction {}", id, ex);
+            }
+            openTransactionIds.remove(id);
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return transactionId.get() != null;
+    }
+}
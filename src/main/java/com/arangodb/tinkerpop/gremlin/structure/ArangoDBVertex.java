@@ -50,10 +50,40 @@ public class ArangoDBVertex implements Vertex {
     private final ArangoDBVertexData data;
     private boolean removed;
 
+    /**
+     * True if the vertex has a document in the database. Properties set on an unpaired vertex are
+     * staged in its data and persisted by {@link #insert()}.
+     */
+    private boolean paired;
+
+    /** The keys of the properties changed since the vertex was last persisted. */
+    private final Set<String> dirtyKeys = new HashSet<>();
+
+    /** The vertex id, computed once the vertex has a key. */
+    private String id;
+
     public ArangoDBVertex(ArangoDBGraph graph, ArangoDBVertexData data) {
         this.graph = graph;
         this.data = data;
         this.removed = false;
+        this.paired = true;
+    }
+
+    /**
+     * Create a vertex from a document that was read with or without its properties. The
+     * properties of a document read without them are read from the database the first time they
+     * are accessed.
+     *
+     * @param graph         the graph
+     * @param data          the vertex document
+     * @param withProperties true if the document was read with its properties
+     */
+
+    public ArangoDBVertex(ArangoDBGraph graph, ArangoDBVertexData data, boolean withProperties) {
+        this(graph, data);
+        if (!withProperties) {
+            data.setPropertiesLoader(this::readProperties);
+        }
     }
 
     public ArangoDBVertex(final String id, final String label, ArangoDBGraph graph) {
@@ -75,6 +105,7 @@ public class ArangoDBVertex implements Vertex {
 
         data = new ArangoDBVertexData(inferredLabel, key);
         removed = false;
+        paired = false;
     }
 
     public boolean isRemoved() {
@@ -83,11 +114,14 @@ public class ArangoDBVertex implements Vertex {
 
     @Override
     public String id() {
-        String key = data.getKey();
-        if (key == null) {
-            return null;
+        if (id == null) {
+            String key = data.getKey();
+            if (key == null) {
+                return null;
+            }
+            id = graph.getPrefixedCollectioName(label()) + "/" + key;
         }
-        return graph.getPrefixedCollectioName(label()) + "/" + key;
+        return id;
     }
 
     @Override
@@ -104,7 +138,7 @@ public class ArangoDBVertex implements Vertex {
     public void remove() {
         if (removed) return;
         LOGGER.info("removing {} from graph {}.", id(), graph.name());
-        edges(Direction.BOTH).forEachRemaining(Edge::remove);
+        // The incident edges are removed by the server, in the same query
         graph.getClient().deleteVertex(data);
         this.removed = true;
     }
@@ -114,7 +148,7 @@ public class ArangoDBVertex implements Vertex {
         LOGGER.info("addEdge in collection {} to vertex {}", label, inVertex == null ? "?" : inVertex.id());
         ElementHelper.legalPropertyKeyValueArray(keyValues);
         ElementHelper.validateLabel(label);
-        if (!graph.edgeCollections().contains(label)) {
+        if (!graph.hasEdgeCollection(label)) {
             throw new IllegalArgumentException(String.format("Edge label (%s)not in graph (%s) edge collections.", label, graph.name()));
         }
         if (inVertex == null) {
@@ -148,9 +182,9 @@ public class ArangoDBVertex implements Vertex {
         } else {
             edge = new ArangoDBEdge(null, label, (String) this.id(), (String) inVertex.id(), graph);
         }
-        // The vertex needs to exist before we can attach properties
-        edge.insert();
+        // Stage the properties so that a single request persists the edge
         ElementHelper.attachProperties(edge, keyValues);
+        edge.insert();
         return edge;
     }
 
@@ -188,47 +222,128 @@ public class ArangoDBVertex implements Vertex {
             filteredKeyValues = ArrayUtils.remove(filteredKeyValues, idIndex);
         }
 
-        if (idValue == null) {
+        final List<ArangoDBVertexPropertyData> list = data.getProperties().getOrDefault(key, new ArrayList<>());
+        if (idValue == null && (!graph.flattensProperties() || !list.isEmpty())) {
+            // A single flattened value without an explicit id is identified by its key
             idValue = UUID.randomUUID().toString();
         }
 
         ArangoDBVertexPropertyData prop = new ArangoDBVertexPropertyData(idValue, value);
-
-        final List<ArangoDBVertexPropertyData> list = data.getProperties().getOrDefault(key, new ArrayList<>());
         list.add(prop);
         data.getProperties().put(key, list);
 
         ArangoDBVertexProperty<V> vertexProperty = new ArangoDBVertexProperty<>(key, prop, this);
         ElementHelper.attachProperties(vertexProperty, filteredKeyValues);
-        update();
+        update(key);
         return vertexProperty;
     }
 
 
     @Override
     public Iterator<Edge> edges(Direction direction, String... edgeLabels) {
+        return edges(direction, -1, edgeLabels);
+    }
+
+    /**
+     * Get at most limit incident edges of the vertex, the limit is applied by the server.
+     *
+     * @param direction     the direction of the edges
+     * @param limit         the maximum number of edges to return, negative for no limit
+     * @param edgeLabels    the labels of the edges to follow, all if empty
+     * @return an iterator over the edges
+     */
+
+    public Iterator<Edge> edges(Direction direction, long limit, String... edgeLabels) {
+        return edges(direction, limit, true, edgeLabels);
+    }
+
+    /**
+     * Get at most limit incident edges of the vertex, optionally without reading their properties
+     * until they are accessed.
+     *
+     * @param direction     the direction of the edges
+     * @param limit         the maximum number of edges to return, negative for no limit
+     * @param withProperties true if the edge properties are read with the edges
+     * @param edgeLabels    the labels of the edges to follow, all if empty
+     * @return an iterator over the edges
+     */
+
+    public Iterator<Edge> edges(Direction direction, long limit, boolean withProperties, String... edgeLabels) {
         List<String> edgeCollections = getQueryEdgeCollections(edgeLabels);
         // If edgeLabels was not empty but all were discarded, this means that we should
         // return an empty iterator, i.e. no edges for that edgeLabels exist.
         if (edgeCollections.isEmpty()) {
             return Collections.emptyIterator();
         }
-        return graph.getClient().getVertexEdges(id(), edgeCollections, direction)
+        return graph.getClient().getVertexEdges(id(), edgeCollections, direction, limit, withProperties)
                 .stream()
-                .map(it -> (Edge) new ArangoDBEdge(graph, it))
+                .map(it -> (Edge) new ArangoDBEdge(graph, it, withProperties))
                 .iterator();
     }
 
 
     @Override
     public Iterator<Vertex> vertices(Direction direction, String... edgeLabels) {
+        return vertices(direction, -1, edgeLabels);
+    }
+
+    /**
+     * Get at most limit adjacent vertices of the vertex, the limit is applied by the server.
+     *
+     * @param direction     the direction of the edges
+     * @param limit         the maximum number of vertices to return, negative for no limit
+     * @param edgeLabels    the labels of the edges to follow, all if empty
+     * @return an iterator over the vertices
+     */
+
+    public Iterator<Vertex> vertices(Direction direction, long limit, String... edgeLabels) {
+        return vertices(direction, limit, true, edgeLabels);
+    }
+
+    /**
+     * Get at most limit adjacent vertices of the vertex, optionally without reading their
+     * properties until they are accessed.
+     *
+     * @param direction     the direction of the edges
+     * @param limit         the maximum number of vertices to return, negative for no limit
+     * @param withProperties true if the vertex properties are read with the vertices
+     * @param edgeLabels    the labels of the edges to follow, all if empty
+     * @return an iterator over the vertices
+     */
+
+    public Iterator<Vertex> vertices(Direction direction, long limit, boolean withProperties, String... edgeLabels) {
         List<String> edgeCollections = getQueryEdgeCollections(edgeLabels);
         // If edgeLabels was not empty but all were discarded, this means that we should
         // return an empty iterator, i.e. no edges for that edgeLabels exist.
         if (edgeCollections.isEmpty()) {
             return Collections.emptyIterator();
         }
-        return graph.getClient().getDocumentNeighbors(id(), edgeCollections, direction, ArangoDBPropertyFilter.empty(), ArangoDBVertexData.class).stream()
+        return graph.getClient().getDocumentNeighbors(id(), edgeCollections, direction, ArangoDBPropertyFilter.empty(), limit, withProperties, ArangoDBVertexData.class).stream()
+                .map(it -> (Vertex) new ArangoDBVertex(graph, it, withProperties))
+                .iterator();
+    }
+
+
+    /**
+     * Get the vertices reached by following a path of edges in the given direction, in a single
+     * query. Each element of the list holds the labels of the edges to follow at that depth (all the
+     * graph's edge labels if empty), e.g. {@code out('a').out('b')} is {@code vertices(Direction.OUT, [[a], [b]])}.
+     *
+     * @param direction         the direction of the edges
+     * @param edgeLabelsPerHop  the labels of the edges to follow at each depth
+     * @return an iterator over the vertices, one for each path
+     */
+
+    public Iterator<Vertex> vertices(Direction direction, List<String[]> edgeLabelsPerHop) {
+        List<List<String>> edgeCollections = new ArrayList<>(edgeLabelsPerHop.size());
+        for (String[] edgeLabels : edgeLabelsPerHop) {
+            List<String> hopCollections = getQueryEdgeCollections(edgeLabels);
+            if (hopCollections.isEmpty()) {
+                return Collections.emptyIterator();
+            }
+            edgeCollections.add(hopCollections);
+        }
+        return graph.getClient().getDocumentPathNeighbors(id(), edgeCollections, direction, ArangoDBVertexData.class).stream()
                 .map(it -> (Vertex) new ArangoDBVertex(graph, it))
                 .iterator();
     }
@@ -250,6 +365,21 @@ public class ArangoDBVertex implements Vertex {
         return StringFactory.vertexString(this);
     }
 
+    /**
+     * Read the properties of a vertex that was read without them. The document is queried
+     * directly, so that the properties are not shared with a cached copy of the document.
+     *
+     * @return the vertex properties, empty if the vertex no longer exists
+     */
+
+    private Map<String, List<ArangoDBVertexPropertyData>> readProperties() {
+        LOGGER.debug("Reading the properties of vertex {}", id());
+        return graph.getClient().getGraphVertices(Collections.singletonList(id()), Collections.emptyList()).stream()
+                .findFirst()
+                .map(ArangoDBVertexData::getProperties)
+                .orElseGet(HashMap::new);
+    }
+
     private Stream<ArangoDBVertexProperty<?>> allProperties() {
         return data.getProperties().entrySet().stream()
                 .flatMap(x -> x.getValue().stream()
@@ -260,18 +390,57 @@ public class ArangoDBVertex implements Vertex {
     public void insert() {
         if (removed) throw elementAlreadyRemoved(Vertex.class, id());
         graph.getClient().insertVertex(data);
+        paired = true;
+        dirtyKeys.clear();
     }
 
+    /**
+     * Persist the properties changed since the vertex was last persisted. Only the changed
+     * properties are sent to the server.
+     */
 
     public void update() {
         if (removed) throw elementAlreadyRemoved(Vertex.class, id());
-        graph.getClient().updateVertex(data);
+        if (!paired || dirtyKeys.isEmpty()) return;
+        graph.getClient().updateVertex(data, dirtyKeys);
+        dirtyKeys.clear();
+    }
+
+    /**
+     * Mark the property as changed and persist the changes.
+     *
+     * @param key the key of the changed property
+     */
+
+    public void update(String key) {
+        dirtyKeys.add(key);
+        update();
     }
 
-    public void removeProperty(ArangoDBVertexPropertyData prop) {
+    /**
+     * Remove a value of a property. Flattened values have no id, so two values of different
+     * properties can be equal: the value is looked up by key, and then by identity.
+     *
+     * @param key                   the property key
+     * @param prop                  the property value
+     */
+
+    public void removeProperty(String key, ArangoDBVertexPropertyData prop) {
         if (removed) throw elementAlreadyRemoved(Vertex.class, id());
-        for (List<ArangoDBVertexPropertyData> it : data.getProperties().values()) {
-            if (it.remove(prop)) return;
+        List<ArangoDBVertexPropertyData> values = data.getProperties().get(key);
+        if (values == null) {
+            return;
+        }
+        boolean found = values.removeIf(value -> value == prop);
+        if (!found) {
+            // The properties were read again, e.g. after a lazy load
+            found = values.remove(prop);
+        }
+        if (found) {
+            if (values.isEmpty()) {
+                data.getProperties().remove(key);
+            }
+            dirtyKeys.add(key);
         }
     }
 
@@ -285,10 +454,10 @@ public class ArangoDBVertex implements Vertex {
     private List<String> getQueryEdgeCollections(String... edgeLabels) {
         List<String> vertexCollections;
         if (edgeLabels.length == 0) {
-            vertexCollections = graph.edgeCollections().stream().map(graph::getPrefixedCollectioName).collect(Collectors.toList());
+            vertexCollections = graph.prefixedEdgeCollections();
         } else {
             vertexCollections = Arrays.stream(edgeLabels)
-                    .filter(el -> graph.edgeCollections().contains(el))
+                    .filter(graph::hasEdgeCollection)
                     .map(graph::getPrefixedCollectioName)
                     .collect(Collectors.toList());
 
@@ -11,6 +11,37 @@ public class ArangoDBVertexData extends ArangoDBData<List<ArangoDBVertexProperty
         super(label, key);
     }
 
+    @Override
+    public ArangoDBVertexData copy() {
+        return copyTo(new ArangoDBVertexData(), values -> {
+            List<ArangoDBVertexPropertyData> copies = new ArrayList<>(values.size());
+            for (ArangoDBVertexPropertyData value : values) {
+                copies.add(value.copy());
+            }
+            return copies;
+        });
+    }
+
+    @Override
+    Object flatValue(List<ArangoDBVertexPropertyData> values) {
+        if (values.size() != 1) {
+            return NOT_FLAT;
+        }
+        ArangoDBVertexPropertyData property = values.get(0);
+        // Explicit ids and meta-properties need the nested form
+        if (property.getId() != null || (property.getProperties() != null && !property.getProperties().isEmpty())) {
+            return NOT_FLAT;
+        }
+        return flatScalar(property.getValue());
+    }
+
+    @Override
+    List<ArangoDBVertexPropertyData> fromFlatValue(Object value) {
+        List<ArangoDBVertexPropertyData> values = new ArrayList<>(1);
+        values.add(new ArangoDBVertexPropertyData(null, value));
+        return values;
+    }
+
     @Override
     public String toString() {
         return "ArangoDBVertexData{" +
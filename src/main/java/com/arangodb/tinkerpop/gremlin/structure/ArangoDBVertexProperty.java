@@ -48,9 +48,17 @@ public class ArangoDBVertexProperty<V> implements Element, VertexProperty<V> {
     }
 
 
+    /**
+     * The id of the vertex property. Properties stored without an id (flattened properties) are
+     * identified by the vertex id and the property key.
+     *
+     * @return the id
+     */
+
     @Override
     public Object id() {
-        return data.getId();
+        String id = data.getId();
+        return id != null ? id : vertex.id() + "/" + key;
     }
 
     @Override
@@ -59,14 +67,14 @@ public class ArangoDBVertexProperty<V> implements Element, VertexProperty<V> {
         LOGGER.info("set property {} = {}", key, value);
         ElementHelper.validateProperty(key, value);
         data.setProperty(key, value);
-        vertex.update();
+        vertex.update(this.key);
         return new ArangoDBProperty<>(this, key, value);
     }
 
     @Override
     public void remove() {
         if (removed) return;
-        vertex.removeProperty(data);
+        vertex.removeProperty(key, data);
         vertex.update();
         removed = true;
     }
@@ -86,7 +94,7 @@ public class ArangoDBVertexProperty<V> implements Element, VertexProperty<V> {
         if (removed) throw elementAlreadyRemoved(Edge.class, id());
         if (data.hasProperty(key)) {
             data.removeProperty(key);
-            vertex.update();
+            vertex.update(this.key);
         }
     }
 
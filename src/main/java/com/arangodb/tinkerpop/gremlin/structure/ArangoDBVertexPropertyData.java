@@ -2,6 +2,8 @@ package com.arangodb.tinkerpop.gremlin.structure;
 
 import com.arangodb.shaded.fasterxml.jackson.annotation.JsonCreator;
 import com.arangodb.shaded.fasterxml.jackson.annotation.JsonProperty;
+import com.arangodb.shaded.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.arangodb.tinkerpop.gremlin.utils.ArangoDBValueDeserializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -14,7 +16,7 @@ public class ArangoDBVertexPropertyData extends ArangoDBPropertyData implements
     @JsonCreator
     ArangoDBVertexPropertyData(
             @JsonProperty("id") String id,
-            @JsonProperty("value") Object value,
+            @JsonProperty("value") @JsonDeserialize(using = ArangoDBValueDeserializer.class) Object value,
             @JsonProperty("valueType") String valueType,
             @JsonProperty("properties") Map<String, ArangoDBPropertyData> properties) {
         super(value, valueType);
@@ -22,12 +24,28 @@ public class ArangoDBVertexPropertyData extends ArangoDBPropertyData implements
         this.properties = properties;
     }
 
+    private ArangoDBVertexPropertyData(ArangoDBVertexPropertyData other) {
+        super(other);
+        this.id = other.id;
+        this.properties = other.properties == null ? new HashMap<>() : new HashMap<>(other.properties);
+    }
+
     public ArangoDBVertexPropertyData(String id, Object value) {
         super(value);
         this.id = id;
         this.properties = new HashMap<>();
     }
 
+    /**
+     * Copy the vertex property, with its own meta-properties map.
+     *
+     * @return the copy
+     */
+
+    ArangoDBVertexPropertyData copy() {
+        return new ArangoDBVertexPropertyData(this);
+    }
+
     public String getId() {
         return id;
     }
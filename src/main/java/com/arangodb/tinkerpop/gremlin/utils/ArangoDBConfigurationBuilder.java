@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 
 import com.arangodb.Protocol;
 import com.arangodb.entity.LoadBalancingStrategy;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBCursorOptions;
 import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
 
 
@@ -112,6 +113,15 @@ public class ArangoDBConfigurationBuilder {
 	/** If Collection Names should be prefixed with Graph name. **/
 	private Boolean shouldPrefixCollectionNames = true;
 
+	/** The cursor options. */
+	private ArangoDBCursorOptions cursorOptions = ArangoDBCursorOptions.empty();
+
+	/** If single valued properties are stored as top level document attributes. */
+	private boolean flattenProperties;
+
+	/** If properties are stored both as top level document attributes and nested, null if not set. */
+	private Boolean mixedProperties;
+
 	/**
 	 * Instantiates a new arango DB configuration builder.
 	 */
@@ -197,6 +207,14 @@ public class ArangoDBConfigurationBuilder {
 		if(shouldPrefixCollectionNames != null){
 			config.addProperty(fullPropertyKey(ArangoDBGraph.PROPERTY_KEY_SHOULD_PREFIX_COLLECTION_NAMES), shouldPrefixCollectionNames);
 		}
+		if (flattenProperties) {
+			config.addProperty(fullPropertyKey(ArangoDBGraph.PROPERTY_KEY_FLATTEN_PROPERTIES), Boolean.toString(flattenProperties));
+		}
+		if (mixedProperties != null) {
+			config.addProperty(fullPropertyKey(ArangoDBGraph.PROPERTY_KEY_MIXED_PROPERTIES), mixedProperties.toString());
+		}
+		cursorOptions.toMap(ArangoDBCursorOptions.GRAPH_SETTING_PREFIX)
+				.forEach((key, value) -> config.addProperty(fullPropertyKey(key), value));
 
 		config.addProperty(Graph.GRAPH, ArangoDBGraph.class.getName());
 		return config;
@@ -506,4 +524,49 @@ public class ArangoDBConfigurationBuilder {
 		return this;
 	}
 
+	/**
+	 * The cursor options of the graph queries: batch size, streaming, ttl, memory limit, block
+	 * cache use and prefetching. Traversals can override them with the {@code arangodb.cursor.*}
+	 * traversal options.
+	 *
+	 * @param cursorOptions 		the cursor options
+	 * @return a reference to this object.
+	 * @see ArangoDBCursorOptions
+	 */
+
+	public ArangoDBConfigurationBuilder cursorOptions(ArangoDBCursorOptions cursorOptions) {
+		this.cursorOptions = cursorOptions;
+		return this;
+	}
+
+	/**
+	 * Store the single valued properties without meta-properties as top level attributes of the
+	 * vertex and edge documents, so they can be indexed and read without the nested properties
+	 * map. Default set to <b>false</b>.
+	 *
+	 * @param flattenProperties 	whether properties are flattened or not
+	 * @return a reference to this object.
+	 * @see ArangoDBGraph#PROPERTY_KEY_FLATTEN_PROPERTIES
+	 */
+
+	public ArangoDBConfigurationBuilder flattenProperties(boolean flattenProperties) {
+		this.flattenProperties = flattenProperties;
+		return this;
+	}
+
+	/**
+	 * Filter and sort the properties both as top level attributes and in the nested properties
+	 * map, see {@link ArangoDBGraph#hasMixedProperties()}. Default set to the value of
+	 * {@link #flattenProperties(boolean)}.
+	 *
+	 * @param mixedProperties 	whether flattened and nested properties are mixed or not
+	 * @return a reference to this object.
+	 * @see ArangoDBGraph#PROPERTY_KEY_MIXED_PROPERTIES
+	 */
+
+	public ArangoDBConfigurationBuilder mixedProperties(boolean mixedProperties) {
+		this.mixedProperties = mixedProperties;
+		return this;
+	}
+
 }
@@ -0,0 +1,164 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An array of numbers read from a document without boxing its elements, see
+ * {@link ArangoDBValueDeserializer}. The numbers are kept as longs while they are all integral.
+ * Once a decimal is read they are also kept as doubles, and the positions of the decimals are
+ * recorded, so that a list of mixed numbers (e.g. {@code [1, 2.5]}) is read back with the
+ * integral and decimal kind of each element. The primitive array property values are decoded from
+ * it by the {@link ArangoDBValueCodec}s.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+final class ArangoDBNumberArray {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The integral numbers, and the truncated decimals. */
+
+    private long[] longs = new long[INITIAL_CAPACITY];
+
+    /** The numbers as doubles, null while they are all integral. */
+
+    private double[] doubles;
+
+    /** The positions of the decimals, null while the numbers are all integral. */
+
+    private BitSet decimals;
+
+    private int size = 0;
+
+    void add(long value) {
+        ensureCapacity();
+        longs[size] = value;
+        if (doubles != null) {
+            doubles[size] = value;
+        }
+        size++;
+    }
+
+    void add(double value) {
+        if (doubles == null) {
+            doubles = new double[longs.length];
+            for (int i = 0; i < size; i++) {
+                doubles[i] = longs[i];
+            }
+            decimals = new BitSet();
+        }
+        ensureCapacity();
+        longs[size] = (long) value;
+        doubles[size] = value;
+        decimals.set(size);
+        size++;
+    }
+
+    private void ensureCapacity() {
+        if (size == longs.length) {
+            longs = Arrays.copyOf(longs, size << 1);
+            if (doubles != null) {
+                doubles = Arrays.copyOf(doubles, size << 1);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toInts() {
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = doubles == null ? (int) longs[i] : (int) doubles[i];
+        }
+        return result;
+    }
+
+    long[] toLongs() {
+        return Arrays.copyOf(longs, size);
+    }
+
+    float[] toFloats() {
+        float[] result = new float[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = doubles == null ? (float) longs[i] : (float) doubles[i];
+        }
+        return result;
+    }
+
+    double[] toDoubles() {
+        if (doubles != null) {
+            return Arrays.copyOf(doubles, size);
+        }
+        double[] result = new double[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = longs[i];
+        }
+        return result;
+    }
+
+    /**
+     * The numbers as a list, boxed as the driver would box them: integral numbers are integers
+     * (longs if they don't fit) and decimals are doubles.
+     *
+     * @return the list of numbers
+     */
+
+    List<Object> toList() {
+        List<Object> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (decimals != null && decimals.get(i)) {
+                result.add(doubles[i]);
+            } else if (longs[i] == (int) longs[i]) {
+                result.add((int) longs[i]);
+            } else {
+                result.add(longs[i]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ArangoDBNumberArray that = (ArangoDBNumberArray) o;
+        if (size != that.size || !Objects.equals(decimals, that.decimals)) return false;
+        for (int i = 0; i < size; i++) {
+            if (doubles == null ? longs[i] != that.longs[i] : Double.compare(doubles[i], that.doubles[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + (doubles == null ? Long.hashCode(longs[i]) : Double.hashCode(doubles[i]));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return doubles == null
+                ? Arrays.toString(Arrays.copyOf(longs, size))
+                : Arrays.toString(Arrays.copyOf(doubles, size));
+    }
+}
@@ -14,7 +14,6 @@ import com.arangodb.ArangoGraph;
 import com.arangodb.entity.EdgeDefinition;
 import com.arangodb.entity.GraphEntity;
 import com.arangodb.model.GraphCreateOptions;
-import com.arangodb.shaded.fasterxml.jackson.databind.ObjectMapper;
 import com.arangodb.tinkerpop.gremlin.client.ArangoDBGraphClient;
 import com.arangodb.tinkerpop.gremlin.client.ArangoDBGraphException;
 import com.arangodb.tinkerpop.gremlin.client.ArangoDBQueryBuilder;
@@ -31,7 +30,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.tinkerpop.gremlin.structure.Direction;
@@ -54,10 +52,6 @@ public class ArangoDBUtil {
 	
 	private static final Logger logger = LoggerFactory.getLogger(ArangoDBUtil.class);
 
-	/** Utiliy mapper for conversions. **/
-
-	private static final ObjectMapper mapper = new ObjectMapper();
-
 	/**
 	 * The prefix to denote that a collection is a hidden collection.
 	 */
@@ -72,6 +66,10 @@ public class ArangoDBUtil {
 	
 	public static final Pattern DOCUMENT_KEY = Pattern.compile("^[A-Za-z0-9_:\\.@()\\+,=;\\$!\\*'%-]*");
 
+	/** The element document attributes that can't hold flattened properties. */
+
+	private static final Set<String> RESERVED_ATTRIBUTES = new HashSet<>(Arrays.asList("label", "properties"));
+
 	/**
 	 * Instantiates a new ArangoDB Util.
 	 */
@@ -111,6 +109,19 @@ public class ArangoDBUtil {
 		return key;
 	}
 
+	/**
+	 * Returns true if a property with the given key can be stored as a top level attribute of
+	 * the element documents, i.e. if the key is not a system or reserved attribute.
+	 *
+	 * @param key			the property key
+	 * @return true, if the property can be flattened
+	 * @see ArangoDBGraph#PROPERTY_KEY_FLATTEN_PROPERTIES
+	 */
+
+	public static boolean isFlatKey(String key) {
+		return !key.isEmpty() && !key.startsWith("_") && !RESERVED_ATTRIBUTES.contains(key);
+	}
+
 	/**
 	 * Hidden keys, labels, etc. are prefixed in Tinkerpop with  @link Graph.Hidden.HIDDEN_PREFIX). Since in ArangoDB
 	 * collection names must always start with a letter, this method normalises Hidden collections name to valid
@@ -402,162 +413,14 @@ public class ArangoDBUtil {
      * Gets the correct primitive.
      *
      * @param value		the value
-     * @param valueClass the exoected class of the value
+     * @param valueClass the exoected class of the value, i.e. its type tag
      * @param <V> 		the value type
 	 * @return the 		correct Java primitive
+	 * @see ArangoDBValueCodec
      */
     
-    @SuppressWarnings("unchecked")
 	public static <V> Object getCorretctPrimitive(V value, String valueClass) {
-    	
-		switch(valueClass) {
-    		case "java.lang.Float":
-	    		{
-	    			if (value instanceof Double) {
-						return ((Double) value).floatValue();
-	    			}
-					else if (value instanceof Long) {
-						return ((Long) value).floatValue();
-					}
-					else if (value instanceof Integer) {
-						return ((Integer) value).floatValue();
-					}
-	    			else {
-	    				logger.debug("Add conversion for " + value.getClass().getName() + " to " + valueClass);
-	    			}
-	    			break;
-	    		}
-    		case "java.lang.Double":
-    		{
-    			if (value instanceof Double) {
-    				return value;
-    			}
-				else if (value instanceof Long) {
-					return ((Long) value).doubleValue();
-				}
-				else if (value instanceof Integer) {
-					return ((Integer) value).doubleValue();
-				}
-    			else {
-    				logger.debug("Add conversion for " + value.getClass().getName() + " to " + valueClass);
-    			}
-    			break;
-    		}
-    		case "java.lang.Long":
-    		{
-    			if (value instanceof Long) {
-    				return value;
-    			}
-    			else if (value instanceof Double) {
-    				return ((Double)value).longValue();
-    			}
-				else if (value instanceof Integer) {
-					return ((Integer)value).longValue();
-				}
-    			else {
-    				logger.debug("Add conversion for " + value.getClass().getName() + " to " + valueClass);
-    			}
-    			break;
-    		}
-    		case "java.lang.Integer":
-    		{
-    			if (value instanceof Long) {
-					return ((Long) value).intValue();
-    			}
-    			break;
-    		}
-    		case "java.lang.String":
-    		case "java.lang.Boolean":
-    		case "":
-    			return value;
-    		case "java.util.HashMap":
-    			//logger.debug(((Map<?,?>)value).keySet().stream().map(Object::getClass).collect(Collectors.toList()));
-    			//logger.debug("Add conversion for map values to " + valueClass);
-    			// Maps are handled by ArangoOK, but we have an extra field, remove it
-				Map<String, ?> valueMap = (Map<String,?>)value;
-				for (String key : valueMap.keySet()) {
-	    			if (key.startsWith("_")) {
-    					valueMap.remove(key);
-    				}
-	    			// We might need to check individual values...
-    			}
-    			break;
-    		case "java.util.ArrayList":
-    			// Should we save the type per item?
-    			List<Object> list = new ArrayList<>();
-    			((ArrayList<?>)value).forEach(e -> list.add(getCorretctPrimitive(e, "")));
-    			return list;
-    		case "boolean[]":
-				if(value instanceof List) {
-					List<Object> barray = (List<Object>)value;
-					boolean[] br = new boolean[barray.size()];
-					IntStream.range(0, barray.size())
-							.forEach(i -> br[i] = (boolean) barray.get(i));
-					return br;
-				} else {
-					return value;
-				}
-    		case "double[]":
-				if(value instanceof List) {
-					List<Object> darray = (List<Object>)value;
-					double[] dr = new double[darray.size()];
-					IntStream.range(0, darray.size())
-							.forEach(i -> dr[i] = (double) getCorretctPrimitive(darray.get(i), "java.lang.Double"));
-					return dr;
-				} else {
-					return value;
-				}
-    		case "float[]":
-				if(value instanceof List) {
-					List<Object> farray = (List<Object>)value;
-					float[] fr = new float[farray.size()];
-					IntStream.range(0, farray.size())
-							.forEach(i -> fr[i] = (float) getCorretctPrimitive(farray.get(i), "java.lang.Float"));
-					return fr;
-				} else {
-					return value;
-				}
-    		case "int[]":
-				if(value instanceof List) {
-					List<Object> iarray = (List<Object>)value;
-					int[] ir = new int[iarray.size()];
-					IntStream.range(0, iarray.size())
-							.forEach(i -> ir[i] = (int) getCorretctPrimitive(iarray.get(i), "java.lang.Integer"));
-					return ir;
-				} else {
-					return value;
-				}
-			case "long[]":
-				if(value instanceof List) {
-					List<Object> larray = (List<Object>)value;
-					long[] lr = new long[larray.size()];
-					IntStream.range(0, larray.size())
-							.forEach(i -> lr[i] = (long) getCorretctPrimitive(larray.get(i), "java.lang.Long"));
-					return lr;
-				} else {
-					return value;
-				}
-    		case "java.lang.String[]":
-				if(value instanceof List) {
-					List<Object> sarray = (List<Object>)value;
-					String[] sr = new String[sarray.size()];
-					IntStream.range(0, sarray.size())
-							.forEach(i -> sr[i] = (String) sarray.get(i));
-					return sr;
-				} else {
-					return value;
-				}
-    		default:
-				Object result;
-				try {
-					result = mapper.convertValue(value, Class.forName(valueClass));
-					return result;
-				} catch (IllegalArgumentException | ClassNotFoundException e1) {
-					logger.warn("Type not deserializable", e1);
-				}
-				logger.debug("Add conversion for " + value.getClass().getName() + " to " + valueClass);
-    	}
-    	return value;
+		return ArangoDBValueCodec.forTag(valueClass).decode(value);
     }
 
 	/**
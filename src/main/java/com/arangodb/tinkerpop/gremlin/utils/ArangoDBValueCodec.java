@@ -0,0 +1,305 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.shaded.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The codecs that restore the Java type of the property values read from the database. The type
+ * of a stored value is identified by a compact tag, e.g. {@code "l"} for longs or {@code "[f"} for
+ * float arrays, saved next to the value. Strings, booleans and nulls are native JSON values that
+ * are read back with their type, so they have no tag.
+ * <p>
+ * The codecs of the supported types are registered once, by tag and by type, so decoding a value
+ * is a map lookup when the property is read followed by a direct conversion. Values of other types
+ * are tagged with their canonical class name and converted with an {@link ObjectMapper}; their
+ * class is loaded once per name. Documents written by previous versions, whose values are tagged
+ * with canonical class names, are read with the same codecs.
+ * <p>
+ * Arrays of numbers are read by the {@link ArangoDBValueDeserializer} without boxing their
+ * elements, and the primitive array codecs copy them directly into the primitive array.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public final class ArangoDBValueCodec {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArangoDBValueCodec.class);
+
+    /** Utility mapper for the conversion of values of other types. */
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    /** The codec of the native JSON values, which are read back as is. */
+
+    public static final ArangoDBValueCodec NATIVE = new ArangoDBValueCodec(null, null, Function.identity());
+
+    /** The registered codecs, by tag (and by legacy class name). */
+
+    private static final Map<String, ArangoDBValueCodec> BY_TAG = new HashMap<>();
+
+    /** The registered codecs, by value type. */
+
+    private static final Map<Class<?>, ArangoDBValueCodec> BY_TYPE = new HashMap<>();
+
+    /** The codecs of other types, by canonical class name. */
+
+    private static final Map<String, ArangoDBValueCodec> OTHERS = new ConcurrentHashMap<>();
+
+    static {
+        register(NATIVE, String.class, Boolean.class, Void.class);
+        BY_TAG.put("", NATIVE);
+        register(new ArangoDBValueCodec("i", Integer.class, v -> v instanceof Number ? ((Number) v).intValue() : v));
+        register(new ArangoDBValueCodec("l", Long.class, v -> v instanceof Number ? ((Number) v).longValue() : v));
+        register(new ArangoDBValueCodec("f", Float.class, v -> v instanceof Number ? ((Number) v).floatValue() : v));
+        register(new ArangoDBValueCodec("d", Double.class, v -> v instanceof Number ? ((Number) v).doubleValue() : v));
+        register(new ArangoDBValueCodec("m", HashMap.class, ArangoDBValueCodec::decodeMap));
+        register(new ArangoDBValueCodec("a", ArrayList.class, Function.identity()));
+        register(new ArangoDBValueCodec("[z", boolean[].class, ArangoDBValueCodec::decodeBooleans));
+        register(new ArangoDBValueCodec("[i", int[].class, ArangoDBValueCodec::decodeInts, true));
+        register(new ArangoDBValueCodec("[l", long[].class, ArangoDBValueCodec::decodeLongs, true));
+        register(new ArangoDBValueCodec("[f", float[].class, ArangoDBValueCodec::decodeFloats, true));
+        register(new ArangoDBValueCodec("[d", double[].class, ArangoDBValueCodec::decodeDoubles, true));
+        register(new ArangoDBValueCodec("[s", String[].class, ArangoDBValueCodec::decodeStrings));
+    }
+
+    private final String tag;
+
+    private final Class<?> type;
+
+    private final Function<Object, Object> decoder;
+
+    /** True if the decoder reads {@link ArangoDBNumberArray}s, which are lists for other decoders. */
+
+    private final boolean numberArrays;
+
+    private ArangoDBValueCodec(String tag, Class<?> type, Function<Object, Object> decoder) {
+        this(tag, type, decoder, false);
+    }
+
+    private ArangoDBValueCodec(String tag, Class<?> type, Function<Object, Object> decoder, boolean numberArrays) {
+        this.tag = tag;
+        this.type = type;
+        this.decoder = decoder;
+        this.numberArrays = numberArrays;
+    }
+
+    /**
+     * Register a codec by its tag, and by its type and the legacy class names of the given types.
+     *
+     * @param codec                 the codec
+     * @param types                 the types decoded by the codec, the codec type if none given
+     */
+
+    private static void register(ArangoDBValueCodec codec, Class<?>... types) {
+        if (codec.tag != null) {
+            BY_TAG.put(codec.tag, codec);
+        }
+        if (types.length == 0) {
+            types = new Class<?>[] {codec.type};
+        }
+        for (Class<?> type : types) {
+            BY_TYPE.put(type, codec);
+            BY_TAG.put(type.getCanonicalName(), codec);
+        }
+    }
+
+    /**
+     * Get the codec of the given value.
+     *
+     * @param value                 the value, can be null
+     * @return the codec
+     */
+
+    public static ArangoDBValueCodec forValue(Object value) {
+        if (value == null) {
+            return NATIVE;
+        }
+        ArangoDBValueCodec codec = BY_TYPE.get(value.getClass());
+        return codec != null ? codec : forTag(value.getClass().getCanonicalName());
+    }
+
+    /**
+     * Get the codec of the given tag.
+     *
+     * @param tag                   the tag, or the canonical class name of the value type, null for
+     *                              native JSON values
+     * @return the codec
+     */
+
+    public static ArangoDBValueCodec forTag(String tag) {
+        if (tag == null) {
+            return NATIVE;
+        }
+        ArangoDBValueCodec codec = BY_TAG.get(tag);
+        return codec != null ? codec : OTHERS.computeIfAbsent(tag, ArangoDBValueCodec::forClassName);
+    }
+
+    /**
+     * Create the codec of a type that is not registered, which converts values with the
+     * {@link ObjectMapper}.
+     *
+     * @param className             the canonical class name
+     * @return the codec
+     */
+
+    private static ArangoDBValueCodec forClassName(String className) {
+        Class<?> type;
+        try {
+            type = Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            logger.warn("Type not deserializable, values of {} are read as is", className, e);
+            return new ArangoDBValueCodec(className, null, Function.identity());
+        }
+        return new ArangoDBValueCodec(className, type, value -> {
+            try {
+                return mapper.convertValue(value, type);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Type not deserializable", e);
+                return value;
+            }
+        });
+    }
+
+    /**
+     * The tag that is stored with the values of this codec.
+     *
+     * @return the tag, null for native JSON values
+     */
+
+    public String tag() {
+        return tag;
+    }
+
+    /**
+     * Restore the Java type of a value read from the database.
+     *
+     * @param value                 the value
+     * @return the decoded value
+     */
+
+    public Object decode(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof ArangoDBNumberArray && !numberArrays) {
+            value = ((ArangoDBNumberArray) value).toList();
+        }
+        return decoder.apply(value);
+    }
+
+    @Override
+    public String toString() {
+        return "ArangoDBValueCodec{" +
+                "tag='" + tag + '\'' +
+                ", type=" + type +
+                '}';
+    }
+
+    private static Object decodeMap(Object value) {
+        if (!(value instanceof Map)) {
+            return value;
+        }
+        // Maps are read by the driver, but they can have system attributes, remove them. The read
+        // map is not changed, it is shared by the copies of the element
+        Map<Object, Object> result = new HashMap<>((Map<?, ?>) value);
+        result.keySet().removeIf(key -> key instanceof String && ((String) key).startsWith("_"));
+        return result;
+    }
+
+    private static Object decodeBooleans(Object value) {
+        if (!(value instanceof List)) {
+            return value;
+        }
+        List<?> list = (List<?>) value;
+        boolean[] result = new boolean[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (Boolean) list.get(i);
+        }
+        return result;
+    }
+
+    private static Object decodeInts(Object value) {
+        if (value instanceof ArangoDBNumberArray) {
+            return ((ArangoDBNumberArray) value).toInts();
+        }
+        if (!(value instanceof List)) {
+            return value;
+        }
+        List<?> list = (List<?>) value;
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((Number) list.get(i)).intValue();
+        }
+        return result;
+    }
+
+    private static Object decodeLongs(Object value) {
+        if (value instanceof ArangoDBNumberArray) {
+            return ((ArangoDBNumberArray) value).toLongs();
+        }
+        if (!(value instanceof List)) {
+            return value;
+        }
+        List<?> list = (List<?>) value;
+        long[] result = new long[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((Number) list.get(i)).longValue();
+        }
+        return result;
+    }
+
+    private static Object decodeFloats(Object value) {
+        if (value instanceof ArangoDBNumberArray) {
+            return ((ArangoDBNumberArray) value).toFloats();
+        }
+        if (!(value instanceof List)) {
+            return value;
+        }
+        List<?> list = (List<?>) value;
+        float[] result = new float[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((Number) list.get(i)).floatValue();
+        }
+        return result;
+    }
+
+    private static Object decodeDoubles(Object value) {
+        if (value instanceof ArangoDBNumberArray) {
+            return ((ArangoDBNumberArray) value).toDoubles();
+        }
+        if (!(value instanceof List)) {
+            return value;
+        }
+        List<?> list = (List<?>) value;
+        double[] result = new double[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((Number) list.get(i)).doubleValue();
+        }
+        return result;
+    }
+
+    private static Object decodeStrings(Object value) {
+        if (!(value instanceof List)) {
+            return value;
+        }
+        List<?> list = (List<?>) value;
+        return list.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,67 @@
+//////////////////////////////////////////////////////////////////////////////////////////
+//
+// Implementation of the TinkerPop OLTP Provider API for ArangoDB
+//
+// Copyright triAGENS GmbH Cologne and The University of York
+//
+//////////////////////////////////////////////////////////////////////////////////////////
+
+package com.arangodb.tinkerpop.gremlin.utils;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.arangodb.shaded.fasterxml.jackson.core.JsonParser;
+import com.arangodb.shaded.fasterxml.jackson.core.JsonToken;
+import com.arangodb.shaded.fasterxml.jackson.databind.DeserializationContext;
+import com.arangodb.shaded.fasterxml.jackson.databind.JsonDeserializer;
+
+/**
+ * The deserializer of the stored property values. Arrays of numbers, e.g. the values of
+ * {@code float[]} or {@code double[]} properties, are read from the parser into an
+ * {@link ArangoDBNumberArray}, without boxing each element into a list, and decoded into the
+ * primitive array by the {@link ArangoDBValueCodec} of the property. Since the value can be read
+ * before its type tag, the array is decoded later. Other values are read as the driver reads them.
+ *
+ * @author Horacio Hoyos Rodriguez (https://www.york.ac.uk)
+ */
+
+public class ArangoDBValueDeserializer extends JsonDeserializer<Object> {
+
+    @Override
+    public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.isExpectedStartArrayToken()) {
+            return ctxt.readValue(p, Object.class);
+        }
+        ArangoDBNumberArray numbers = new ArangoDBNumberArray();
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.VALUE_NUMBER_INT && p.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+                numbers.add(p.getLongValue());
+            } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                numbers.add(p.getDoubleValue());
+            } else {
+                return readList(numbers, p, ctxt);
+            }
+        }
+        return numbers;
+    }
+
+    /**
+     * Read the rest of an array that is not an array of numbers as a list.
+     *
+     * @param numbers               the numbers read before the first element that is not a number
+     * @param p                     the parser, at the first element that is not a number
+     * @param ctxt                  the deserialization context
+     * @return the list of elements
+     * @throws IOException if the array can't be read
+     */
+
+    private Object readList(ArangoDBNumberArray numbers, JsonParser p, DeserializationContext ctxt) throws IOException {
+        List<Object> elements = numbers.toList();
+        do {
+            elements.add(ctxt.readValue(p, Object.class));
+        } while (p.nextToken() != JsonToken.END_ARRAY);
+        return elements;
+    }
+}
@@ -283,6 +283,7 @@ public class ArangoDBGraphProvider extends AbstractGraphProvider {
 			Properties arangoProperties = ConfigurationConverter.getProperties(arangoConfig);
 			client = new ArangoDBGraphClient(null, arangoProperties, "tinkerpop", 0, true);
 			client.deleteGraph(arangoConfig.getString(ArangoDBGraph.PROPERTY_KEY_GRAPH_NAME));
+			client.shutdown();
 		}
 		else {
 			ArangoDBGraph agraph = (ArangoDBGraph) graph;
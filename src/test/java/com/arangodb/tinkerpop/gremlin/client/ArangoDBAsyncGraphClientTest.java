@@ -0,0 +1,133 @@
+package com.arangodb.tinkerpop.gremlin.client;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.arangodb.ArangoCollectionAsync;
+import com.arangodb.ArangoCursorAsync;
+import com.arangodb.ArangoDatabaseAsync;
+import com.arangodb.entity.DocumentUpdateEntity;
+import com.arangodb.model.AqlQueryOptions;
+import com.arangodb.model.DocumentUpdateOptions;
+import com.arangodb.shaded.fasterxml.jackson.databind.ObjectMapper;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertexData;
+
+/**
+ * Tests of the asynchronous client that don't need a server: the requests are sent to a mocked
+ * database.
+ */
+public class ArangoDBAsyncGraphClientTest {
+
+	private ArangoDBGraphClient client;
+
+	private ArangoDatabaseAsync db;
+
+	private ArangoDBAsyncGraphClient async;
+
+	@Before
+	public void setUp() {
+		client = mock(ArangoDBGraphClient.class);
+		ArangoDBGraph graph = mock(ArangoDBGraph.class);
+		when(graph.name()).thenReturn("g");
+		when(graph.getPrefixedCollectioName(anyString())).thenAnswer(invocation -> "g_" + invocation.getArgument(0));
+		db = mock(ArangoDatabaseAsync.class);
+		async = new ArangoDBAsyncGraphClient(client, graph, db);
+	}
+
+	@Test
+	public void shouldUseTheClientQueryOptions() throws Exception {
+		AqlQueryOptions options = new AqlQueryOptions().batchSize(7);
+		when(client.queryOptions(null)).thenReturn(options);
+		ArangoCursorAsync<String> cursor = cursor(Arrays.asList("a", "b"));
+		doReturn(CompletableFuture.completedFuture(cursor)).when(db).query(anyString(), eq(String.class), any(), any());
+
+		List<String> result = async.executeAqlQuery("RETURN 1", Collections.emptyMap(), null, String.class).get();
+
+		assertThat(result, is(Arrays.asList("a", "b")));
+		verify(db).query(eq("RETURN 1"), eq(String.class), any(), same(options));
+	}
+
+	@Test
+	public void shouldFlushBufferedWritesWithoutBlocking() throws Exception {
+		when(client.queryOptions(null)).thenReturn(new AqlQueryOptions());
+		when(client.hasBufferedWrites()).thenReturn(true);
+		CountDownLatch flushing = new CountDownLatch(1);
+		doAnswer(invocation -> flushing.await(10, TimeUnit.SECONDS)).when(client).flush();
+		ArangoCursorAsync<String> cursor = cursor(Collections.singletonList("a"));
+		doReturn(CompletableFuture.completedFuture(cursor)).when(db).query(anyString(), eq(String.class), any(), any());
+
+		CompletableFuture<List<String>> result = async.executeAqlQuery("RETURN 1", Collections.emptyMap(), null, String.class);
+
+		// The query waits for the flush, the calling thread does not
+		assertThat(result.isDone(), is(false));
+		verify(db, never()).query(anyString(), eq(String.class), any(), any());
+		flushing.countDown();
+		assertThat(result.get(10, TimeUnit.SECONDS), is(Collections.singletonList("a")));
+	}
+
+	@Test
+	public void shouldJoinTheOpenTransaction() throws Exception {
+		when(client.transactionsEnabled()).thenReturn(true);
+		when(client.currentStreamTransactionId()).thenReturn("tx");
+		ArangoCollectionAsync collection = mock(ArangoCollectionAsync.class);
+		when(db.collection("g_person")).thenReturn(collection);
+		DocumentUpdateEntity<?> entity = new ObjectMapper().readValue("{\"_key\": \"marko\", \"_rev\": \"2\"}", DocumentUpdateEntity.class);
+		doReturn(CompletableFuture.completedFuture(entity)).when(collection).updateDocument(anyString(), any(), any(DocumentUpdateOptions.class));
+		ArangoDBVertexData vertex = new ArangoDBVertexData("person", "marko");
+
+		assertThat(async.updateVertex(vertex, Collections.singleton("name")).get(), sameInstance(vertex));
+
+		ArgumentCaptor<DocumentUpdateOptions> options = ArgumentCaptor.forClass(DocumentUpdateOptions.class);
+		verify(collection).updateDocument(eq("marko"), any(), options.capture());
+		assertThat(options.getValue().getStreamTransactionId(), is("tx"));
+		assertThat(options.getValue().getMergeObjects(), is(false));
+		assertThat(options.getValue().getKeepNull(), is(false));
+		assertThat(vertex.getRev(), is("2"));
+	}
+
+	@Test
+	public void shouldNotOpenTransactions() {
+		when(client.transactionsEnabled()).thenReturn(true);
+		ArangoDBVertexData vertex = new ArangoDBVertexData("person", "marko");
+
+		ExecutionException e = assertThrows(ExecutionException.class, () -> async.insertVertex(vertex).get());
+
+		assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+		verify(client, never()).streamTransactionId();
+		verify(db, never()).graph(anyString());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> ArangoCursorAsync<T> cursor(List<T> results) {
+		ArangoCursorAsync<T> cursor = mock(ArangoCursorAsync.class);
+		when(cursor.getResult()).thenReturn(results);
+		when(cursor.hasMore()).thenReturn(false);
+		return cursor;
+	}
+}
@@ -0,0 +1,81 @@
+package com.arangodb.tinkerpop.gremlin.client;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBBulkLoader.Failure;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBBulkLoader.OnDuplicate;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBEdgeData;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertexData;
+
+/**
+ * Tests of the batches the bulk loader sends to the client.
+ */
+public class ArangoDBBulkLoaderTest {
+
+	private ArangoDBGraphClient client;
+
+	private ArangoDBGraph graph;
+
+	@Before
+	public void setUp() {
+		client = mock(ArangoDBGraphClient.class);
+		graph = mock(ArangoDBGraph.class);
+		when(graph.hasVertexCollection("person")).thenReturn(true);
+		when(graph.hasEdgeCollection("knows")).thenReturn(true);
+		when(client.insertVertices(anyString(), anyList(), any())).thenReturn(Collections.emptyList());
+		when(client.insertEdges(anyString(), anyList(), any())).thenReturn(Collections.emptyList());
+	}
+
+	@Test
+	public void shouldInsertFullBatches() {
+		ArangoDBBulkLoader loader = new ArangoDBBulkLoader(client, graph, 2, OnDuplicate.IGNORE);
+		loader.addVertex(new ArangoDBVertexData("person", "1"));
+		verify(client, never()).insertVertices(anyString(), anyList(), any());
+		loader.addVertex(new ArangoDBVertexData("person", "2"));
+		verify(client).insertVertices(eq("person"), anyList(), eq(OnDuplicate.IGNORE));
+
+		loader.addVertex(new ArangoDBVertexData("person", "3"));
+		loader.addEdge(new ArangoDBEdgeData("knows", "1", "person/1", "person/2"));
+		loader.close();
+		verify(client, times(2)).insertVertices(eq("person"), anyList(), eq(OnDuplicate.IGNORE));
+		verify(client).insertEdges(eq("knows"), anyList(), eq(OnDuplicate.IGNORE));
+		assertThat(loader.loaded(), is(4L));
+	}
+
+	@Test
+	public void shouldCollectTheRejectedDocuments() {
+		ArangoDBVertexData duplicate = new ArangoDBVertexData("person", "1");
+		List<Failure> failures = Collections.singletonList(new Failure(duplicate, 1210, "unique constraint violated"));
+		when(client.insertVertices(anyString(), anyList(), any())).thenReturn(failures);
+		ArangoDBBulkLoader loader = new ArangoDBBulkLoader(client, graph, 10, OnDuplicate.ERROR);
+		loader.addVertex(duplicate);
+		loader.addVertex(new ArangoDBVertexData("person", "2"));
+		loader.flush();
+
+		assertThat(loader.loaded(), is(1L));
+		assertThat(loader.failures(), contains(failures.get(0)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectUnknownLabels() {
+		new ArangoDBBulkLoader(client, graph, 10, OnDuplicate.ERROR).addVertex(new ArangoDBVertexData("software", "1"));
+	}
+}
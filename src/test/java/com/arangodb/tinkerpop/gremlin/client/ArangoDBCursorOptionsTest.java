@@ -0,0 +1,52 @@
+package com.arangodb.tinkerpop.gremlin.client;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.arangodb.model.AqlQueryOptions;
+
+/**
+ * Tests of the cursor options read from the settings and passed to the driver.
+ */
+public class ArangoDBCursorOptionsTest {
+
+	@Test
+	public void shouldReadTheOptionsFromTheSettings() {
+		Map<String, Object> settings = new HashMap<>();
+		settings.put("graph.cursor.batchSize", "500");
+		settings.put("graph.cursor.stream", "true");
+		settings.put("graph.cursor.prefetch", true);
+		ArangoDBCursorOptions options = ArangoDBCursorOptions.fromMap(settings, ArangoDBCursorOptions.GRAPH_SETTING_PREFIX);
+
+		Map<String, Object> written = options.toMap(ArangoDBCursorOptions.GRAPH_SETTING_PREFIX);
+		assertThat(ArangoDBCursorOptions.fromMap(written, ArangoDBCursorOptions.GRAPH_SETTING_PREFIX)
+				.toMap(ArangoDBCursorOptions.GRAPH_SETTING_PREFIX), is(written));
+		assertThat(options.isPrefetch(), is(true));
+		assertThat(options.prefetchSize(), is(500));
+		assertThat(options.prefetchTimeout(), is(30000L));
+	}
+
+	@Test
+	public void shouldOverrideTheGraphOptions() {
+		ArangoDBCursorOptions graphOptions = ArangoDBCursorOptions.empty().batchSize(500).stream(true);
+		ArangoDBCursorOptions options = graphOptions.overriddenBy(ArangoDBCursorOptions.empty().batchSize(10).ttl(5));
+
+		AqlQueryOptions queryOptions = options.toAqlQueryOptions();
+		assertThat(queryOptions.getBatchSize(), is(10));
+		assertThat(queryOptions.getStream(), is(true));
+		assertThat(queryOptions.getTtl(), is(5));
+		assertThat(queryOptions.getMemoryLimit(), nullValue());
+		assertThat(graphOptions.overriddenBy(ArangoDBCursorOptions.empty()), is(graphOptions));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectEmptyBatches() {
+		ArangoDBCursorOptions.empty().batchSize(0);
+	}
+}
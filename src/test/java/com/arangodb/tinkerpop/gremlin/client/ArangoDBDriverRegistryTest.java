@@ -0,0 +1,54 @@
+package com.arangodb.tinkerpop.gremlin.client;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.arangodb.ArangoDB;
+
+/**
+ * Tests of the drivers shared by the graph clients. The drivers don't connect until they are
+ * used, so no server is needed.
+ */
+public class ArangoDBDriverRegistryTest {
+
+	@Test
+	public void shouldIgnoreTheOrderOfTheHosts() {
+		assertThat(ArangoDBDriverRegistry.key(properties(" host1:8529, host2:8529", "root")),
+				is(ArangoDBDriverRegistry.key(properties("host2:8529,host1:8529", "root"))));
+		assertThat(ArangoDBDriverRegistry.key(properties("host1:8529", "root")),
+				not(ArangoDBDriverRegistry.key(properties("host1:8529", "admin"))));
+	}
+
+	@Test
+	public void shouldShareDriversUntilTheLastRelease() {
+		int size = ArangoDBDriverRegistry.size();
+		ArangoDB driver = ArangoDBDriverRegistry.acquire(properties("registry1:8529,registry2:8529", "root"));
+		assertThat(ArangoDBDriverRegistry.acquire(properties("registry2:8529, registry1:8529", "root")), sameInstance(driver));
+		ArangoDB other = ArangoDBDriverRegistry.acquire(properties("registry1:8529", "root"));
+		assertThat(other, not(sameInstance(driver)));
+		assertThat(ArangoDBDriverRegistry.size(), is(size + 2));
+
+		ArangoDBDriverRegistry.release(driver);
+		assertThat(ArangoDBDriverRegistry.size(), is(size + 2));
+		ArangoDBDriverRegistry.release(driver);
+		ArangoDBDriverRegistry.release(other);
+		assertThat(ArangoDBDriverRegistry.size(), is(size));
+		// Drivers that were not acquired, or are released too often, are ignored
+		ArangoDBDriverRegistry.release(driver);
+		assertThat(ArangoDBDriverRegistry.size(), is(size));
+	}
+
+	private static Properties properties(String hosts, String user) {
+		Properties properties = new Properties();
+		properties.setProperty("arangodb.hosts", hosts);
+		properties.setProperty("arangodb.user", user);
+		properties.setProperty("graph.name", "ignored");
+		return properties;
+	}
+}
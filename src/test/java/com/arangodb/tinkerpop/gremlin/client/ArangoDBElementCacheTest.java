@@ -0,0 +1,81 @@
+package com.arangodb.tinkerpop.gremlin.client;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+/**
+ * Tests of the element cache that don't need a server.
+ */
+public class ArangoDBElementCacheTest {
+
+	@Test
+	public void shouldCacheUntilInvalidated() {
+		ArangoDBElementCache cache = new ArangoDBElementCache(10, ArangoDBElementCache.Eviction.LRU, false);
+		assertThat(cache.putIfUnchanged("person/marko", "marko", cache.generation()), is(true));
+		assertThat(cache.get("person/marko"), is("marko"));
+		assertThat(cache.size(), is(1));
+
+		cache.invalidate("person/marko");
+		assertThat(cache.get("person/marko"), nullValue());
+
+		cache.putIfUnchanged("person/vadas", "vadas", cache.generation());
+		cache.clear();
+		assertThat(cache.size(), is(0));
+	}
+
+	@Test
+	public void shouldNotCacheDocumentsReadBeforeAnInvalidation() {
+		ArangoDBElementCache cache = new ArangoDBElementCache(10, ArangoDBElementCache.Eviction.LRU, false);
+		long generation = cache.generation();
+		// A write invalidates the document while it is read
+		cache.invalidate("person/marko");
+
+		assertThat(cache.putIfUnchanged("person/marko", "old marko", generation), is(false));
+		assertThat(cache.get("person/marko"), nullValue());
+
+		generation = cache.generation();
+		cache.clear();
+		assertThat(cache.putIfUnchanged("person/marko", "old marko", generation), is(false));
+		assertThat(cache.putIfUnchanged("person/marko", "marko", cache.generation()), is(true));
+	}
+
+	@Test
+	public void shouldEvictLeastRecentlyUsed() {
+		ArangoDBElementCache cache = new ArangoDBElementCache(2, ArangoDBElementCache.Eviction.LRU, false);
+		cache.putIfUnchanged("a", "a", cache.generation());
+		cache.putIfUnchanged("b", "b", cache.generation());
+		cache.get("a");
+		cache.putIfUnchanged("c", "c", cache.generation());
+
+		assertThat(cache.get("a"), is("a"));
+		assertThat(cache.get("b"), nullValue());
+		assertThat(cache.evictions(), is(1L));
+	}
+
+	@Test
+	public void shouldEvictOldest() {
+		ArangoDBElementCache cache = new ArangoDBElementCache(2, ArangoDBElementCache.Eviction.FIFO, false);
+		cache.putIfUnchanged("a", "a", cache.generation());
+		cache.putIfUnchanged("b", "b", cache.generation());
+		cache.get("a");
+		cache.putIfUnchanged("c", "c", cache.generation());
+
+		assertThat(cache.get("a"), nullValue());
+		assertThat(cache.get("b"), is("b"));
+		assertThat(cache.evictions(), is(1L));
+	}
+
+	@Test
+	public void shouldRecordHitsAndMisses() {
+		ArangoDBElementCache cache = new ArangoDBElementCache(2, ArangoDBElementCache.Eviction.LRU, true);
+		cache.record(3, 1);
+		assertThat(cache.hits(), is(3L));
+		assertThat(cache.misses(), is(1L));
+		assertThat(cache.revalidate(), is(true));
+		assertThrows(IllegalArgumentException.class, () -> new ArangoDBElementCache(0, ArangoDBElementCache.Eviction.LRU, false));
+	}
+}
@@ -0,0 +1,124 @@
+package com.arangodb.tinkerpop.gremlin.client;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.arangodb.ArangoCursor;
+
+/**
+ * Tests of the prefetching iterator that don't need a server: the documents are read from
+ * mocked cursors.
+ */
+public class ArangoDBPrefetchIteratorTest {
+
+	/** An executor like the one of the graph client, with two threads and no queue. */
+	private final ExecutorService executor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS, new SynchronousQueue<>());
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void shouldReadAllDocuments() throws Exception {
+		ArangoCursor<String> cursor = cursor("a", null, "b");
+		ArangoDBPrefetchIterator<String> iterator = new ArangoDBPrefetchIterator<>(cursor, 1, 10000, executor);
+
+		assertThat(list(iterator), is(Arrays.asList("a", null, "b")));
+		verify(cursor, timeout(1000)).close();
+	}
+
+	@Test
+	public void shouldMergeCursors() {
+		List<Supplier<ArangoCursor<String>>> sources = Arrays.asList(
+				() -> cursor("a", "b"), () -> cursor("c"), () -> cursor());
+		ArangoDBPrefetchIterator<String> iterator = new ArangoDBPrefetchIterator<>(sources, 2, 2, 10000, executor);
+
+		assertThat(list(iterator), containsInAnyOrder("a", "b", "c"));
+	}
+
+	@Test
+	public void shouldFailReadsAfterAbandon() throws Exception {
+		ArangoCursor<String> cursor = cursor("a", "b", "c", "d");
+		ArangoDBPrefetchIterator<String> iterator = new ArangoDBPrefetchIterator<>(cursor, 1, 50, executor);
+
+		// Not consumed for longer than the maximum wait
+		verify(cursor, timeout(5000)).close();
+		ArangoDBGraphException e = assertThrows(ArangoDBGraphException.class, iterator::hasNext);
+		assertThat(e.getMessage(), containsString("were not consumed"));
+	}
+
+	@Test
+	public void shouldFailReadsAfterCursorFailure() {
+		@SuppressWarnings("unchecked")
+		ArangoCursor<String> cursor = mock(ArangoCursor.class);
+		when(cursor.hasNext()).thenReturn(true);
+		when(cursor.next()).thenReturn("a").thenThrow(new IllegalStateException("lost"));
+		ArangoDBPrefetchIterator<String> iterator = new ArangoDBPrefetchIterator<>(cursor, 10, 10000, executor);
+
+		IllegalStateException e = assertThrows(IllegalStateException.class, () -> list(iterator));
+		assertThat(e.getMessage(), is("lost"));
+	}
+
+	@Test
+	public void shouldCloseCursors() throws Exception {
+		ArangoCursor<String> cursor = cursor("a", "b", "c");
+		ArangoDBPrefetchIterator<String> iterator = new ArangoDBPrefetchIterator<>(cursor, 1, 10000, executor);
+		assertThat(iterator.next(), is("a"));
+
+		iterator.close();
+		verify(cursor, timeout(1000)).close();
+		assertThat(iterator.hasNext(), is(false));
+	}
+
+	@Test
+	public void shouldRejectIteratorsWithoutFreeThread() throws Exception {
+		CountDownLatch busy = new CountDownLatch(1);
+		executor.submit(() -> busy.await(10, TimeUnit.SECONDS));
+		executor.submit(() -> busy.await(10, TimeUnit.SECONDS));
+		try {
+			assertThrows(RejectedExecutionException.class,
+					() -> new ArangoDBPrefetchIterator<>(cursor("a"), 1, 10000, executor));
+		} finally {
+			busy.countDown();
+		}
+	}
+
+	private static <T> List<T> list(Iterator<T> iterator) {
+		List<T> result = new ArrayList<>();
+		iterator.forEachRemaining(result::add);
+		return result;
+	}
+
+	@SafeVarargs
+	@SuppressWarnings("unchecked")
+	private static <T> ArangoCursor<T> cursor(T... documents) {
+		Iterator<T> iterator = Arrays.asList(documents).iterator();
+		ArangoCursor<T> cursor = mock(ArangoCursor.class);
+		when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+		when(cursor.next()).thenAnswer(invocation -> iterator.next());
+		return cursor;
+	}
+}
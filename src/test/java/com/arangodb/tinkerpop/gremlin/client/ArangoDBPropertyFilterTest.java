@@ -0,0 +1,95 @@
+package com.arangodb.tinkerpop.gremlin.client;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter.Compare;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter.PropertyLayout;
+
+/**
+ * Tests of the AQL segments of the property filters for each document layout.
+ */
+public class ArangoDBPropertyFilterTest {
+
+	@Test
+	public void shouldFilterNestedVertexPropertyValues() {
+		ArangoDBPropertyFilter filter = ArangoDBPropertyFilter.empty()
+				.has("name", "marko", Compare.EQUAL)
+				.has("age", 28, Compare.GREATER_THAN)
+				.has("lang", null, Compare.HAS);
+
+		assertThat(segments(filter, "v.", PropertyLayout.VERTEX), contains(
+				"@property0 IN v.properties.`name`[*].value",
+				"v.properties.`age`[* FILTER IS_NUMBER(CURRENT.value)].value ANY > @property1",
+				"v.properties.`lang` != null"));
+	}
+
+	@Test
+	public void shouldFilterNestedEdgePropertyValues() {
+		ArangoDBPropertyFilter filter = ArangoDBPropertyFilter.empty()
+				.has("weight", 0.5d, Compare.EQUAL)
+				.has("weight", 0.1d, Compare.GREATER_THAN);
+
+		assertThat(segments(filter, "e.", PropertyLayout.EDGE), contains(
+				"e.properties.`weight`.value == @property0",
+				"IS_NUMBER(e.properties.`weight`.value) AND e.properties.`weight`.value > @property1"));
+	}
+
+	@Test
+	public void shouldFilterBothFormsOfMixedLayouts() {
+		ArangoDBPropertyFilter filter = ArangoDBPropertyFilter.empty()
+				.has("name", "marko", Compare.EQUAL)
+				.has("lang", null, Compare.HAS_NOT);
+
+		assertThat(segments(filter, "v.", PropertyLayout.FLAT_VERTEX), contains(
+				"((@property0 IN v.properties.`name`[*].value) OR (v.`name` == @property0))",
+				"v.properties.`lang` == null AND v.`lang` == null"));
+	}
+
+	@Test
+	public void shouldFilterTopLevelAttributesOfFlattenedLayouts() {
+		ArangoDBPropertyFilter filter = ArangoDBPropertyFilter.empty()
+				.has("name", "marko", Compare.EQUAL)
+				.has("age", 28, Compare.GREATER_THAN)
+				.has("lang", null, Compare.HAS)
+				.has("label", "x", Compare.EQUAL);
+
+		assertThat(segments(filter, "v.", PropertyLayout.FLAT_ONLY_VERTEX), contains(
+				"v.`name` == @property0",
+				"IS_NUMBER(v.`age`) AND v.`age` > @property1",
+				"v.`lang` != null",
+				// Reserved keys are never flattened
+				"@property3 IN v.properties.`label`[*].value"));
+		assertThat(segments(ArangoDBPropertyFilter.empty().has("weight", 0.5d, Compare.EQUAL), "e.", PropertyLayout.FLAT_ONLY_EDGE),
+				contains("e.`weight` == @property0"));
+	}
+
+	@Test
+	public void shouldBindTheSameValuesAsTheSegments() {
+		ArangoDBPropertyFilter filter = ArangoDBPropertyFilter.empty()
+				.has("name", "marko", Compare.EQUAL)
+				.has("age", Arrays.asList(27, 29), Compare.IN);
+		for (PropertyLayout layout : PropertyLayout.values()) {
+			Map<String, Object> bindVars = new HashMap<>();
+			filter.addAqlSegments("v.", layout, new ArrayList<>(), bindVars);
+			Map<String, Object> bound = new HashMap<>();
+			filter.addBindVars(layout, bound);
+			assertThat(layout.toString(), bound, is(bindVars));
+		}
+	}
+
+	private static List<String> segments(ArangoDBPropertyFilter filter, String prefix, PropertyLayout layout) {
+		List<String> segments = new ArrayList<>();
+		filter.addAqlSegments(prefix, layout, segments, new HashMap<>());
+		return segments;
+	}
+}
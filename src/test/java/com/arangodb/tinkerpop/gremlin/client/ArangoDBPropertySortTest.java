@@ -0,0 +1,54 @@
+package com.arangodb.tinkerpop.gremlin.client;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter.PropertyLayout;
+
+/**
+ * Tests of the AQL sort expressions for each document layout.
+ */
+public class ArangoDBPropertySortTest {
+
+	private final ArangoDBPropertySort sort = ArangoDBPropertySort.empty()
+			.by("age", false)
+			.by("name", true);
+
+	@Test
+	public void shouldSortNestedVertexPropertiesByTheirFirstValue() {
+		assertThat(sort.aqlSegments("v.", PropertyLayout.VERTEX), contains(
+				"FIRST(v.properties.`age`[*].value) DESC",
+				"FIRST(v.properties.`name`[*].value) ASC"));
+	}
+
+	@Test
+	public void shouldSortNestedEdgePropertiesByAttributePath() {
+		assertThat(sort.aqlSegments("e.", PropertyLayout.EDGE), contains(
+				"e.properties.`age`.value DESC",
+				"e.properties.`name`.value ASC"));
+	}
+
+	@Test
+	public void shouldSortEitherFormOfMixedLayouts() {
+		assertThat(sort.aqlSegments("v.", PropertyLayout.FLAT_VERTEX), contains(
+				"NOT_NULL(v.`age`, FIRST(v.properties.`age`[*].value)) DESC",
+				"NOT_NULL(v.`name`, FIRST(v.properties.`name`[*].value)) ASC"));
+	}
+
+	@Test
+	public void shouldSortTopLevelAttributesOfFlattenedLayouts() {
+		assertThat(sort.aqlSegments("v.", PropertyLayout.FLAT_ONLY_VERTEX), contains("v.`age` DESC", "v.`name` ASC"));
+		assertThat(sort.aqlSegments("e.", PropertyLayout.FLAT_ONLY_EDGE), contains("e.`age` DESC", "e.`name` ASC"));
+		assertThat(ArangoDBPropertySort.empty().by("label", true).aqlSegments("e.", PropertyLayout.FLAT_ONLY_EDGE),
+				contains("e.properties.`label`.value ASC"));
+	}
+
+	@Test
+	public void shouldDescribeTheShape() {
+		assertThat(sort.shape(), is("3#age:DESC;4#name:ASC;"));
+		assertThat(sort.keys(), contains("age", "name"));
+	}
+}
@@ -0,0 +1,135 @@
+package com.arangodb.tinkerpop.gremlin.client;
+
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter.Compare;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter.PropertyLayout;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBQueryBuilder.Direction;
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBQueryBuilder.UniqueVertices;
+
+/**
+ * Tests of the AQL text and bind parameters of the query segments.
+ */
+public class ArangoDBQueryBuilderTest {
+
+	@Test
+	public void shouldFilterPropertiesInsideTheUnionBranches() {
+		Map<String, Object> bindVars = new HashMap<>();
+		String query = new ArangoDBQueryBuilder()
+				.union(Arrays.asList("person", "software"), "v",
+						ArangoDBPropertyFilter.empty().has("name", "marko", Compare.EQUAL), PropertyLayout.VERTEX, -1, bindVars)
+				.ret("v")
+				.toString();
+
+		assertThat(query, is("FOR v in UNION( \n"
+				+ "  (FOR x1 IN @@col1 FILTER @property0 IN x1.properties.`name`[*].value RETURN x1),\n"
+				+ "  (FOR x2 IN @@col2 FILTER @property0 IN x2.properties.`name`[*].value RETURN x2  )\n"
+				+ ")\n"
+				+ "RETURN v\n"));
+		assertThat(bindVars, hasEntry("@col1", (Object) "person"));
+		assertThat(bindVars, hasEntry("@col2", (Object) "software"));
+		assertThat(bindVars, hasEntry("property0", (Object) "marko"));
+	}
+
+	@Test
+	public void shouldCountInTheServer() {
+		Map<String, Object> bindVars = new HashMap<>();
+		String query = new ArangoDBQueryBuilder()
+				.iterateCollection("v", "person", bindVars)
+				.collectWithCount("count")
+				.ret("count")
+				.toString();
+
+		assertThat(query, is("FOR v IN @@col1\nCOLLECT WITH COUNT INTO count\nRETURN count\n"));
+	}
+
+	@Test
+	public void shouldSkipAndLimit() {
+		assertThat(new ArangoDBQueryBuilder().limit(2, 3).toString(), is(" LIMIT 2, 3\n"));
+		assertThat(new ArangoDBQueryBuilder().limit(2, -1).toString(), is(" LIMIT 2, 9007199254740991\n"));
+	}
+
+	@Test
+	public void shouldSortByProperties() {
+		assertThat(new ArangoDBQueryBuilder().sort(ArangoDBPropertySort.empty().by("age", false), "v", PropertyLayout.VERTEX).toString(),
+				is(" SORT FIRST(v.properties.`age`[*].value) DESC\n"));
+		assertThat(new ArangoDBQueryBuilder().sort(ArangoDBPropertySort.empty(), "v", PropertyLayout.VERTEX).toString(), is(""));
+	}
+
+	@Test
+	public void shouldIterateEdgeCollections() {
+		Map<String, Object> bindVars = new HashMap<>();
+		String query = new ArangoDBQueryBuilder()
+				.iterateEdges("g", "v", Optional.of("e"), Optional.empty(), Optional.of(1), Optional.of(3), Direction.OUT,
+						Arrays.asList("knows", "created"), "person/marko", bindVars)
+				.prune(Collections.singletonList("v.name == 'lop'"))
+				.graphOptions(Optional.of(UniqueVertices.PATH), Optional.empty(), true)
+				.toString();
+
+		assertThat(query, is("FOR v, e\n  IN 1..3 OUTBOUND @startVertex\n    @@col1, @@col2\n"
+				+ "  PRUNE v.name == 'lop'\n"
+				+ "  OPTIONS {uniqueVertices: 'path', bfs: true}\n"));
+		assertThat(bindVars, hasEntry("startVertex", (Object) "person/marko"));
+		assertThat(bindVars, hasEntry("@col2", (Object) "created"));
+	}
+
+	@Test
+	public void shouldFindShortestPaths() {
+		Map<String, Object> bindVars = new HashMap<>();
+		String query = new ArangoDBQueryBuilder()
+				.shortestPaths("p", Direction.OUT, "person/marko", "person/josh", Collections.singletonList("knows"),
+						"weight", 1.0d, 2, bindVars)
+				.toString();
+
+		assertThat(query, is("FOR p IN OUTBOUND K_SHORTEST_PATHS @startVertex TO @targetVertex\n"
+				+ "    @@col1 OPTIONS {weightAttribute: @weightAttribute, defaultWeight: @defaultWeight}\n"));
+		assertThat(bindVars, hasEntry("targetVertex", (Object) "person/josh"));
+		assertThat(bindVars, hasEntry("defaultWeight", (Object) 1.0d));
+	}
+
+	@Test
+	public void shouldRemoveDocumentsAndIncidentEdges() {
+		Map<String, Object> bindVars = new HashMap<>();
+		String query = new ArangoDBQueryBuilder()
+				.removeIncidentEdges("ids", Collections.singletonList("knows"), bindVars)
+				.removeDocuments("ids", Collections.singletonList("person"), bindVars)
+				.toString();
+
+		assertThat(query, is("LET removed1 = (FOR e1 IN @@col1 FILTER e1._from IN ids OR e1._to IN ids"
+				+ " REMOVE e1 IN @@col1 OPTIONS { ignoreErrors: true })\n"
+				+ "LET removed2 = (FOR id2 IN ids FILTER IS_SAME_COLLECTION(@@col2, id2)"
+				+ " REMOVE PARSE_IDENTIFIER(id2).key IN @@col2 OPTIONS { ignoreErrors: true })\n"));
+		assertThat(bindVars, hasEntry("@col1", (Object) "knows"));
+		assertThat(bindVars, hasEntry("@col2", (Object) "person"));
+	}
+
+	@Test
+	public void shouldBindTheSameParametersWithoutTheText() {
+		ArangoDBPropertyFilter filter = ArangoDBPropertyFilter.empty().has("age", 29, Compare.GREATER_THAN);
+		Map<String, Object> bindVars = new HashMap<>();
+		new ArangoDBQueryBuilder()
+				.with(Arrays.asList("person", "software"), bindVars)
+				.union(Arrays.asList("person", "software"), "v", filter, PropertyLayout.VERTEX, 10, bindVars)
+				.filterSameCollections("v", Collections.singletonList("person"), bindVars)
+				.filterProperties(filter, "v", PropertyLayout.VERTEX, bindVars);
+		Map<String, Object> bound = new HashMap<>();
+		ArangoDBQueryBuilder builder = ArangoDBQueryBuilder.bindingsOnly()
+				.with(Arrays.asList("person", "software"), bound)
+				.union(Arrays.asList("person", "software"), "v", filter, PropertyLayout.VERTEX, 10, bound)
+				.filterSameCollections("v", Collections.singletonList("person"), bound)
+				.filterProperties(filter, "v", PropertyLayout.VERTEX, bound);
+
+		assertThat(bound, is(bindVars));
+		assertThat(builder.toString(), is(""));
+	}
+}
@@ -0,0 +1,74 @@
+package com.arangodb.tinkerpop.gremlin.client;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.junit.Test;
+
+import com.arangodb.entity.AqlQueryExplainEntity;
+import com.arangodb.model.AqlQueryExplainOptions;
+import com.arangodb.model.PersistentIndexOptions;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraphTestCase;
+
+/**
+ * Tests that the server answers the sorts of the graph steps with persistent indexes, by
+ * explaining the queries of the client.
+ */
+public class ArangoDBSortIndexTest extends ArangoDBGraphTestCase {
+
+	@Test
+	public void shouldSortFlattenedPropertiesWithIndex() {
+		ArangoDBGraph graph = open(builder().flattenProperties(true).mixedProperties(false).build());
+		graph.addVertex(T.label, "person", "name", "marko", "age", 29);
+		graph.addVertex(T.label, "person", "name", "vadas", "age", 27);
+		index(graph, "person", "age");
+
+		Map<String, Object> bindVars = new HashMap<>();
+		String query = graph.getClient().graphElementsQuery(Collections.emptyList(), Collections.singletonList("person"),
+				graph.vertexCollections(), ArangoDBPropertyFilter.empty(), ArangoDBPropertySort.empty().by("age", false),
+				graph.getClient().vertexLayout(), 0, 1, true, "v", bindVars);
+
+		assertThat(nodeTypes(graph, query, bindVars), hasItem("IndexNode"));
+		assertThat(nodeTypes(graph, query, bindVars), not(hasItem("SortNode")));
+		assertThat(graph.traversal().V().hasLabel("person").order().by("age", Order.desc).limit(1).values("name").next(), is("marko"));
+	}
+
+	@Test
+	public void shouldSortNestedEdgePropertiesWithIndex() {
+		ArangoDBGraph graph = open(builder().build());
+		graph.addVertex(T.label, "person", "name", "marko")
+				.addEdge("knows", graph.addVertex(T.label, "person", "name", "vadas"), "weight", 0.5d);
+		index(graph, "knows", "properties.weight.value");
+
+		Map<String, Object> bindVars = new HashMap<>();
+		String query = graph.getClient().graphElementsQuery(Collections.emptyList(), Collections.singletonList("knows"),
+				graph.edgeCollections(), ArangoDBPropertyFilter.empty(), ArangoDBPropertySort.empty().by("weight", true),
+				graph.getClient().edgeLayout(), 0, 1, true, "e", bindVars);
+
+		assertThat(nodeTypes(graph, query, bindVars), hasItem("IndexNode"));
+		assertThat(nodeTypes(graph, query, bindVars), not(hasItem("SortNode")));
+	}
+
+	private static void index(ArangoDBGraph graph, String label, String field) {
+		graph.getClient().getDB().collection(graph.getPrefixedCollectioName(label))
+				.ensurePersistentIndex(Collections.singleton(field), new PersistentIndexOptions());
+	}
+
+	private static List<String> nodeTypes(ArangoDBGraph graph, String query, Map<String, Object> bindVars) {
+		AqlQueryExplainEntity explain = graph.getClient().getDB().explainAqlQuery(query, bindVars, new AqlQueryExplainOptions());
+		return explain.getPlan().getNodes().stream()
+				.map(node -> String.valueOf(node.get("type")))
+				.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,133 @@
+package com.arangodb.tinkerpop.gremlin.client;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBEdgeData;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertexData;
+
+/**
+ * Tests of the write buffer that don't need a server: the buffered writes are persisted by a
+ * mocked client.
+ */
+public class ArangoDBWriteBufferTest {
+
+	private ArangoDBGraphClient client;
+
+	private ArangoDBWriteBuffer buffer;
+
+	@Before
+	public void setUp() {
+		client = mock(ArangoDBGraphClient.class);
+		when(client.insertVertices(any(), any(), any())).thenReturn(Collections.emptyList());
+		when(client.insertEdges(any(), any(), any())).thenReturn(Collections.emptyList());
+		when(client.updateVertices(any(), anyMap())).thenReturn(Collections.emptyList());
+		when(client.updateEdges(any(), anyMap())).thenReturn(Collections.emptyList());
+		buffer = new ArangoDBWriteBuffer(client, 3);
+	}
+
+	@Test
+	public void shouldFlushWhenFull() {
+		buffer.insertVertex(new ArangoDBVertexData("person", "marko"));
+		buffer.insertVertex(new ArangoDBVertexData("person", "vadas"));
+		verify(client, never()).insertVertices(any(), any(), any());
+		assertThat(buffer.size(), is(2));
+
+		buffer.insertVertex(new ArangoDBVertexData("software", "lop"));
+		verify(client).insertVertices(eq("person"), any(), eq(ArangoDBBulkLoader.OnDuplicate.ERROR));
+		verify(client).insertVertices(eq("software"), any(), eq(ArangoDBBulkLoader.OnDuplicate.ERROR));
+		assertThat(buffer.size(), is(0));
+	}
+
+	@Test
+	public void shouldAssignKeys() {
+		ArangoDBVertexData vertex = new ArangoDBVertexData("person", null);
+		buffer.insertVertex(vertex);
+		assertThat(vertex.getKey() != null, is(true));
+	}
+
+	@Test
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void shouldCoalesceUpdates() {
+		ArangoDBVertexData marko = new ArangoDBVertexData("person", "marko");
+		buffer.updateVertex(marko, Collections.singleton("name"));
+		buffer.updateVertex(marko, Collections.singleton("age"));
+		assertThat(buffer.size(), is(1));
+		buffer.flush();
+
+		ArgumentCaptor<Map> changes = ArgumentCaptor.forClass(Map.class);
+		verify(client).updateVertices(eq("person"), changes.capture());
+		assertThat(new HashSet<>((Collection<String>) changes.getValue().get(marko)), is(new HashSet<>(Arrays.asList("name", "age"))));
+	}
+
+	@Test
+	public void shouldPersistUpdatesOfBufferedInsertsWithTheInsert() {
+		ArangoDBVertexData marko = new ArangoDBVertexData("person", "marko");
+		buffer.insertVertex(marko);
+		buffer.updateVertex(marko, Collections.singleton("age"));
+		assertThat(buffer.size(), is(1));
+		buffer.flush();
+
+		verify(client).insertVertices(eq("person"), eq(Collections.singletonList(marko)), any());
+		verify(client, never()).updateVertices(any(), anyMap());
+	}
+
+	@Test
+	public void shouldReportRejectedWrites() {
+		ArangoDBVertexData marko = new ArangoDBVertexData("person", "marko");
+		List<ArangoDBBulkLoader.Failure> failures = Collections.singletonList(new ArangoDBBulkLoader.Failure(marko, 1210, "unique constraint violated"));
+		when(client.insertVertices(any(), any(), any())).thenReturn(failures);
+		buffer.insertVertex(marko);
+
+		ArangoDBGraphException e = assertThrows(ArangoDBGraphException.class, buffer::flush);
+		assertThat(e.getMessage(), containsString("1 buffered writes were rejected"));
+
+		// Rejected writes are reported once
+		assertThat(buffer.size(), is(0));
+		buffer.flush();
+		verify(client, times(1)).insertVertices(any(), any(), any());
+	}
+
+	@Test
+	public void shouldKeepUnsentWritesWhenRequestFails() {
+		ArangoDBVertexData marko = new ArangoDBVertexData("person", "marko");
+		ArangoDBVertexData vadas = new ArangoDBVertexData("person", "vadas");
+		ArangoDBEdgeData knows = new ArangoDBEdgeData("knows", "1", "person/marko", "person/vadas");
+		buffer.insertVertex(marko);
+		buffer.insertVertex(vadas);
+		when(client.insertEdges(any(), any(), any())).thenThrow(new ArangoDBGraphException("connection refused"));
+		assertThrows(ArangoDBGraphException.class, () -> buffer.insertEdge(knows));
+
+		// The vertices were inserted, the edge was not
+		assertThat(buffer.size(), is(1));
+		verify(client).insertVertices(eq("person"), eq(Arrays.asList(marko, vadas)), any());
+
+		doReturn(Collections.emptyList()).when(client).insertEdges(any(), any(), any());
+		buffer.flush();
+		verify(client, times(2)).insertEdges(eq("knows"), eq(Collections.singletonList(knows)), any());
+		verify(client, times(1)).insertVertices(any(), any(), any());
+		assertThat(buffer.size(), is(0));
+	}
+}
@@ -0,0 +1,57 @@
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.map.ArangoDBCountGlobalStep;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+
+/**
+ * Tests of the steps the count strategy compiles, on a graph that is never queried.
+ */
+public class ArangoDBCountStrategyTest {
+
+	private GraphTraversalSource g;
+
+	@Before
+	public void setUp() {
+		g = new GraphTraversalSource(mock(ArangoDBGraph.class), TraversalStrategies.GlobalCache.getStrategies(ArangoDBGraph.class));
+	}
+
+	@Test
+	public void shouldCountInTheServer() {
+		assertThat(countStep(g.V().count()), instanceOf(ArangoDBCountGlobalStep.class));
+		assertThat(countStep(g.E().hasLabel("knows").count()), instanceOf(ArangoDBCountGlobalStep.class));
+		assertThat(countStep(g.V().has("age", P.gt(30)).count()), instanceOf(ArangoDBCountGlobalStep.class));
+		assertThat(countStep(g.V("person/marko", "person/vadas").count()), instanceOf(ArangoDBCountGlobalStep.class));
+	}
+
+	@Test
+	public void shouldNotCountDuplicateIdsInTheServer() {
+		Traversal.Admin<?, ?> traversal = g.V("person/marko", "person/marko").count().asAdmin();
+		traversal.applyStrategies();
+		assertThat(traversal.getEndStep(), not(instanceOf(ArangoDBCountGlobalStep.class)));
+		assertThat(traversal.getSteps().size(), is(2));
+	}
+
+	@Test
+	public void shouldNotCountTraversalsWithOtherSteps() {
+		assertThat(countStep(g.V().out().count()), not(instanceOf(ArangoDBCountGlobalStep.class)));
+	}
+
+	private static Object countStep(Traversal<?, ?> traversal) {
+		Traversal.Admin<?, ?> admin = traversal.asAdmin();
+		admin.applyStrategies();
+		return admin.getEndStep();
+	}
+}
@@ -0,0 +1,53 @@
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+
+/**
+ * Tests of the drops the drop strategy folds into the graph steps, on a graph that is never queried.
+ */
+public class ArangoDBDropStrategyTest {
+
+	private GraphTraversalSource g;
+
+	@Before
+	public void setUp() {
+		ArangoDBGraph graph = mock(ArangoDBGraph.class);
+		when(graph.vertexCollections()).thenReturn(Arrays.asList("person", "software"));
+		when(graph.edgeCollections()).thenReturn(Arrays.asList("knows", "created"));
+		g = new GraphTraversalSource(graph, TraversalStrategies.GlobalCache.getStrategies(ArangoDBGraph.class));
+	}
+
+	@Test
+	public void shouldFoldDropsIntoGraphSteps() {
+		assertThat(steps(g.V().drop()), is("[ArangoDBGraphStep(vertex,drop)]"));
+		assertThat(steps(g.V().hasLabel("person").drop()), is("[ArangoDBGraphStep(vertex,[~label.eq(person)],drop)]"));
+		assertThat(steps(g.E().drop()), is("[ArangoDBGraphStep(edge,drop)]"));
+	}
+
+	@Test
+	public void shouldNotFoldOtherDrops() {
+		assertThat(steps(g.V().out().drop()), containsString("DropStep"));
+		assertThat(steps(g.V().has("name", new P<>((value, x) -> true, "m")).drop()), containsString("DropStep"));
+	}
+
+	private static String steps(Traversal<?, ?> traversal) {
+		Traversal.Admin<?, ?> admin = traversal.asAdmin();
+		admin.applyStrategies();
+		return admin.getSteps().toString();
+	}
+}
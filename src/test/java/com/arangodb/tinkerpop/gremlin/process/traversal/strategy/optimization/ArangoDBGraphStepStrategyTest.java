@@ -0,0 +1,87 @@
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBPropertyFilter.PropertyLayout;
+import com.arangodb.tinkerpop.gremlin.process.traversal.step.sideEffect.ArangoDBGraphStep;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+
+/**
+ * Tests of the graph steps the graph step strategy compiles, and of the AQL filters of their
+ * queries, on a graph that is never queried.
+ */
+public class ArangoDBGraphStepStrategyTest {
+
+	private GraphTraversalSource g;
+
+	@Before
+	public void setUp() {
+		ArangoDBGraph graph = mock(ArangoDBGraph.class);
+		when(graph.vertexCollections()).thenReturn(Arrays.asList("person", "software"));
+		when(graph.edgeCollections()).thenReturn(Arrays.asList("knows", "created"));
+		g = new GraphTraversalSource(graph, TraversalStrategies.GlobalCache.getStrategies(ArangoDBGraph.class));
+	}
+
+	@Test
+	public void shouldFoldHasChains() {
+		ArangoDBGraphStep<?, ?> step = graphStep(g.V().has("name", "marko").has("age", P.gt(20)));
+
+		assertThat(step.isServerEvaluated(), is(true));
+		assertThat(step.getQueryCollections(), contains("person", "software"));
+		assertThat(filter(step), contains(
+				"@property0 IN v.properties.`name`[*].value",
+				"v.properties.`age`[* FILTER IS_NUMBER(CURRENT.value)].value ANY > @property1"));
+	}
+
+	@Test
+	public void shouldRestrictCollectionsByLabel() {
+		assertThat(graphStep(g.V().hasLabel("person").has("name", "marko")).getQueryCollections(), contains("person"));
+		assertThat(graphStep(g.E().hasLabel("knows", "created")).getQueryCollections(), contains("knows", "created"));
+		assertThat(graphStep(g.V().hasLabel("person").hasLabel("software")).getQueryCollections(), is(empty()));
+		assertThat(graphStep(g.V().hasLabel("nope")).getQueryCollections(), is(empty()));
+	}
+
+	@Test
+	public void shouldNotEvaluateLambdasInTheServer() {
+		Traversal.Admin<?, ?> traversal = g.V().has("name", new P<>((value, x) -> true, "m")).limit(2).asAdmin();
+		traversal.applyStrategies();
+
+		assertThat(traversal.getSteps(), hasSize(2));
+		assertThat(((ArangoDBGraphStep<?, ?>) traversal.getStartStep()).isServerEvaluated(), is(false));
+	}
+
+	private static ArangoDBGraphStep<?, ?> graphStep(Traversal<?, ?> traversal) {
+		Traversal.Admin<?, ?> admin = traversal.asAdmin();
+		admin.applyStrategies();
+		assertThat(admin.getSteps(), hasSize(1));
+		assertThat(admin.getStartStep(), instanceOf(ArangoDBGraphStep.class));
+		return (ArangoDBGraphStep<?, ?>) admin.getStartStep();
+	}
+
+	private static List<String> filter(ArangoDBGraphStep<?, ?> step) {
+		List<String> segments = new ArrayList<>();
+		Map<String, Object> bindVars = new HashMap<>();
+		step.getPropertyFilter().addAqlSegments("v.", PropertyLayout.VERTEX, segments, bindVars);
+		return segments;
+	}
+}
@@ -0,0 +1,55 @@
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+
+/**
+ * Tests of the hops the multi-hop strategy collapses into one traversal, on a graph that is never
+ * queried.
+ */
+public class ArangoDBMultiHopStrategyTest {
+
+	private GraphTraversalSource g;
+
+	@Before
+	public void setUp() {
+		ArangoDBGraph graph = mock(ArangoDBGraph.class);
+		when(graph.vertexCollections()).thenReturn(Arrays.asList("person", "software"));
+		when(graph.edgeCollections()).thenReturn(Arrays.asList("knows", "created"));
+		g = new GraphTraversalSource(graph, TraversalStrategies.GlobalCache.getStrategies(ArangoDBGraph.class));
+	}
+
+	@Test
+	public void shouldCollapseHopsInTheSameDirection() {
+		assertThat(steps(g.V().out().out()), is("[ArangoDBGraphStep(vertex,noProperties), ArangoDBMultiHopStep(OUT,[[], []])]"));
+		assertThat(steps(g.V().both().both().both()),
+				is("[ArangoDBGraphStep(vertex,noProperties), ArangoDBMultiHopStep(BOTH,[[], [], []])]"));
+		assertThat(steps(g.V().in().in().limit(2)),
+				is("[ArangoDBGraphStep(vertex,noProperties), ArangoDBMultiHopStep(IN,[[], []]), RangeGlobalStep(0,2)]"));
+	}
+
+	@Test
+	public void shouldNotCollapseHopsInOtherDirections() {
+		assertThat(steps(g.V().out("knows").in("created")), not(containsString("ArangoDBMultiHopStep")));
+	}
+
+	private static String steps(Traversal<?, ?> traversal) {
+		Traversal.Admin<?, ?> admin = traversal.asAdmin();
+		admin.applyStrategies();
+		return admin.getSteps().toString();
+	}
+}
@@ -0,0 +1,58 @@
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+
+/**
+ * Tests of the sorts the order strategy folds into the graph steps, on a graph that is never
+ * queried.
+ */
+public class ArangoDBOrderStrategyTest {
+
+	private GraphTraversalSource g;
+
+	@Before
+	public void setUp() {
+		ArangoDBGraph graph = mock(ArangoDBGraph.class);
+		when(graph.vertexCollections()).thenReturn(Arrays.asList("person", "software"));
+		when(graph.edgeCollections()).thenReturn(Arrays.asList("knows", "created"));
+		g = new GraphTraversalSource(graph, TraversalStrategies.GlobalCache.getStrategies(ArangoDBGraph.class));
+	}
+
+	@Test
+	public void shouldFoldSortsIntoGraphSteps() {
+		assertThat(steps(g.V().order().by("age", Order.desc).limit(3)), is("[ArangoDBGraphStep(vertex,[[age, desc]],[0,3])]"));
+		assertThat(steps(g.V().order().by(__.values("age"))), is("[ArangoDBGraphStep(vertex,[[age, asc]])]"));
+	}
+
+	@Test
+	public void shouldKeepLaterSorts() {
+		Traversal.Admin<?, ?> traversal = g.V().order().by("age").limit(3).order().by("name").asAdmin();
+		traversal.applyStrategies();
+
+		assertThat(traversal.getSteps().get(0).toString(), is("ArangoDBGraphStep(vertex,[[age, asc]],[0,3])"));
+		assertThat(traversal.getSteps().get(1), instanceOf(OrderGlobalStep.class));
+	}
+
+	private static String steps(Traversal<?, ?> traversal) {
+		Traversal.Admin<?, ?> admin = traversal.asAdmin();
+		admin.applyStrategies();
+		return admin.getSteps().toString();
+	}
+}
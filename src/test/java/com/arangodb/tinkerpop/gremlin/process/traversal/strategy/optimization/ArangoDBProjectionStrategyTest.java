@@ -0,0 +1,122 @@
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraphTestCase;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBVertex;
+
+public class ArangoDBProjectionStrategyTest extends ArangoDBGraphTestCase {
+
+	private ArangoDBGraph graph;
+
+	private GraphTraversalSource g;
+
+	private Vertex marko;
+
+	private Vertex vadas;
+
+	private Vertex josh;
+
+	private Vertex lop;
+
+	@Before
+	public void setUp() {
+		graph = open(builder().build());
+		g = graph.traversal();
+		marko = graph.addVertex(T.label, "person", "name", "marko");
+		vadas = graph.addVertex(T.label, "person", "name", "vadas");
+		josh = graph.addVertex(T.label, "person", "name", "josh");
+		lop = graph.addVertex(T.label, "software", "name", "lop");
+		marko.addEdge("knows", vadas, "weight", 0.5d);
+		marko.addEdge("knows", josh, "weight", 1.0d);
+		marko.addEdge("created", lop, "weight", 0.4d);
+		josh.addEdge("created", lop, "weight", 0.4d);
+	}
+
+	@Test
+	public void shouldProjectAdjacentVerticesOfIds() {
+		assertThat(readSteps(g.V().out().id()), everyItem(containsString("noProperties")));
+		assertThat(g.V().out().id().toList(), containsInAnyOrder(vadas.id(), josh.id(), lop.id(), lop.id()));
+	}
+
+	@Test
+	public void shouldProjectCountedVertices() {
+		assertThat(readSteps(g.V().outE().inV().count()), everyItem(containsString("noProperties")));
+		assertThat(g.V().outE().inV().count().next(), is(4L));
+	}
+
+	@Test
+	public void shouldNotProjectLabeledSteps() {
+		assertThat(readSteps(g.V().as("a").out().as("b").id()), everyItem(not(containsString("noProperties"))));
+		assertThat(g.V().as("a").out().as("b").id().toList(), hasSize(4));
+	}
+
+	@Test
+	public void shouldNotProjectPropertyFilters() {
+		List<String> steps = readSteps(g.V().has("name", "marko").out().id());
+		assertThat(steps.get(0), not(containsString("noProperties")));
+		assertThat(g.V().has("name", "marko").out().id().toList(), containsInAnyOrder(vadas.id(), josh.id(), lop.id()));
+
+		steps = readSteps(g.V().out().has("name", "lop").id());
+		assertThat(steps.get(steps.size() - 1), not(containsString("noProperties")));
+		assertThat(g.V().out().has("name", "lop").id().toList(), containsInAnyOrder(lop.id(), lop.id()));
+	}
+
+	@Test
+	public void shouldNotProjectPaths() {
+		assertThat(readSteps(g.V().out().id().path()), everyItem(not(containsString("noProperties"))));
+		assertThat(g.V(marko.id()).out("created").path().next().objects(), containsInAnyOrder(marko, lop));
+	}
+
+	@Test
+	public void shouldLoadPropertiesWhenAccessed() {
+		ArangoDBVertex read = (ArangoDBVertex) graph.vertices(marko.id()).next();
+
+		List<Vertex> known = IteratorUtils.list(read.vertices(Direction.OUT, -1, false, "knows"));
+		assertThat(known.stream().map(v -> v.<String>value("name")).collect(Collectors.toList()),
+				containsInAnyOrder("vadas", "josh"));
+
+		Edge created = read.edges(Direction.OUT, -1, false, "created").next();
+		assertThat(created.value("weight"), is(0.4d));
+		assertThat(created.keys(), containsInAnyOrder("weight"));
+	}
+
+	/**
+	 * Apply the strategies to the traversal and return the graph and vertex steps that read the
+	 * elements, as strings.
+	 */
+
+	private static List<String> readSteps(Traversal<?, ?> traversal) {
+		Traversal.Admin<?, ?> admin = traversal.asAdmin();
+		admin.applyStrategies();
+		List<String> steps = admin.getSteps().stream()
+				.filter(step -> step instanceof GraphStep || step instanceof VertexStep)
+				.map(Object::toString)
+				.collect(Collectors.toList());
+		assertThat(steps, not(empty()));
+		return steps;
+	}
+}
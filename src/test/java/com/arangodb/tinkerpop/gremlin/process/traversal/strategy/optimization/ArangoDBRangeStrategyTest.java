@@ -0,0 +1,61 @@
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+
+/**
+ * Tests of the ranges the range strategy folds into the graph and vertex steps, on a graph that is
+ * never queried.
+ */
+public class ArangoDBRangeStrategyTest {
+
+	private GraphTraversalSource g;
+
+	@Before
+	public void setUp() {
+		ArangoDBGraph graph = mock(ArangoDBGraph.class);
+		when(graph.vertexCollections()).thenReturn(Arrays.asList("person", "software"));
+		when(graph.edgeCollections()).thenReturn(Arrays.asList("knows", "created"));
+		g = new GraphTraversalSource(graph, TraversalStrategies.GlobalCache.getStrategies(ArangoDBGraph.class));
+	}
+
+	@Test
+	public void shouldFoldRangesIntoGraphSteps() {
+		assertThat(steps(g.V().limit(5)), is("[ArangoDBGraphStep(vertex,[0,5])]"));
+		assertThat(steps(g.V().range(2, 7)), is("[ArangoDBGraphStep(vertex,[2,7])]"));
+		assertThat(steps(g.V().skip(3)), is("[ArangoDBGraphStep(vertex,[3,-1])]"));
+		assertThat(steps(g.V().skip(2).limit(3)), is("[ArangoDBGraphStep(vertex,[2,5])]"));
+		assertThat(steps(g.E().hasLabel("knows").limit(1)), is("[ArangoDBGraphStep(edge,[~label.eq(knows)],[0,1])]"));
+	}
+
+	@Test
+	public void shouldCapVertexSteps() {
+		assertThat(steps(g.V().out().limit(3)),
+				is("[ArangoDBGraphStep(vertex,noProperties), ArangoDBVertexStep(OUT,vertex,limit=3), RangeGlobalStep(0,3)]"));
+	}
+
+	@Test
+	public void shouldNotFoldRangesOfClientFilters() {
+		assertThat(steps(g.V().has("name", new P<>((value, x) -> true, "m")).limit(2)),
+				is("[ArangoDBGraphStep(vertex,lambda), RangeGlobalStep(0,2)]"));
+	}
+
+	private static String steps(Traversal<?, ?> traversal) {
+		Traversal.Admin<?, ?> admin = traversal.asAdmin();
+		admin.applyStrategies();
+		return admin.getSteps().toString();
+	}
+}
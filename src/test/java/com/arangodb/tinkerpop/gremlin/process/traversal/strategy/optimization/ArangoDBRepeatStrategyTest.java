@@ -0,0 +1,63 @@
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+
+/**
+ * Tests of the repeats the repeat strategy compiles into traversals, on a graph that is never
+ * queried.
+ */
+public class ArangoDBRepeatStrategyTest {
+
+	private GraphTraversalSource g;
+
+	@Before
+	public void setUp() {
+		ArangoDBGraph graph = mock(ArangoDBGraph.class);
+		when(graph.vertexCollections()).thenReturn(Arrays.asList("person", "software"));
+		when(graph.edgeCollections()).thenReturn(Arrays.asList("knows", "created"));
+		when(graph.traversalMaxDepth()).thenReturn(5);
+		g = new GraphTraversalSource(graph, TraversalStrategies.GlobalCache.getStrategies(ArangoDBGraph.class));
+	}
+
+	@Test
+	public void shouldCompileFixedRepeats() {
+		assertThat(steps(g.V().repeat(__.out()).times(3)), containsString("ArangoDBMultiHopStep(OUT,"));
+		assertThat(steps(g.V().repeat(__.out()).emit().times(2)), containsString("ArangoDBRepeatStep(OUT,1..2,null)"));
+		assertThat(steps(g.V().emit().repeat(__.out()).times(2)), containsString("ArangoDBRepeatStep(OUT,0..2,null)"));
+	}
+
+	@Test
+	public void shouldCompileRepeatsUntilAFilterUpToTheMaximumDepth() {
+		assertThat(steps(g.V().repeat(__.out("knows")).until(__.has("name", "lop"))),
+				containsString("ArangoDBRepeatStep(OUT,[knows],1..5,[name.eq(lop)])"));
+	}
+
+	@Test
+	public void shouldNotCompileRepeatsThatNeedPaths() {
+		String steps = steps(g.V().repeat(__.out()).times(2).path());
+		assertThat(steps, not(containsString("ArangoDBMultiHopStep")));
+		assertThat(steps, not(containsString("ArangoDBRepeatStep")));
+	}
+
+	private static String steps(Traversal<?, ?> traversal) {
+		Traversal.Admin<?, ?> admin = traversal.asAdmin();
+		admin.applyStrategies();
+		return admin.getSteps().toString();
+	}
+}
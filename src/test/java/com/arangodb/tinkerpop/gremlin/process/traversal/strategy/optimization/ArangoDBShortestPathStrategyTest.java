@@ -0,0 +1,56 @@
+package com.arangodb.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBGraph;
+
+/**
+ * Tests of the path searches the shortest path strategy compiles into shortest path queries, on a
+ * graph that is never queried.
+ */
+public class ArangoDBShortestPathStrategyTest {
+
+	private GraphTraversalSource g;
+
+	@Before
+	public void setUp() {
+		ArangoDBGraph graph = mock(ArangoDBGraph.class);
+		when(graph.vertexCollections()).thenReturn(Arrays.asList("person", "software"));
+		when(graph.edgeCollections()).thenReturn(Arrays.asList("knows", "created"));
+		g = new GraphTraversalSource(graph, TraversalStrategies.GlobalCache.getStrategies(ArangoDBGraph.class));
+	}
+
+	@Test
+	public void shouldCompileTheShortestPathRecipe() {
+		assertThat(steps(g.V("person/marko").repeat(__.out("knows").simplePath()).until(__.hasId("person/josh")).path().limit(1)),
+				containsString("ArangoDBShortestPathStep(person/josh,OUT,[knows],vertices,1,null), RangeGlobalStep(0,1)"));
+		assertThat(steps(g.V("person/marko").repeat(__.outE("knows").inV().simplePath()).until(__.hasId("person/josh")).path().limit(3)),
+				containsString("ArangoDBShortestPathStep(person/josh,OUT,[knows],edges,3,null)"));
+	}
+
+	@Test
+	public void shouldCompileWeightedShortestPaths() {
+		assertThat(steps(g.with(ArangoDBShortestPathStrategy.WEIGHT_ATTRIBUTE, "weight").V("person/marko")
+				.repeat(__.outE("knows").inV().simplePath()).until(__.hasId("person/josh")).path().limit(2)),
+				containsString("ArangoDBShortestPathStep(person/josh,OUT,[knows],edges,2,weight)"));
+	}
+
+	private static String steps(Traversal<?, ?> traversal) {
+		Traversal.Admin<?, ?> admin = traversal.asAdmin();
+		admin.applyStrategies();
+		return admin.getSteps().toString();
+	}
+}
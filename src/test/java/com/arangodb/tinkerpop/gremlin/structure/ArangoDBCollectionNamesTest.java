@@ -0,0 +1,38 @@
+package com.arangodb.tinkerpop.gremlin.structure;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Test;
+
+/**
+ * Tests of the collection names and element ids that the graph computes once.
+ */
+public class ArangoDBCollectionNamesTest extends ArangoDBGraphTestCase {
+
+	@Test
+	public void shouldPrefixTheGraphCollections() {
+		ArangoDBGraph graph = open(builder().build());
+
+		assertThat(graph.getPrefixedCollectioName("person"), is(GRAPH_NAME + "_person"));
+		assertThat(graph.getPrefixedCollectioName("unknown"), is(GRAPH_NAME + "_unknown"));
+		assertThat(graph.prefixedVertexCollections(), contains(GRAPH_NAME + "_person", GRAPH_NAME + "_software"));
+		assertThat(graph.prefixedEdgeCollections(), contains(GRAPH_NAME + "_knows", GRAPH_NAME + "_created"));
+		assertThat(graph.hasVertexCollection("person"), is(true));
+		assertThat(graph.hasVertexCollection("knows"), is(false));
+		assertThat(graph.hasEdgeCollection("knows"), is(true));
+	}
+
+	@Test
+	public void shouldReuseTheIdOfStoredElements() {
+		ArangoDBGraph graph = open(builder().build());
+		Vertex marko = graph.addVertex(T.label, "person", "name", "marko");
+
+		assertThat(marko.id(), sameInstance(marko.id()));
+		assertThat(graph.vertices(marko.id()).next().value("name"), is("marko"));
+	}
+}
@@ -0,0 +1,29 @@
+package com.arangodb.tinkerpop.gremlin.structure;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Test;
+
+/**
+ * Tests that new elements are persisted together with the properties they are created with.
+ */
+public class ArangoDBElementInsertTest extends ArangoDBGraphTestCase {
+
+	@Test
+	public void shouldInsertVerticesAndEdgesWithTheirProperties() {
+		ArangoDBGraph graph = open(builder().build());
+		ArangoDBGraph reader = open(builder().build());
+		Vertex marko = graph.addVertex(T.label, "person", "name", "marko", "age", 29);
+		Vertex lop = graph.addVertex(T.label, "software", "name", "lop");
+		Edge created = marko.addEdge("created", lop, "weight", 0.4d);
+
+		Vertex stored = reader.vertices(marko.id()).next();
+		assertThat(stored.value("name"), is("marko"));
+		assertThat(stored.value("age"), is(29));
+		assertThat(reader.edges(created.id()).next().value("weight"), is(0.4d));
+	}
+}
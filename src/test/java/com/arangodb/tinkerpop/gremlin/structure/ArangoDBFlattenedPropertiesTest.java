@@ -0,0 +1,220 @@
+package com.arangodb.tinkerpop.gremlin.structure;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBBulkLoader;
+
+public class ArangoDBFlattenedPropertiesTest extends ArangoDBGraphTestCase {
+
+	private ArangoDBGraph graph;
+
+	/** A second graph on the same collections, to read what was persisted. */
+	private ArangoDBGraph reader;
+
+	@Before
+	public void setUp() {
+		graph = open(builder().flattenProperties(true).build());
+		reader = open(builder().flattenProperties(true).build());
+	}
+
+	@Test
+	public void shouldRoundTripFlattenedValues() {
+		Vertex marko = graph.addVertex(T.label, "person", "name", "marko", "active", true, "age", 29, "score", 0.5d);
+
+		Map<String, Object> document = document(marko.id());
+		assertThat(document, hasEntry("name", "marko"));
+		assertThat(document, hasEntry("active", true));
+		assertThat(document, hasKey("age"));
+		assertThat(document, hasEntry("score", 0.5d));
+		assertThat(nested(document), is(Collections.emptyMap()));
+
+		Vertex read = reader.vertices(marko.id()).next();
+		assertThat(read.value("name"), is("marko"));
+		assertThat(read.value("active"), is(true));
+		assertThat(read.value("age"), is(29));
+		assertThat(read.value("score"), is(0.5d));
+	}
+
+	@Test
+	public void shouldKeepValuesThatNeedTheirTypeNested() {
+		List<String> languages = Arrays.asList("java", "aql");
+		Vertex marko = graph.addVertex(T.label, "person", "long", 5L, "float", 1.5f, "integral", 2.0d, "list", languages);
+
+		Map<String, Object> document = document(marko.id());
+		assertThat(document, not(hasKey("long")));
+		assertThat(document, not(hasKey("float")));
+		assertThat(document, not(hasKey("integral")));
+		assertThat(document, not(hasKey("list")));
+
+		Vertex read = reader.vertices(marko.id()).next();
+		assertThat(read.value("long"), is(5L));
+		assertThat(read.value("float"), is(1.5f));
+		assertThat(read.<Object>value("integral"), instanceOf(Double.class));
+		assertThat(read.value("integral"), is(2.0d));
+		assertThat(read.value("list"), is(languages));
+	}
+
+	@Test
+	public void shouldRoundTripFlattenedEdgeValues() {
+		Vertex marko = graph.addVertex(T.label, "person");
+		Vertex lop = graph.addVertex(T.label, "software");
+		Edge created = marko.addEdge("created", lop, "weight", 0.4d, "year", 2009L);
+
+		Map<String, Object> document = document(created.id());
+		assertThat(document, hasEntry("weight", 0.4d));
+		assertThat(document, not(hasKey("year")));
+
+		Edge read = reader.edges(created.id()).next();
+		assertThat(read.value("weight"), is(0.4d));
+		assertThat(read.value("year"), is(2009L));
+	}
+
+	@Test
+	public void shouldMoveVertexPropertiesBetweenForms() {
+		Vertex marko = graph.addVertex(T.label, "person", "name", "marko", "age", 29);
+		assertThat(document(marko.id()), hasKey("name"));
+
+		// A second value needs the nested list
+		marko.property(VertexProperty.Cardinality.list, "name", "mark");
+		Map<String, Object> document = document(marko.id());
+		assertThat(document, not(hasKey("name")));
+		assertThat(nested(document), hasKey("name"));
+		assertThat(reader.traversal().V(marko.id()).values("name").toList(), containsInAnyOrder("marko", "mark"));
+
+		// So does a meta-property
+		marko.property("age").property("since", 2010);
+		document = document(marko.id());
+		assertThat(document, not(hasKey("age")));
+		assertThat(reader.traversal().V(marko.id()).properties("age").values("since").next(), is(2010));
+
+		// A single plain value is flattened again
+		marko.property(VertexProperty.Cardinality.single, "age", 30);
+		document = document(marko.id());
+		assertThat(document, hasKey("age"));
+		assertThat(nested(document), not(hasKey("age")));
+		assertThat(reader.vertices(marko.id()).next().value("age"), is(30));
+	}
+
+	@Test
+	public void shouldMoveEdgePropertiesBetweenForms() {
+		Vertex marko = graph.addVertex(T.label, "person");
+		Vertex vadas = graph.addVertex(T.label, "person");
+		Edge knows = marko.addEdge("knows", vadas, "weight", 0.5d);
+
+		knows.property("weight", 1L);
+		Map<String, Object> document = document(knows.id());
+		assertThat(document, not(hasKey("weight")));
+		assertThat(reader.edges(knows.id()).next().value("weight"), is(1L));
+
+		knows.property("weight", 0.75d);
+		document = document(knows.id());
+		assertThat(document, hasEntry("weight", 0.75d));
+		assertThat(nested(document), not(hasKey("weight")));
+	}
+
+	@Test
+	public void shouldRemoveFlattenedProperty() {
+		Vertex marko = graph.addVertex(T.label, "person", "a", "x", "b", "x");
+		Edge self = marko.addEdge("knows", marko, "weight", 0.5d);
+
+		// Both values are equal and have no id: only the removed key goes
+		marko.property("b").remove();
+		self.property("weight").remove();
+
+		assertThat(marko.keys(), contains("a"));
+		assertThat(document(marko.id()), not(hasKey("b")));
+		assertThat(document(marko.id()), hasEntry("a", "x"));
+		assertThat(document(self.id()), not(hasKey("weight")));
+		assertThat(reader.vertices(marko.id()).next().keys(), contains("a"));
+		assertThat(reader.edges(self.id()).next().keys(), is(Collections.emptySet()));
+	}
+
+	@Test
+	public void shouldFilterAndSortEitherForm() {
+		graph.addVertex(T.label, "person", "name", "marko", "age", 29);
+		graph.addVertex(T.label, "person", "name", "vadas", "age", 27);
+		graph.addVertex(T.label, "person", "name", "josh", "age", 32);
+		// Stored nested by a graph that doesn't flatten properties
+		open(builder().build()).addVertex(T.label, "person", "name", "peter", "age", 35);
+
+		GraphTraversalSource g = reader.traversal();
+		assertThat(g.V().has("age", P.gt(28)).values("name").toList(), containsInAnyOrder("marko", "josh", "peter"));
+		assertThat(g.V().has("name", "peter").count().next(), is(1L));
+		assertThat(g.V().hasLabel("person").order().by("age").values("name").toList(),
+				contains("vadas", "marko", "josh", "peter"));
+	}
+
+	@Test
+	public void shouldFlattenBulkLoadedElements() {
+		ArangoDBVertexData marko = new ArangoDBVertexData("person", "marko");
+		marko.getProperties().put("name", Collections.singletonList(new ArangoDBVertexPropertyData(null, "marko")));
+		try (ArangoDBBulkLoader loader = graph.bulkLoader(ArangoDBBulkLoader.OnDuplicate.ERROR)) {
+			loader.addVertex(marko);
+		}
+
+		String id = graph.getPrefixedCollectioName("person") + "/marko";
+		assertThat(document(id), hasEntry("name", "marko"));
+		assertThat(reader.vertices(id).next().value("name"), is("marko"));
+	}
+
+	@Test
+	public void shouldFlattenBufferedWrites() {
+		ArangoDBGraph writeBehind = open(with(builder().flattenProperties(true).build(),
+				ArangoDBGraph.PROPERTY_KEY_WRITE_BEHIND, true));
+		Vertex marko = writeBehind.addVertex(T.label, "person", "name", "marko");
+		writeBehind.flush();
+		assertThat(document(marko.id()), hasEntry("name", "marko"));
+
+		marko.property("name", "mark");
+		writeBehind.flush();
+		assertThat(document(marko.id()), hasEntry("name", "mark"));
+		assertThat(reader.vertices(marko.id()).next().value("name"), is("mark"));
+	}
+
+	@Test
+	public void shouldFlattenAsyncWrites() throws Exception {
+		ArangoDBVertexData marko = new ArangoDBVertexData("person", null);
+		marko.getProperties().put("name", Collections.singletonList(new ArangoDBVertexPropertyData(null, "marko")));
+		graph.getClient().async().insertVertex(marko).get();
+
+		String id = graph.getPrefixedCollectioName("person") + "/" + marko.getKey();
+		assertThat(document(id), hasEntry("name", "marko"));
+		assertThat(reader.vertices(id).next().value("name"), is("marko"));
+	}
+
+	/**
+	 * Read the stored document of an element.
+	 */
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> document(Object id) {
+		String[] parts = id.toString().split("/", 2);
+		return reader.getClient().getDB().collection(parts[0]).getDocument(parts[1], Map.class);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> nested(Map<String, Object> document) {
+		return (Map<String, Object>) document.get("properties");
+	}
+}
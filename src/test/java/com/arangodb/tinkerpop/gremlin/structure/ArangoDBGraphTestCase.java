@@ -0,0 +1,80 @@
+package com.arangodb.tinkerpop.gremlin.structure;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.junit.After;
+
+import com.arangodb.tinkerpop.gremlin.utils.ArangoDBConfigurationBuilder;
+
+/**
+ * Base class of the tests that open their own graphs, e.g. with the optional features of the
+ * provider enabled. Like the {@link com.arangodb.tinkerpop.gremlin.ArangoDBGraphProvider}, it
+ * assumes that there is a local ArangoDB running (i.e. http://127.0.0.1:8529).
+ */
+public abstract class ArangoDBGraphTestCase {
+
+	protected static final String GRAPH_NAME = "test_features";
+
+	private final List<ArangoDBGraph> graphs = new ArrayList<>();
+
+	/**
+	 * The configuration of a graph with person and software vertices, and knows and created edges.
+	 *
+	 * @return the configuration builder
+	 */
+
+	protected ArangoDBConfigurationBuilder builder() {
+		return new ArangoDBConfigurationBuilder()
+				.arangoHosts("127.0.0.1:8529")
+				.arangoUser("root")
+				.arangoPassword("test")
+				.graph(GRAPH_NAME)
+				.withVertexCollection("person")
+				.withVertexCollection("software")
+				.withEdgeCollection("knows")
+				.withEdgeCollection("created")
+				.configureEdge("knows", "person", "person")
+				.configureEdge("created", "person", "software");
+	}
+
+	/**
+	 * Set a graph property, e.g. {@link ArangoDBGraph#PROPERTY_KEY_WRITE_BEHIND}.
+	 */
+
+	protected static BaseConfiguration with(BaseConfiguration configuration, String key, Object value) {
+		configuration.setProperty(ArangoDBGraph.PROPERTY_KEY_PREFIX + "." + key, value);
+		return configuration;
+	}
+
+	/**
+	 * Open a graph that is dropped after the test. Graphs opened with the same configuration share
+	 * the database collections.
+	 */
+
+	protected ArangoDBGraph open(BaseConfiguration configuration) {
+		ArangoDBGraph graph = ArangoDBGraph.open(configuration);
+		graphs.add(graph);
+		return graph;
+	}
+
+	@After
+	public void tearDown() {
+		if (graphs.isEmpty()) {
+			return;
+		}
+		try {
+			graphs.get(0).getClient().clear(graphs.get(0));
+		} finally {
+			for (ArangoDBGraph graph : graphs) {
+				try {
+					graph.close();
+				} catch (RuntimeException e) {
+					// The graph may have failed to flush its writes, which the test already checked
+				}
+			}
+			graphs.clear();
+		}
+	}
+}
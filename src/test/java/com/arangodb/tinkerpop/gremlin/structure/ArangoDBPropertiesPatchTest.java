@@ -0,0 +1,65 @@
+package com.arangodb.tinkerpop.gremlin.structure;
+
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.junit.Test;
+
+/**
+ * Tests of the partial updates of the element properties. The update documents are checked
+ * without a server, the updates themselves with the local ArangoDB.
+ */
+public class ArangoDBPropertiesPatchTest extends ArangoDBGraphTestCase {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldReplaceTheNestedProperties() {
+		ArangoDBEdgeData edge = new ArangoDBEdgeData("knows", "1", "person/marko", "person/vadas");
+		edge.getProperties().put("weight", new ArangoDBPropertyData(0.5d));
+		edge.getProperties().put("meta", new ArangoDBPropertyData(new HashMap<>(Collections.singletonMap("a", 1))));
+
+		Map<String, Object> patch = edge.propertiesPatch(Arrays.asList("meta", "gone"), true);
+		assertThat(patch, hasEntry("weight", (Object) 0.5d));
+		// The changed map is nested, its flattened form and the removed property are deleted
+		assertThat(patch, hasEntry("meta", null));
+		assertThat(patch, hasEntry("gone", null));
+		assertThat((Map<String, Object>) patch.get("properties"), hasKey("meta"));
+		assertThat((Map<String, Object>) patch.get("properties"), not(hasKey("weight")));
+
+		patch = edge.propertiesPatch(Collections.singleton("weight"), false);
+		assertThat(patch, hasEntry("weight", null));
+		assertThat(((Map<String, Object>) patch.get("properties")).keySet(), is(edge.getProperties().keySet()));
+	}
+
+	@Test
+	public void shouldOverwriteMapsWithSmallerMaps() {
+		ArangoDBGraph graph = open(builder().build());
+		ArangoDBGraph reader = open(builder().build());
+		Map<String, Object> address = new HashMap<>();
+		address.put("city", "Cologne");
+		address.put("zip", "50667");
+		Vertex marko = graph.addVertex(T.label, "person", "address", address);
+		marko.addEdge("knows", marko, "meta", address);
+		Map<String, Object> moved = new HashMap<>();
+		moved.put("city", "York");
+
+		// The stored maps are replaced, not merged with the new ones
+		marko.property(VertexProperty.Cardinality.single, "address", moved);
+		marko.edges(Direction.OUT).next().property("meta", moved);
+
+		assertThat(reader.vertices(marko.id()).next().value("address"), is(moved));
+		assertThat(reader.traversal().V(marko.id()).outE().values("meta").next(), is(moved));
+	}
+}
@@ -0,0 +1,138 @@
+package com.arangodb.tinkerpop.gremlin.structure;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBGraphException;
+
+public class ArangoDBTransactionTest extends ArangoDBGraphTestCase {
+
+	private ArangoDBGraph plain;
+
+	private ArangoDBGraph graph;
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		plain = open(builder().build());
+		graph = open(with(builder().build(), ArangoDBGraph.PROPERTY_KEY_TRANSACTIONS, true));
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	@After
+	public void rollback() {
+		executor.shutdownNow();
+		if (graph.tx().isOpen()) {
+			graph.tx().rollback();
+		}
+	}
+
+	@Test
+	public void shouldSupportTransactions() {
+		assertThat(graph.features().graph().supportsTransactions(), is(true));
+		assertThat(plain.features().graph().supportsTransactions(), is(false));
+	}
+
+	@Test
+	public void shouldCommit() {
+		Vertex marko = graph.addVertex(T.label, "person", "name", "marko");
+		Vertex lop = graph.addVertex(T.label, "software", "name", "lop");
+		marko.addEdge("created", lop);
+		assertThat(graph.tx().isOpen(), is(true));
+		assertThat(plain.traversal().V().count().next(), is(0L));
+
+		graph.tx().commit();
+		assertThat(graph.tx().isOpen(), is(false));
+		assertThat(plain.traversal().V().count().next(), is(2L));
+		assertThat(plain.traversal().E().count().next(), is(1L));
+	}
+
+	@Test
+	public void shouldRollback() {
+		Vertex marko = graph.addVertex(T.label, "person", "name", "marko");
+		graph.tx().commit();
+
+		marko.property("age", 29);
+		graph.addVertex(T.label, "person", "name", "vadas");
+		assertThat(graph.traversal().V().count().next(), is(2L));
+		graph.tx().rollback();
+
+		assertThat(graph.traversal().V().count().next(), is(1L));
+		assertThat(graph.traversal().V().has("age").count().next(), is(0L));
+		assertThat(plain.traversal().V().count().next(), is(1L));
+	}
+
+	@Test
+	public void shouldNotOpenTransactionsForReads() {
+		Vertex marko = plain.addVertex(T.label, "person", "name", "marko");
+		assertThat(graph.traversal().V().count().next(), is(1L));
+		assertThat(graph.traversal().V(marko.id()).values("name").next(), is("marko"));
+		graph.variables();
+		assertThat(graph.tx().isOpen(), is(false));
+
+		graph.addVertex(T.label, "person", "name", "vadas");
+		assertThat(graph.tx().isOpen(), is(true));
+		assertThat(graph.traversal().V().count().next(), is(2L));
+	}
+
+	@Test
+	public void shouldIsolateThreads() throws Exception {
+		graph.addVertex(T.label, "person", "name", "marko");
+		assertThat(graph.traversal().V().count().next(), is(1L));
+
+		// The other thread has its own stream transaction, which does not see uncommitted writes
+		assertThat(inOtherThread(() -> graph.traversal().V().count().next()), is(0L));
+
+		graph.tx().commit();
+		assertThat(inOtherThread(() -> graph.traversal().V().count().next()), is(1L));
+	}
+
+	@Test
+	public void shouldAbortOtherThreadsTransactionsOnClose() throws Exception {
+		executor.submit(() -> graph.addVertex(T.label, "person", "name", "marko")).get();
+		graph.close();
+
+		assertThat(plain.traversal().V().count().next(), is(0L));
+	}
+
+	@Test
+	public void shouldRejectWriteBehindWithTransactions() {
+		BaseConfiguration configuration = with(builder().build(), ArangoDBGraph.PROPERTY_KEY_TRANSACTIONS, true);
+		with(configuration, ArangoDBGraph.PROPERTY_KEY_WRITE_BEHIND, true);
+
+		ArangoDBGraphException e = assertThrows(ArangoDBGraphException.class, () -> open(configuration));
+		assertThat(e.getMessage(), containsString("can not be enabled together"));
+	}
+
+	/**
+	 * Run the task in another thread, rolling back the transaction the task opened.
+	 */
+
+	private <R> R inOtherThread(Callable<R> task) throws Exception {
+		Future<R> result = executor.submit(() -> {
+			try {
+				return task.call();
+			} finally {
+				if (graph.tx().isOpen()) {
+					graph.tx().rollback();
+				}
+			}
+		});
+		return result.get();
+	}
+}
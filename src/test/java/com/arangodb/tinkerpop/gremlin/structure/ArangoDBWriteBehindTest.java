@@ -0,0 +1,78 @@
+package com.arangodb.tinkerpop.gremlin.structure;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.arangodb.tinkerpop.gremlin.client.ArangoDBGraphException;
+
+public class ArangoDBWriteBehindTest extends ArangoDBGraphTestCase {
+
+	private ArangoDBGraph graph;
+
+	/** A graph on the same collections that writes through, to see what was persisted. */
+	private ArangoDBGraph plain;
+
+	@Before
+	public void setUp() {
+		plain = open(builder().build());
+		graph = open(with(builder().build(), ArangoDBGraph.PROPERTY_KEY_WRITE_BEHIND, true));
+	}
+
+	@Test
+	public void shouldFlushBeforeCount() {
+		graph.addVertex(T.label, "person", "name", "marko");
+		graph.addVertex(T.label, "person", "name", "vadas");
+		assertThat(plain.traversal().V().count().next(), is(0L));
+
+		assertThat(graph.traversal().V().count().next(), is(2L));
+		assertThat(plain.traversal().V().count().next(), is(2L));
+	}
+
+	@Test
+	public void shouldFlushBeforeRead() {
+		Vertex marko = graph.addVertex(T.label, "person", "name", "marko");
+		Vertex lop = graph.addVertex(T.label, "software", "name", "lop");
+		marko.addEdge("created", lop, "weight", 0.4d);
+		marko.property("age", 29);
+
+		GraphTraversalSource g = graph.traversal();
+		assertThat(g.V().has("age", 29).values("name").next(), is("marko"));
+		assertThat(g.V(marko.id()).out("created").values("name").next(), is("lop"));
+		assertThat(plain.traversal().V(marko.id()).values("age").next(), is(29));
+		assertThat(plain.traversal().E().values("weight").next(), is(0.4d));
+	}
+
+	@Test
+	public void shouldCoalesceUpdatesOfBufferedInserts() {
+		Vertex marko = graph.addVertex(T.label, "person", "name", "marko");
+		marko.property("age", 29);
+		marko.property("age", 30);
+		graph.flush();
+
+		assertThat(plain.traversal().V(marko.id()).values("age").next(), is(30));
+	}
+
+	@Test
+	public void shouldThrowDeferredFailureOnNextFlush() {
+		graph.addVertex(T.id, "marko", T.label, "person");
+		graph.flush();
+
+		// The duplicate key is only rejected by the server when the buffer is flushed
+		graph.addVertex(T.id, "marko", T.label, "person");
+		ArangoDBGraphException e = assertThrows(ArangoDBGraphException.class, graph::flush);
+		assertThat(e.getMessage(), containsString("1 buffered writes were rejected"));
+
+		// The buffer is emptied, so the next flush succeeds
+		graph.addVertex(T.id, "vadas", T.label, "person");
+		graph.flush();
+		assertThat(plain.traversal().V().count().next(), is(2L));
+	}
+}
@@ -0,0 +1,150 @@
+package com.arangodb.tinkerpop.gremlin.structure;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.arangodb.shaded.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the decoding of a stored primitive array property value (e.g. an embedding of 768
+ * floats) before and after the value codecs. The stored documents have the class name tags that
+ * earlier versions wrote, which both decodings read. The {@link #boxedList()} baseline is the
+ * removed decoding: the driver reads the document into a map with a list of boxed numbers, which
+ * {@link #getCorretctPrimitive(Object, String)} (copied from the earlier {@code ArangoDBUtil},
+ * with only the branches these values reach) converts element by element. The {@link #streaming()}
+ * decoding reads the document as an {@link ArangoDBPropertyData}. Run it with the test classpath,
+ * e.g.
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) com.arangodb.tinkerpop.gremlin.structure.PropertyValueDecodingBenchmark
+ * </pre>
+ * Use {@code -prof gc} with the JMH main class to compare the allocation rates.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyValueDecodingBenchmark {
+
+	@Param({"float[]", "double[]"})
+	public String valueType;
+
+	@Param({"768"})
+	public int size;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private byte[] document;
+
+	@Setup
+	public void setUp() throws Exception {
+		Random random = new Random(42);
+		StringBuilder value = new StringBuilder("[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				value.append(',');
+			}
+			value.append(random.nextFloat() * 2 - 1);
+		}
+		value.append(']');
+		document = String.format("{\"value\":%s,\"valueType\":\"%s\"}", value, valueType).getBytes("UTF-8");
+	}
+
+	@Benchmark
+	public Object boxedList() throws Exception {
+		Map<?, ?> data = mapper.readValue(document, Map.class);
+		return getCorretctPrimitive(data.get("value"), (String) data.get("valueType"));
+	}
+
+	@Benchmark
+	public Object streaming() throws Exception {
+		return mapper.readValue(document, ArangoDBPropertyData.class).getValue();
+	}
+
+	/**
+	 * The removed decoding of property values.
+	 */
+
+	@SuppressWarnings("unchecked")
+	private static <V> Object getCorretctPrimitive(V value, String valueClass) {
+		switch(valueClass) {
+			case "java.lang.Float":
+			{
+				if (value instanceof Double) {
+					return ((Double) value).floatValue();
+				}
+				else if (value instanceof Long) {
+					return ((Long) value).floatValue();
+				}
+				else if (value instanceof Integer) {
+					return ((Integer) value).floatValue();
+				}
+				break;
+			}
+			case "java.lang.Double":
+			{
+				if (value instanceof Double) {
+					return value;
+				}
+				else if (value instanceof Long) {
+					return ((Long) value).doubleValue();
+				}
+				else if (value instanceof Integer) {
+					return ((Integer) value).doubleValue();
+				}
+				break;
+			}
+			case "double[]":
+				if(value instanceof List) {
+					List<Object> darray = (List<Object>)value;
+					double[] dr = new double[darray.size()];
+					IntStream.range(0, darray.size())
+							.forEach(i -> dr[i] = (double) getCorretctPrimitive(darray.get(i), "java.lang.Double"));
+					return dr;
+				} else {
+					return value;
+				}
+			case "float[]":
+				if(value instanceof List) {
+					List<Object> farray = (List<Object>)value;
+					float[] fr = new float[farray.size()];
+					IntStream.range(0, farray.size())
+							.forEach(i -> fr[i] = (float) getCorretctPrimitive(farray.get(i), "java.lang.Float"));
+					return fr;
+				} else {
+					return value;
+				}
+			default:
+				break;
+		}
+		return value;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(PropertyValueDecodingBenchmark.class.getSimpleName())
+				.build())
+				.run();
+	}
+}
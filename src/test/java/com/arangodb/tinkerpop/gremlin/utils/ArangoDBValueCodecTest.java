@@ -0,0 +1,163 @@
+package com.arangodb.tinkerpop.gremlin.utils;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.arangodb.shaded.fasterxml.jackson.databind.ObjectMapper;
+import com.arangodb.shaded.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.arangodb.tinkerpop.gremlin.structure.ArangoDBPropertyData;
+
+/**
+ * Tests of the value codecs that don't need a server: the values are stored and read back as
+ * JSON, the way the driver reads them.
+ */
+public class ArangoDBValueCodecTest {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	public void shouldReadNativeValuesWithoutTag() throws Exception {
+		assertThat(ArangoDBValueCodec.forValue("marko").tag(), nullValue());
+		assertThat(ArangoDBValueCodec.forValue(true).tag(), nullValue());
+		assertThat(ArangoDBValueCodec.forValue(null).tag(), nullValue());
+		assertThat(ArangoDBValueCodec.forTag(null), sameInstance(ArangoDBValueCodec.NATIVE));
+		assertThat(roundTrip("marko"), is("marko"));
+		assertThat(roundTrip(false), is(false));
+	}
+
+	@Test
+	public void shouldRoundTripShortTags() throws Exception {
+		assertRoundTrip(29, "i");
+		assertRoundTrip(5L, "l");
+		assertRoundTrip(Long.MAX_VALUE, "l");
+		assertRoundTrip(1.5f, "f");
+		assertRoundTrip(2.0d, "d");
+		assertRoundTrip(0.25d, "d");
+		Map<String, Object> map = new HashMap<>();
+		map.put("name", "marko");
+		map.put("age", 29);
+		assertRoundTrip(map, "m");
+		assertRoundTrip(new ArrayList<>(Arrays.asList("java", "aql")), "a");
+		assertRoundTrip(new ArrayList<>(Arrays.asList(1, 2, 3)), "a");
+		assertRoundTrip(new ArrayList<>(Arrays.asList(1, 2.5d, Long.MAX_VALUE, 3)), "a");
+		assertRoundTrip(new boolean[] {true, false}, "[z");
+		assertRoundTrip(new int[] {1, -2, 3}, "[i");
+		assertRoundTrip(new long[] {1L, Long.MIN_VALUE}, "[l");
+		assertRoundTrip(new float[] {1.5f, 2f}, "[f");
+		assertRoundTrip(new double[] {0.5d, 2d}, "[d");
+		assertRoundTrip(new String[] {"a", "b"}, "[s");
+		assertRoundTrip(new int[0], "[i");
+	}
+
+	@Test
+	public void shouldDecodeLegacyClassNameTags() throws Exception {
+		assertLegacyTag("java.lang.Integer", "i", "29", 29);
+		assertLegacyTag("java.lang.Long", "l", "5", 5L);
+		assertLegacyTag("java.lang.Float", "f", "1.5", 1.5f);
+		assertLegacyTag("java.lang.Double", "d", "2", 2.0d);
+		assertLegacyTag("java.util.ArrayList", "a", "[1, \"a\"]", Arrays.asList(1, "a"));
+		assertLegacyTag("boolean[]", "[z", "[true, false]", new boolean[] {true, false});
+		assertLegacyTag("int[]", "[i", "[1, 2]", new int[] {1, 2});
+		assertLegacyTag("long[]", "[l", "[1, 2]", new long[] {1L, 2L});
+		assertLegacyTag("float[]", "[f", "[1.5, 2]", new float[] {1.5f, 2f});
+		assertLegacyTag("double[]", "[d", "[0.5, 2]", new double[] {0.5d, 2d});
+		assertLegacyTag("java.lang.String[]", "[s", "[\"a\", \"b\"]", new String[] {"a", "b"});
+		assertThat(ArangoDBValueCodec.forTag("java.lang.String"), sameInstance(ArangoDBValueCodec.NATIVE));
+		assertThat(ArangoDBValueCodec.forTag("java.lang.Boolean"), sameInstance(ArangoDBValueCodec.NATIVE));
+
+		Map<String, Object> map = new HashMap<>();
+		map.put("name", "marko");
+		assertLegacyTag("java.util.HashMap", "m", "{\"name\": \"marko\"}", map);
+	}
+
+	@Test
+	public void shouldRemoveSystemAttributesOfMaps() throws Exception {
+		Map<String, Object> map = new HashMap<>();
+		map.put("name", "marko");
+		assertThat(read("{\"name\": \"marko\", \"_key\": \"1\"}", "m"), is(map));
+	}
+
+	@Test
+	public void shouldConvertOtherTypesByClassName() throws Exception {
+		UUID id = UUID.randomUUID();
+		ArangoDBValueCodec codec = ArangoDBValueCodec.forValue(id);
+		assertThat(codec.tag(), is("java.util.UUID"));
+		assertThat(ArangoDBValueCodec.forTag("java.util.UUID"), sameInstance(codec));
+		assertThat(roundTrip(id), is(id));
+	}
+
+	@Test
+	public void shouldReadUnknownClassNamesAsIs() throws Exception {
+		assertThat(read("\"value\"", "org.example.Missing"), is("value"));
+	}
+
+	@Test
+	public void shouldReadNumberArraysWithoutBoxing() throws Exception {
+		assertThat(mapper.readValue("{\"value\": [1, 2.5], \"valueType\": \"[d\"}", Holder.class).value,
+				instanceOf(ArangoDBNumberArray.class));
+	}
+
+	@Test
+	public void shouldDecodeValuesOnce() throws Exception {
+		ArangoDBPropertyData property = mapper.readValue("{\"value\": [0.5, 2], \"valueType\": \"[d\"}", ArangoDBPropertyData.class);
+		assertThat(property.getValue(), is(new double[] {0.5d, 2d}));
+		assertThat(property.getValue(), sameInstance(property.getValue()));
+		assertThat(mapper.writeValueAsString(property), is("{\"value\":[0.5,2.0],\"valueType\":\"[d\"}"));
+
+		property = mapper.readValue("{\"value\": {\"name\": \"marko\"}, \"valueType\": \"m\"}", ArangoDBPropertyData.class);
+		assertThat(property.getValue(), is(Collections.singletonMap("name", "marko")));
+		assertThat(property.getValue(), sameInstance(property.getValue()));
+	}
+
+	private void assertRoundTrip(Object value, String tag) throws Exception {
+		ArangoDBValueCodec codec = ArangoDBValueCodec.forValue(value);
+		assertThat(codec.tag(), is(tag));
+		assertThat(ArangoDBValueCodec.forTag(tag), sameInstance(codec));
+		assertThat(roundTrip(value), is(value));
+		assertThat(roundTrip(value), instanceOf(value.getClass()));
+	}
+
+	private void assertLegacyTag(String className, String tag, String json, Object expected) throws Exception {
+		assertThat(ArangoDBValueCodec.forTag(className), sameInstance(ArangoDBValueCodec.forTag(tag)));
+		assertThat(read(json, className), is(expected));
+	}
+
+	/**
+	 * Write the value as a property document and read it back.
+	 */
+
+	private Object roundTrip(Object value) throws Exception {
+		return mapper.readValue(mapper.writeValueAsString(new ArangoDBPropertyData(value)), ArangoDBPropertyData.class).getValue();
+	}
+
+	/**
+	 * Read a property document with the given JSON value and tag.
+	 */
+
+	private Object read(String json, String tag) throws Exception {
+		String document = String.format("{\"value\": %s, \"valueType\": %s}", json, mapper.writeValueAsString(tag));
+		return mapper.readValue(document, ArangoDBPropertyData.class).getValue();
+	}
+
+	/** A document with a value read by the {@link ArangoDBValueDeserializer}. */
+
+	private static class Holder {
+
+		@JsonDeserialize(using = ArangoDBValueDeserializer.class)
+		public Object value;
+
+		public String valueType;
+	}
+}